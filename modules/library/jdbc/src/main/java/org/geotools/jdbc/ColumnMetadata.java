@@ -31,6 +31,10 @@ public class ColumnMetadata {
     boolean nullable;
     /** The native srid */
     Integer srid;
+    /** The geometry dimension, if known */
+    Integer dimension;
+    /** Is the column value generated by the database, null if unknown */
+    Boolean autoIncrement;
 
     public Class getBinding() {
         return binding;
@@ -79,4 +83,12 @@ public class ColumnMetadata {
     public void setSrid(Integer srid) {
         this.srid = srid;
     }
+
+    public Integer getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(Integer dimension) {
+        this.dimension = dimension;
+    }
 }
@@ -16,12 +16,14 @@
  */
 package org.geotools.jdbc;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
@@ -41,8 +43,61 @@ public class HeuristicPrimaryKeyFinder extends PrimaryKeyFinder {
             JDBCDataStore store, String databaseSchema, String tableName, Connection cx)
             throws SQLException {
         DatabaseMetaData metaData = cx.getMetaData();
+
+        // the primary key columns might be known already, if the schema was introspected in bulk
+        SchemaSnapshot snapshot = null;
+        try {
+            snapshot = store.getSchemaSnapshot();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Schema snapshot not available, proceeding without", e);
+        }
+        if (snapshot != null) {
+            // only keys found in the catalog are recorded, the schema fingerprint covers them
+            PrimaryKey pkey = snapshot.getPrimaryKey(tableName);
+            if (pkey == null) {
+                pkey = lookupPrimaryKey(store, snapshot, metaData, databaseSchema, tableName, cx);
+                if (pkey != null) {
+                    snapshot.setPrimaryKey(tableName, pkey);
+                }
+            }
+            return pkey;
+        }
+        return lookupPrimaryKey(store, null, metaData, databaseSchema, tableName, cx);
+    }
+
+    /** Looks up the primary key or unique index of the table in the database catalog */
+    PrimaryKey lookupPrimaryKey(
+            JDBCDataStore store,
+            SchemaSnapshot snapshot,
+            DatabaseMetaData metaData,
+            String databaseSchema,
+            String tableName,
+            Connection cx)
+            throws SQLException {
+        List<String> keyColumns =
+                snapshot != null ? snapshot.getPrimaryKeyColumnNames(tableName) : null;
+        if (keyColumns != null && !keyColumns.isEmpty()) {
+            List<PrimaryKeyColumn> cols = new ArrayList<>();
+            for (String columnName : keyColumns) {
+                cols.add(
+                        createPrimaryKeyColumn(
+                                store,
+                                snapshot,
+                                metaData,
+                                databaseSchema,
+                                tableName,
+                                columnName,
+                                cx));
+            }
+            return new PrimaryKey(tableName, cols);
+        }
+
         LOGGER.log(Level.FINE, "Getting information about primary keys of {0}", tableName);
-        ResultSet primaryKey = metaData.getPrimaryKeys(null, databaseSchema, tableName);
+        // skip the lookup if the table is known not to have one
+        ResultSet primaryKey =
+                keyColumns != null
+                        ? null
+                        : metaData.getPrimaryKeys(null, databaseSchema, tableName);
 
         try {
             /*
@@ -53,7 +108,10 @@ public class HeuristicPrimaryKeyFinder extends PrimaryKeyFinder {
              * <LI><B>PK_NAME</B> String => primary key name (may be <code>null</code>)
              */
             PrimaryKey pkey =
-                    createPrimaryKey(store, primaryKey, metaData, databaseSchema, tableName, cx);
+                    primaryKey != null
+                            ? createPrimaryKey(
+                                    store, primaryKey, metaData, databaseSchema, tableName, cx)
+                            : null;
             if (pkey == null) {
                 // No known database supports unique indexes on views and this check
                 // causes problems with Oracle, so we skip it
@@ -108,14 +166,48 @@ public class HeuristicPrimaryKeyFinder extends PrimaryKeyFinder {
                 continue;
             }
 
-            // look up the type ( should only be one row )
+            cols.add(
+                    createPrimaryKeyColumn(
+                            store, null, metaData, databaseSchema, tableName, columnName, cx));
+        }
+
+        if (!cols.isEmpty()) {
+            return new PrimaryKey(tableName, cols);
+        }
+        return null;
+    }
+
+    /** Creates a primary key column, figuring out its type and how its values are generated */
+    PrimaryKeyColumn createPrimaryKeyColumn(
+            JDBCDataStore store,
+            SchemaSnapshot snapshot,
+            DatabaseMetaData metaData,
+            String databaseSchema,
+            String tableName,
+            String columnName,
+            Connection cx)
+            throws SQLException {
+        // look up the type, in the snapshot if possible, otherwise in the metadata
+        ColumnMetadata metadata =
+                snapshot != null ? snapshot.getColumn(tableName, columnName) : null;
+        Class columnType;
+        if (metadata != null) {
+            columnType = metadata.binding;
+            if (columnType == null) {
+                columnType = store.getMapping(metadata.sqlType);
+                if (columnType == null) {
+                    LOGGER.warning("No class for sql type " + metadata.sqlType);
+                    columnType = Object.class;
+                }
+            }
+        } else {
+            // should only be one row
             ResultSet columns =
                     metaData.getColumns(
                             null,
                             store.escapeNamePattern(metaData, databaseSchema),
                             store.escapeNamePattern(metaData, tableName),
                             store.escapeNamePattern(metaData, columnName));
-            Class columnType;
             try {
                 columns.next();
 
@@ -131,71 +223,79 @@ public class HeuristicPrimaryKeyFinder extends PrimaryKeyFinder {
             } finally {
                 store.closeSafe(columns);
             }
+        }
 
-            // determine which type of primary key we have
-            PrimaryKeyColumn col = null;
+        // determine which type of primary key we have
+        PrimaryKeyColumn col = null;
 
-            // 1. Auto Incrementing?
-            Statement st = cx.createStatement();
+        // 1. Auto Incrementing?
+        if (metadata != null && metadata.autoIncrement != null) {
+            if (metadata.autoIncrement) {
+                col = new AutoGeneratedPrimaryKeyColumn(columnName, columnType);
+            }
+        } else {
+            col = getAutoGeneratedColumn(store, tableName, columnName, columnType, cx);
+        }
 
+        // 2. Has a sequence?
+        if (col == null) {
             try {
-                // not actually going to get data
-                st.setFetchSize(1);
-
-                StringBuffer sql = new StringBuffer();
-                sql.append("SELECT ");
-                store.getSQLDialect().encodeColumnName(null, columnName, sql);
-                sql.append(" FROM ");
-                store.encodeTableName(tableName, sql, null);
+                String sequenceName =
+                        store.getSQLDialect()
+                                .getSequenceForColumn(databaseSchema, tableName, columnName, cx);
+                if (sequenceName != null) {
+                    col = new SequencedPrimaryKeyColumn(columnName, columnType, sequenceName);
+                }
+            } catch (Exception e) {
+                // log the exception , and continue on
+                LOGGER.log(
+                        Level.WARNING,
+                        "Error occured determining sequence for " + columnName + ", " + tableName,
+                        e);
+            }
+        }
 
-                sql.append(" WHERE 0=1");
+        if (col == null) {
+            col = new NonIncrementingPrimaryKeyColumn(columnName, columnType);
+        }
+        return col;
+    }
 
-                LOGGER.log(Level.FINE, "Grabbing table pk metadata: {0}", sql);
+    /** Returns an auto generated column if the result set metadata says so, null otherwise */
+    PrimaryKeyColumn getAutoGeneratedColumn(
+            JDBCDataStore store,
+            String tableName,
+            String columnName,
+            Class columnType,
+            Connection cx)
+            throws SQLException {
+        Statement st = cx.createStatement();
 
-                ResultSet rs = st.executeQuery(sql.toString());
+        try {
+            // not actually going to get data
+            st.setFetchSize(1);
 
-                try {
-                    if (rs.getMetaData().isAutoIncrement(1)) {
-                        col = new AutoGeneratedPrimaryKeyColumn(columnName, columnType);
-                    }
-                } finally {
-                    store.closeSafe(rs);
-                }
-            } finally {
-                store.closeSafe(st);
-            }
+            StringBuffer sql = new StringBuffer();
+            sql.append("SELECT ");
+            store.getSQLDialect().encodeColumnName(null, columnName, sql);
+            sql.append(" FROM ");
+            store.encodeTableName(tableName, sql, null);
 
-            // 2. Has a sequence?
-            if (col == null) {
-                try {
-                    String sequenceName =
-                            store.getSQLDialect()
-                                    .getSequenceForColumn(
-                                            databaseSchema, tableName, columnName, cx);
-                    if (sequenceName != null) {
-                        col = new SequencedPrimaryKeyColumn(columnName, columnType, sequenceName);
-                    }
-                } catch (Exception e) {
-                    // log the exception , and continue on
-                    LOGGER.log(
-                            Level.WARNING,
-                            "Error occured determining sequence for "
-                                    + columnName
-                                    + ", "
-                                    + tableName,
-                            e);
-                }
-            }
+            sql.append(" WHERE 0=1");
 
-            if (col == null) {
-                col = new NonIncrementingPrimaryKeyColumn(columnName, columnType);
-            }
+            LOGGER.log(Level.FINE, "Grabbing table pk metadata: {0}", sql);
 
-            cols.add(col);
-        }
+            ResultSet rs = st.executeQuery(sql.toString());
 
-        if (!cols.isEmpty()) {
-            return new PrimaryKey(tableName, cols);
+            try {
+                if (rs.getMetaData().isAutoIncrement(1)) {
+                    return new AutoGeneratedPrimaryKeyColumn(columnName, columnType);
+                }
+            } finally {
+                store.closeSafe(rs);
+            }
+        } finally {
+            store.closeSafe(st);
         }
         return null;
     }
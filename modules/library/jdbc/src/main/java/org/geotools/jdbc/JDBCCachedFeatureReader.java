@@ -0,0 +1,112 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * Reads the features of a query out of the {@link JDBCResultCache}, without touching the database.
+ * Each feature is built anew, so callers are free to modify it.
+ */
+class JDBCCachedFeatureReader implements FeatureReader<SimpleFeatureType, SimpleFeature> {
+
+    final SimpleFeatureType featureType;
+
+    final JDBCResultCache.Result result;
+
+    final SimpleFeatureBuilder builder;
+
+    final WKBReader wkbReader;
+
+    /** The descriptor of each attribute */
+    final AttributeDescriptor[] descriptors;
+
+    int index = 0;
+
+    boolean closed;
+
+    public JDBCCachedFeatureReader(
+            JDBCResultCache.Result result,
+            JDBCFeatureSource featureSource,
+            SimpleFeatureType featureType,
+            Query query) {
+        JDBCDataStore dataStore = featureSource.getDataStore();
+        this.result = result;
+        this.featureType = featureType;
+        this.builder =
+                new SimpleFeatureBuilder(
+                        featureType,
+                        JDBCFeatureReader.getFeatureFactory(dataStore, query.getHints()));
+        this.wkbReader =
+                new WKBReader(JDBCFeatureReader.getGeometryFactory(dataStore, query.getHints()));
+        this.descriptors =
+                featureType
+                        .getAttributeDescriptors()
+                        .toArray(new AttributeDescriptor[featureType.getAttributeCount()]);
+    }
+
+    @Override
+    public SimpleFeatureType getFeatureType() {
+        return featureType;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        ensureOpen();
+        return index < result.rows.length;
+    }
+
+    @Override
+    public SimpleFeature next() throws IOException, NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more features in the cached result");
+        }
+        Object[] row = result.rows[index];
+        for (int i = 0; i < row.length; i++) {
+            Object value = JDBCResultCache.toValue(row[i], wkbReader);
+            if (value instanceof Geometry && descriptors[i] instanceof GeometryDescriptor) {
+                ((Geometry) value)
+                        .setUserData(
+                                ((GeometryDescriptor) descriptors[i])
+                                        .getCoordinateReferenceSystem());
+            }
+            builder.add(value);
+        }
+        return builder.buildFeature(result.fids[index++]);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Reader is closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import org.geotools.data.DelegatingFeatureReader;
+import org.geotools.data.FeatureReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Wraps a reader hitting the database, collecting the features it returns into the {@link
+ * JDBCResultCache}. The result is stored only once the reader has been fully consumed, a reader
+ * closed early leaves the cache untouched.
+ */
+class JDBCCachingFeatureReader
+        implements DelegatingFeatureReader<SimpleFeatureType, SimpleFeature> {
+
+    final FeatureReader<SimpleFeatureType, SimpleFeature> delegate;
+
+    final JDBCResultCache.Collector collector;
+
+    boolean collecting = true;
+
+    public JDBCCachingFeatureReader(
+            FeatureReader<SimpleFeatureType, SimpleFeature> delegate,
+            JDBCResultCache.Collector collector) {
+        this.delegate = delegate;
+        this.collector = collector;
+    }
+
+    @Override
+    public FeatureReader<SimpleFeatureType, SimpleFeature> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public SimpleFeatureType getFeatureType() {
+        return delegate.getFeatureType();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        boolean hasNext = delegate.hasNext();
+        if (!hasNext && collecting) {
+            collector.complete();
+            collecting = false;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public SimpleFeature next() throws IOException, NoSuchElementException {
+        SimpleFeature feature = delegate.next();
+        if (collecting) {
+            // collect before the caller gets a chance to modify the feature
+            collecting = collector.add(feature.getID(), feature.getAttributes());
+        }
+        return feature;
+    }
+
+    @Override
+    public void close() throws IOException {
+        collecting = false;
+        delegate.close();
+    }
+}
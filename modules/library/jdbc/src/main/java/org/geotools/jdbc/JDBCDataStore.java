@@ -20,6 +20,7 @@ import static org.geotools.jdbc.VirtualTable.WHERE_CLAUSE_PLACE_HOLDER;
 import static org.geotools.jdbc.VirtualTable.WHERE_CLAUSE_PLACE_HOLDER_LENGTH;
 import static org.geotools.jdbc.VirtualTable.setKeepWhereClausePlaceHolderHint;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Method;
@@ -70,9 +71,15 @@ import org.geotools.data.store.ContentState;
 import org.geotools.feature.NameImpl;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.visitor.CountVisitor;
+import org.geotools.feature.visitor.EqualAreaListVisitor;
+import org.geotools.feature.visitor.FeatureCalc;
 import org.geotools.feature.visitor.GroupByVisitor;
 import org.geotools.feature.visitor.LimitingVisitor;
+import org.geotools.feature.visitor.MedianVisitor;
+import org.geotools.feature.visitor.QuantileListVisitor;
+import org.geotools.feature.visitor.StandardDeviationVisitor;
 import org.geotools.filter.FilterCapabilities;
+import org.geotools.filter.visitor.ExpressionTypeVisitor;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.jdbc.JoinInfo.JoinPart;
 import org.geotools.referencing.CRS;
@@ -183,6 +190,16 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
     /** Used to specify the column alias to use when encoding a column in a select */
     public static final String JDBC_COLUMN_ALIAS = "org.geotools.jdbc.columnAlias";
 
+    /**
+     * Transaction property (see {@link Transaction#putProperty(Object, Object)}) asking for the
+     * features added under the transaction to be bulk loaded, when the dialect supports it (see
+     * {@link SQLDialect#isBulkInsertSupported()}). The value is a {@link Boolean}.
+     */
+    public static final String JDBC_BULK_INSERT = "org.geotools.jdbc.bulkInsert";
+
+    /** Number of features buffered by the insert writers before each bulk load */
+    static final int BULK_INSERT_SIZE = 10000;
+
     /** name of table to use to store geometries when {@link #associations} is set. */
     protected static final String GEOMETRY_TABLE = "geometry";
 
@@ -267,6 +284,33 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
      */
     protected int batchInsertSize = 1;
 
+    /**
+     * The number of row buffers read ahead by a background thread while the features are decoded, 0
+     * (the default) to read and decode in the calling thread.
+     */
+    protected int prefetchDepth = 0;
+
+    /**
+     * Query hint providing the {@link java.util.concurrent.Executor} running the background reads
+     * when prefetching is enabled, see {@link #setPrefetchDepth(int)}. Each task runs as long as
+     * its reader stays open, so the executor should not queue them. When missing, a shared pool of
+     * daemon threads is used.
+     */
+    public static final Hints.Key PREFETCH_EXECUTOR =
+            new Hints.Key(java.util.concurrent.Executor.class);
+
+    /** The cache of query results, null (the default) if caching is disabled */
+    protected JDBCResultCache resultCache;
+
+    /** Whether the schema structure is introspected in bulk, instead of table by table */
+    protected boolean bulkIntrospection = false;
+
+    /** The file the schema snapshot is saved into, and reloaded from, if any */
+    protected File schemaSnapshotFile;
+
+    /** The schema snapshot, when using bulk introspection, lazily built */
+    volatile SchemaSnapshot schemaSnapshot;
+
     /** flag controlling whether primary key columns of a table are exposed via the feature type. */
     protected boolean exposePrimaryKeyColumns = false;
 
@@ -421,6 +465,188 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         this.batchInsertSize = batchInsertSize;
     }
 
+    /**
+     * The number of row buffers read ahead by a background thread while the features are decoded.
+     * When greater than zero, plain reads fetch the rows from the database in a separate thread,
+     * overlapping the network waits with the geometry decoding and feature building.
+     *
+     * @return the prefetch depth, or 0 if prefetching is disabled
+     */
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Sets the number of row buffers read ahead by a background thread, each holding up to {@link
+     * JDBCPrefetchFeatureReader#BUFFER_ROWS} rows. Set to 0 to disable prefetching.
+     *
+     * @param prefetchDepth
+     */
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    /**
+     * The cache of query results, shared by all the feature sources of this store, or null if
+     * result caching is disabled.
+     */
+    public JDBCResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Sets the maximum amount of memory, in bytes, used to cache query results, replacing the
+     * current cache. Set to 0 to disable result caching.
+     *
+     * <p>Only the reads performed outside of a transaction are cached, the cached results of a
+     * feature type are dropped whenever it's modified through this store. Changes made to the
+     * database by other means are not detected, so the cache should be used only when this store is
+     * the only writer, or when stale results are acceptable.
+     *
+     * @param maxBytes
+     */
+    public void setResultCacheSize(long maxBytes) {
+        this.resultCache = maxBytes > 0 ? new JDBCResultCache(maxBytes) : null;
+    }
+
+    /**
+     * Drops the cached results of the specified feature type, after it has been modified. When the
+     * transaction is not auto commit the results are dropped again once it's committed, as they
+     * might have been read in the meantime by other transactions, not seeing the changes yet.
+     */
+    void invalidateCachedResults(String typeName, Transaction tx) {
+        JDBCResultCache cache = this.resultCache;
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(typeName);
+        if (tx != null && tx != Transaction.AUTO_COMMIT) {
+            JDBCTransactionState tstate = (JDBCTransactionState) tx.getState(this);
+            if (tstate != null) {
+                tstate.modified(typeName);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the structure of the tables (columns, primary keys, geometry metadata) is
+     * introspected in bulk, with a few catalog queries covering the whole schema, instead of
+     * running a set of queries each time a table is accessed for the first time.
+     */
+    public boolean isBulkIntrospection() {
+        return bulkIntrospection;
+    }
+
+    /**
+     * Enables or disables bulk introspection of the tables structure. Recommended for schemas with
+     * many tables, when most of them are going to be accessed.
+     *
+     * @param bulkIntrospection
+     */
+    public void setBulkIntrospection(boolean bulkIntrospection) {
+        this.bulkIntrospection = bulkIntrospection;
+        this.schemaSnapshot = null;
+    }
+
+    /** The file the schema snapshot is saved into, or null if the snapshot is not saved */
+    public File getSchemaSnapshotFile() {
+        return schemaSnapshotFile;
+    }
+
+    /**
+     * Sets the file the schema snapshot is saved into when using bulk introspection, and reloaded
+     * from when the store is created again, provided the schema fingerprint did not change
+     * meanwhile (see {@link SQLDialect#getSchemaFingerprint(String, Connection)}).
+     *
+     * @param schemaSnapshotFile
+     */
+    public void setSchemaSnapshotFile(File schemaSnapshotFile) {
+        this.schemaSnapshotFile = schemaSnapshotFile;
+        this.schemaSnapshot = null;
+    }
+
+    /**
+     * Returns the snapshot of the schema structure, building or loading it if necessary, or null if
+     * bulk introspection is disabled
+     */
+    public SchemaSnapshot getSchemaSnapshot() throws IOException {
+        if (!bulkIntrospection) {
+            return null;
+        }
+        SchemaSnapshot snapshot = schemaSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = schemaSnapshot;
+                if (snapshot == null) {
+                    snapshot = loadSchemaSnapshot();
+                    schemaSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /** Drops the schema snapshot, it will be built again on the next access */
+    public void resetSchemaSnapshot() {
+        this.schemaSnapshot = null;
+    }
+
+    private SchemaSnapshot loadSchemaSnapshot() throws IOException {
+        Connection cx = createConnection();
+        try {
+            String fingerprint = dialect.getSchemaFingerprint(databaseSchema, cx);
+            SchemaSnapshot saved = null;
+            if (schemaSnapshotFile != null && schemaSnapshotFile.exists()) {
+                saved = SchemaSnapshot.read(schemaSnapshotFile, databaseSchema);
+                if (saved != null && fingerprint != null && fingerprint.equals(saved.fingerprint)) {
+                    LOGGER.fine("Reusing schema snapshot " + schemaSnapshotFile);
+                    return saved;
+                }
+            }
+
+            SchemaSnapshot snapshot = SchemaSnapshot.build(this, fingerprint, cx);
+            if (saved != null && saved.fingerprint.equals(snapshot.fingerprint)) {
+                // the fingerprint was computed while building, the primary keys and srids
+                // resolved by the saved one are still valid
+                LOGGER.fine("Reusing schema snapshot " + schemaSnapshotFile);
+                return saved;
+            }
+            saveSchemaSnapshot(snapshot);
+            return snapshot;
+        } catch (SQLException e) {
+            String msg = "Error occurred introspecting the database schema";
+            throw (IOException) new IOException(msg).initCause(e);
+        } finally {
+            closeSafe(cx);
+        }
+    }
+
+    private void saveSchemaSnapshot(SchemaSnapshot snapshot) {
+        if (schemaSnapshotFile != null) {
+            try {
+                snapshot.write(schemaSnapshotFile);
+            } catch (IOException e) {
+                LOGGER.log(
+                        Level.WARNING, "Could not save schema snapshot " + schemaSnapshotFile, e);
+            }
+        }
+    }
+
+    /** Returns the key of the query results in the cache */
+    JDBCResultCache.Key getResultCacheKey(SimpleFeatureType featureType, Query query)
+            throws IOException, SQLException {
+        List<Object> parameters = Collections.emptyList();
+        String sql;
+        if (dialect instanceof PreparedStatementSQLDialect) {
+            PreparedSelect select = buildSelectSQLPS(featureType, query);
+            sql = select.sql;
+            parameters = select.getParameters();
+        } else {
+            sql = selectSQL(featureType, query);
+        }
+        return new JDBCResultCache.Key(featureType.getTypeName(), sql, parameters);
+    }
+
     /**
      * Determines if the datastore creates feature types which include those columns / attributes
      * which compose the primary key.
@@ -770,6 +996,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
             }
 
             dialect.postCreateTable(databaseSchema, featureType, cx);
+            forgetTable(featureType.getTypeName());
         } catch (Exception e) {
             String msg = "Error occurred creating table";
             throw (IOException) new IOException(msg).initCause(e);
@@ -778,6 +1005,14 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         }
     }
 
+    /** Drops the information about a table from the schema snapshot, if any */
+    private void forgetTable(String tableName) {
+        SchemaSnapshot snapshot = schemaSnapshot;
+        if (snapshot != null) {
+            snapshot.remove(tableName);
+        }
+    }
+
     public void removeSchema(String typeName) throws IOException {
         removeSchema(name(typeName));
     }
@@ -815,6 +1050,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
 
             dialect.postDropTable(databaseSchema, featureType, cx);
             removeEntry(typeName);
+            forgetTable(typeName.getLocalPart());
         } catch (Exception e) {
             String msg = "Error occurred dropping table";
             throw (IOException) new IOException(msg).initCause(e);
@@ -1432,6 +1668,10 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
     protected Object getAggregateValue(
             FeatureVisitor visitor, SimpleFeatureType featureType, Query query, Connection cx)
             throws IOException {
+        // classifications are not plain aggregates, they need window functions
+        if (visitor instanceof QuantileListVisitor || visitor instanceof EqualAreaListVisitor) {
+            return getClassificationValue((FeatureCalc) visitor, featureType, query, cx);
+        }
         // check if group by is supported by the underlying store
         if (isGroupByVisitor(visitor)
                 && (!dialect.isGroupBySupported()
@@ -1452,6 +1692,22 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                 return null;
             }
         }
+        // the median of an even number of non numeric values is the pair of middle ones,
+        // which cannot be computed by the database
+        if (getAggregateVisitor(visitor) instanceof MedianVisitor
+                && !isNumeric(aggregateExpression, featureType)) {
+            return null;
+        }
+        // the standard deviation visitor also needs the count and the mean
+        if (visitor instanceof StandardDeviationVisitor) {
+            return getStandardDeviationValue(
+                    (StandardDeviationVisitor) visitor,
+                    function,
+                    aggregateExpression,
+                    featureType,
+                    query,
+                    cx);
+        }
 
         // if the visitor is limiting the result to a given start - max, we will
         // try to apply limits to the aggregate query
@@ -1523,6 +1779,237 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         }
     }
 
+    /**
+     * Computes the count, mean and standard deviation of the visitor expression with a single
+     * query, allowing the visitor to be used (and merged) as if it had visited the values.
+     */
+    private Object getStandardDeviationValue(
+            StandardDeviationVisitor visitor,
+            String function,
+            Expression expression,
+            SimpleFeatureType featureType,
+            Query query,
+            Connection cx)
+            throws IOException {
+        if (expression == null || !isPlainAggregateQuery(query)) {
+            return null;
+        }
+        try {
+            List<FilterToSQL> toSQL = new ArrayList<>();
+            FilterToSQL filterToSQL = getFilterToSQL(featureType);
+            StringBuffer sql = new StringBuffer("SELECT ");
+            dialect.encodeAggregateFunction("count", encodeToString(filterToSQL, expression), sql);
+            sql.append(", ");
+            dialect.encodeAggregateFunction("avg", encodeToString(filterToSQL, expression), sql);
+            sql.append(", ");
+            dialect.encodeAggregateFunction(function, encodeToString(filterToSQL, expression), sql);
+            toSQL.add(filterToSQL);
+            encodeAggregateSource(featureType, query, null, sql, toSQL);
+
+            Object[] row = selectRows(sql, toSQL, 3, cx).get(0);
+            int count = row[0] == null ? 0 : ((Number) row[0]).intValue();
+            if (count > 0) {
+                visitor.setValue(
+                        count, ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue());
+            } else {
+                visitor.reset();
+            }
+            return visitor.getResult();
+        } catch (SQLException e) {
+            throw (IOException) new IOException().initCause(e);
+        }
+    }
+
+    /**
+     * Computes quantile and equal area classifications with window functions, returning only the
+     * minimum and maximum value of each bin, or null if the database cannot compute them. Only
+     * numeric values are classified this way, non numeric classifications need all the values.
+     *
+     * <p>Quantiles are computed with <code>ntile</code>, which sizes the bins exactly like {@link
+     * QuantileListVisitor} does. Equal area bins are assigned based on the area accumulated before
+     * each value, which matches {@link EqualAreaListVisitor} as long as no single value holds more
+     * than the average area of a bin.
+     */
+    private Object getClassificationValue(
+            FeatureCalc visitor, SimpleFeatureType featureType, Query query, Connection cx)
+            throws IOException {
+        if (!dialect.isWindowFunctionSupported() || !isPlainAggregateQuery(query)) {
+            return null;
+        }
+        Expression value;
+        Expression area = null;
+        int binCount;
+        if (visitor instanceof QuantileListVisitor) {
+            QuantileListVisitor quantile = (QuantileListVisitor) visitor;
+            value = quantile.getExpression();
+            binCount = quantile.getBins();
+        } else {
+            EqualAreaListVisitor equalArea = (EqualAreaListVisitor) visitor;
+            value = equalArea.getExpression();
+            area = equalArea.getAreaExpression();
+            binCount = equalArea.getBins();
+        }
+        Class<?> binding = getBinding(value, featureType);
+        if (binCount <= 0
+                || !Number.class.isAssignableFrom(binding)
+                || !fullySupports(value)
+                || (area != null && !fullySupports(area))) {
+            return null;
+        }
+
+        try {
+            List<FilterToSQL> toSQL = new ArrayList<>();
+            FilterToSQL filterToSQL = getFilterToSQL(featureType);
+            StringBuffer sql = new StringBuffer();
+            sql.append("SELECT gt_bin, MIN(gt_value), MAX(gt_value) FROM (SELECT gt_value, ");
+            if (area == null) {
+                sql.append("NTILE(").append(binCount).append(") OVER (ORDER BY gt_value)");
+            } else {
+                sql.append("FLOOR((SUM(gt_area) OVER (ORDER BY gt_value ROWS UNBOUNDED PRECEDING)");
+                sql.append(" - gt_area) * ").append(binCount);
+                sql.append(" / NULLIF(SUM(gt_area) OVER (), 0))");
+            }
+            sql.append(" AS gt_bin FROM (SELECT ");
+            sql.append(encodeToString(filterToSQL, value)).append(" AS gt_value");
+            if (area != null) {
+                sql.append(", ").append(encodeToString(filterToSQL, area)).append(" AS gt_area");
+            }
+            toSQL.add(filterToSQL);
+            encodeAggregateSource(featureType, query, value, sql, toSQL);
+            sql.append(") gt_values) gt_bins GROUP BY gt_bin ORDER BY gt_bin");
+
+            List<List<Object>> bins = new ArrayList<>();
+            int lastBin = -1;
+            for (Object[] row : selectRows(sql, toSQL, 3, cx)) {
+                if (row[0] == null) {
+                    // no area to split, let the visitor deal with it
+                    return null;
+                }
+                int bin = ((Number) row[0]).intValue();
+                Object min = Converters.convert(row[1], binding);
+                Object max = Converters.convert(row[2], binding);
+                if (area != null && bin >= binCount && lastBin >= binCount - 1) {
+                    // trailing values with no area fall in the last bin
+                    bins.get(bins.size() - 1).set(1, max);
+                } else {
+                    bins.add(new ArrayList<>(Arrays.asList(min, max)));
+                    lastBin = bin;
+                }
+            }
+            List[] result = bins.toArray(new List[bins.size()]);
+            if (visitor instanceof QuantileListVisitor) {
+                ((QuantileListVisitor) visitor).setValue(result);
+            } else {
+                ((EqualAreaListVisitor) visitor).setValue(result);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw (IOException) new IOException().initCause(e);
+        }
+    }
+
+    /**
+     * Returns true if the query can be turned into an aggregate query without the need for sub
+     * queries, that is, it has no joins and no limits
+     */
+    private boolean isPlainAggregateQuery(Query query) {
+        return query.getJoins().isEmpty()
+                && query.isMaxFeaturesUnlimited()
+                && (query.getStartIndex() == null || query.getStartIndex() == 0);
+    }
+
+    /**
+     * Encodes the FROM and WHERE clauses of a statement built around an aggregate, skipping the
+     * null values of the specified expression, if any
+     */
+    private void encodeAggregateSource(
+            SimpleFeatureType featureType,
+            Query query,
+            Expression notNull,
+            StringBuffer sql,
+            List<FilterToSQL> toSQL)
+            throws IOException, SQLException {
+        sql.append(" FROM ");
+        encodeTableName(featureType.getTypeName(), sql, setKeepWhereClausePlaceHolderHint(query));
+        Filter filter = query.getFilter();
+        boolean filtered = filter != null && !Filter.INCLUDE.equals(filter);
+        if (filtered || notNull != null) {
+            sql.append(" WHERE ");
+        }
+        if (filtered) {
+            sql.append("(");
+            toSQL.add(filter(featureType, filter, sql));
+            sql.append(")");
+        }
+        if (notNull != null) {
+            if (filtered) {
+                sql.append(" AND ");
+            }
+            FilterToSQL filterToSQL = getFilterToSQL(featureType);
+            sql.append(encodeToString(filterToSQL, notNull)).append(" IS NOT NULL");
+            toSQL.add(filterToSQL);
+        }
+    }
+
+    /** Runs an aggregate statement, returning the rows as arrays of values */
+    private List<Object[]> selectRows(
+            StringBuffer sql, List<FilterToSQL> toSQL, int columns, Connection cx)
+            throws SQLException {
+        LOGGER.fine(sql.toString());
+        Statement st = null;
+        ResultSet rs = null;
+        try {
+            if (dialect instanceof PreparedStatementSQLDialect) {
+                PreparedStatement ps =
+                        cx.prepareStatement(
+                                sql.toString(),
+                                ResultSet.TYPE_FORWARD_ONLY,
+                                ResultSet.CONCUR_READ_ONLY);
+                st = ps;
+                ps.setFetchSize(fetchSize);
+                setPreparedFilterValues(ps, toSQL, cx);
+                rs = ps.executeQuery();
+            } else {
+                st = cx.createStatement();
+                st.setFetchSize(fetchSize);
+                rs = st.executeQuery(sql.toString());
+            }
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                rows.add(row);
+            }
+            return rows;
+        } finally {
+            closeSafe(rs);
+            closeSafe(st);
+        }
+    }
+
+    private String encodeToString(FilterToSQL filterToSQL, Expression expression) {
+        try {
+            return filterToSQL.encodeToString(expression);
+        } catch (FilterToSQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Returns the type of values the expression evaluates to, Object if unknown */
+    private Class<?> getBinding(Expression expression, SimpleFeatureType featureType) {
+        if (expression == null) {
+            return Object.class;
+        }
+        Object binding = expression.accept(new ExpressionTypeVisitor(featureType), null);
+        return binding instanceof Class ? (Class<?>) binding : Object.class;
+    }
+
+    private boolean isNumeric(Expression expression, SimpleFeatureType featureType) {
+        return Number.class.isAssignableFrom(getBinding(expression, featureType));
+    }
+
     /**
      * Checks if the groupBy is a supported one, that is, if it's possible to turn to SQL the
      * various {@link Expression} it's using
@@ -1618,12 +2105,16 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         return function;
     }
 
+    /** Returns the visitor computing the aggregate, unwrapping group by visitors */
+    private FeatureVisitor getAggregateVisitor(FeatureVisitor visitor) {
+        return isGroupByVisitor(visitor)
+                ? ((GroupByVisitor) visitor).getAggregateVisitor()
+                : visitor;
+    }
+
     private Expression getAggregateExpression(FeatureVisitor visitor) {
         // if is a group by visitor we need to use the internal aggregate visitor
-        FeatureVisitor aggregateVisitor =
-                isGroupByVisitor(visitor)
-                        ? ((GroupByVisitor) visitor).getAggregateVisitor()
-                        : visitor;
+        FeatureVisitor aggregateVisitor = getAggregateVisitor(visitor);
         Expression expression = getExpression(aggregateVisitor);
         if (expression == null) {
             // no aggregate attribute available, NULL will be returned
@@ -1702,10 +2193,15 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                 }
 
                 if (s == null) {
+                    // prefer the overload accepting the result as is, if any
                     for (Method m : visitor.getClass().getMethods()) {
-                        if ("setValue".equals(m.getName())) {
-                            s = m;
-                            break;
+                        if ("setValue".equals(m.getName()) && m.getParameterCount() == 1) {
+                            if (m.getParameterTypes()[0].isInstance(result)) {
+                                s = m;
+                                break;
+                            } else if (s == null) {
+                                s = m;
+                            }
                         }
                     }
                 }
@@ -1772,10 +2268,69 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
             } catch (SQLException e) {
                 String msg = "Error inserting features";
                 throw (IOException) new IOException(msg).initCause(e);
+            } finally {
+                invalidateCachedResults(featureType.getTypeName(), null);
+            }
+        }
+    }
+
+    /**
+     * Inserts a collection of new features into the database using the dialect bulk loading
+     * facilities, see {@link SQLDialect#bulkInsert(SimpleFeatureType, Collection, PrimaryKey, List,
+     * Connection)}. Falls back on regular inserts for the features whose primary key values cannot
+     * be computed before insert, or if the dialect cannot bulk load the feature type.
+     */
+    protected void bulkInsert(
+            Collection<? extends SimpleFeature> features,
+            SimpleFeatureType featureType,
+            Connection cx)
+            throws IOException {
+        PrimaryKey key = getPrimaryKey(featureType);
+
+        synchronized (this) {
+            try {
+                List<SimpleFeature> useExistings = new ArrayList<>();
+                List<SimpleFeature> notUseExistings = new ArrayList<>();
+                for (SimpleFeature cur : features) {
+                    (InsertionClassifier.useExisting(cur) ? useExistings : notUseExistings)
+                            .add(cur);
+                }
+                bulkInsert(useExistings, featureType, cx, key, true);
+                bulkInsert(notUseExistings, featureType, cx, key, false);
+            } catch (SQLException e) {
+                String msg = "Error bulk inserting features";
+                throw (IOException) new IOException(msg).initCause(e);
+            } finally {
+                invalidateCachedResults(featureType.getTypeName(), null);
             }
         }
     }
 
+    private void bulkInsert(
+            List<SimpleFeature> features,
+            SimpleFeatureType featureType,
+            Connection cx,
+            PrimaryKey key,
+            boolean useExisting)
+            throws IOException, SQLException {
+        if (features.isEmpty()) {
+            return;
+        }
+        KeysFetcher keysFetcher = KeysFetcher.create(this, cx, useExisting, key);
+        List<List<Object>> keyValues = keysFetcher.getBulkValues(cx, features);
+        if (keyValues == null || !dialect.bulkInsert(featureType, features, key, keyValues, cx)) {
+            LOGGER.fine("Cannot bulk insert into " + featureType.getTypeName() + ", inserting");
+            insert(features, featureType, cx);
+            return;
+        }
+
+        // report the feature ids as user data, like regular inserts do
+        for (int i = 0; i < features.size(); i++) {
+            String fid = featureType.getTypeName() + "." + encodeFID(keyValues.get(i));
+            features.get(i).getUserData().put("fid", fid);
+        }
+    }
+
     /** Specialized insertion for dialects that are using prepared statements. */
     private void insertPS(
             Collection<SimpleFeature> features,
@@ -2017,6 +2572,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                     ps.execute();
                 } finally {
                     closeSafe(ps);
+                    invalidateCachedResults(featureType.getTypeName(), null);
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
@@ -2038,6 +2594,8 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
             } catch (SQLException e) {
                 String msg = "Error occured updating features";
                 throw (IOException) new IOException(msg).initCause(e);
+            } finally {
+                invalidateCachedResults(featureType.getTypeName(), null);
             }
         }
     }
@@ -2073,6 +2631,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                 }
             } finally {
                 closeSafe(st);
+                invalidateCachedResults(featureType.getTypeName(), null);
             }
         } catch (SQLException e) {
             String msg = "Error occured during delete";
@@ -3352,17 +3911,33 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
 
         // filtering
         Filter filter = query.getFilter();
-        if (filter != null && !Filter.INCLUDE.equals(filter)) {
+        boolean filtered = filter != null && !Filter.INCLUDE.equals(filter);
+        KeysetPaging keyset = KeysetPaging.create(this, featureType, query);
+        if (filtered || keyset != null) {
             sql.append(" WHERE ");
+        }
+        if (filtered) {
             // encode filter
             filter(featureType, filter, sql);
         }
+        if (keyset != null) {
+            // encode the keyset paging predicate, which replaces the offset
+            if (filtered) {
+                sql.append(" AND ");
+            }
+            keyset.encode((BasicSQLDialect) dialect, sql);
+        }
 
         // sorting
-        sort(featureType, query.getSortBy(), null, sql);
+        sort(
+                featureType,
+                keyset != null ? keyset.sortBy : KeysetPaging.getSortBy(this, featureType, query),
+                null,
+                sql);
 
         // encode limit/offset, if necessary
-        applyLimitOffset(sql, query.getStartIndex(), query.getMaxFeatures());
+        applyLimitOffset(
+                sql, keyset != null ? null : query.getStartIndex(), query.getMaxFeatures());
 
         // add search hints if the dialect supports them
         applySearchHints(featureType, query, sql);
@@ -3563,6 +4138,42 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
     protected PreparedStatement selectSQLPS(
             SimpleFeatureType featureType, Query query, Connection cx)
             throws SQLException, IOException {
+        return prepareSelect(buildSelectSQLPS(featureType, query), cx);
+    }
+
+    /** The SQL of a prepared select statement, along with what is needed to set its parameters */
+    static final class PreparedSelect {
+        final String sql;
+
+        final PreparedFilterToSQL toSQL;
+
+        final KeysetPaging keyset;
+
+        PreparedSelect(String sql, PreparedFilterToSQL toSQL, KeysetPaging keyset) {
+            this.sql = sql;
+            this.toSQL = toSQL;
+            this.keyset = keyset;
+        }
+
+        /** The values of the statement parameters */
+        List<Object> getParameters() {
+            List<Object> parameters = new ArrayList<>();
+            if (toSQL != null) {
+                parameters.addAll(toSQL.getLiteralValues());
+            }
+            if (keyset != null) {
+                parameters.addAll(keyset.values);
+            }
+            return parameters;
+        }
+    }
+
+    /**
+     * Generates a 'SELECT p1, p2, ... FROM ... WHERE ...' prepared statement SQL, without preparing
+     * it.
+     */
+    PreparedSelect buildSelectSQLPS(SimpleFeatureType featureType, Query query)
+            throws SQLException, IOException {
 
         StringBuffer sql = new StringBuffer();
         sql.append("SELECT ");
@@ -3578,30 +4189,55 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         // filtering
         PreparedFilterToSQL toSQL = null;
         Filter filter = query.getFilter();
-        if (filter != null && !Filter.INCLUDE.equals(filter)) {
+        boolean filtered = filter != null && !Filter.INCLUDE.equals(filter);
+        KeysetPaging keyset = KeysetPaging.create(this, featureType, query);
+        if (filtered || keyset != null) {
             sql.append(" WHERE ");
-
+        }
+        if (filtered) {
             // encode filter
             toSQL = (PreparedFilterToSQL) filter(featureType, filter, sql);
         }
+        if (keyset != null) {
+            // encode the keyset paging predicate, which replaces the offset
+            if (filtered) {
+                sql.append(" AND ");
+            }
+            keyset.encode((PreparedStatementSQLDialect) dialect, sql);
+        }
 
         // sorting
-        sort(featureType, query.getSortBy(), null, sql);
+        sort(
+                featureType,
+                keyset != null ? keyset.sortBy : KeysetPaging.getSortBy(this, featureType, query),
+                null,
+                sql);
 
         // finally encode limit/offset, if necessary
-        applyLimitOffset(sql, query.getStartIndex(), query.getMaxFeatures());
+        applyLimitOffset(
+                sql, keyset != null ? null : query.getStartIndex(), query.getMaxFeatures());
 
         // add search hints if the dialect supports them
         applySearchHints(featureType, query, sql);
 
-        LOGGER.fine(sql.toString());
+        return new PreparedSelect(sql.toString(), toSQL, keyset);
+    }
+
+    /** Prepares a select statement and sets its parameters */
+    PreparedStatement prepareSelect(PreparedSelect select, Connection cx) throws SQLException {
+        LOGGER.fine(select.sql);
         PreparedStatement ps =
                 cx.prepareStatement(
-                        sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        select.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
         ps.setFetchSize(fetchSize);
 
-        if (toSQL != null) {
-            setPreparedFilterValues(ps, toSQL, 0, cx);
+        int parameters = 0;
+        if (select.toSQL != null) {
+            setPreparedFilterValues(ps, select.toSQL, 0, cx);
+            parameters = select.toSQL.getLiteralValues().size();
+        }
+        if (select.keyset != null) {
+            select.keyset.setParameters((PreparedStatementSQLDialect) dialect, ps, parameters, cx);
         }
 
         return ps;
@@ -4037,7 +4673,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                 if ("count".equals(function)) {
                     sql2.append("count(*)");
                 } else {
-                    sql2.append(function).append("(").append("gt_agg_src").append(")");
+                    dialect.encodeAggregateFunction(function, "gt_agg_src", sql2);
                 }
             } else {
                 encodeFunction(function, expr, sql2, filterToSQL);
@@ -4112,17 +4748,8 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
 
     protected void encodeFunction(
             String function, Expression expression, StringBuffer sql, FilterToSQL filterToSQL) {
-        sql.append(function).append("(");
-        if (expression == null) {
-            sql.append("*");
-        } else {
-            try {
-                sql.append(filterToSQL.encodeToString(expression));
-            } catch (FilterToSQLException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        sql.append(")");
+        String encoded = expression == null ? "*" : encodeToString(filterToSQL, expression);
+        dialect.encodeAggregateFunction(function, encoded, sql);
     }
 
     /** Generates a 'DELETE FROM' sql statement. */
@@ -4807,6 +5434,11 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
 
     public void dispose() {
         super.dispose();
+        // save the primary keys and geometry metadata resolved meanwhile
+        SchemaSnapshot snapshot = schemaSnapshot;
+        if (snapshot != null && snapshot.isModified()) {
+            saveSchemaSnapshot(snapshot);
+        }
         if (dataSource != null && dataSource instanceof ManageableDataSource) {
             try {
                 ManageableDataSource mds = (ManageableDataSource) dataSource;
@@ -16,6 +16,7 @@
  */
 package org.geotools.jdbc;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collections;
@@ -138,6 +139,41 @@ public abstract class JDBCDataStoreFactory implements DataStoreFactorySpi {
                     false,
                     1);
 
+    /** Number of row buffers read ahead by a background thread, 0 disables prefetching */
+    public static final Param PREFETCH_DEPTH =
+            new Param(
+                    "Prefetch depth",
+                    Integer.class,
+                    "Number of row buffers (256 rows each) read ahead by a background thread while decoding features (default, 0, no prefetching)",
+                    false,
+                    0);
+
+    /** Memory used to cache query results, in megabytes, 0 disables caching */
+    public static final Param RESULT_CACHE_SIZE =
+            new Param(
+                    "Result cache size",
+                    Integer.class,
+                    "Memory, in megabytes, used to cache the results of queries run outside of transactions, dropped when the feature type is modified through the store (default, 0, no caching)",
+                    false,
+                    0);
+
+    /** Introspect the whole schema at once, instead of table by table */
+    public static final Param BULK_INTROSPECTION =
+            new Param(
+                    "Bulk schema introspection",
+                    Boolean.class,
+                    "Reads the columns and primary keys of all tables in a few catalog queries, speeding up startup on schemas with many tables (default, false)",
+                    false,
+                    Boolean.FALSE);
+
+    /** File used to persist the schema introspection results across restarts */
+    public static final Param SCHEMA_SNAPSHOT_FILE =
+            new Param(
+                    "Schema snapshot file",
+                    File.class,
+                    "File where the bulk schema introspection results are saved, and reloaded from on startup if the schema did not change",
+                    false);
+
     /** Maximum amount of time the pool will wait when trying to grab a new connection * */
     public static final Param MAXWAIT =
             new Param(
@@ -319,6 +355,26 @@ public abstract class JDBCDataStoreFactory implements DataStoreFactorySpi {
             dataStore.setBatchInsertSize(batchInsertSize);
         }
 
+        Integer prefetchDepth = (Integer) PREFETCH_DEPTH.lookUp(params);
+        if (prefetchDepth != null && prefetchDepth > 0) {
+            dataStore.setPrefetchDepth(prefetchDepth);
+        }
+
+        Integer resultCacheSize = (Integer) RESULT_CACHE_SIZE.lookUp(params);
+        if (resultCacheSize != null && resultCacheSize > 0) {
+            dataStore.setResultCacheSize(resultCacheSize * 1024L * 1024L);
+        }
+
+        Boolean bulkIntrospection = (Boolean) BULK_INTROSPECTION.lookUp(params);
+        if (bulkIntrospection != null) {
+            dataStore.setBulkIntrospection(bulkIntrospection);
+        }
+
+        File snapshotFile = (File) SCHEMA_SNAPSHOT_FILE.lookUp(params);
+        if (snapshotFile != null) {
+            dataStore.setSchemaSnapshotFile(snapshotFile);
+        }
+
         // namespace
         String namespace = (String) NAMESPACE.lookUp(params);
 
@@ -466,6 +522,10 @@ public abstract class JDBCDataStoreFactory implements DataStoreFactorySpi {
         parameters.put(MINCONN.key, MINCONN);
         parameters.put(FETCHSIZE.key, FETCHSIZE);
         parameters.put(BATCH_INSERT_SIZE.key, BATCH_INSERT_SIZE);
+        parameters.put(PREFETCH_DEPTH.key, PREFETCH_DEPTH);
+        parameters.put(RESULT_CACHE_SIZE.key, RESULT_CACHE_SIZE);
+        parameters.put(BULK_INTROSPECTION.key, BULK_INTROSPECTION);
+        parameters.put(SCHEMA_SNAPSHOT_FILE.key, SCHEMA_SNAPSHOT_FILE);
         parameters.put(MAXWAIT.key, MAXWAIT);
         if (getValidationQuery() != null) parameters.put(VALIDATECONN.key, VALIDATECONN);
         parameters.put(TEST_WHILE_IDLE.key, TEST_WHILE_IDLE);
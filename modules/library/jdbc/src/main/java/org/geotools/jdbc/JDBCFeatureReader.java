@@ -194,10 +194,35 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         this.query = query;
         this.hints = query != null ? query.getHints() : null;
 
-        // grab a geometry factory... check for a special hint
-        geometryFactory =
+        // grab a geometry factory
+        geometryFactory = getGeometryFactory(dataStore, hints);
+
+        // screenmap support
+        this.screenMap = hints != null ? (ScreenMap) hints.get(Hints.SCREENMAP) : null;
+
+        // create a feature builder using the factory hinted or the one coming
+        // from the datastore
+        builder = new SimpleFeatureBuilder(featureType, getFeatureFactory(dataStore, hints));
+
+        // find the primary key
+        try {
+            pkey = dataStore.getPrimaryKey(featureType);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.attributeRsIndex = buildAttributeRsIndex();
+
+        callback = dataStore.getCallbackFactory().createReaderCallback();
+        callback.init(this);
+    }
+
+    /** Returns the geometry factory to be used when reading with the specified hints */
+    static GeometryFactory getGeometryFactory(JDBCDataStore dataStore, Hints hints) {
+        // check for a special hint
+        GeometryFactory geometryFactory =
                 (hints != null) ? (GeometryFactory) hints.get(Hints.JTS_GEOMETRY_FACTORY) : null;
-        if (geometryFactory == null) {
+        if (geometryFactory == null && hints != null) {
             // look for a coordinate sequence factory
             CoordinateSequenceFactory csFactory =
                     (CoordinateSequenceFactory) hints.get(Hints.JTS_COORDINATE_SEQUENCE_FACTORY);
@@ -217,28 +242,15 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         if (linearizationTolerance != null) {
             geometryFactory = new CurvedGeometryFactory(geometryFactory, linearizationTolerance);
         }
+        return geometryFactory;
+    }
 
-        // screenmap support
-        this.screenMap = hints != null ? (ScreenMap) hints.get(Hints.SCREENMAP) : null;
-
-        // create a feature builder using the factory hinted or the one coming
-        // from the datastore
+    /** Returns the feature factory hinted, or the one coming from the datastore */
+    static FeatureFactory getFeatureFactory(JDBCDataStore dataStore, Hints hints) {
         FeatureFactory ff =
                 hints != null ? (FeatureFactory) hints.get(Hints.FEATURE_FACTORY) : null;
-        if (ff == null) ff = featureSource.getDataStore().getFeatureFactory();
-        builder = new SimpleFeatureBuilder(featureType, ff);
-
-        // find the primary key
-        try {
-            pkey = dataStore.getPrimaryKey(featureType);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        this.attributeRsIndex = buildAttributeRsIndex();
-
-        callback = dataStore.getCallbackFactory().createReaderCallback();
-        callback.init(this);
+        if (ff == null) ff = dataStore.getFeatureFactory();
+        return ff;
     }
 
     @FunctionalInterface
@@ -368,32 +380,11 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
                     }
 
                     if (value != null) {
-                        // check to see if a crs was set
-                        Geometry geometry = (Geometry) value;
-                        if (geometry.getUserData() == null) {
-                            // if not set, set from descriptor
-                            geometry.setUserData(gatt.getCoordinateReferenceSystem());
-                        }
-
-                        try {
-                            // is position already busy skip it
-                            if (screenMap != null) {
-                                if (screenMap.canSimplify(geometry.getEnvelopeInternal())) {
-                                    if (screenMap.checkAndSet(geometry.getEnvelopeInternal())) {
-                                        builder.reset();
-                                        return null;
-                                    } else {
-                                        value = screenMap.getSimplifiedShape(geometry);
-                                    }
-                                }
-                            }
-                        } catch (TransformException e) {
-                            if (LOGGER.isLoggable(Level.WARNING)) {
-                                LOGGER.log(
-                                        Level.WARNING,
-                                        "Failed to process screenmap checks, proceeding without",
-                                        e);
-                            }
+                        value = prepareGeometry(gatt, (Geometry) value);
+                        if (value == null) {
+                            // skipped by the screenmap
+                            builder.reset();
+                            return null;
                         }
                     }
 
@@ -401,26 +392,7 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
                     value = rs.getObject(offset + attributeRsIndex[i]);
                 }
 
-                // they value may need conversion. We let converters chew the initial
-                // value towards the target type, if the result is not the same as the
-                // original, then a conversion happened and we may want to report it to the
-                // user (being the feature type reverse engineerd, it's unlikely a true
-                // conversion will be needed)
-                if (value != null) {
-                    Class binding = type.getType().getBinding();
-                    Object converted = Converters.convert(value, binding);
-                    if (converted != null && converted != value) {
-                        value = converted;
-                        if (dataStore.getLogger().isLoggable(Level.FINER)) {
-                            String msg =
-                                    value
-                                            + " is not of type "
-                                            + binding.getName()
-                                            + ", attempting conversion";
-                            dataStore.getLogger().finer(msg);
-                        }
-                    }
-                }
+                value = convertValue(type, value);
 
                 builder.add(value);
             } catch (SQLException e) {
@@ -437,6 +409,69 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         }
     }
 
+    /**
+     * Sets the descriptor CRS on the geometry if missing, and applies the screenmap checks.
+     *
+     * @return the geometry, possibly simplified, or null if the screenmap says the feature should
+     *     be skipped
+     */
+    Object prepareGeometry(GeometryDescriptor gatt, Geometry geometry) {
+        // check to see if a crs was set
+        if (geometry.getUserData() == null) {
+            // if not set, set from descriptor
+            geometry.setUserData(gatt.getCoordinateReferenceSystem());
+        }
+
+        try {
+            // is position already busy skip it
+            if (screenMap != null) {
+                if (screenMap.canSimplify(geometry.getEnvelopeInternal())) {
+                    if (screenMap.checkAndSet(geometry.getEnvelopeInternal())) {
+                        return null;
+                    } else {
+                        return screenMap.getSimplifiedShape(geometry);
+                    }
+                }
+            }
+        } catch (TransformException e) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(
+                        Level.WARNING, "Failed to process screenmap checks, proceeding without", e);
+            }
+        }
+        return geometry;
+    }
+
+    /** Converts the value read from the database to the attribute binding, if needed */
+    Object convertValue(AttributeDescriptor type, Object value) {
+        // they value may need conversion. We let converters chew the initial
+        // value towards the target type, if the result is not the same as the
+        // original, then a conversion happened and we may want to report it to the
+        // user (being the feature type reverse engineerd, it's unlikely a true
+        // conversion will be needed)
+        if (value != null) {
+            Class binding = type.getType().getBinding();
+            Object converted = Converters.convert(value, binding);
+            if (converted != null && converted != value) {
+                value = converted;
+                if (dataStore.getLogger().isLoggable(Level.FINER)) {
+                    String msg =
+                            value
+                                    + " is not of type "
+                                    + binding.getName()
+                                    + ", attempting conversion";
+                    dataStore.getLogger().finer(msg);
+                }
+            }
+        }
+        return value;
+    }
+
+    /** The position in the result set of each attribute, relative to the offset */
+    int[] getAttributeRsIndex() {
+        return attributeRsIndex;
+    }
+
     protected void ensureNext() {
         if (next == null) {
             throw new IllegalStateException("Must call hasNext before calling next");
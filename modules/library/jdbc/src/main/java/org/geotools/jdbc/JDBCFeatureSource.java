@@ -17,6 +17,7 @@
 package org.geotools.jdbc;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
@@ -29,18 +30,27 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.geotools.data.DataUtilities;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.FilteringFeatureReader;
 import org.geotools.data.MaxFeatureReader;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.ReTypeFeatureReader;
 import org.geotools.data.Transaction;
+import org.geotools.data.simple.SimpleFeatureIterator;
 import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeatureCollection;
 import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.feature.AttributeTypeBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.feature.visitor.MaxVisitor;
@@ -61,11 +71,12 @@ import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
+import org.opengis.filter.FilterFactory2;
 import org.opengis.filter.expression.Expression;
 import org.opengis.filter.expression.PropertyName;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
-public class JDBCFeatureSource extends ContentFeatureSource {
+public class JDBCFeatureSource extends ContentFeatureSource implements PartitionedFeatureSource {
 
     private static final Logger LOGGER = Logging.getLogger(JDBCFeatureSource.class);
 
@@ -105,6 +116,10 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         // mark the features as detached, that is, the user can directly alter them
         // without altering the state of the datastore
         hints.add(Hints.FEATURE_DETACHED);
+        if (getDataStore().getSQLDialect().isKeysetPagingSupported()) {
+            hints.add(Hints.PAGING_CURSOR);
+        }
+        hints.add(JDBCDataStore.PREFETCH_EXECUTOR);
         getDataStore().getSQLDialect().addSupportedHints(hints);
     }
 
@@ -186,11 +201,20 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         try {
             DatabaseMetaData metaData = cx.getMetaData();
             // get metadata about columns from database
-            List<ColumnMetadata> columns;
+            List<ColumnMetadata> columns = null;
+            SchemaSnapshot snapshot = null;
             if (virtualTable != null) {
                 columns = getColumnMetadata(cx, virtualTable, dialect, getDataStore());
             } else {
-                columns = getColumnMetadata(cx, databaseSchema, tableName, dialect);
+                // use the bulk introspected columns if available
+                snapshot = getDataStore().getSchemaSnapshot();
+                if (snapshot != null) {
+                    columns = snapshot.getColumns(tableName);
+                }
+                if (columns == null) {
+                    snapshot = null;
+                    columns = getColumnMetadata(cx, databaseSchema, tableName, dialect);
+                }
             }
 
             for (ColumnMetadata column : columns) {
@@ -291,8 +315,14 @@ public class JDBCFeatureSource extends ContentFeatureSource {
                     try {
                         if (virtualTable != null) {
                             srid = virtualTable.getNativeSrid(name);
+                        } else if (snapshot != null && column.srid != null) {
+                            srid = column.srid;
                         } else {
                             srid = dialect.getGeometrySRID(databaseSchema, tableName, name, cx);
+                            if (snapshot != null && srid != null) {
+                                column.srid = srid;
+                                snapshot.setModified(true);
+                            }
                         }
                         if (srid != null) crs = dialect.createCRS(srid, cx);
                     } catch (Exception e) {
@@ -305,10 +335,16 @@ public class JDBCFeatureSource extends ContentFeatureSource {
                     try {
                         if (virtualTable != null) {
                             dimension = virtualTable.getDimension(name);
+                        } else if (snapshot != null && column.dimension != null) {
+                            dimension = column.dimension;
                         } else {
                             dimension =
                                     dialect.getGeometryDimension(
                                             databaseSchema, tableName, name, cx);
+                            if (snapshot != null) {
+                                column.dimension = dimension;
+                                snapshot.setModified(true);
+                            }
                         }
                     } catch (Exception e) {
                         String msg =
@@ -543,7 +579,6 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         return true;
     }
 
-    @SuppressWarnings("PMD.CloseResource") // the cx is passed to the reader which will close it
     protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query query)
             throws IOException {
         // split the filter
@@ -568,12 +603,78 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         SimpleFeatureType querySchema = types[0];
         SimpleFeatureType returnedSchema = types[1];
 
+        // create the reader, out of the result cache if possible
+        FeatureReader<SimpleFeatureType, SimpleFeature> reader = null;
+        JDBCResultCache cache = getDataStore().getResultCache();
+        JDBCResultCache.Key cacheKey = null;
+        if (cache != null && isResultCacheable(query)) {
+            try {
+                cacheKey = getDataStore().getResultCacheKey(querySchema, preQuery);
+            } catch (SQLException e) {
+                throw (IOException) new IOException().initCause(e);
+            }
+            JDBCResultCache.Result result = cache.get(cacheKey);
+            if (result != null) {
+                reader = new JDBCCachedFeatureReader(result, this, querySchema, query);
+            }
+        }
+        if (reader == null) {
+            reader = getDatabaseReader(query, preQuery, querySchema);
+            if (cacheKey != null) {
+                reader = new JDBCCachingFeatureReader(reader, cache.collect(cacheKey));
+            }
+        }
+
+        // if post filter, wrap it
+        if (postFilterRequired) {
+            reader =
+                    new FilteringFeatureReader<SimpleFeatureType, SimpleFeature>(
+                            reader, postFilter);
+            if (!returnedSchema.equals(querySchema)) {
+                reader = new ReTypeFeatureReader(reader, returnedSchema);
+            }
+
+            // offset, unless the query is already positioned by a paging cursor
+            int offset = query.getStartIndex() != null ? query.getStartIndex() : 0;
+            if (offset > 0
+                    && (!query.getJoins().isEmpty()
+                            || KeysetPaging.create(getDataStore(), querySchema, preQuery)
+                                    == null)) {
+                // skip the first n records
+                for (int i = 0; i < offset && reader.hasNext(); i++) {
+                    reader.next();
+                }
+            }
+
+            // max feature limit
+            if (query.getMaxFeatures() >= 0 && query.getMaxFeatures() < Integer.MAX_VALUE) {
+                reader =
+                        new MaxFeatureReader<SimpleFeatureType, SimpleFeature>(
+                                reader, query.getMaxFeatures());
+            }
+        }
+
+        return reader;
+    }
+
+    /**
+     * Returns true if the query results can be cached: only plain reads outside of a transaction
+     * are, as the ones in a transaction might see uncommitted changes
+     */
+    private boolean isResultCacheable(Query query) {
+        return getState().getTransaction() == Transaction.AUTO_COMMIT
+                && query.getJoins().isEmpty()
+                && (query.getHints() == null || query.getHints().get(Hints.SCREENMAP) == null);
+    }
+
+    /** Returns a reader running the query against the database */
+    @SuppressWarnings("PMD.CloseResource") // the cx is passed to the reader which will close it
+    private FeatureReader<SimpleFeatureType, SimpleFeature> getDatabaseReader(
+            Query query, Query preQuery, SimpleFeatureType querySchema) throws IOException {
         // grab connection
         Connection cx = getDataStore().getConnection(getState());
 
-        // create the reader
         FeatureReader<SimpleFeatureType, SimpleFeature> reader;
-
         try {
             SQLDialect dialect = getDataStore().getSQLDialect();
 
@@ -583,16 +684,29 @@ public class JDBCFeatureSource extends ContentFeatureSource {
             }
 
             if (query.getJoins().isEmpty()) {
-                // regular query
+                // regular query, eventually read ahead in a background thread
+                int prefetchDepth = getDataStore().getPrefetchDepth();
                 if (dialect instanceof PreparedStatementSQLDialect) {
                     PreparedStatement ps = getDataStore().selectSQLPS(querySchema, preQuery, cx);
-                    reader = new JDBCFeatureReader(ps, cx, this, querySchema, query);
+                    if (prefetchDepth > 0) {
+                        reader =
+                                new JDBCPrefetchFeatureReader(
+                                        ps, cx, this, querySchema, query, prefetchDepth);
+                    } else {
+                        reader = new JDBCFeatureReader(ps, cx, this, querySchema, query);
+                    }
                 } else {
                     // build up a statement for the content
                     String sql = getDataStore().selectSQL(querySchema, preQuery);
                     getDataStore().getLogger().fine(sql);
 
-                    reader = new JDBCFeatureReader(sql, cx, this, querySchema, query);
+                    if (prefetchDepth > 0) {
+                        reader =
+                                new JDBCPrefetchFeatureReader(
+                                        sql, cx, this, querySchema, query, prefetchDepth);
+                    } else {
+                        reader = new JDBCFeatureReader(sql, cx, this, querySchema, query);
+                    }
                 }
             } else {
                 JoinInfo join = JoinInfo.create(preQuery, this);
@@ -626,32 +740,6 @@ public class JDBCFeatureSource extends ContentFeatureSource {
             }
         }
 
-        // if post filter, wrap it
-        if (postFilterRequired) {
-            reader =
-                    new FilteringFeatureReader<SimpleFeatureType, SimpleFeature>(
-                            reader, postFilter);
-            if (!returnedSchema.equals(querySchema)) {
-                reader = new ReTypeFeatureReader(reader, returnedSchema);
-            }
-
-            // offset
-            int offset = query.getStartIndex() != null ? query.getStartIndex() : 0;
-            if (offset > 0) {
-                // skip the first n records
-                for (int i = 0; i < offset && reader.hasNext(); i++) {
-                    reader.next();
-                }
-            }
-
-            // max feature limit
-            if (query.getMaxFeatures() >= 0 && query.getMaxFeatures() < Integer.MAX_VALUE) {
-                reader =
-                        new MaxFeatureReader<SimpleFeatureType, SimpleFeature>(
-                                reader, query.getMaxFeatures());
-            }
-        }
-
         return reader;
     }
 
@@ -706,6 +794,67 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         }
     }
 
+    /**
+     * Returns a parallel stream reading disjoint partitions of the table concurrently, each on its
+     * own connection, or null if the query cannot be partitioned, or the source is working against
+     * a transaction. The table is split by the dialect (see {@link
+     * SQLDialect#getScanPartitions(String, String, int, Connection)}), or on ranges of a single
+     * column numeric primary key.
+     *
+     * <p>The number of partitions read at the same time is bound by the stream parallelism, mind
+     * the connection pool size when choosing it.
+     */
+    @Override
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The number of partitions must be positive");
+        }
+        if (getTransaction() != Transaction.AUTO_COMMIT
+                || (query.getSortBy() != null && query.getSortBy().length > 0)
+                || query.getStartIndex() != null
+                || !query.isMaxFeaturesUnlimited()
+                || !query.getJoins().isEmpty()) {
+            return null;
+        }
+        List<String> predicates =
+                PartitionedScan.getPredicates(getDataStore(), getSchema(), partitions);
+        if (predicates == null) {
+            return null;
+        }
+
+        List<Query> queries = new ArrayList<>();
+        if (predicates.isEmpty()) {
+            queries.add(new Query(query));
+        } else {
+            FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2(null);
+            for (String predicate : predicates) {
+                Query partition = new Query(query);
+                Filter filter = ff.nativeFilter(predicate);
+                if (query.getFilter() != null && query.getFilter() != Filter.INCLUDE) {
+                    filter = ff.and(query.getFilter(), filter);
+                }
+                partition.setFilter(filter);
+                queries.add(partition);
+            }
+        }
+        // each partition is read by a single thread, flatMap closes its reader once done
+        return queries.parallelStream().flatMap(this::getPartitionStream);
+    }
+
+    private Stream<SimpleFeature> getPartitionStream(Query query) {
+        try {
+            SimpleFeatureIterator features =
+                    new ContentFeatureCollection.WrappingFeatureIterator(getReader(query));
+            Spliterator<SimpleFeature> spliterator =
+                    Spliterators.spliteratorUnknownSize(
+                            DataUtilities.iterator(features),
+                            Spliterator.ORDERED | Spliterator.NONNULL);
+            return StreamSupport.stream(spliterator, false).onClose(features::close);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Special case of nearest visitor, which can be computed by combining a min and a max visit
      *
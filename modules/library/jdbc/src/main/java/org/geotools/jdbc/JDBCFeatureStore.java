@@ -23,11 +23,13 @@ import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.geotools.data.FeatureEvent;
 import org.geotools.data.FeatureEvent.Type;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
 import org.geotools.data.FilteringFeatureWriter;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.ResourceInfo;
@@ -52,7 +54,8 @@ import org.opengis.filter.Filter;
  *
  * @author Justin Deoliveira, The Open Planning Project
  */
-public final class JDBCFeatureStore extends ContentFeatureStore {
+public final class JDBCFeatureStore extends ContentFeatureStore
+        implements PartitionedFeatureSource {
 
     /**
      * jdbc feature source to delegate to, we do this b/c we can't inherit from both
@@ -222,6 +225,11 @@ public final class JDBCFeatureStore extends ContentFeatureStore {
         return delegate.handleVisitor(query, visitor);
     }
 
+    @Override
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        return delegate.getFeatureStream(query, partitions);
+    }
+
     //  /**
     //  * This method operates by delegating to the
     //  * {@link JDBCFeatureCollection#update(AttributeDescriptor[], Object[])}
@@ -251,6 +259,8 @@ public final class JDBCFeatureStore extends ContentFeatureStore {
 
         // get connection from current state
         Connection cx = getDataStore().getConnection(getState());
+        // the writes will drop the cached results, make sure it happens again on commit
+        getDataStore().invalidateCachedResults(getSchema().getTypeName(), getTransaction());
 
         Filter postFilter;
         // check for update only case
@@ -372,6 +382,7 @@ public final class JDBCFeatureStore extends ContentFeatureStore {
                 } catch (SQLException e) {
                     throw (IOException) (new IOException(e.getMessage()).initCause(e));
                 }
+                getDataStore().invalidateCachedResults(featureType.getTypeName(), tx);
 
                 if (state.hasListener()) {
                     // gather any updated bounds due to a geometry modification
@@ -431,6 +442,7 @@ public final class JDBCFeatureStore extends ContentFeatureStore {
                     }
                 }
                 getDataStore().delete(featureType, preFilter, cx);
+                getDataStore().invalidateCachedResults(featureType.getTypeName(), tx);
                 if (state.hasListener()) {
                     // issue notification
                     FeatureEvent event = new FeatureEvent(this, Type.REMOVED, bounds, preFilter);
@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import org.geotools.data.FeatureWriter;
 import org.geotools.data.Query;
+import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureStore;
 import org.geotools.data.store.ContentState;
@@ -42,12 +43,16 @@ public class JDBCInsertFeatureWriter extends JDBCFeatureReader
 
     private int curBufferPos = 0;
 
+    /** Whether the features are to be bulk loaded, see {@link JDBCDataStore#JDBC_BULK_INSERT} */
+    private final boolean bulk;
+
     public JDBCInsertFeatureWriter(
             String sql, Connection cx, JDBCFeatureSource featureSource, Query query)
             throws SQLException, IOException {
         super(sql, cx, featureSource, featureSource.getSchema(), query);
         md = rs.getMetaData();
-        buffer = new ResultSetFeature[dataStore.getBatchInsertSize()];
+        bulk = isBulkInsert();
+        buffer = new ResultSetFeature[getBufferSize()];
     }
 
     public JDBCInsertFeatureWriter(
@@ -55,12 +60,27 @@ public class JDBCInsertFeatureWriter extends JDBCFeatureReader
             throws SQLException, IOException {
         super(ps, cx, featureSource, featureSource.getSchema(), query);
         md = rs.getMetaData();
-        buffer = new ResultSetFeature[dataStore.getBatchInsertSize()];
+        bulk = isBulkInsert();
+        buffer = new ResultSetFeature[getBufferSize()];
     }
 
     public JDBCInsertFeatureWriter(JDBCUpdateFeatureWriter other) throws IOException {
         super(other);
-        buffer = new ResultSetFeature[dataStore.getBatchInsertSize()];
+        bulk = isBulkInsert();
+        buffer = new ResultSetFeature[getBufferSize()];
+    }
+
+    private boolean isBulkInsert() {
+        // the auto commit transaction cannot hold properties
+        return tx != null
+                && tx != Transaction.AUTO_COMMIT
+                && Boolean.TRUE.equals(tx.getProperty(JDBCDataStore.JDBC_BULK_INSERT))
+                && dataStore.getSQLDialect().isBulkInsertSupported();
+    }
+
+    private int getBufferSize() {
+        int size = dataStore.getBatchInsertSize();
+        return bulk ? Math.max(size, JDBCDataStore.BULK_INSERT_SIZE) : size;
     }
 
     private ResultSetFeature getOrCreateRSF() throws IOException {
@@ -123,7 +143,11 @@ public class JDBCInsertFeatureWriter extends JDBCFeatureReader
             // do the insert
             Collection<ResultSetFeature> features =
                     Arrays.asList(Arrays.copyOfRange(buffer, 0, curBufferPos));
-            dataStore.insert(features, featureType, st.getConnection());
+            if (bulk) {
+                dataStore.bulkInsert(features, featureType, st.getConnection());
+            } else {
+                dataStore.insert(features, featureType, st.getConnection());
+            }
 
             for (ResultSetFeature cur : features) {
                 // the datastore sets as userData, grab it and update the fid
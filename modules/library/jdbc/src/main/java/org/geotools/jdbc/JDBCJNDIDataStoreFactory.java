@@ -153,6 +153,10 @@ public abstract class JDBCJNDIDataStoreFactory extends JDBCDataStoreFactory {
         parameters.put(NAMESPACE.key, NAMESPACE);
         parameters.put(FETCHSIZE.key, FETCHSIZE);
         parameters.put(BATCH_INSERT_SIZE.key, BATCH_INSERT_SIZE);
+        parameters.put(PREFETCH_DEPTH.key, PREFETCH_DEPTH);
+        parameters.put(RESULT_CACHE_SIZE.key, RESULT_CACHE_SIZE);
+        parameters.put(BULK_INTROSPECTION.key, BULK_INTROSPECTION);
+        parameters.put(SCHEMA_SNAPSHOT_FILE.key, SCHEMA_SNAPSHOT_FILE);
         parameters.put(EXPOSE_PK.key, EXPOSE_PK);
         parameters.put(PK_METADATA_TABLE.key, PK_METADATA_TABLE);
         parameters.put(SQL_ON_BORROW.key, SQL_ON_BORROW);
@@ -0,0 +1,465 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import org.geotools.data.DataSourceException;
+import org.geotools.data.Query;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.IllegalAttributeException;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * A {@link JDBCFeatureReader} moving the result set scrolling in a background thread, so that the
+ * network waits overlap with the feature decoding.
+ *
+ * <p>The background thread drains the result set into a bounded ring of row buffers, holding the
+ * raw column values as returned by the driver, and the geometries in the raw form returned by
+ * {@link SQLDialect#readRawGeometryValue}. The calling thread decodes the buffered rows into
+ * features, and hands the buffers back to the background thread for reuse.
+ *
+ * <p>The background task runs in the executor found in the {@link JDBCDataStore#PREFETCH_EXECUTOR}
+ * query hint, or in a shared pool of daemon threads otherwise. It always ends by handing over a
+ * last buffer, marked as such or carrying the failure that stopped it.
+ *
+ * <p>Closing the reader stops the background thread after the row (or fetch) it is working on, and
+ * only then closes the result set, statement and connection, so that they are never used by two
+ * threads at the same time. The geometry decoders are set up before the background thread starts,
+ * so that the calling thread never needs the connection afterwards.
+ *
+ * <p>The {@link JDBCReaderCallback} methods are invoked from different threads: {@link
+ * JDBCReaderCallback#beforeNext} and {@link JDBCReaderCallback#afterNext} from the background
+ * thread, around each result set scroll, the others from the calling thread.
+ */
+class JDBCPrefetchFeatureReader extends JDBCFeatureReader {
+
+    /** Number of rows held by each buffer */
+    static final int BUFFER_ROWS = 256;
+
+    /** How often, in milliseconds, the calling thread checks the background task is still alive */
+    static final long PRODUCER_CHECK_INTERVAL = 1000;
+
+    /**
+     * The default executor for the background tasks. Threads are reused across readers, but not
+     * bounded, as a queued task would leave its reader waiting for rows.
+     */
+    static final class DefaultExecutor {
+        static final ExecutorService INSTANCE =
+                Executors.newCachedThreadPool(
+                        new ThreadFactory() {
+                            final AtomicInteger count = new AtomicInteger();
+
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread t =
+                                        new Thread(r, "JDBC prefetch " + count.incrementAndGet());
+                                t.setDaemon(true);
+                                return t;
+                            }
+                        });
+    }
+
+    /** A buffer of raw rows, each row being the fid followed by the attribute values */
+    static final class RowBuffer {
+        final Object[][] rows;
+
+        int size;
+
+        /** True if the result set has no more rows after this buffer ones */
+        boolean last;
+
+        /** The failure that stopped the background thread, if any */
+        Throwable error;
+
+        RowBuffer(int columns) {
+            rows = new Object[BUFFER_ROWS][columns];
+        }
+
+        /** Builds the last, empty buffer, reporting the failure of the background task */
+        RowBuffer(Throwable error) {
+            rows = new Object[0][];
+            last = true;
+            this.error = error;
+        }
+    }
+
+    /** The buffers waiting to be filled */
+    BlockingQueue<RowBuffer> free;
+
+    /** The buffers waiting to be decoded, with room for a last failure buffer */
+    BlockingQueue<RowBuffer> full;
+
+    /** The buffer being decoded */
+    RowBuffer current;
+
+    /** The position of the next row to decode in the current buffer */
+    int position;
+
+    /** The next feature to be returned */
+    SimpleFeature nextFeature;
+
+    /** The decoders of the raw geometry values, by attribute, null for the non geometric ones */
+    SQLDialect.RawGeometryDecoder[] decoders;
+
+    /** Set by whoever gets first between the background task starting and the reader closing */
+    final AtomicBoolean claimed = new AtomicBoolean();
+
+    /** Released when the background task is over, or will never run */
+    final CountDownLatch finished = new CountDownLatch(1);
+
+    boolean started;
+
+    volatile boolean cancelled;
+
+    public JDBCPrefetchFeatureReader(
+            String sql,
+            Connection cx,
+            JDBCFeatureSource featureSource,
+            SimpleFeatureType featureType,
+            Query query,
+            int depth)
+            throws SQLException {
+        super(sql, cx, featureSource, featureType, query);
+        initBuffers(depth);
+    }
+
+    public JDBCPrefetchFeatureReader(
+            PreparedStatement st,
+            Connection cx,
+            JDBCFeatureSource featureSource,
+            SimpleFeatureType featureType,
+            Query query,
+            int depth)
+            throws SQLException {
+        super(st, cx, featureSource, featureType, query);
+        initBuffers(depth);
+    }
+
+    private void initBuffers(int depth) {
+        depth = Math.max(1, depth);
+        free = new ArrayBlockingQueue<>(depth);
+        full = new ArrayBlockingQueue<>(depth + 1);
+        int columns = featureType.getAttributeCount() + 1;
+        for (int i = 0; i < depth; i++) {
+            free.add(new RowBuffer(columns));
+        }
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        ensureOpen();
+
+        if (next == null) {
+            if (!started) {
+                startProducer();
+            }
+            while (nextFeature == null && next == null) {
+                Object[] row = nextRow();
+                if (row == null) {
+                    next = Boolean.FALSE;
+                    callback.finish(this);
+                } else {
+                    nextFeature = decode(row);
+                    if (nextFeature != null) {
+                        next = Boolean.TRUE;
+                    }
+                }
+            }
+        }
+
+        return next.booleanValue();
+    }
+
+    @Override
+    public SimpleFeature next()
+            throws IOException, IllegalArgumentException, NoSuchElementException {
+        try {
+            ensureOpen();
+            if (!hasNext()) {
+                throw new NoSuchElementException(
+                        "No more features in this reader, you should call "
+                                + "hasNext() to check for feature availability");
+            }
+            return nextFeature;
+        } finally {
+            nextFeature = null;
+            next = null;
+        }
+    }
+
+    private void startProducer() throws IOException {
+        // resolve the decoders while this thread is still the only one using the connection
+        SQLDialect dialect = dataStore.getSQLDialect();
+        decoders = new SQLDialect.RawGeometryDecoder[featureType.getAttributeCount()];
+        for (int i = 0; i < decoders.length; i++) {
+            AttributeDescriptor type = featureType.getDescriptor(i);
+            if (type instanceof GeometryDescriptor) {
+                try {
+                    decoders[i] =
+                            dialect.getRawGeometryDecoder(
+                                    (GeometryDescriptor) type, geometryFactory, cx, hints);
+                } catch (SQLException e) {
+                    throw new DataSourceException("Failed to set up the geometry decoders", e);
+                }
+            }
+        }
+
+        Object hint = hints != null ? hints.get(JDBCDataStore.PREFETCH_EXECUTOR) : null;
+        Executor executor = hint instanceof Executor ? (Executor) hint : DefaultExecutor.INSTANCE;
+        try {
+            executor.execute(this::produce);
+        } catch (RejectedExecutionException e) {
+            throw new DataSourceException("Could not start the prefetch task", e);
+        }
+        started = true;
+    }
+
+    /** Returns the next raw row, or null if there are no more rows */
+    private Object[] nextRow() throws IOException {
+        while (current == null || position >= current.size) {
+            if (current != null) {
+                if (current.last) {
+                    return null;
+                }
+                // give the buffer back to the background thread
+                free.add(current);
+                current = null;
+            }
+            try {
+                current = takeBuffer();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for rows", e);
+            }
+            position = 0;
+            if (current.error != null) {
+                Throwable error = current.error;
+                current.size = 0;
+                current.last = true;
+                if (error instanceof SQLException) {
+                    callback.rowError((SQLException) error);
+                    throw new RuntimeException(error);
+                } else if (error instanceof IOException) {
+                    throw (IOException) error;
+                } else if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                } else if (error instanceof Error) {
+                    throw (Error) error;
+                }
+                throw new DataSourceException(error);
+            }
+        }
+        return current.rows[position++];
+    }
+
+    /**
+     * Waits for the next filled buffer, failing if the background task is over without having
+     * handed over its last buffer
+     */
+    private RowBuffer takeBuffer() throws InterruptedException, IOException {
+        RowBuffer buffer = full.poll(PRODUCER_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        while (buffer == null) {
+            if (finished.getCount() == 0) {
+                // the task might have handed over the buffer right before ending
+                buffer = full.poll();
+                if (buffer == null) {
+                    throw new DataSourceException("The prefetch task stopped before the last row");
+                }
+            } else {
+                buffer = full.poll(PRODUCER_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        }
+        return buffer;
+    }
+
+    /** Fills the row buffers with the result set contents, runs in the background thread */
+    void produce() {
+        if (!claimed.compareAndSet(false, true)) {
+            // the reader got closed before the task could start
+            return;
+        }
+        try {
+            fill();
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    private void fill() {
+        final SQLDialect dialect = dataStore.getSQLDialect();
+        final int[] attributeRsIndex = getAttributeRsIndex();
+        final int attributeCount = featureType.getAttributeCount();
+        try {
+            while (!cancelled) {
+                RowBuffer buffer = free.take();
+                buffer.size = 0;
+                while (buffer.size < BUFFER_ROWS && !cancelled) {
+                    callback.beforeNext(rs);
+                    boolean hasNext = rs.next();
+                    callback.afterNext(rs, hasNext);
+                    if (!hasNext) {
+                        buffer.last = true;
+                        break;
+                    }
+
+                    Object[] row = buffer.rows[buffer.size++];
+                    row[0] = dataStore.encodeFID(pkey, rs, offset);
+                    for (int i = 0; i < attributeCount; i++) {
+                        AttributeDescriptor type = featureType.getDescriptor(i);
+                        int column = offset + attributeRsIndex[i];
+                        Object value;
+                        if (type instanceof GeometryDescriptor) {
+                            value =
+                                    dialect.readRawGeometryValue(
+                                            (GeometryDescriptor) type,
+                                            rs,
+                                            column,
+                                            geometryFactory,
+                                            cx,
+                                            hints);
+                        } else {
+                            value = rs.getObject(column);
+                            // these might need the connection to be read, convert them right away
+                            if (value instanceof Array
+                                    || value instanceof Blob
+                                    || value instanceof Clob) {
+                                value = convertValue(type, value);
+                            }
+                        }
+                        row[i + 1] = value;
+                    }
+                }
+                boolean last = buffer.last;
+                full.put(buffer);
+                if (last) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.FINE, "Prefetch thread interrupted, stopping", e);
+            fail(new IOException("The prefetch task was interrupted", e));
+        } catch (Throwable t) { // NOSONAR
+            fail(t);
+        }
+    }
+
+    /**
+     * Reports the failure to the decoding thread. The queue has room for one more buffer than the
+     * ones circulating, so this never blocks nor fails.
+     */
+    private void fail(Throwable t) {
+        if (!full.offer(new RowBuffer(t))) {
+            LOGGER.log(Level.WARNING, "Failed to report a prefetch error", t);
+        }
+    }
+
+    /** Builds a feature out of a raw row, returns null if the row is to be skipped */
+    private SimpleFeature decode(Object[] row) throws IOException {
+        String fid = (String) row[0];
+        if (fid == null) {
+            // fid could be null during an outer join
+            return null;
+        }
+        fid = featureType.getTypeName() + "." + fid;
+
+        final int attributeCount = featureType.getAttributeCount();
+        for (int i = 0; i < attributeCount; i++) {
+            AttributeDescriptor type = featureType.getDescriptor(i);
+            Object value = row[i + 1];
+            row[i + 1] = null;
+            if (type instanceof GeometryDescriptor && value != null) {
+                GeometryDescriptor gatt = (GeometryDescriptor) type;
+                value = decoders[i].decode(value);
+                if (value != null) {
+                    value = prepareGeometry(gatt, (Geometry) value);
+                    if (value == null) {
+                        // skipped by the screenmap
+                        builder.reset();
+                        return null;
+                    }
+                }
+            }
+            builder.add(convertValue(type, value));
+        }
+
+        try {
+            return builder.buildFeature(fid);
+        } catch (IllegalAttributeException e) {
+            builder.reset();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the result set cannot be closed while the background thread is using it
+        stopProducer();
+        super.close();
+    }
+
+    private void stopProducer() {
+        cancelled = true;
+        // might be called by the superclass constructor, before the buffers are set up
+        if (!started) {
+            return;
+        }
+        started = false;
+        if (claimed.compareAndSet(false, true)) {
+            // the task did not start yet, and now it never will
+            return;
+        }
+        // keep the ring moving until the background thread notices the cancellation, it won't be
+        // interrupted as some drivers close the connection when that happens
+        boolean interrupted = false;
+        while (finished.getCount() > 0) {
+            RowBuffer buffer;
+            while ((buffer = full.poll()) != null) {
+                free.offer(buffer);
+            }
+            try {
+                finished.await(10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.geometry.jts.CurvedGeometry;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+/**
+ * A cache of query results, shared by all the feature sources of a {@link JDBCDataStore}, bounded
+ * by the estimated amount of memory used.
+ *
+ * <p>Results are keyed by the feature type name, the generated SQL and its parameters, and are
+ * stored compactly, as the feature ids and the attribute values, with geometries encoded as WKB.
+ * Only reads against {@link org.geotools.data.Transaction#AUTO_COMMIT} are cached. Writes
+ * invalidate the cached results of the modified feature type, both when they happen and when their
+ * transaction is committed.
+ *
+ * <p>Each feature type has a generation counter, bumped on invalidation, so that a query that was
+ * running while its feature type got modified won't store stale results.
+ */
+public class JDBCResultCache {
+
+    static final Logger LOGGER = Logging.getLogger(JDBCResultCache.class);
+
+    /** Rough number of bytes used by an object header and its reference */
+    static final int OBJECT_OVERHEAD = 16;
+
+    /** The key of a cached result */
+    static final class Key {
+        final String typeName;
+
+        final String sql;
+
+        final Object[] parameters;
+
+        final int hashCode;
+
+        Key(String typeName, String sql, List<Object> parameters) {
+            this.typeName = typeName;
+            this.sql = sql;
+            this.parameters = parameters.toArray();
+            this.hashCode =
+                    31 * (31 * typeName.hashCode() + sql.hashCode())
+                            + Arrays.deepHashCode(this.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hashCode == other.hashCode
+                    && typeName.equals(other.typeName)
+                    && sql.equals(other.sql)
+                    && Arrays.deepEquals(parameters, other.parameters);
+        }
+
+        @Override
+        public String toString() {
+            return sql + " " + Arrays.deepToString(parameters);
+        }
+    }
+
+    /** A geometry encoded as WKB, wrapped to tell it apart from binary attributes */
+    static final class WKB {
+        final byte[] bytes;
+
+        WKB(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    /** The cached result of a query, the rows hold the attribute values, geometries as WKB */
+    static final class Result {
+        final String[] fids;
+
+        final Object[][] rows;
+
+        final long bytes;
+
+        Result(String[] fids, Object[][] rows, long bytes) {
+            this.fids = fids;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Collects the features read by a query into a {@link Result}, giving up as soon as the result
+     * grows too large, or contains values that cannot be cached
+     */
+    final class Collector {
+        final Key key;
+
+        final long generation;
+
+        List<String> fids = new ArrayList<>();
+
+        List<Object[]> rows = new ArrayList<>();
+
+        long bytes = OBJECT_OVERHEAD * 4;
+
+        WKBWriter writer2D;
+
+        WKBWriter writer3D;
+
+        Collector(Key key, long generation) {
+            this.key = key;
+            this.generation = generation;
+        }
+
+        /** Adds a feature, returns false if the result cannot be cached */
+        boolean add(String fid, List<Object> attributes) {
+            if (rows == null) {
+                return false;
+            }
+            Object[] row = new Object[attributes.size()];
+            long rowBytes = OBJECT_OVERHEAD * 2 + estimate(fid) + OBJECT_OVERHEAD * row.length;
+            for (int i = 0; i < row.length; i++) {
+                Object value = attributes.get(i);
+                if (value instanceof Geometry) {
+                    value = toWKB((Geometry) value);
+                    if (value == null) {
+                        return abort();
+                    }
+                } else {
+                    value = copy(value);
+                }
+                row[i] = value;
+                rowBytes += estimate(value);
+            }
+            bytes += rowBytes;
+            if (bytes > getMaxResultBytes()) {
+                return abort();
+            }
+            fids.add(fid);
+            rows.add(row);
+            return true;
+        }
+
+        private boolean abort() {
+            fids = null;
+            rows = null;
+            return false;
+        }
+
+        private WKB toWKB(Geometry geometry) {
+            // these would not survive the round trip
+            if (geometry instanceof CurvedGeometry
+                    || geometry instanceof LinearRing
+                    || geometry.isEmpty()) {
+                return null;
+            }
+            Coordinate c = geometry.getCoordinate();
+            if (c != null && !Double.isNaN(c.getZ())) {
+                if (writer3D == null) {
+                    writer3D = new WKBWriter(3, true);
+                }
+                return new WKB(writer3D.write(geometry));
+            } else {
+                if (writer2D == null) {
+                    writer2D = new WKBWriter(2, true);
+                }
+                return new WKB(writer2D.write(geometry));
+            }
+        }
+
+        /** Stores the collected result in the cache, if it was not given up */
+        void complete() {
+            if (rows != null) {
+                put(
+                        key,
+                        generation,
+                        new Result(
+                                fids.toArray(new String[fids.size()]),
+                                rows.toArray(new Object[rows.size()][]),
+                                bytes));
+                fids = null;
+                rows = null;
+            }
+        }
+    }
+
+    final long maxBytes;
+
+    final LinkedHashMap<Key, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    final Map<String, Long> generations = new HashMap<>();
+
+    long bytes;
+
+    long hits;
+
+    long misses;
+
+    /** @param maxBytes The maximum amount of memory used by the cached results, estimated */
+    public JDBCResultCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Returns the cached result for the key, or null if not available */
+    synchronized Result get(Key key) {
+        Result result = results.get(key);
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    /**
+     * Starts collecting the results of a query, to be stored under the specified key once complete
+     */
+    synchronized Collector collect(Key key) {
+        return new Collector(key, generation(key.typeName));
+    }
+
+    synchronized void put(Key key, long generation, Result result) {
+        // skip if the feature type got modified while the query was running
+        if (generation != generation(key.typeName)) {
+            return;
+        }
+        Result previous = results.put(key, result);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += result.bytes;
+        // evict the least recently used results
+        Iterator<Result> it = results.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    private long generation(String typeName) {
+        Long generation = generations.get(typeName);
+        return generation == null ? 0 : generation;
+    }
+
+    /** Drops the cached results of the specified feature type */
+    public synchronized void invalidate(String typeName) {
+        generations.put(typeName, generation(typeName) + 1);
+        Iterator<Map.Entry<Key, Result>> it = results.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Result> entry = it.next();
+            if (entry.getKey().typeName.equals(typeName)) {
+                bytes -= entry.getValue().bytes;
+                it.remove();
+            }
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Invalidated cached results for " + typeName);
+        }
+    }
+
+    /** Drops all the cached results */
+    public synchronized void clear() {
+        for (Key key : results.keySet()) {
+            generations.put(key.typeName, generation(key.typeName) + 1);
+        }
+        results.clear();
+        bytes = 0;
+    }
+
+    /** The maximum amount of memory used by the cached results */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * The size of the largest result that will be cached, larger ones would evict too many others
+     */
+    public long getMaxResultBytes() {
+        return maxBytes / 4;
+    }
+
+    /** The estimated amount of memory used by the cached results */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /** The number of cached results */
+    public synchronized int getSize() {
+        return results.size();
+    }
+
+    /** The number of queries that have been served from the cache */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** The number of queries that had to be run against the database */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** The ratio of queries served from the cache, between 0 and 1 */
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "JDBCResultCache [size="
+                + getSize()
+                + ", bytes="
+                + getBytes()
+                + ", maxBytes="
+                + maxBytes
+                + ", hitRatio="
+                + getHitRatio()
+                + "]";
+    }
+
+    /** Turns a cached value back into an attribute value */
+    static Object toValue(Object value, WKBReader reader) {
+        if (value instanceof WKB) {
+            try {
+                return reader.read(((WKB) value).bytes);
+            } catch (ParseException e) {
+                throw new IllegalStateException("Could not decode a cached geometry", e);
+            }
+        }
+        return copy(value);
+    }
+
+    /** Copies the mutable values, so that neither the cache nor its users can alter them */
+    static Object copy(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        } else if (value instanceof Object[]) {
+            return ((Object[]) value).clone();
+        }
+        return value;
+    }
+
+    static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return OBJECT_OVERHEAD * 2 + ((String) value).length() * 2;
+        } else if (value instanceof WKB) {
+            return OBJECT_OVERHEAD * 2 + ((WKB) value).bytes.length;
+        } else if (value instanceof byte[]) {
+            return OBJECT_OVERHEAD + ((byte[]) value).length;
+        } else if (value instanceof Object[]) {
+            long size = OBJECT_OVERHEAD;
+            for (Object o : (Object[]) value) {
+                size += OBJECT_OVERHEAD + estimate(o);
+            }
+            return size;
+        }
+        return OBJECT_OVERHEAD * 2;
+    }
+}
@@ -19,6 +19,8 @@ package org.geotools.jdbc;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Logger;
 import org.geotools.data.Transaction;
 import org.geotools.data.Transaction.State;
@@ -36,6 +38,8 @@ final class JDBCTransactionState implements State {
      * attempt to commit, rollback or close will be done)
      */
     boolean external;
+    /** The feature types modified in this transaction, whose cached results must be dropped */
+    Set<String> modifiedTypes = new HashSet<>();
 
     public JDBCTransactionState(Connection cx, JDBCDataStore dataStore) {
         this(cx, dataStore, false);
@@ -82,9 +86,23 @@ final class JDBCTransactionState implements State {
                 throw (IOException) new IOException(msg).initCause(e);
             }
         }
+        // results cached while the transaction was running did not see its changes
+        JDBCResultCache cache = dataStore.getResultCache();
+        if (cache != null) {
+            for (String typeName : modifiedTypes) {
+                cache.invalidate(typeName);
+            }
+        }
+        modifiedTypes.clear();
+    }
+
+    /** Records a feature type as modified by this transaction */
+    void modified(String typeName) {
+        modifiedTypes.add(typeName);
     }
 
     public void rollback() throws IOException {
+        modifiedTypes.clear();
         if (!external) {
             try {
                 cx.rollback();
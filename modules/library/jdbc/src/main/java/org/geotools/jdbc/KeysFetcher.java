@@ -151,6 +151,15 @@ abstract class KeysFetcher {
     protected abstract List<Object> getNextValues(Connection cx, SimpleFeature feature)
             throws IOException, SQLException;
 
+    /**
+     * Returns the key values of features about to be bulk inserted, that is, without any chance to
+     * get back values generated by the database.
+     *
+     * @return The key values of each feature, or null if some of them are only known after insert
+     */
+    public abstract List<List<Object>> getBulkValues(
+            Connection cx, List<? extends SimpleFeature> features) throws IOException, SQLException;
+
     /** @return true if the given field is part of the primary key. */
     public boolean isKey(String name) {
         return columnNames.contains(name);
@@ -215,6 +224,16 @@ abstract class KeysFetcher {
         public List<Object> getNextValues(Connection cx, SimpleFeature feature) {
             return JDBCDataStore.decodeFID(key, feature.getID(), true);
         }
+
+        @Override
+        public List<List<Object>> getBulkValues(
+                Connection cx, List<? extends SimpleFeature> features) {
+            List<List<Object>> result = new ArrayList<>(features.size());
+            for (SimpleFeature feature : features) {
+                result.add(getNextValues(cx, feature));
+            }
+            return result;
+        }
     }
 
     /** Class for a PK that has it's value computed from the database. */
@@ -344,6 +363,27 @@ abstract class KeysFetcher {
             return ret;
         }
 
+        @Override
+        public List<List<Object>> getBulkValues(
+                Connection cx, List<? extends SimpleFeature> features)
+                throws IOException, SQLException {
+            int count = features.size();
+            List<List<Object>> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(new ArrayList<>(fetchers.size()));
+            }
+            for (KeyFetcher fetcher : fetchers) {
+                List<Object> values = fetcher.getNextValues(cx, count);
+                if (values == null) {
+                    return null;
+                }
+                for (int i = 0; i < count; i++) {
+                    result.get(i).add(values.get(i));
+                }
+            }
+            return result;
+        }
+
         @Override
         public boolean hasAutoGeneratedKeys() {
             for (KeyFetcher fetcher : fetchers) {
@@ -362,6 +402,26 @@ abstract class KeysFetcher {
 
         public abstract Object getNext(Connection cx) throws IOException, SQLException;
 
+        /**
+         * Returns the next values for a bulk insert, or null if they can only be known after insert
+         */
+        public List<Object> getNextValues(Connection cx, int count)
+                throws IOException, SQLException {
+            if (isPostInsert()) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Object value = getNext(cx);
+                if (value == null) {
+                    // left to the database to generate
+                    return null;
+                }
+                result.add(value);
+            }
+            return result;
+        }
+
         KeyFetcher(JDBCDataStore ds, PrimaryKeyColumn col) {
             this.col = col;
             StringBuffer colName = new StringBuffer();
@@ -582,6 +642,14 @@ abstract class KeysFetcher {
                     && ds.getSQLDialect() instanceof PreparedStatementSQLDialect;
         }
 
+        @Override
+        public List<Object> getNextValues(Connection cx, int count) throws SQLException {
+            // sequence values can always be fetched before insert, in a single round trip
+            String sequenceName = ((SequencedPrimaryKeyColumn) col).getSequenceName();
+            return ds.getSQLDialect()
+                    .getNextSequenceValues(ds.getDatabaseSchema(), sequenceName, count, cx);
+        }
+
         @Override
         public Object getNext(Connection cx) throws IOException, SQLException {
             if (isPostInsert()) {
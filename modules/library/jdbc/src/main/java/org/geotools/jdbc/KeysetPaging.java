@@ -0,0 +1,232 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.data.PagingCursor;
+import org.geotools.data.Query;
+import org.geotools.util.Converters;
+import org.geotools.util.factory.Hints;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Keyset (seek) paging support: turns the {@link Hints#PAGING_CURSOR} of a sorted query into a
+ * predicate selecting the rows after the cursor, used in place of the offset. The primary key is
+ * appended to the sort of the queries carrying the cursor, so that the order is total and
+ * consistent across pages, the other queries are left untouched.
+ *
+ * <p>Keyset paging is used only when all the sort columns are not nullable, as the position of the
+ * nulls in the sort order is database dependent, otherwise the query falls back on the offset.
+ */
+class KeysetPaging {
+
+    static final Logger LOGGER = Logging.getLogger(KeysetPaging.class);
+
+    /** The query sort, with the primary key appended */
+    final SortBy[] sortBy;
+
+    final List<String> columns = new ArrayList<>();
+
+    final List<Object> values = new ArrayList<>();
+
+    final List<Class<?>> bindings = new ArrayList<>();
+
+    final boolean[] ascending;
+
+    /** The index of the values in the order they have been encoded as prepared statement params */
+    final List<Integer> parameters = new ArrayList<>();
+
+    private KeysetPaging(SortBy[] sortBy, int columnCount) {
+        this.sortBy = sortBy;
+        this.ascending = new boolean[columnCount];
+    }
+
+    /**
+     * Returns the keyset paging for the query, or null if the query has no paging cursor, or cannot
+     * be paged by keyset
+     *
+     * @param store The store
+     * @param featureType The feature type of the query
+     * @param query The query
+     */
+    static KeysetPaging create(JDBCDataStore store, SimpleFeatureType featureType, Query query)
+            throws IOException {
+        Object hint = query.getHints() != null ? query.getHints().get(Hints.PAGING_CURSOR) : null;
+        SortBy[] sortBy = query.getSortBy();
+        SQLDialect dialect = store.getSQLDialect();
+        if (!(hint instanceof PagingCursor)
+                || sortBy == null
+                || sortBy.length == 0
+                || !dialect.isKeysetPagingSupported()
+                || !dialect.isLimitOffsetSupported()
+                || store.getVirtualTables().containsKey(featureType.getTypeName())) {
+            return null;
+        }
+        PagingCursor cursor = (PagingCursor) hint;
+        PrimaryKey key = store.getPrimaryKey(featureType);
+        if (key instanceof NullPrimaryKey
+                || key.getColumns().isEmpty()
+                || cursor.getSortValues().size() != sortBy.length) {
+            return null;
+        }
+        List<Object> keyValues;
+        try {
+            keyValues = JDBCDataStore.decodeFID(key, cursor.getFeatureId(), true);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.FINE, "Paging cursor feature id does not match the primary key", e);
+            return null;
+        }
+
+        // the sort is made total appending the primary key, unless already there
+        SortBy[] totalSort = totalSort(sortBy);
+        int columnCount = 0;
+        for (SortBy sb : totalSort) {
+            if (sb == SortBy.NATURAL_ORDER || sb == SortBy.REVERSE_ORDER) {
+                columnCount += key.getColumns().size();
+            } else {
+                columnCount++;
+            }
+        }
+
+        // the sort properties might not be part of the returned ones
+        SimpleFeatureType schema = store.getSchema(featureType.getTypeName());
+        KeysetPaging paging = new KeysetPaging(totalSort, columnCount);
+        for (int i = 0; i < totalSort.length; i++) {
+            SortBy sb = totalSort[i];
+            boolean asc = sb.getSortOrder() != SortOrder.DESCENDING;
+            if (sb == SortBy.NATURAL_ORDER || sb == SortBy.REVERSE_ORDER) {
+                for (int j = 0; j < key.getColumns().size(); j++) {
+                    PrimaryKeyColumn column = key.getColumns().get(j);
+                    paging.add(column.getName(), asc, keyValues.get(j), column.getType());
+                }
+            } else {
+                AttributeDescriptor ad =
+                        schema.getDescriptor(sb.getPropertyName().getPropertyName());
+                if (ad == null
+                        || ad.isNillable()
+                        || Geometry.class.isAssignableFrom(ad.getType().getBinding())) {
+                    return null;
+                }
+                Class<?> binding = ad.getType().getBinding();
+                Object value = Converters.convert(cursor.getSortValues().get(i), binding);
+                if (value == null) {
+                    return null;
+                }
+                paging.add(ad.getLocalName(), asc, value, binding);
+            }
+        }
+        return paging;
+    }
+
+    /**
+     * Returns the sort to be used for a query that cannot be paged by keyset. Queries carrying a
+     * paging cursor get the primary key appended, so that the order is the same used by the pages
+     * that can seek the cursor, the sort of any other query is returned as is.
+     *
+     * @param store The store
+     * @param featureType The feature type of the query
+     * @param query The query
+     */
+    static SortBy[] getSortBy(JDBCDataStore store, SimpleFeatureType featureType, Query query)
+            throws IOException {
+        Object hint = query.getHints() != null ? query.getHints().get(Hints.PAGING_CURSOR) : null;
+        SortBy[] sortBy = query.getSortBy();
+        SQLDialect dialect = store.getSQLDialect();
+        if (!(hint instanceof PagingCursor)
+                || sortBy == null
+                || sortBy.length == 0
+                || !dialect.isKeysetPagingSupported()
+                || !dialect.isLimitOffsetSupported()
+                || store.getVirtualTables().containsKey(featureType.getTypeName())) {
+            return sortBy;
+        }
+        PrimaryKey key = store.getPrimaryKey(featureType);
+        if (key instanceof NullPrimaryKey || key.getColumns().isEmpty()) {
+            return sortBy;
+        }
+        return totalSort(sortBy);
+    }
+
+    /** Appends the primary key to the sort, unless already there */
+    private static SortBy[] totalSort(SortBy[] sortBy) {
+        for (SortBy sb : sortBy) {
+            if (sb == SortBy.NATURAL_ORDER || sb == SortBy.REVERSE_ORDER) {
+                return sortBy;
+            }
+        }
+        SortBy[] totalSort = Arrays.copyOf(sortBy, sortBy.length + 1);
+        totalSort[sortBy.length] = SortBy.NATURAL_ORDER;
+        return totalSort;
+    }
+
+    private void add(String column, boolean asc, Object value, Class<?> binding) {
+        ascending[columns.size()] = asc;
+        columns.add(column);
+        values.add(value);
+        bindings.add(binding);
+    }
+
+    /** Encodes the keyset predicate, with literal values */
+    void encode(BasicSQLDialect dialect, StringBuffer sql) {
+        dialect.encodeKeysetPredicate(
+                columns,
+                ascending,
+                (s, i) -> dialect.encodeValue(values.get(i), bindings.get(i), s),
+                sql);
+    }
+
+    /** Encodes the keyset predicate, with prepared statement parameters */
+    void encode(PreparedStatementSQLDialect dialect, StringBuffer sql) {
+        parameters.clear();
+        dialect.encodeKeysetPredicate(
+                columns,
+                ascending,
+                (s, i) -> {
+                    s.append("?");
+                    parameters.add(i);
+                },
+                sql);
+    }
+
+    /**
+     * Sets the prepared statement parameters encoded by {@link #encode(PreparedStatementSQLDialect,
+     * StringBuffer)}
+     *
+     * @param offset The number of parameters preceding the predicate ones
+     */
+    void setParameters(
+            PreparedStatementSQLDialect dialect, PreparedStatement ps, int offset, Connection cx)
+            throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            int index = parameters.get(i);
+            dialect.setValue(values.get(index), bindings.get(index), ps, offset + i + 1, cx);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+import org.geotools.data.Transaction;
+import org.geotools.util.Converters;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Splits a full table read in disjoint SQL predicates, that can be run concurrently on separate
+ * connections. The dialect is asked first (see {@link SQLDialect#getScanPartitions(String, String,
+ * int, Connection)}), otherwise the range between the minimum and maximum value of a single column
+ * numeric primary key is split in equal parts.
+ *
+ * <p>The first and last predicates are open ended, so that the partitions cover the whole table
+ * even if rows are added while they are being read.
+ */
+class PartitionedScan {
+
+    static final Logger LOGGER = Logging.getLogger(PartitionedScan.class);
+
+    private PartitionedScan() {}
+
+    /**
+     * Returns the predicates splitting the table in about the requested number of partitions, an
+     * empty list if the table is better read in one go, or null if the table cannot be split
+     *
+     * @param store The store
+     * @param featureType The feature type of the table to be split
+     * @param partitions The desired number of partitions
+     */
+    static List<String> getPredicates(
+            JDBCDataStore store, SimpleFeatureType featureType, int partitions) throws IOException {
+        String tableName = featureType.getTypeName();
+        if (store.getVirtualTables().containsKey(tableName)) {
+            // might be parametric, and has no physical row locator
+            return null;
+        }
+
+        Connection cx = store.getConnection(Transaction.AUTO_COMMIT);
+        try {
+            SQLDialect dialect = store.getSQLDialect();
+            List<String> predicates =
+                    dialect.getScanPartitions(store.getDatabaseSchema(), tableName, partitions, cx);
+            if (predicates == null) {
+                predicates = getKeyRangePredicates(store, featureType, partitions, cx);
+            }
+            return predicates;
+        } catch (SQLException e) {
+            throw new IOException("Failed to split the scan of " + tableName, e);
+        } finally {
+            store.closeSafe(cx);
+        }
+    }
+
+    /** Splits the range of a single column, numeric primary key */
+    static List<String> getKeyRangePredicates(
+            JDBCDataStore store, SimpleFeatureType featureType, int partitions, Connection cx)
+            throws IOException, SQLException {
+        PrimaryKey key = store.getPrimaryKey(featureType);
+        if (key.getColumns().size() != 1
+                || !Number.class.isAssignableFrom(key.getColumns().get(0).getType())) {
+            return null;
+        }
+        SQLDialect dialect = store.getSQLDialect();
+        String column = key.getColumns().get(0).getName();
+
+        StringBuffer sql = new StringBuffer("SELECT MIN(");
+        dialect.encodeColumnName(null, column, sql);
+        sql.append("), MAX(");
+        dialect.encodeColumnName(null, column, sql);
+        sql.append(") FROM ");
+        store.encodeTableName(featureType.getTypeName(), sql, null);
+        LOGGER.fine(sql.toString());
+
+        BigInteger min;
+        BigInteger max;
+        try (Statement st = cx.createStatement();
+                ResultSet rs = st.executeQuery(sql.toString())) {
+            rs.next();
+            BigDecimal minValue = Converters.convert(rs.getObject(1), BigDecimal.class);
+            BigDecimal maxValue = Converters.convert(rs.getObject(2), BigDecimal.class);
+            if (minValue == null || maxValue == null) {
+                // empty table, no point splitting it
+                return Collections.emptyList();
+            }
+            min = minValue.setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+            max = maxValue.setScale(0, RoundingMode.CEILING).toBigIntegerExact();
+        }
+
+        // boundaries splitting [min, max] in equal parts, skipping the duplicate ones
+        BigInteger range = max.subtract(min).add(BigInteger.ONE);
+        BigInteger count = BigInteger.valueOf(partitions);
+        List<BigInteger> bounds = new ArrayList<>();
+        for (int i = 1; i < partitions; i++) {
+            BigInteger bound = min.add(range.multiply(BigInteger.valueOf(i)).divide(count));
+            if (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(bound)) {
+                bounds.add(bound);
+            }
+        }
+
+        List<String> predicates = new ArrayList<>();
+        for (int i = 0; i <= bounds.size(); i++) {
+            StringBuffer predicate = new StringBuffer();
+            if (i > 0) {
+                dialect.encodeColumnName(null, column, predicate);
+                predicate.append(" >= ").append(bounds.get(i - 1));
+            }
+            if (i < bounds.size()) {
+                if (i > 0) {
+                    predicate.append(" AND ");
+                }
+                dialect.encodeColumnName(null, column, predicate);
+                predicate.append(" < ").append(bounds.get(i));
+            }
+            if (predicate.length() == 0) {
+                // single partition
+                return Collections.emptyList();
+            }
+            predicates.add(predicate.toString());
+        }
+        return predicates;
+    }
+}
@@ -28,17 +28,23 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.data.Join.Type;
 import org.geotools.data.Query;
 import org.geotools.feature.visitor.CountVisitor;
+import org.geotools.feature.visitor.EqualAreaListVisitor;
 import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MedianVisitor;
 import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.QuantileListVisitor;
+import org.geotools.feature.visitor.StandardDeviationVisitor;
 import org.geotools.feature.visitor.SumVisitor;
 import org.geotools.feature.visitor.UniqueVisitor;
 import org.geotools.filter.FilterCapabilities;
@@ -52,6 +58,7 @@ import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.feature.type.GeometryDescriptor;
@@ -370,7 +377,11 @@ public abstract class SQLDialect {
      *   <li>
      * </ul>
      *
-     * Subclasses should extend (not override) to provide additional functions.
+     * Subclasses should extend (not override) to provide additional functions. Databases supporting
+     * them can also map {@link MedianVisitor} (only used for numeric values) and {@link
+     * StandardDeviationVisitor} (population standard deviation), encoding them in {@link
+     * #encodeAggregateFunction(String, String, StringBuffer)} if they do not follow the usual
+     * <code>function(expression)</code> syntax.
      */
     public void registerAggregateFunctions(
             Map<Class<? extends FeatureVisitor>, String> aggregates) {
@@ -382,6 +393,31 @@ public abstract class SQLDialect {
         aggregates.put(SumVisitor.class, "sum");
     }
 
+    /**
+     * Encodes an aggregate function, as registered in {@link #registerAggregateFunctions(Map)},
+     * applied to an already encoded expression. The default implementation encodes <code>
+     * function(expression)</code>, subclasses can override to handle functions using a different
+     * syntax, e.g., <code>percentile_cont(0.5) WITHIN GROUP (ORDER BY expression)</code> for a
+     * median.
+     *
+     * @param function The aggregate function name
+     * @param expression The encoded expression the function is applied to, "*" for a count
+     * @param sql The buffer to append to
+     */
+    public void encodeAggregateFunction(String function, String expression, StringBuffer sql) {
+        sql.append(function).append("(").append(expression).append(")");
+    }
+
+    /**
+     * Returns true if the database supports the <code>ntile</code> and <code>sum</code> window
+     * functions, along with <code>nullif</code>, so that the store can use them to compute quantile
+     * and equal area classifications ({@link QuantileListVisitor} and {@link EqualAreaListVisitor})
+     * without loading all the values in memory.
+     */
+    public boolean isWindowFunctionSupported() {
+        return false;
+    }
+
     /**
      * Returns the java class mapping for a particular column.
      *
@@ -593,6 +629,44 @@ public abstract class SQLDialect {
         return 2;
     }
 
+    /**
+     * Returns the metadata of all the geometry columns in the specified schema, keyed by table and
+     * column name, gathered in as few queries as possible. Used when introspecting the whole schema
+     * at once, see {@link JDBCDataStore#setBulkIntrospection(boolean)}.
+     *
+     * <p>Each entry should provide the binding, and the srid and dimension if known, the columns
+     * missing from the result, or without srid and dimension, are handled by {@link
+     * #getMapping(ResultSet, Connection)}, {@link #getGeometrySRID(String, String, String,
+     * Connection)} and {@link #getGeometryDimension(String, String, String, Connection)} as usual.
+     *
+     * <p>The default implementation returns <code>null</code>, subclasses should override if the
+     * database keeps a catalog of geometry columns.
+     *
+     * @param schemaName The database schema, could be <code>null</code>.
+     * @param cx The database connection.
+     */
+    public Map<String, Map<String, ColumnMetadata>> getGeometryColumnMetadata(
+            String schemaName, Connection cx) throws SQLException {
+        return null;
+    }
+
+    /**
+     * Returns a fingerprint of the structure of the specified schema (tables, columns, types,
+     * primary keys and indexes), that changes whenever the structure does, used to validate the
+     * schema snapshots saved on disk, see {@link
+     * JDBCDataStore#setSchemaSnapshotFile(java.io.File)}. The fingerprint should be computed by a
+     * single, cheap, catalog query.
+     *
+     * <p>The default implementation returns <code>null</code>, in which case the store computes a
+     * fingerprint out of the table columns metadata.
+     *
+     * @param schemaName The database schema, could be <code>null</code>.
+     * @param cx The database connection.
+     */
+    public String getSchemaFingerprint(String schemaName, Connection cx) throws SQLException {
+        return null;
+    }
+
     /**
      * Turns the specified srid into a {@link CoordinateReferenceSystem}, or returns <code>null
      * </code> if not possible.
@@ -755,6 +829,52 @@ public abstract class SQLDialect {
         return decodeGeometryValue(descriptor, rs, columnName, factory, cx, hints);
     }
 
+    /**
+     * Reads a geometry value from the result of a query in a raw form, that will be turned into a
+     * {@link Geometry} later by a {@link RawGeometryDecoder}, possibly in a different thread.
+     *
+     * <p>This is used by the pipelined readers (see {@link JDBCDataStore#setPrefetchDepth(int)}) to
+     * keep the geometry parsing out of the thread reading the result set. Subclasses whose
+     * geometries are transferred in some binary or textual form should return it as is, the default
+     * implementation decodes the geometry right away.
+     */
+    public Object readRawGeometryValue(
+            GeometryDescriptor descriptor,
+            ResultSet rs,
+            int column,
+            GeometryFactory factory,
+            Connection cx,
+            Hints hints)
+            throws IOException, SQLException {
+        return decodeGeometryValue(descriptor, rs, column, factory, cx, hints);
+    }
+
+    /**
+     * Returns the decoder turning the values read by {@link
+     * #readRawGeometryValue(GeometryDescriptor, ResultSet, int, GeometryFactory, Connection,
+     * Hints)} into geometries. It is called once, before the result set gets scrolled, so anything
+     * depending on the connection (e.g., the database version) has to be resolved here: the decoder
+     * runs while the connection is in use by the thread reading the result set, and must not use
+     * it.
+     *
+     * <p>The default implementation returns the raw value, which is already a geometry.
+     */
+    public RawGeometryDecoder getRawGeometryDecoder(
+            GeometryDescriptor descriptor, GeometryFactory factory, Connection cx, Hints hints)
+            throws IOException, SQLException {
+        return raw -> (Geometry) raw;
+    }
+
+    /**
+     * Decodes the raw geometry values of an attribute, see {@link
+     * #getRawGeometryDecoder(GeometryDescriptor, GeometryFactory, Connection, Hints)}
+     */
+    public interface RawGeometryDecoder {
+
+        /** Turns a raw value, never null, into a geometry */
+        Geometry decode(Object raw) throws IOException;
+    }
+
     /**
      * Encodes the primary key definition in a CREATE TABLE statement.
      *
@@ -1055,6 +1175,33 @@ public abstract class SQLDialect {
         return null;
     }
 
+    /**
+     * Obtains the next values of a sequence, incrementing the sequence to the next state in the
+     * process, for bulk inserts.
+     *
+     * <p>The default implementation calls {@link #getNextSequenceValue(String, String, Connection)}
+     * once per value, subclasses should override if the database can generate many values in a
+     * single round trip.
+     *
+     * @param schemaName The schema name, this might be <code>null</code>.
+     * @param sequenceName The name of the sequence.
+     * @param count The number of values to generate
+     * @param cx The database connection.
+     * @return The next values of the sequence, or <code>null</code>.
+     */
+    public List<Object> getNextSequenceValues(
+            String schemaName, String sequenceName, int count, Connection cx) throws SQLException {
+        List<Object> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object value = getNextSequenceValue(schemaName, sequenceName, cx);
+            if (value == null) {
+                return null;
+            }
+            result.add(value);
+        }
+        return result;
+    }
+
     /**
      * Encodes how to get the next sequence value from the DB.
      *
@@ -1102,6 +1249,120 @@ public abstract class SQLDialect {
                 "Ovveride this method when isLimitOffsetSupported returns true");
     }
 
+    /**
+     * Returns true if this dialect can page through sorted queries with a keyset predicate, as
+     * requested by the {@link Hints#PAGING_CURSOR} hint, instead of an offset. See {@link
+     * #encodeKeysetPredicate(List, boolean[], ObjIntConsumer, StringBuffer)}.
+     */
+    public boolean isKeysetPagingSupported() {
+        return false;
+    }
+
+    /**
+     * Encodes a predicate selecting the rows that follow the paging cursor in the sort order, given
+     * the sort columns (primary key included) and their direction. Columns are never null.
+     *
+     * <p>The default implementation encodes the portable expanded form <code>
+     * c1 &gt;= v1 AND (c1 &gt; v1 OR (c1 = v1 AND c2 &gt; v2) OR ...)</code>, where the redundant
+     * leading bound allows a range scan on an index of the first column.
+     *
+     * @param columns The sort column names
+     * @param ascending The sort direction of each column
+     * @param values Encodes the cursor value of the column at the given index, as a literal or as a
+     *     prepared statement parameter, depending on the dialect
+     * @param sql The buffer to append the predicate to
+     */
+    public void encodeKeysetPredicate(
+            List<String> columns,
+            boolean[] ascending,
+            ObjIntConsumer<StringBuffer> values,
+            StringBuffer sql) {
+        int count = columns.size();
+        sql.append("(");
+        if (count > 1) {
+            encodeColumnName(null, columns.get(0), sql);
+            sql.append(ascending[0] ? " >= " : " <= ");
+            values.accept(sql, 0);
+            sql.append(" AND (");
+        }
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("(");
+            for (int j = 0; j < i; j++) {
+                encodeColumnName(null, columns.get(j), sql);
+                sql.append(" = ");
+                values.accept(sql, j);
+                sql.append(" AND ");
+            }
+            encodeColumnName(null, columns.get(i), sql);
+            sql.append(ascending[i] ? " > " : " < ");
+            values.accept(sql, i);
+            sql.append(")");
+        }
+        if (count > 1) {
+            sql.append(")");
+        }
+        sql.append(")");
+    }
+
+    /**
+     * Splits a full read of a table in disjoint partitions, that will be read concurrently on
+     * separate connections (see {@link org.geotools.data.PartitionedFeatureSource}). Each partition
+     * is described by a SQL predicate, the predicates must not overlap and must cover the whole
+     * table, including rows added after the split.
+     *
+     * <p>Subclasses can override to split the table using some physical row locator. The default
+     * implementation returns null, letting the store split on ranges of the primary key.
+     *
+     * @param schemaName The database schema, may be null
+     * @param tableName The table to be split
+     * @param partitions The desired number of partitions
+     * @param cx The database connection
+     * @return The partition predicates, or null if the dialect cannot split the table
+     */
+    public List<String> getScanPartitions(
+            String schemaName, String tableName, int partitions, Connection cx)
+            throws SQLException {
+        return null;
+    }
+
+    /**
+     * Returns true if this dialect can load features in bulk, using some native facility faster
+     * than batched inserts, see {@link #bulkInsert(SimpleFeatureType, Collection, PrimaryKey, List,
+     * Connection)}. Bulk inserts are used when the {@link JDBCDataStore#JDBC_BULK_INSERT}
+     * transaction property is set.
+     */
+    public boolean isBulkInsertSupported() {
+        return false;
+    }
+
+    /**
+     * Loads the features in the table backing the feature type, using the native bulk loading
+     * facilities of the database.
+     *
+     * <p>The primary key values are computed before the load, the key columns are to be set with
+     * them, skipping the attributes exposing the same columns.
+     *
+     * @param featureType The feature type of the features
+     * @param features The features to be inserted
+     * @param key The table primary key
+     * @param keyValues The primary key values of each feature
+     * @param cx The database connection
+     * @return true if the features have been loaded, false if the dialect cannot bulk load this
+     *     feature type, or these features, and regular inserts should be used instead
+     */
+    public boolean bulkInsert(
+            SimpleFeatureType featureType,
+            Collection<? extends SimpleFeature> features,
+            PrimaryKey key,
+            List<List<Object>> keyValues,
+            Connection cx)
+            throws IOException, SQLException {
+        return false;
+    }
+
     /**
      * Add hints to the JDBC Feature Source. A subclass can override
      *
@@ -0,0 +1,572 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * The structure of the tables in a database schema, gathered with a few catalog queries instead of
+ * a set of queries per table, see {@link JDBCDataStore#setBulkIntrospection(boolean)}.
+ *
+ * <p>The snapshot holds the columns metadata of each table, including the geometry srid and
+ * dimension when the dialect can provide them in bulk, and the primary keys found so far in the
+ * catalog. It can be saved on disk, and reused as long as the schema fingerprint does not change.
+ * The file uses a versioned binary layout of plain values, written and read back field by field.
+ */
+public class SchemaSnapshot {
+
+    static final Logger LOGGER = Logging.getLogger(SchemaSnapshot.class);
+
+    /** Marks the beginning of a snapshot file */
+    static final int MAGIC = 0x47545353;
+
+    /** The version of the snapshot file layout */
+    static final int VERSION = 2;
+
+    /** A primary key column, in a form that can be saved */
+    static final class KeyColumn {
+
+        final String name;
+
+        final Class<?> binding;
+
+        final boolean autoGenerated;
+
+        final String sequence;
+
+        KeyColumn(String name, Class<?> binding, boolean autoGenerated, String sequence) {
+            this.name = name;
+            this.binding = binding;
+            this.autoGenerated = autoGenerated;
+            this.sequence = sequence;
+        }
+
+        PrimaryKeyColumn toColumn() {
+            if (autoGenerated) {
+                return new AutoGeneratedPrimaryKeyColumn(name, binding);
+            } else if (sequence != null) {
+                return new SequencedPrimaryKeyColumn(name, binding, sequence);
+            } else {
+                return new NonIncrementingPrimaryKeyColumn(name, binding);
+            }
+        }
+    }
+
+    final String databaseSchema;
+
+    final String fingerprint;
+
+    /** The columns of each table */
+    final Map<String, List<ColumnMetadata>> columns = new ConcurrentHashMap<>();
+
+    /** The primary key column names of each table, as found by the bulk lookup */
+    final Map<String, List<String>> keyColumnNames = new ConcurrentHashMap<>();
+
+    /** The primary keys resolved so far from the database catalog */
+    final Map<String, List<KeyColumn>> primaryKeys = new ConcurrentHashMap<>();
+
+    volatile boolean modified;
+
+    SchemaSnapshot(String databaseSchema, String fingerprint) {
+        this.databaseSchema = databaseSchema;
+        this.fingerprint = fingerprint;
+    }
+
+    /** The database schema this snapshot describes, could be <code>null</code> */
+    public String getDatabaseSchema() {
+        return databaseSchema;
+    }
+
+    /** The fingerprint of the schema structure at the time the snapshot was taken */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /** The tables whose columns are part of the snapshot */
+    public Set<String> getTableNames() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /** Returns the columns of the specified table, or null if not part of the snapshot */
+    public List<ColumnMetadata> getColumns(String tableName) {
+        return columns.get(tableName);
+    }
+
+    /**
+     * Returns the names of the primary key columns of the table, an empty list if the table has no
+     * primary key, or null if not known
+     */
+    List<String> getPrimaryKeyColumnNames(String tableName) {
+        return keyColumnNames.get(tableName);
+    }
+
+    /** Returns the metadata of the specified column, or null if not part of the snapshot */
+    ColumnMetadata getColumn(String tableName, String columnName) {
+        List<ColumnMetadata> tableColumns = columns.get(tableName);
+        if (tableColumns != null) {
+            for (ColumnMetadata column : tableColumns) {
+                if (column.name.equals(columnName)) {
+                    return column;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Returns the primary key of the table, if already resolved, or null otherwise */
+    PrimaryKey getPrimaryKey(String tableName) {
+        List<KeyColumn> keyColumns = primaryKeys.get(tableName);
+        if (keyColumns == null || keyColumns.isEmpty()) {
+            return null;
+        }
+        List<PrimaryKeyColumn> result = new ArrayList<>(keyColumns.size());
+        for (KeyColumn column : keyColumns) {
+            result.add(column.toColumn());
+        }
+        return new PrimaryKey(tableName, result);
+    }
+
+    /**
+     * Records the primary key found in the database catalog for a table. Keys coming from other
+     * sources, such as the primary key metadata table, must not be recorded, as the schema
+     * fingerprint does not cover them.
+     */
+    void setPrimaryKey(String tableName, PrimaryKey key) {
+        if (key instanceof NullPrimaryKey || key.getColumns().isEmpty()) {
+            return;
+        }
+        List<KeyColumn> keyColumns = new ArrayList<>();
+        for (PrimaryKeyColumn column : key.getColumns()) {
+            Class<?> type = column.getClass();
+            if (type == AutoGeneratedPrimaryKeyColumn.class) {
+                keyColumns.add(new KeyColumn(column.getName(), column.getType(), true, null));
+            } else if (type == SequencedPrimaryKeyColumn.class) {
+                String sequence = ((SequencedPrimaryKeyColumn) column).getSequenceName();
+                keyColumns.add(new KeyColumn(column.getName(), column.getType(), false, sequence));
+            } else if (type == NonIncrementingPrimaryKeyColumn.class) {
+                keyColumns.add(new KeyColumn(column.getName(), column.getType(), false, null));
+            } else {
+                // custom column type, cannot be recorded
+                return;
+            }
+        }
+        primaryKeys.put(tableName, keyColumns);
+        modified = true;
+    }
+
+    /** Drops all the information about the specified table */
+    void remove(String tableName) {
+        columns.remove(tableName);
+        keyColumnNames.remove(tableName);
+        primaryKeys.remove(tableName);
+        modified = true;
+    }
+
+    /** Returns true if the snapshot has been modified since it was built, loaded or saved */
+    boolean isModified() {
+        return modified;
+    }
+
+    void setModified(boolean modified) {
+        this.modified = modified;
+    }
+
+    /**
+     * Builds a new snapshot of the store schema, reading the columns of all tables in one query,
+     * and the primary keys in another, if the driver supports it
+     *
+     * @param store The store
+     * @param fingerprint The schema fingerprint provided by the dialect, or null to have it
+     *     computed out of the columns metadata
+     * @param cx The connection
+     */
+    static SchemaSnapshot build(JDBCDataStore store, String fingerprint, Connection cx)
+            throws SQLException {
+        SQLDialect dialect = store.getSQLDialect();
+        String databaseSchema = store.getDatabaseSchema();
+        DatabaseMetaData metaData = cx.getMetaData();
+        Map<String, Map<String, ColumnMetadata>> geometries =
+                dialect.getGeometryColumnMetadata(databaseSchema, cx);
+        if (geometries == null) {
+            geometries = Collections.emptyMap();
+        }
+
+        // the columns of all tables, keyed by table name, sorted for the fingerprint
+        Map<String, List<ColumnMetadata>> tableColumns = new TreeMap<>();
+        Map<String, String> tableSchemas = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        MessageDigest digest = getDigest();
+        boolean autoIncrementAvailable = true;
+        ResultSet rs =
+                metaData.getColumns(
+                        cx.getCatalog(),
+                        store.escapeNamePattern(metaData, databaseSchema),
+                        "%",
+                        "%");
+        try {
+            if (store.getFetchSize() > 0) {
+                rs.setFetchSize(store.getFetchSize());
+            }
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                String schemaName = rs.getString("TABLE_SCHEM");
+                // tables with the same name in different schemas are left to the table by table
+                // lookups, the store cannot tell them apart
+                String previous = tableSchemas.putIfAbsent(tableName, String.valueOf(schemaName));
+                if (previous != null && !previous.equals(String.valueOf(schemaName))) {
+                    ambiguous.add(tableName);
+                }
+
+                ColumnMetadata column = new ColumnMetadata();
+                column.name = rs.getString("COLUMN_NAME");
+                column.typeName = rs.getString("TYPE_NAME");
+                column.sqlType = rs.getInt("DATA_TYPE");
+                column.nullable = "YES".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
+                Map<String, ColumnMetadata> tableGeometries = geometries.get(tableName);
+                ColumnMetadata geometry =
+                        tableGeometries != null ? tableGeometries.get(column.name) : null;
+                if (geometry != null) {
+                    column.binding = geometry.binding;
+                    column.srid = geometry.srid;
+                    column.dimension = geometry.dimension;
+                } else {
+                    column.binding = dialect.getMapping(rs, cx);
+                }
+                // support for user defined types, allow the dialect to handle them
+                if (column.sqlType == Types.DISTINCT) {
+                    dialect.handleUserDefinedType(rs, column, cx);
+                }
+                if (autoIncrementAvailable) {
+                    try {
+                        String autoIncrement = rs.getString("IS_AUTOINCREMENT");
+                        if ("YES".equalsIgnoreCase(autoIncrement)) {
+                            column.autoIncrement = Boolean.TRUE;
+                        } else if ("NO".equalsIgnoreCase(autoIncrement)) {
+                            column.autoIncrement = Boolean.FALSE;
+                        }
+                    } catch (SQLException e) {
+                        // JDBC 4.1 column, not available in older drivers
+                        autoIncrementAvailable = false;
+                    }
+                }
+
+                tableColumns.computeIfAbsent(tableName, t -> new ArrayList<>()).add(column);
+            }
+        } finally {
+            store.closeSafe(rs);
+        }
+        for (String tableName : ambiguous) {
+            tableColumns.remove(tableName);
+        }
+
+        if (fingerprint == null) {
+            for (Map.Entry<String, List<ColumnMetadata>> entry : tableColumns.entrySet()) {
+                for (ColumnMetadata column : entry.getValue()) {
+                    update(
+                            digest,
+                            entry.getKey(),
+                            column.name,
+                            column.typeName,
+                            column.sqlType,
+                            column.nullable,
+                            column.autoIncrement);
+                }
+            }
+        }
+
+        // the primary keys of all tables, if the driver allows to skip the table name
+        Map<String, Map<Short, String>> keys = new HashMap<>();
+        try {
+            rs = metaData.getPrimaryKeys(null, databaseSchema, null);
+            try {
+                while (rs.next()) {
+                    keys.computeIfAbsent(rs.getString("TABLE_NAME"), t -> new TreeMap<>())
+                            .put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                }
+            } finally {
+                store.closeSafe(rs);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Could not look up all the primary keys at once", e);
+            keys.clear();
+        }
+
+        if (fingerprint == null) {
+            for (Map.Entry<String, Map<Short, String>> entry : new TreeMap<>(keys).entrySet()) {
+                update(digest, entry.getKey(), entry.getValue().values());
+            }
+            fingerprint = toHex(digest.digest());
+        }
+
+        SchemaSnapshot snapshot = new SchemaSnapshot(databaseSchema, fingerprint);
+        snapshot.columns.putAll(tableColumns);
+        // an empty result means the driver needs a table name, the keys are unknown then
+        if (!keys.isEmpty()) {
+            for (String tableName : tableColumns.keySet()) {
+                Map<Short, String> key = keys.get(tableName);
+                snapshot.keyColumnNames.put(
+                        tableName,
+                        key == null ? Collections.emptyList() : new ArrayList<>(key.values()));
+            }
+        }
+        LOGGER.fine(
+                "Built a schema snapshot covering "
+                        + snapshot.columns.size()
+                        + " tables, "
+                        + snapshot.keyColumnNames.size()
+                        + " primary keys");
+        return snapshot;
+    }
+
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, Object... values) {
+        for (Object value : values) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a snapshot from disk, returns null if the file cannot be read or does not contain a
+     * snapshot for the specified schema
+     */
+    static SchemaSnapshot read(File file, String databaseSchema) {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a schema snapshot file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported schema snapshot version " + version);
+            }
+            String schema = readString(in);
+            if (!Objects.equals(databaseSchema, schema)) {
+                LOGGER.info(
+                        "Ignoring schema snapshot " + file + ", it's not about " + databaseSchema);
+                return null;
+            }
+            SchemaSnapshot snapshot = new SchemaSnapshot(schema, readString(in));
+            int tables = in.readInt();
+            for (int i = 0; i < tables; i++) {
+                String tableName = in.readUTF();
+                int count = in.readInt();
+                List<ColumnMetadata> tableColumns = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    ColumnMetadata column = new ColumnMetadata();
+                    column.name = readString(in);
+                    column.typeName = readString(in);
+                    column.sqlType = in.readInt();
+                    column.nullable = in.readBoolean();
+                    column.binding = readClass(in);
+                    column.srid = readInteger(in);
+                    column.dimension = readInteger(in);
+                    byte autoIncrement = in.readByte();
+                    column.autoIncrement = autoIncrement < 0 ? null : autoIncrement == 1;
+                    tableColumns.add(column);
+                }
+                snapshot.columns.put(tableName, tableColumns);
+            }
+            int keys = in.readInt();
+            for (int i = 0; i < keys; i++) {
+                String tableName = in.readUTF();
+                int count = in.readInt();
+                List<String> names = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    names.add(in.readUTF());
+                }
+                snapshot.keyColumnNames.put(tableName, names);
+            }
+            int primaryKeys = in.readInt();
+            for (int i = 0; i < primaryKeys; i++) {
+                String tableName = in.readUTF();
+                int count = in.readInt();
+                List<KeyColumn> keyColumns = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    keyColumns.add(
+                            new KeyColumn(
+                                    in.readUTF(), readClass(in), in.readBoolean(), readString(in)));
+                }
+                snapshot.primaryKeys.put(tableName, keyColumns);
+            }
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(
+                    Level.WARNING, "Could not read schema snapshot " + file + ", ignoring it", e);
+        }
+        return null;
+    }
+
+    /** Writes the snapshot to disk, replacing the file atomically if possible */
+    synchronized void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            Files.createDirectories(parent.toPath());
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, databaseSchema);
+                writeString(out, fingerprint);
+                Map<String, List<ColumnMetadata>> tables = new TreeMap<>(columns);
+                out.writeInt(tables.size());
+                for (Map.Entry<String, List<ColumnMetadata>> entry : tables.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (ColumnMetadata column : entry.getValue()) {
+                        writeString(out, column.name);
+                        writeString(out, column.typeName);
+                        out.writeInt(column.sqlType);
+                        out.writeBoolean(column.nullable);
+                        writeClass(out, column.binding);
+                        writeInteger(out, column.srid);
+                        writeInteger(out, column.dimension);
+                        out.writeByte(
+                                column.autoIncrement == null ? -1 : column.autoIncrement ? 1 : 0);
+                    }
+                }
+                Map<String, List<String>> keys = new TreeMap<>(keyColumnNames);
+                out.writeInt(keys.size());
+                for (Map.Entry<String, List<String>> entry : keys.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (String name : entry.getValue()) {
+                        out.writeUTF(name);
+                    }
+                }
+                Map<String, List<KeyColumn>> resolved = new TreeMap<>(primaryKeys);
+                out.writeInt(resolved.size());
+                for (Map.Entry<String, List<KeyColumn>> entry : resolved.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (KeyColumn column : entry.getValue()) {
+                        out.writeUTF(column.name);
+                        writeClass(out, column.binding);
+                        out.writeBoolean(column.autoGenerated);
+                        writeString(out, column.sequence);
+                    }
+                }
+            }
+            try {
+                Files.move(
+                        temp.toPath(),
+                        file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            modified = false;
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeClass(DataOutputStream out, Class<?> value) throws IOException {
+        writeString(out, value != null ? value.getName() : null);
+    }
+
+    /** Reads a class by name, without initializing it */
+    private static Class<?> readClass(DataInputStream in) throws IOException {
+        String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader != null) {
+            try {
+                return Class.forName(name, false, loader);
+            } catch (ClassNotFoundException e) {
+                // try with the library own loader
+            }
+        }
+        try {
+            return Class.forName(name, false, SchemaSnapshot.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown column binding " + name, e);
+        }
+    }
+}
@@ -23,25 +23,32 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import org.geotools.data.DataUtilities;
 import org.geotools.data.Query;
 import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.visitor.EqualAreaListVisitor;
 import org.geotools.feature.visitor.GroupByVisitor;
 import org.geotools.feature.visitor.GroupByVisitorBuilder;
 import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MedianVisitor;
 import org.geotools.feature.visitor.MinVisitor;
 import org.geotools.feature.visitor.NearestVisitor;
+import org.geotools.feature.visitor.QuantileListVisitor;
+import org.geotools.feature.visitor.StandardDeviationVisitor;
 import org.geotools.feature.visitor.SumAreaVisitor;
 import org.geotools.feature.visitor.SumVisitor;
 import org.geotools.feature.visitor.UniqueVisitor;
 import org.geotools.filter.IllegalFilterException;
 import org.geotools.filter.SortByImpl;
 import org.geotools.filter.function.FilterFunction_area;
+import org.geotools.filter.function.RangedClassifier;
 import org.geotools.util.Converters;
 import org.opengis.feature.Feature;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Function;
 import org.opengis.filter.expression.PropertyName;
 import org.opengis.filter.sort.SortBy;
 
@@ -426,6 +433,175 @@ public abstract class JDBCAggregateFunctionOnlineTest extends JDBCTestSupport {
         assertEquals("two", result.iterator().next());
     }
 
+    class MyMedianVisitor extends MedianVisitor {
+
+        public MyMedianVisitor(Expression expr) throws IllegalFilterException {
+            super(expr);
+        }
+
+        public void visit(Feature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+
+        public void visit(SimpleFeature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+    }
+
+    public void testMedian() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        PropertyName p = ff.property(aname("doubleProperty"));
+
+        MedianVisitor v = new MyMedianVisitor(p);
+        dataStore.getFeatureSource(tname("ft1")).accepts(Query.ALL, v, null);
+        assertEquals(visited, !dataStore.getAggregateFunctions().containsKey(MedianVisitor.class));
+        assertEquals(1.1, v.getResult().toDouble(), 0.01);
+    }
+
+    public void testMedianWithFilter() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        PropertyName p = ff.property(aname("intProperty"));
+
+        MedianVisitor v = new MyMedianVisitor(p);
+        Filter f = ff.greater(p, ff.literal(0));
+        dataStore.getFeatureSource(tname("ft1")).accepts(new Query(tname("ft1"), f), v, null);
+        assertEquals(visited, !dataStore.getAggregateFunctions().containsKey(MedianVisitor.class));
+        assertEquals(1.5, v.getResult().toDouble(), 0.01);
+    }
+
+    public void testMedianOfStrings() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        PropertyName p = ff.property(aname("stringProperty"));
+
+        // non numeric medians are always computed in memory
+        MedianVisitor v = new MyMedianVisitor(p);
+        dataStore.getFeatureSource(tname("ft1")).accepts(Query.ALL, v, null);
+        assertTrue(visited);
+        assertEquals("two", v.getResult().getValue());
+    }
+
+    class MyStandardDeviationVisitor extends StandardDeviationVisitor {
+
+        public MyStandardDeviationVisitor(Expression expr) {
+            super(expr);
+        }
+
+        public void visit(Feature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+
+        public void visit(SimpleFeature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+    }
+
+    public void testStandardDeviation() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        PropertyName p = ff.property(aname("doubleProperty"));
+
+        StandardDeviationVisitor v = new MyStandardDeviationVisitor(p);
+        dataStore.getFeatureSource(tname("ft1")).accepts(Query.ALL, v, null);
+        assertEquals(
+                visited,
+                !dataStore.getAggregateFunctions().containsKey(StandardDeviationVisitor.class));
+        assertEquals(0.898, v.getResult().toDouble(), 0.001);
+        assertEquals(1.1, v.getMean(), 0.001);
+
+        // the result can still be merged with other partial results, merging the same values
+        // again keeps both mean and deviation unchanged
+        StandardDeviationVisitor partial = (StandardDeviationVisitor) v.createPartial();
+        DataUtilities.visit(dataStore.getFeatureSource(tname("ft1")).getFeatures(), partial, null);
+        v.merge(partial);
+        assertEquals(0.898, v.getResult().toDouble(), 0.001);
+        assertEquals(1.1, v.getMean(), 0.001);
+    }
+
+    class MyQuantileListVisitor extends QuantileListVisitor {
+
+        public MyQuantileListVisitor(Expression expr, int bins) {
+            super(expr, bins);
+        }
+
+        public void visit(Feature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+
+        public void visit(SimpleFeature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+    }
+
+    public void testQuantileList() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        PropertyName p = ff.property(aname("intProperty"));
+
+        QuantileListVisitor v = new MyQuantileListVisitor(p, 2);
+        dataStore.getFeatureSource(tname("ft1")).accepts(Query.ALL, v, null);
+        assertEquals(visited, !dataStore.getSQLDialect().isWindowFunctionSupported());
+        assertBins((List[]) v.getResult().getValue(), 0, 1, 2, 2);
+    }
+
+    public void testQuantileFunction() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        Function quantile =
+                ff.function("Quantile", ff.property(aname("doubleProperty")), ff.literal(3));
+        RangedClassifier classifier =
+                (RangedClassifier)
+                        quantile.evaluate(dataStore.getFeatureSource(tname("ft1")).getFeatures());
+        assertEquals(3, classifier.getSize());
+        assertEquals(0.0, ((Number) classifier.getMin(0)).doubleValue(), 0.01);
+        assertEquals(1.1, ((Number) classifier.getMin(1)).doubleValue(), 0.01);
+        assertEquals(2.2, ((Number) classifier.getMax(2)).doubleValue(), 0.01);
+    }
+
+    class MyEqualAreaListVisitor extends EqualAreaListVisitor {
+
+        public MyEqualAreaListVisitor(Expression expr, Expression area, int bins) {
+            super(expr, area, bins);
+        }
+
+        public void visit(Feature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+
+        public void visit(SimpleFeature feature) {
+            super.visit(feature);
+            visited = true;
+        }
+    }
+
+    public void testEqualAreaList() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        PropertyName p = ff.property(aname("id"));
+        Expression area = ff.function("area2", ff.property(aname("geom")));
+
+        EqualAreaListVisitor v = new MyEqualAreaListVisitor(p, area, 2);
+        dataStore.getFeatureSource(tname("aggregate")).accepts(Query.ALL, v, null);
+        assertEquals(
+                visited,
+                !dataStore.getSQLDialect().isWindowFunctionSupported()
+                        || !dataStore.getFilterCapabilities().supports(FilterFunction_area.class));
+        assertBins((List[]) v.getResult().getValue(), 0, 1, 2, 2);
+    }
+
+    /** Checks the first and last value of each bin, the values are pairs of first and last */
+    private void assertBins(List[] bins, Object... values) {
+        assertEquals(values.length / 2, bins.length);
+        for (int i = 0; i < bins.length; i++) {
+            List bin = bins[i];
+            assertEquals(values[i * 2], Converters.convert(bin.get(0), values[i * 2].getClass()));
+            Object last = bin.get(bin.size() - 1);
+            assertEquals(values[i * 2 + 1], Converters.convert(last, values[i * 2].getClass()));
+        }
+    }
+
     class MyNearestVisitor extends NearestVisitor {
 
         public MyNearestVisitor(Expression expr, Object valueToMatch) {
@@ -0,0 +1,193 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.data.PagingCursor;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.util.factory.Hints;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public abstract class JDBCKeysetPagingOnlineTest extends JDBCTestSupport {
+
+    static final int PAGE_SIZE = 3;
+
+    FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2(null);
+
+    @Override
+    protected abstract JDBCKeysetPagingTestSetup createTestSetup();
+
+    public void testSupportedHint() throws Exception {
+        SimpleFeatureSource fs = dataStore.getFeatureSource(tname("paged"));
+        assertTrue(fs.getSupportedHints().contains(Hints.PAGING_CURSOR));
+    }
+
+    public void testPageAscending() throws Exception {
+        SortBy[] sortBy = {ff.sort(aname("score"), SortOrder.ASCENDING), SortBy.NATURAL_ORDER};
+        assertPagesMatch(sortBy);
+    }
+
+    public void testPageDescending() throws Exception {
+        SortBy[] sortBy = {ff.sort(aname("score"), SortOrder.DESCENDING), SortBy.REVERSE_ORDER};
+        assertPagesMatch(sortBy);
+    }
+
+    public void testPageMixedDirections() throws Exception {
+        SortBy[] sortBy = {
+            ff.sort(aname("score"), SortOrder.DESCENDING),
+            ff.sort(aname("name"), SortOrder.ASCENDING),
+            SortBy.NATURAL_ORDER
+        };
+        assertPagesMatch(sortBy);
+    }
+
+    public void testPageFiltered() throws Exception {
+        SortBy[] sortBy = {ff.sort(aname("score"), SortOrder.ASCENDING), SortBy.NATURAL_ORDER};
+        Query query =
+                new Query(tname("paged"), ff.notEqual(ff.property(aname("name")), ff.literal("e")));
+        query.setSortBy(sortBy);
+        List<String> expected = ids(query);
+        assertEquals(9, expected.size());
+        assertEquals(expected, pageThrough(query, true));
+    }
+
+    public void testCursorReplacesOffset() throws Exception {
+        Query query = new Query(tname("paged"));
+        query.setSortBy(
+                new SortBy[] {ff.sort(aname("score"), SortOrder.ASCENDING), SortBy.NATURAL_ORDER});
+        List<SimpleFeature> all = features(query);
+
+        // no start index, the cursor alone positions the page, and the primary key is used as
+        // the tie breaker even if not part of the sort
+        SortBy[] sortBy = {ff.sort(aname("score"), SortOrder.ASCENDING)};
+        SimpleFeature last = all.get(3);
+        query.setSortBy(sortBy);
+        query.setMaxFeatures(PAGE_SIZE);
+        query.getHints().put(Hints.PAGING_CURSOR, PagingCursor.after(last, sortBy));
+        List<String> expected = new ArrayList<>();
+        for (SimpleFeature f : all.subList(4, 4 + PAGE_SIZE)) {
+            expected.add(f.getID());
+        }
+        assertEquals(expected, ids(query));
+    }
+
+    public void testPlainSortUnchanged() throws Exception {
+        // without a paging cursor the sort is encoded as requested, no tie breaker is added
+        SortBy[] sortBy = {ff.sort(aname("score"), SortOrder.ASCENDING)};
+        Query query = new Query(tname("paged"));
+        query.setSortBy(sortBy);
+        query.setMaxFeatures(PAGE_SIZE);
+        SimpleFeatureType schema = dataStore.getSchema(tname("paged"));
+        assertSame(sortBy, KeysetPaging.getSortBy(dataStore, schema, query));
+        if (dataStore.getSQLDialect() instanceof BasicSQLDialect) {
+            StringBuffer orderBy = new StringBuffer();
+            dataStore.sort(schema, sortBy, null, orderBy);
+            String sql = dataStore.selectSQL(schema, query);
+            int idx = sql.indexOf(orderBy.toString());
+            assertTrue(sql, idx > 0);
+            assertFalse(sql, sql.substring(idx + orderBy.length()).trim().startsWith(","));
+        }
+    }
+
+    public void testNullableFallsBackToOffset() throws Exception {
+        // nullable sort attributes cannot be paged by keyset, the start index is used instead
+        SortBy[] sortBy = {
+            ff.sort(aname("note"), SortOrder.ASCENDING),
+            ff.sort(aname("name"), SortOrder.ASCENDING),
+            SortBy.NATURAL_ORDER
+        };
+        assertPagesMatch(sortBy);
+    }
+
+    public void testStaleCursorFallsBackToOffset() throws Exception {
+        SortBy[] sortBy = {ff.sort(aname("score"), SortOrder.ASCENDING), SortBy.NATURAL_ORDER};
+        Query query = new Query(tname("paged"));
+        query.setSortBy(sortBy);
+        List<String> all = ids(query);
+
+        // the cursor does not match the sort, ignored
+        query.setStartIndex(PAGE_SIZE);
+        query.setMaxFeatures(PAGE_SIZE);
+        query.getHints()
+                .put(Hints.PAGING_CURSOR, new PagingCursor(Arrays.asList(1, "a", null), "paged.1"));
+        assertEquals(all.subList(PAGE_SIZE, 2 * PAGE_SIZE), ids(query));
+    }
+
+    /**
+     * Pages through the table using the paging cursor, and checks the result matches both the
+     * unpaged sorted query and the offset based paging
+     */
+    void assertPagesMatch(SortBy[] sortBy) throws Exception {
+        Query query = new Query(tname("paged"));
+        query.setSortBy(sortBy);
+        List<String> expected = ids(query);
+        assertEquals(10, expected.size());
+        assertEquals(expected, pageThrough(query, true));
+        assertEquals(expected, pageThrough(query, false));
+    }
+
+    List<String> pageThrough(Query base, boolean useCursor) throws Exception {
+        List<String> result = new ArrayList<>();
+        SimpleFeature last = null;
+        for (int page = 0; ; page++) {
+            Query query = new Query(base);
+            query.setHints(new Hints());
+            query.setStartIndex(page * PAGE_SIZE);
+            query.setMaxFeatures(PAGE_SIZE);
+            if (useCursor && last != null) {
+                query.getHints()
+                        .put(Hints.PAGING_CURSOR, PagingCursor.after(last, base.getSortBy()));
+            }
+            List<SimpleFeature> features = features(query);
+            for (SimpleFeature f : features) {
+                result.add(f.getID());
+            }
+            if (features.size() < PAGE_SIZE) {
+                return result;
+            }
+            last = features.get(features.size() - 1);
+        }
+    }
+
+    List<String> ids(Query query) throws Exception {
+        List<String> result = new ArrayList<>();
+        for (SimpleFeature f : features(query)) {
+            result.add(f.getID());
+        }
+        return result;
+    }
+
+    List<SimpleFeature> features(Query query) throws Exception {
+        List<SimpleFeature> result = new ArrayList<>();
+        try (SimpleFeatureIterator it =
+                dataStore.getFeatureSource(tname("paged")).getFeatures(query).features()) {
+            while (it.hasNext()) {
+                result.add(it.next());
+            }
+        }
+        return result;
+    }
+}
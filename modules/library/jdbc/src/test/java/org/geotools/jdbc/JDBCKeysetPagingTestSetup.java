@@ -0,0 +1,64 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.sql.SQLException;
+
+public abstract class JDBCKeysetPagingTestSetup extends JDBCDelegatingTestSetup {
+
+    protected JDBCKeysetPagingTestSetup(JDBCTestSetup delegate) {
+        super(delegate);
+    }
+
+    protected final void setUpData() throws Exception {
+        // kill all the data
+        try {
+            dropPagedTable();
+        } catch (SQLException e) {
+        }
+
+        // create all the data
+        createPagedTable();
+    }
+
+    /**
+     * Creates a table with the following schema:
+     *
+     * <p>paged( id:Integer (primary key); name:String (not null); score:Integer (not null);
+     * note:String (nullable) )
+     *
+     * <p>The table should contain the following data, with ids assigned in insertion order.
+     *
+     * <pre>
+     * name | score | note
+     * a    | 3     | x
+     * b    | 1     | null
+     * c    | 2     | y
+     * d    | 3     | null
+     * e    | 1     | z
+     * f    | 2     | x
+     * g    | 3     | y
+     * h    | 1     | null
+     * i    | 2     | z
+     * j    | 3     | x
+     * </pre>
+     */
+    protected abstract void createPagedTable() throws Exception;
+
+    /** Drops the "paged" table previously created */
+    protected abstract void dropPagedTable() throws Exception;
+}
@@ -0,0 +1,182 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.PartitionedFeatureSource;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.visitor.FeatureCalc;
+import org.geotools.feature.visitor.MergeableVisitor;
+import org.geotools.feature.visitor.ParallelVisitorExecutor;
+import org.geotools.feature.visitor.SumVisitor;
+import org.geotools.feature.visitor.UniqueVisitor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public abstract class JDBCPartitionedScanOnlineTest extends JDBCTestSupport {
+
+    static final int COUNT = 100;
+
+    FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+
+    @Override
+    protected void connect() throws Exception {
+        super.connect();
+
+        SimpleFeatureStore fs = (SimpleFeatureStore) dataStore.getFeatureSource(tname("ft1"));
+        SimpleFeatureType schema = fs.getSchema();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        GeometryFactory gf = new GeometryFactory();
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 3; i < COUNT; i++) {
+            fb.set(aname("geometry"), gf.createPoint(new Coordinate(i, i)));
+            fb.set(aname("intProperty"), i);
+            fb.set(aname("doubleProperty"), i + 0.1);
+            fb.set(aname("stringProperty"), "s" + (i % 10));
+            features.add(fb.buildFeature(null));
+        }
+        fs.addFeatures(new ListFeatureCollection(schema, features));
+    }
+
+    public void testSameFeatures() throws Exception {
+        PartitionedFeatureSource source =
+                (PartitionedFeatureSource) dataStore.getFeatureSource(tname("ft1"));
+        Map<String, SimpleFeature> expected = read(new Query(tname("ft1")));
+        assertEquals(COUNT, expected.size());
+
+        for (int partitions : new int[] {1, 2, 3, 7, 1000}) {
+            try (Stream<SimpleFeature> stream =
+                    source.getFeatureStream(new Query(tname("ft1")), partitions)) {
+                assertNotNull(stream);
+                assertTrue(stream.isParallel());
+                List<SimpleFeature> actual = stream.collect(Collectors.toList());
+                assertEquals(expected.size(), actual.size());
+                for (SimpleFeature a : actual) {
+                    SimpleFeature e = expected.get(a.getID());
+                    assertNotNull(e);
+                    assertEquals(e.getAttributes(), a.getAttributes());
+                }
+            }
+        }
+    }
+
+    public void testFilterAndProperties() throws Exception {
+        PartitionedFeatureSource source =
+                (PartitionedFeatureSource) dataStore.getFeatureSource(tname("ft1"));
+        Query query =
+                new Query(
+                        tname("ft1"),
+                        ff.greater(ff.property(aname("intProperty")), ff.literal(50)),
+                        new String[] {aname("intProperty")});
+        Map<String, SimpleFeature> expected = read(query);
+        assertEquals(COUNT - 51, expected.size());
+        try (Stream<SimpleFeature> stream = source.getFeatureStream(query, 4)) {
+            List<SimpleFeature> actual = stream.collect(Collectors.toList());
+            assertEquals(expected.size(), actual.size());
+            for (SimpleFeature a : actual) {
+                assertEquals(1, a.getAttributeCount());
+                assertEquals(expected.get(a.getID()).getAttributes(), a.getAttributes());
+            }
+        }
+    }
+
+    public void testNotPartitionable() throws Exception {
+        PartitionedFeatureSource source =
+                (PartitionedFeatureSource) dataStore.getFeatureSource(tname("ft1"));
+        Query sorted = new Query(tname("ft1"));
+        sorted.setSortBy(new SortBy[] {ff.sort(aname("intProperty"), SortOrder.ASCENDING)});
+        assertNull(source.getFeatureStream(sorted, 4));
+
+        Query paged = new Query(tname("ft1"));
+        paged.setMaxFeatures(10);
+        assertNull(source.getFeatureStream(paged, 4));
+
+        SimpleFeatureStore store = (SimpleFeatureStore) source;
+        try (Transaction tx = new DefaultTransaction()) {
+            store.setTransaction(tx);
+            assertNull(source.getFeatureStream(new Query(tname("ft1")), 4));
+        }
+    }
+
+    public void testShortCircuit() throws Exception {
+        PartitionedFeatureSource source =
+                (PartitionedFeatureSource) dataStore.getFeatureSource(tname("ft1"));
+        for (int i = 0; i < 20; i++) {
+            try (Stream<SimpleFeature> stream =
+                    source.getFeatureStream(new Query(tname("ft1")), 4)) {
+                assertTrue(stream.anyMatch(f -> f.getDefaultGeometry() != null));
+            }
+        }
+        // connections have been released
+        assertEquals(COUNT, read(new Query(tname("ft1"))).size());
+    }
+
+    public void testParallelVisitors() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ParallelVisitorExecutor executor = new ParallelVisitorExecutor(pool, 5);
+            SimpleFeatureCollection features =
+                    dataStore.getFeatureSource(tname("ft1")).getFeatures();
+            // the function cannot be encoded in SQL, so the visitors have to scan the features
+            for (FeatureCalc sequential :
+                    new FeatureCalc[] {
+                        new SumVisitor(ff.function("abs", ff.property(aname("intProperty")))),
+                        new UniqueVisitor(
+                                ff.function("strToUpperCase", ff.property(aname("stringProperty"))))
+                    }) {
+                FeatureCalc parallel =
+                        (FeatureCalc) ((MergeableVisitor) sequential).createPartial();
+                features.accepts(sequential, null);
+                executor.accepts(features, parallel, null);
+                assertEquals(sequential.getResult().getValue(), parallel.getResult().getValue());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Map<String, SimpleFeature> read(Query query) throws Exception {
+        Map<String, SimpleFeature> result = new HashMap<>();
+        try (SimpleFeatureIterator it =
+                dataStore.getFeatureSource(tname("ft1")).getFeatures(query).features()) {
+            while (it.hasNext()) {
+                SimpleFeature f = it.next();
+                result.put(f.getID(), f);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+public abstract class JDBCPrefetchFeatureReaderOnlineTest extends JDBCTestSupport {
+
+    /** Enough features to fill several row buffers */
+    static final int COUNT = JDBCPrefetchFeatureReader.BUFFER_ROWS * 3 + 7;
+
+    FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+
+    @Override
+    protected void connect() throws Exception {
+        super.connect();
+
+        SimpleFeatureStore fs = (SimpleFeatureStore) dataStore.getFeatureSource(tname("ft1"));
+        SimpleFeatureType schema = fs.getSchema();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        GeometryFactory gf = new GeometryFactory();
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 3; i < COUNT; i++) {
+            fb.set(aname("geometry"), gf.createPoint(new Coordinate(i, i)));
+            fb.set(aname("intProperty"), i);
+            fb.set(aname("doubleProperty"), i + 0.1);
+            fb.set(aname("stringProperty"), "s" + i);
+            features.add(fb.buildFeature(null));
+        }
+        fs.addFeatures(new ListFeatureCollection(schema, features));
+    }
+
+    public void testSameFeatures() throws Exception {
+        Query query = new Query(tname("ft1"));
+        query.setSortBy(new SortBy[] {ff.sort(aname("intProperty"), SortOrder.ASCENDING)});
+
+        List<SimpleFeature> expected = read(query);
+        assertEquals(COUNT, expected.size());
+
+        for (int depth : new int[] {1, 2, 8}) {
+            dataStore.setPrefetchDepth(depth);
+            List<SimpleFeature> actual = read(query);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                SimpleFeature e = expected.get(i);
+                SimpleFeature a = actual.get(i);
+                assertEquals(e.getID(), a.getID());
+                assertEquals(e.getAttributes(), a.getAttributes());
+                Geometry g = (Geometry) a.getDefaultGeometry();
+                assertTrue(g.getUserData() instanceof CoordinateReferenceSystem);
+            }
+        }
+    }
+
+    public void testFilteredAndRetyped() throws Exception {
+        Query query =
+                new Query(
+                        tname("ft1"),
+                        ff.greater(ff.property(aname("intProperty")), ff.literal(500)),
+                        new String[] {aname("stringProperty")});
+        List<SimpleFeature> expected = read(query);
+        dataStore.setPrefetchDepth(2);
+        List<SimpleFeature> actual = read(query);
+        assertEquals(COUNT - 501, actual.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getID(), actual.get(i).getID());
+            assertEquals(expected.get(i).getAttributes(), actual.get(i).getAttributes());
+        }
+        assertEquals(1, actual.get(0).getAttributeCount());
+    }
+
+    public void testEarlyClose() throws Exception {
+        dataStore.setPrefetchDepth(2);
+        for (int i = 0; i < 10; i++) {
+            try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                    dataStore.getFeatureReader(new Query(tname("ft1")), Transaction.AUTO_COMMIT)) {
+                assertTrue(reader.hasNext());
+                reader.next();
+            }
+        }
+        // the connections have been released and the store is still usable
+        assertEquals(COUNT, read(new Query(tname("ft1"))).size());
+    }
+
+    public void testEmpty() throws Exception {
+        dataStore.setPrefetchDepth(2);
+        Query query =
+                new Query(tname("ft1"), ff.less(ff.property(aname("intProperty")), ff.literal(-1)));
+        assertEquals(0, read(query).size());
+    }
+
+    public void testExecutorHint() throws Exception {
+        dataStore.setPrefetchDepth(2);
+        AtomicInteger tasks = new AtomicInteger();
+        Executor executor =
+                command -> {
+                    tasks.incrementAndGet();
+                    new Thread(command).start();
+                };
+        Query query = new Query(tname("ft1"));
+        query.getHints().put(JDBCDataStore.PREFETCH_EXECUTOR, executor);
+        assertEquals(COUNT, read(query).size());
+        assertEquals(1, tasks.get());
+    }
+
+    public void testInterruptedProducer() throws Exception {
+        dataStore.setPrefetchDepth(2);
+        // the background task gets interrupted right away, the reader must fail, not hang
+        Executor executor =
+                command ->
+                        new Thread(
+                                        () -> {
+                                            Thread.currentThread().interrupt();
+                                            command.run();
+                                        })
+                                .start();
+        Query query = new Query(tname("ft1"));
+        query.getHints().put(JDBCDataStore.PREFETCH_EXECUTOR, executor);
+        try {
+            read(query);
+            fail("The interrupted read should have failed");
+        } catch (IOException e) {
+            // fine
+        }
+    }
+
+    private List<SimpleFeature> read(Query query) throws Exception {
+        List<SimpleFeature> result = new ArrayList<>();
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                dataStore.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            while (reader.hasNext()) {
+                result.add(reader.next());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+public abstract class JDBCResultCacheOnlineTest extends JDBCTestSupport {
+
+    FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+
+    @Override
+    protected void connect() throws Exception {
+        super.connect();
+        dataStore.setResultCacheSize(1024 * 1024);
+    }
+
+    public void testCacheHit() throws Exception {
+        JDBCResultCache cache = dataStore.getResultCache();
+        Query query = sortedQuery();
+        List<SimpleFeature> expected = read(query);
+        assertEquals(3, expected.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getSize());
+        assertTrue(cache.getBytes() > 0);
+
+        // modifying the returned features does not alter the cache
+        expected.get(0).setAttribute(aname("stringProperty"), "modified");
+        expected = read(query);
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5, cache.getHitRatio(), 0d);
+
+        List<SimpleFeature> actual = read(query);
+        assertEquals(2, cache.getHits());
+        assertEquals(3, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SimpleFeature e = expected.get(i);
+            SimpleFeature a = actual.get(i);
+            assertEquals(e.getID(), a.getID());
+            assertEquals(e.getAttributes(), a.getAttributes());
+            Geometry g = (Geometry) a.getDefaultGeometry();
+            assertTrue(g.getUserData() instanceof CoordinateReferenceSystem);
+        }
+        assertEquals("zero", actual.get(0).getAttribute(aname("stringProperty")));
+    }
+
+    public void testDifferentQueries() throws Exception {
+        JDBCResultCache cache = dataStore.getResultCache();
+        Query q1 =
+                new Query(
+                        tname("ft1"), ff.greater(ff.property(aname("intProperty")), ff.literal(0)));
+        Query q2 =
+                new Query(
+                        tname("ft1"), ff.greater(ff.property(aname("intProperty")), ff.literal(1)));
+        assertEquals(2, read(q1).size());
+        assertEquals(1, read(q2).size());
+        assertEquals(2, read(q1).size());
+        assertEquals(1, read(q2).size());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getSize());
+    }
+
+    public void testInvalidateOnWrite() throws Exception {
+        JDBCResultCache cache = dataStore.getResultCache();
+        Query query = sortedQuery();
+        assertEquals(3, read(query).size());
+        assertEquals(1, cache.getSize());
+
+        SimpleFeatureStore store = (SimpleFeatureStore) dataStore.getFeatureSource(tname("ft1"));
+        store.removeFeatures(ff.equals(ff.property(aname("intProperty")), ff.literal(0)));
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getBytes());
+        assertEquals(2, read(query).size());
+        assertEquals(0, cache.getHits());
+    }
+
+    public void testInvalidateOnCommit() throws Exception {
+        JDBCResultCache cache = dataStore.getResultCache();
+        try (Transaction tx = new DefaultTransaction()) {
+            SimpleFeatureStore store =
+                    (SimpleFeatureStore) dataStore.getFeatureSource(tname("ft1"));
+            store.setTransaction(tx);
+            store.modifyFeatures(
+                    aname("stringProperty"),
+                    "changed",
+                    ff.equals(ff.property(aname("intProperty")), ff.literal(1)));
+
+            // simulate a result cached by another thread while the transaction is running
+            JDBCResultCache.Key key =
+                    new JDBCResultCache.Key(tname("ft1"), "SELECT", Collections.emptyList());
+            cache.collect(key).complete();
+            assertEquals(1, cache.getSize());
+
+            tx.commit();
+            assertEquals(0, cache.getSize());
+        }
+
+        List<SimpleFeature> features = read(sortedQuery());
+        assertEquals("changed", features.get(1).getAttribute(aname("stringProperty")));
+    }
+
+    public void testNotCachedInTransaction() throws Exception {
+        JDBCResultCache cache = dataStore.getResultCache();
+        try (Transaction tx = new DefaultTransaction()) {
+            try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                    dataStore.getFeatureReader(sortedQuery(), tx)) {
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+            }
+        }
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getMisses());
+    }
+
+    public void testPartialReadNotCached() throws Exception {
+        JDBCResultCache cache = dataStore.getResultCache();
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                dataStore.getFeatureReader(sortedQuery(), Transaction.AUTO_COMMIT)) {
+            reader.hasNext();
+            reader.next();
+        }
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testLargeResultNotCached() throws Exception {
+        dataStore.setResultCacheSize(64);
+        JDBCResultCache cache = dataStore.getResultCache();
+        assertEquals(3, read(sortedQuery()).size());
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getBytes());
+    }
+
+    private Query sortedQuery() {
+        Query query = new Query(tname("ft1"));
+        query.setSortBy(new SortBy[] {ff.sort(aname("intProperty"), SortOrder.ASCENDING)});
+        return query;
+    }
+
+    private List<SimpleFeature> read(Query query) throws Exception {
+        List<SimpleFeature> result = new ArrayList<>();
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                dataStore.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            while (reader.hasNext()) {
+                result.add(reader.next());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public abstract class JDBCSchemaSnapshotOnlineTest extends JDBCTestSupport {
+
+    File snapshotFile;
+
+    List<JDBCDataStore> stores = new ArrayList<>();
+
+    @Override
+    protected void connect() throws Exception {
+        super.connect();
+        snapshotFile = File.createTempFile("schema", ".snapshot");
+        snapshotFile.delete();
+    }
+
+    @Override
+    protected void disconnect() throws Exception {
+        super.disconnect();
+        // they share the data source, dispose them only once it's been closed
+        for (JDBCDataStore store : stores) {
+            store.dispose();
+        }
+        snapshotFile.delete();
+    }
+
+    JDBCDataStore createBulkStore(File snapshotFile) throws Exception {
+        HashMap params = createDataStoreFactoryParams();
+        params.put(JDBCDataStoreFactory.BULK_INTROSPECTION.key, true);
+        if (snapshotFile != null) {
+            params.put(JDBCDataStoreFactory.SCHEMA_SNAPSHOT_FILE.key, snapshotFile);
+        }
+        JDBCDataStore store = setup.createDataStoreFactory().createDataStore(params);
+        setup.setUpDataStore(store);
+        stores.add(store);
+        return store;
+    }
+
+    public void testSameFeatureType() throws Exception {
+        JDBCDataStore bulk = createBulkStore(null);
+        SchemaSnapshot snapshot = bulk.getSchemaSnapshot();
+        assertNotNull(snapshot);
+        assertNotNull(snapshot.getColumns(tname("ft1")));
+
+        SimpleFeatureType expected = dataStore.getSchema(tname("ft1"));
+        SimpleFeatureType actual = bulk.getSchema(tname("ft1"));
+        assertFeatureTypesEqual(expected, actual);
+
+        PrimaryKey expectedKey = dataStore.getPrimaryKey(expected);
+        PrimaryKey actualKey = bulk.getPrimaryKey(actual);
+        assertEquals(expectedKey.getClass(), actualKey.getClass());
+        assertEquals(expectedKey.getColumns().size(), actualKey.getColumns().size());
+        for (int i = 0; i < expectedKey.getColumns().size(); i++) {
+            PrimaryKeyColumn e = expectedKey.getColumns().get(i);
+            PrimaryKeyColumn a = actualKey.getColumns().get(i);
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.getType(), a.getType());
+        }
+    }
+
+    public void testDisabledByDefault() throws Exception {
+        assertFalse(dataStore.isBulkIntrospection());
+        assertNull(dataStore.getSchemaSnapshot());
+    }
+
+    public void testSnapshotPersisted() throws Exception {
+        JDBCDataStore bulk = createBulkStore(snapshotFile);
+        SimpleFeatureType expected = bulk.getSchema(tname("ft1"));
+        String fingerprint = bulk.getSchemaSnapshot().getFingerprint();
+        assertNotNull(fingerprint);
+        // what dispose does, without closing the shared data source
+        assertTrue(bulk.getSchemaSnapshot().isModified());
+        bulk.getSchemaSnapshot().write(snapshotFile);
+
+        // the saved snapshot is reused, primary key included
+        JDBCDataStore reloaded = createBulkStore(snapshotFile);
+        SchemaSnapshot snapshot = reloaded.getSchemaSnapshot();
+        assertEquals(fingerprint, snapshot.getFingerprint());
+        assertNotNull(snapshot.getPrimaryKey(tname("ft1")));
+        assertFeatureTypesEqual(expected, reloaded.getSchema(tname("ft1")));
+    }
+
+    public void testOnlyCatalogKeysRecorded() throws Exception {
+        JDBCDataStore bulk = createBulkStore(null);
+        // a key coming from somewhere else than the catalog, like the metadata table
+        PrimaryKeyFinder configured =
+                new PrimaryKeyFinder() {
+                    @Override
+                    public PrimaryKey getPrimaryKey(
+                            JDBCDataStore store, String schema, String table, Connection cx) {
+                        PrimaryKeyColumn column =
+                                new NonIncrementingPrimaryKeyColumn(
+                                        aname("stringProperty"), String.class);
+                        return new PrimaryKey(table, Collections.singletonList(column));
+                    }
+                };
+        bulk.setPrimaryKeyFinder(
+                new CompositePrimaryKeyFinder(configured, new HeuristicPrimaryKeyFinder()));
+        PrimaryKey key = bulk.getPrimaryKey(bulk.getSchema(tname("ft1")));
+        assertEquals(aname("stringProperty"), key.getColumns().get(0).getName());
+        assertNull(bulk.getSchemaSnapshot().getPrimaryKey(tname("ft1")));
+
+        // the catalog key is recorded, and served back on the next lookup
+        JDBCDataStore other = createBulkStore(null);
+        PrimaryKey catalogKey = other.getPrimaryKey(other.getSchema(tname("ft1")));
+        PrimaryKey recorded = other.getSchemaSnapshot().getPrimaryKey(tname("ft1"));
+        assertNotNull(recorded);
+        assertEquals(
+                catalogKey.getColumns().get(0).getName(), recorded.getColumns().get(0).getName());
+    }
+
+    public void testInvalidSnapshotIgnored() throws Exception {
+        Files.write(snapshotFile.toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        assertNull(SchemaSnapshot.read(snapshotFile, dataStore.getDatabaseSchema()));
+
+        // the store builds a new snapshot and replaces the invalid one
+        JDBCDataStore bulk = createBulkStore(snapshotFile);
+        String fingerprint = bulk.getSchemaSnapshot().getFingerprint();
+        assertNotNull(fingerprint);
+        SchemaSnapshot saved = SchemaSnapshot.read(snapshotFile, dataStore.getDatabaseSchema());
+        assertNotNull(saved);
+        assertEquals(fingerprint, saved.getFingerprint());
+        assertEquals(
+                bulk.getSchemaSnapshot().getColumns(tname("ft1")).size(),
+                saved.getColumns(tname("ft1")).size());
+    }
+
+    public void testSchemaChange() throws Exception {
+        JDBCDataStore bulk = createBulkStore(snapshotFile);
+        String fingerprint = bulk.getSchemaSnapshot().getFingerprint();
+        assertTrue(snapshotFile.exists());
+
+        SimpleFeatureType type =
+                DataUtilities.createType(
+                        tname("snapshot"),
+                        aname("name") + ":String," + aname("value") + ":Integer");
+        dataStore.createSchema(type);
+        try {
+            JDBCDataStore changed = createBulkStore(snapshotFile);
+            SchemaSnapshot snapshot = changed.getSchemaSnapshot();
+            assertFalse(fingerprint.equals(snapshot.getFingerprint()));
+            assertNotNull(snapshot.getColumns(tname("snapshot")));
+            SimpleFeatureType actual = changed.getSchema(tname("snapshot"));
+            assertNotNull(actual.getDescriptor(aname("name")));
+            assertNotNull(actual.getDescriptor(aname("value")));
+        } finally {
+            dataStore.removeSchema(tname("snapshot"));
+        }
+    }
+}
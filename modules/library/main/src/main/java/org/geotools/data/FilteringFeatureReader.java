@@ -17,10 +17,14 @@
 package org.geotools.data;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.NoSuchElementException;
+import org.geotools.filter.FilterCompiler;
 import org.geotools.filter.visitor.BindingFilterVisitor;
 import org.opengis.feature.Feature;
 import org.opengis.feature.IllegalAttributeException;
+import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.FeatureType;
 import org.opengis.filter.Filter;
 
@@ -43,6 +47,33 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
     protected final Filter filter;
     protected F next;
 
+    /**
+     * Maximum number of features read ahead and evaluated at once when the filter has been compiled
+     */
+    static final int BLOCK_SIZE = 256;
+
+    /**
+     * Number of features in the first block, doubled at each new block up to {@link #BLOCK_SIZE},
+     * so that readers closed early, like the ones with a small max features, do not read much more
+     * than they return
+     */
+    static final int MIN_BLOCK_SIZE = 8;
+
+    /** The features read ahead, null if the filter is evaluated one feature at a time */
+    Object[] block;
+
+    /** The positions of the features in the block matching the filter */
+    BitSet matches;
+
+    /** The number of features to read in the next block */
+    int blockSize = MIN_BLOCK_SIZE;
+
+    /** The number of features in the block */
+    int blockCount;
+
+    /** The position in the block from which the next match is searched */
+    int blockPosition;
+
     /**
      * Creates a new instance of AbstractFeatureReader
      *
@@ -54,10 +85,16 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
      */
     public FilteringFeatureReader(FeatureReader<T, F> featureReader, Filter filter) {
         this.featureReader = featureReader;
-        this.filter =
-                (Filter)
-                        filter.accept(
-                                new BindingFilterVisitor(featureReader.getFeatureType()), null);
+        T schema = featureReader.getFeatureType();
+        Filter bound = (Filter) filter.accept(new BindingFilterVisitor(schema), null);
+        if (schema instanceof SimpleFeatureType) {
+            bound = FilterCompiler.compile(bound, (SimpleFeatureType) schema);
+        }
+        this.filter = bound;
+        if (FilterCompiler.isCompiled(bound)) {
+            this.block = new Object[BLOCK_SIZE];
+            this.matches = new BitSet(BLOCK_SIZE);
+        }
         next = null;
     }
 
@@ -106,6 +143,9 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
         if (next != null) {
             return true;
         }
+        if (block != null) {
+            return nextFromBlock();
+        }
         try {
             F peek;
 
@@ -122,4 +162,37 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
         }
         return next != null;
     }
+
+    /**
+     * Finds the next matching feature in the current block, reading and evaluating new blocks as
+     * needed
+     */
+    @SuppressWarnings("unchecked")
+    private boolean nextFromBlock() throws IOException {
+        while (true) {
+            int match = blockPosition < blockCount ? matches.nextSetBit(blockPosition) : -1;
+            if (match >= 0 && match < blockCount) {
+                next = (F) block[match];
+                blockPosition = match + 1;
+                return true;
+            }
+
+            // the current block is exhausted, read the next one
+            Arrays.fill(block, 0, blockCount, null);
+            blockCount = 0;
+            blockPosition = 0;
+            try {
+                while (blockCount < blockSize && featureReader.hasNext()) {
+                    block[blockCount++] = featureReader.next();
+                }
+            } catch (IllegalAttributeException e) {
+                throw new DataSourceException("Could not peek ahead", e);
+            }
+            if (blockCount == 0) {
+                return false;
+            }
+            blockSize = Math.min(blockSize * 2, block.length);
+            FilterCompiler.evaluate(filter, block, blockCount, matches);
+        }
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.geotools.util.factory.Hints;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.sort.SortBy;
+
+/**
+ * The position of a sorted, paged query, that is, the sort values and feature id of the last
+ * feature returned by the previous page. Set in the query hints as {@link Hints#PAGING_CURSOR}, it
+ * allows stores to seek the next page with a predicate on the sort keys, rather than skipping
+ * {@link Query#getStartIndex()} features:
+ *
+ * <pre>
+ * Query query = new Query(typeName, filter);
+ * query.setSortBy(sortBy);
+ * query.setMaxFeatures(pageSize);
+ * query.setStartIndex(page * pageSize);
+ * query.getHints().put(Hints.PAGING_CURSOR, PagingCursor.after(lastFeature, sortBy));
+ * </pre>
+ *
+ * The cursor is only valid for a query with the same filter and sort, stores that cannot use it
+ * fall back on the start index. The sort should be total, for example ending with {@link
+ * SortBy#NATURAL_ORDER}, for the pages to be consistent, stores using the cursor break ties on the
+ * feature id anyways.
+ */
+public class PagingCursor implements Serializable {
+
+    private static final long serialVersionUID = -2960412725271232787L;
+
+    private final List<Object> sortValues;
+
+    private final String featureId;
+
+    /**
+     * Builds a new cursor
+     *
+     * @param sortValues The values of the sort properties, in the same order as the query {@link
+     *     SortBy}, null for {@link SortBy#NATURAL_ORDER} and {@link SortBy#REVERSE_ORDER}
+     * @param featureId The id of the last feature, used to break ties among equal sort values
+     */
+    public PagingCursor(List<Object> sortValues, String featureId) {
+        if (featureId == null) {
+            throw new IllegalArgumentException("The feature id is required");
+        }
+        this.sortValues = Collections.unmodifiableList(new ArrayList<>(sortValues));
+        this.featureId = featureId;
+    }
+
+    /**
+     * Builds the cursor of the page following the specified feature
+     *
+     * @param feature The last feature of the current page, it must contain the sort properties
+     * @param sortBy The query sort
+     */
+    public static PagingCursor after(SimpleFeature feature, SortBy[] sortBy) {
+        List<Object> values = new ArrayList<>(sortBy.length);
+        for (SortBy sb : sortBy) {
+            if (sb == SortBy.NATURAL_ORDER || sb == SortBy.REVERSE_ORDER) {
+                values.add(null);
+            } else {
+                String name = sb.getPropertyName().getPropertyName();
+                if (feature.getFeatureType().getDescriptor(name) == null) {
+                    throw new IllegalArgumentException(
+                            "Sort property " + name + " is not part of the feature");
+                }
+                values.add(feature.getAttribute(name));
+            }
+        }
+        return new PagingCursor(values, feature.getID());
+    }
+
+    /** The values of the sort properties of the last feature */
+    public List<Object> getSortValues() {
+        return sortValues;
+    }
+
+    /** The id of the last feature */
+    public String getFeatureId() {
+        return featureId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PagingCursor that = (PagingCursor) o;
+        return sortValues.equals(that.sortValues) && featureId.equals(that.featureId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortValues, featureId);
+    }
+
+    @Override
+    public String toString() {
+        return "PagingCursor [sortValues=" + sortValues + ", featureId=" + featureId + "]";
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Implemented by feature sources able to split their reads in partitions that can be consumed
+ * concurrently by separate threads.
+ *
+ * <p>To use please check if your feature source implements this interface:
+ *
+ * <pre><code>
+ * if (source instanceof PartitionedFeatureSource) {
+ *     try (Stream&lt;SimpleFeature&gt; stream =
+ *             ((PartitionedFeatureSource) source).getFeatureStream(query, 8)) {
+ *         ...
+ *     }
+ * }
+ * </code></pre>
+ *
+ * @see org.geotools.feature.visitor.ParallelVisitorExecutor
+ */
+public interface PartitionedFeatureSource {
+
+    /**
+     * Returns a parallel stream over the features matching the query. The stream must be closed
+     * after use to release the underlying resources.
+     *
+     * @param query the query to run
+     * @param partitions the number of partitions the reads should be split into, typically the
+     *     number of available cores. Implementations may treat it as a hint, and split the reads
+     *     further
+     * @return the stream, or null if the query cannot be run in partitions (e.g., because it
+     *     requires sorting, paging, or uncommitted transaction state)
+     */
+    Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException;
+}
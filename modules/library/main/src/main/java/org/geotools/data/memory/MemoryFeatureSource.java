@@ -17,10 +17,18 @@
 package org.geotools.data.memory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 import org.geotools.data.FeatureReader;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.Query;
+import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.filter.FilterCompiler;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
@@ -33,7 +41,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  *
  * @author Jody Garnett (Boundless)
  */
-public class MemoryFeatureSource extends ContentFeatureSource {
+public class MemoryFeatureSource extends ContentFeatureSource implements PartitionedFeatureSource {
 
     public MemoryFeatureSource(ContentEntry entry) {
         this(entry, Query.ALL);
@@ -104,4 +112,40 @@ public class MemoryFeatureSource extends ContentFeatureSource {
     protected boolean handleVisitor(Query query, FeatureVisitor visitor) throws IOException {
         return super.handleVisitor(query, visitor);
     }
+
+    /**
+     * Returns a parallel stream over a snapshot of the features in memory. The features are copied,
+     * as {@link MemoryFeatureReader} does, so that the stored ones cannot be modified.
+     */
+    @Override
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        if (getTransaction() != Transaction.AUTO_COMMIT || !isPartitionable(query)) {
+            return null;
+        }
+        List<SimpleFeature> features = new ArrayList<>(getEntry().getMemory().values());
+        Stream<SimpleFeature> stream = features.parallelStream();
+        Filter filter = FilterCompiler.compile(query.getFilter(), getSchema());
+        if (filter != null && filter != Filter.INCLUDE) {
+            stream = stream.filter(f -> filter.evaluate(f));
+        }
+        if (query.getPropertyNames() == Query.ALL_NAMES) {
+            return stream.map(f -> SimpleFeatureBuilder.copy(f));
+        }
+        SimpleFeatureType target =
+                SimpleFeatureTypeBuilder.retype(getSchema(), query.getPropertyNames());
+        return stream.map(f -> SimpleFeatureBuilder.retype(f, target));
+    }
+
+    /**
+     * Checks if the query can be run against independent subsets of the features, that is, if it
+     * does not require sorting, paging, reprojection or joins
+     */
+    boolean isPartitionable(Query query) {
+        return (query.getSortBy() == null || query.getSortBy().length == 0)
+                && query.getStartIndex() == null
+                && query.isMaxFeaturesUnlimited()
+                && query.getCoordinateSystem() == null
+                && query.getCoordinateSystemReproject() == null
+                && query.getJoins().isEmpty();
+    }
 }
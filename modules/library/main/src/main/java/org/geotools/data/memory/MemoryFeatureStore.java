@@ -17,8 +17,10 @@
 package org.geotools.data.memory;
 
 import java.io.IOException;
+import java.util.stream.Stream;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.Transaction;
@@ -29,7 +31,7 @@ import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 
-public class MemoryFeatureStore extends ContentFeatureStore {
+public class MemoryFeatureStore extends ContentFeatureStore implements PartitionedFeatureSource {
 
     public MemoryFeatureStore(ContentEntry entry, Query query) {
         super(entry, query);
@@ -99,6 +101,11 @@ public class MemoryFeatureStore extends ContentFeatureStore {
         return delegate.handleVisitor(query, visitor);
     }
 
+    @Override
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        return delegate.getFeatureStream(query, partitions);
+    }
+
     @Override
     protected QueryCapabilities buildQueryCapabilities() {
         return new QueryCapabilities() {
@@ -0,0 +1,255 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Schema aware binary encoding of the features stored in the sort runs. Unlike {@link
+ * SimpleFeatureIO} no per value marker is written: the null values are tracked in a bit set at the
+ * beginning of the record, integral numbers and dates are variable length encoded, strings are
+ * UTF-8 encoded, and geometries are written as WKB by a shared writer.
+ */
+class FeatureRunCodec {
+
+    static final byte OBJECT = 0;
+
+    static final byte BOOLEAN = 1;
+
+    static final byte BYTE = 2;
+
+    static final byte SHORT = 3;
+
+    static final byte INTEGER = 4;
+
+    static final byte LONG = 5;
+
+    static final byte FLOAT = 6;
+
+    static final byte DOUBLE = 7;
+
+    static final byte STRING = 8;
+
+    static final byte DATE = 9;
+
+    static final byte SQL_DATE = 10;
+
+    static final byte SQL_TIME = 11;
+
+    static final byte TIMESTAMP = 12;
+
+    static final byte GEOMETRY = 13;
+
+    final SimpleFeatureType schema;
+
+    final byte[] kinds;
+
+    final SimpleFeatureBuilder builder;
+
+    final WKBWriter wkbWriter = new WKBWriter();
+
+    final WKBReader wkbReader = new WKBReader();
+
+    FeatureRunCodec(SimpleFeatureType schema) {
+        this.schema = schema;
+        this.builder = new SimpleFeatureBuilder(schema);
+        this.kinds = new byte[schema.getAttributeCount()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = getKind(schema.getDescriptor(i).getType().getBinding());
+        }
+    }
+
+    private static byte getKind(Class<?> binding) {
+        if (binding == Boolean.class) {
+            return BOOLEAN;
+        } else if (binding == Byte.class) {
+            return BYTE;
+        } else if (binding == Short.class) {
+            return SHORT;
+        } else if (binding == Integer.class) {
+            return INTEGER;
+        } else if (binding == Long.class) {
+            return LONG;
+        } else if (binding == Float.class) {
+            return FLOAT;
+        } else if (binding == Double.class) {
+            return DOUBLE;
+        } else if (binding == String.class) {
+            return STRING;
+        } else if (binding == Date.class) {
+            return DATE;
+        } else if (binding == java.sql.Date.class) {
+            return SQL_DATE;
+        } else if (binding == Time.class) {
+            return SQL_TIME;
+        } else if (binding == Timestamp.class) {
+            return TIMESTAMP;
+        } else if (Geometry.class.isAssignableFrom(binding)) {
+            return GEOMETRY;
+        }
+        return OBJECT;
+    }
+
+    /** Appends the encoded feature to the output */
+    void encode(SimpleFeature feature, RunOutput out) throws IOException {
+        out.writeString(feature.getID());
+        // null bit set
+        int count = kinds.length;
+        for (int i = 0; i < count; i += 8) {
+            int bits = 0;
+            for (int j = i; j < Math.min(i + 8, count); j++) {
+                if (feature.getAttribute(j) == null) {
+                    bits |= 1 << (j - i);
+                }
+            }
+            out.write(bits);
+        }
+        // values
+        for (int i = 0; i < count; i++) {
+            Object value = feature.getAttribute(i);
+            if (value != null) {
+                encode(kinds[i], value, out);
+            }
+        }
+    }
+
+    private void encode(byte kind, Object value, RunOutput out) throws IOException {
+        switch (kind) {
+            case BOOLEAN:
+                out.write(((Boolean) value) ? 1 : 0);
+                break;
+            case BYTE:
+            case SHORT:
+            case INTEGER:
+            case LONG:
+                out.writeZigZag(((Number) value).longValue());
+                break;
+            case FLOAT:
+                out.writeInt(Float.floatToRawIntBits(((Number) value).floatValue()));
+                break;
+            case DOUBLE:
+                out.writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+                break;
+            case STRING:
+                out.writeString((String) value);
+                break;
+            case DATE:
+            case SQL_DATE:
+            case SQL_TIME:
+                out.writeZigZag(((Date) value).getTime());
+                break;
+            case TIMESTAMP:
+                out.writeZigZag(((Timestamp) value).getTime());
+                out.writeVarLong(((Timestamp) value).getNanos());
+                break;
+            case GEOMETRY:
+                byte[] wkb = wkbWriter.write((Geometry) value);
+                out.writeVarLong(wkb.length);
+                out.write(wkb, 0, wkb.length);
+                break;
+            default:
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                    oos.writeObject(value);
+                }
+                byte[] bytes = bos.toByteArray();
+                out.writeVarLong(bytes.length);
+                out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    /** Decodes a feature from the specified buffer slice */
+    SimpleFeature decode(byte[] buffer, int offset, int length) throws IOException {
+        RunInput in = new RunInput(buffer, offset, length);
+        String fid = in.readString();
+        int count = kinds.length;
+        int nulls = in.skip((count + 7) >> 3);
+        for (int i = 0; i < count; i++) {
+            if ((buffer[nulls + (i >> 3)] & (1 << (i & 7))) != 0) {
+                builder.add(null);
+            } else {
+                builder.add(decode(kinds[i], in));
+            }
+        }
+        return builder.buildFeature(fid);
+    }
+
+    private Object decode(byte kind, RunInput in) throws IOException {
+        switch (kind) {
+            case BOOLEAN:
+                return in.read() != 0;
+            case BYTE:
+                return (byte) in.readZigZag();
+            case SHORT:
+                return (short) in.readZigZag();
+            case INTEGER:
+                return (int) in.readZigZag();
+            case LONG:
+                return in.readZigZag();
+            case FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case STRING:
+                return in.readString();
+            case DATE:
+                return new Date(in.readZigZag());
+            case SQL_DATE:
+                return new java.sql.Date(in.readZigZag());
+            case SQL_TIME:
+                return new Time(in.readZigZag());
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readZigZag());
+                timestamp.setNanos((int) in.readVarLong());
+                return timestamp;
+            case GEOMETRY:
+                int wkbLength = (int) in.readVarLong();
+                int wkbOffset = in.skip(wkbLength);
+                try {
+                    return wkbReader.read(
+                            Arrays.copyOfRange(in.buffer, wkbOffset, wkbOffset + wkbLength));
+                } catch (ParseException e) {
+                    throw new IOException("Failed to parse the geometry WKB", e);
+                }
+            default:
+                int objectLength = (int) in.readVarLong();
+                int objectOffset = in.skip(objectLength);
+                try (ObjectInputStream ois =
+                        new ObjectInputStream(
+                                new ByteArrayInputStream(in.buffer, objectOffset, objectLength))) {
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Could not read back object", e);
+                }
+        }
+    }
+}
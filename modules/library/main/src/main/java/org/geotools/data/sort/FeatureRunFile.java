@@ -0,0 +1,144 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A temporary file holding sorted runs of encoded features. Each record holds the sort key, prefix
+ * encoded against the previous key of the same run, followed by the feature encoded by {@link
+ * FeatureRunCodec}:
+ *
+ * <pre>
+ * shared key prefix length (varint), key suffix length (varint), key suffix,
+ * payload length (varint), payload
+ * </pre>
+ *
+ * The file is written sequentially, run after run, and then read back by a {@link FeatureRunReader}
+ * per run.
+ */
+class FeatureRunFile {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The position of a run in the file */
+    static final class Run {
+        final long start;
+
+        final long end;
+
+        Run(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    final File file;
+
+    OutputStream out;
+
+    FileChannel channel;
+
+    long length;
+
+    long runStart;
+
+    final RunOutput header = new RunOutput();
+
+    byte[] previousKey = new byte[64];
+
+    int previousKeyLength;
+
+    FeatureRunFile() throws IOException {
+        file = File.createTempFile("sorted", ".runs");
+        out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+    }
+
+    /**
+     * Appends a record to the current run
+     *
+     * @param key The sort key, the records of a run must be written in key order
+     * @param keyLength The sort key length
+     * @param payload The buffer holding the encoded feature
+     * @param offset The encoded feature offset in the buffer
+     * @param payloadLength The encoded feature length
+     */
+    void write(byte[] key, int keyLength, byte[] payload, int offset, int payloadLength)
+            throws IOException {
+        int shared = 0;
+        int max = Math.min(keyLength, previousKeyLength);
+        while (shared < max && key[shared] == previousKey[shared]) {
+            shared++;
+        }
+        header.reset();
+        header.writeVarLong(shared);
+        header.writeVarLong(keyLength - shared);
+        header.write(key, shared, keyLength - shared);
+        header.writeVarLong(payloadLength);
+        out.write(header.getBuffer(), 0, header.size());
+        out.write(payload, offset, payloadLength);
+        length += header.size() + payloadLength;
+
+        if (previousKey.length < keyLength) {
+            previousKey = Arrays.copyOf(key, keyLength * 2);
+        } else {
+            System.arraycopy(key, shared, previousKey, shared, keyLength - shared);
+        }
+        previousKeyLength = keyLength;
+    }
+
+    /** Closes the current run and returns its position, the next records will start a new run */
+    Run endRun() {
+        Run run = new Run(runStart, length);
+        runStart = length;
+        previousKeyLength = 0;
+        return run;
+    }
+
+    /** Opens a reader on the specified run. Once a reader is opened no more runs can be written */
+    FeatureRunReader open(Run run, int index) throws IOException {
+        if (channel == null) {
+            out.close();
+            out = null;
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+        return new FeatureRunReader(channel, run, index, BUFFER_SIZE);
+    }
+
+    /** Closes and deletes the file */
+    void close() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
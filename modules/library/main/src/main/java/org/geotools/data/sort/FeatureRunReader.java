@@ -0,0 +1,137 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import org.geotools.data.sort.FeatureRunFile.Run;
+
+/**
+ * Reads the records of a single run of a {@link FeatureRunFile}, rebuilding the prefix encoded sort
+ * keys. The encoded feature of the current record is exposed as a slice of the read buffer, and is
+ * decoded only when needed.
+ */
+class FeatureRunReader {
+
+    final FileChannel channel;
+
+    final int index;
+
+    long position;
+
+    final long end;
+
+    byte[] buffer;
+
+    int bufferPosition;
+
+    int bufferLimit;
+
+    /** The current key, valid up to keyLength */
+    byte[] key = new byte[64];
+
+    int keyLength;
+
+    /** The current encoded feature, as a slice of the buffer */
+    int payloadOffset;
+
+    int payloadLength;
+
+    /**
+     * Builds a reader for the run
+     *
+     * @param channel The run file channel, read with positional reads only
+     * @param run The run position
+     * @param index The run index, used to keep the merge stable
+     * @param bufferSize The read buffer size
+     */
+    FeatureRunReader(FileChannel channel, Run run, int index, int bufferSize) {
+        this.channel = channel;
+        this.index = index;
+        this.position = run.start;
+        this.end = run.end;
+        this.buffer = new byte[(int) Math.max(16, Math.min(bufferSize, run.end - run.start))];
+    }
+
+    /** Moves to the next record, returns false if the run is over */
+    boolean next() throws IOException {
+        if (bufferPosition == bufferLimit && position >= end) {
+            return false;
+        }
+        int shared = (int) readVarLong();
+        int suffix = (int) readVarLong();
+        ensure(suffix);
+        if (key.length < shared + suffix) {
+            key = Arrays.copyOf(key, (shared + suffix) * 2);
+        }
+        System.arraycopy(buffer, bufferPosition, key, shared, suffix);
+        bufferPosition += suffix;
+        keyLength = shared + suffix;
+
+        payloadLength = (int) readVarLong();
+        ensure(payloadLength);
+        payloadOffset = bufferPosition;
+        bufferPosition += payloadLength;
+        return true;
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            ensure(1);
+            int b = buffer[bufferPosition++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer in sort run");
+    }
+
+    /** Makes sure the buffer holds at least the specified amount of unread bytes */
+    private void ensure(int length) throws IOException {
+        int available = bufferLimit - bufferPosition;
+        if (available >= length) {
+            return;
+        }
+        // compact, and grow the buffer if a record does not fit
+        if (buffer.length < length) {
+            byte[] grown = new byte[Math.max(length, buffer.length * 2)];
+            System.arraycopy(buffer, bufferPosition, grown, 0, available);
+            buffer = grown;
+        } else {
+            System.arraycopy(buffer, bufferPosition, buffer, 0, available);
+        }
+        bufferPosition = 0;
+        bufferLimit = available;
+        while (bufferLimit < length) {
+            int toRead = (int) Math.min(buffer.length - bufferLimit, end - position);
+            if (toRead <= 0) {
+                throw new EOFException("Unexpected end of sort run");
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, bufferLimit, toRead), position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of sort run file");
+            }
+            position += read;
+            bufferLimit += read;
+        }
+    }
+}
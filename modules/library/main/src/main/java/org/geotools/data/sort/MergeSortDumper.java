@@ -24,11 +24,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import org.geotools.data.Query;
 import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.simple.DelegateSimpleFeatureReader;
 import org.geotools.data.simple.SimpleFeatureIterator;
 import org.geotools.data.simple.SimpleFeatureReader;
+import org.geotools.data.sort.FeatureRunFile.Run;
 import org.geotools.util.factory.Hints;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.simple.SimpleFeature;
@@ -38,6 +40,9 @@ import org.opengis.filter.sort.SortBy;
 
 class MergeSortDumper {
 
+    /** Maximum number of runs merged at once, more runs are merged in multiple passes */
+    static final int MAX_MERGE_RUNS = 64;
+
     static final boolean canSort(SimpleFeatureType schema, SortBy[] sortBy) {
         if (sortBy == SortBy.UNSORTED) {
             return true;
@@ -120,6 +125,11 @@ class MergeSortDumper {
                             + Arrays.toString(sortBy));
         }
 
+        // use the compact run format when the sort keys can be compared in binary form
+        if (SortKeyEncoder.canEncode(schema, sortBy)) {
+            return getRunMergeReader(reader, sortBy, comparator, maxFeatures);
+        }
+
         int count = 0;
         File file = null;
         SimpleFeatureIO io = null;
@@ -197,4 +207,127 @@ class MergeSortDumper {
 
         return new FeatureBlockReader(io, start, features.size());
     }
+
+    /**
+     * Sorts the reader contents using binary sort keys: features are sorted in memory, in blocks of
+     * maxFeatures, dumped to disk in the compact run format, and eventually merged comparing the
+     * keys.
+     */
+    static SimpleFeatureReader getRunMergeReader(
+            SimpleFeatureReader reader,
+            SortBy[] sortBy,
+            Comparator<SimpleFeature> comparator,
+            int maxFeatures)
+            throws IOException {
+        SimpleFeatureType schema = reader.getFeatureType();
+        SortKeyEncoder encoder = new SortKeyEncoder(schema, sortBy);
+        FeatureRunCodec codec = new FeatureRunCodec(schema);
+        List<SimpleFeature> features = new ArrayList<SimpleFeature>();
+        List<Run> runs = new ArrayList<Run>();
+        FeatureRunFile file = null;
+        boolean cleanFile = true;
+        try {
+            // read and store into runs as necessary
+            while (reader.hasNext()) {
+                features.add(reader.next());
+                if (features.size() > maxFeatures) {
+                    if (file == null) {
+                        file = new FeatureRunFile();
+                    }
+                    runs.add(storeRun(file, encoder, codec, features));
+                    features.clear();
+                }
+            }
+
+            if (file == null) {
+                // simple case, we managed to keep everything in memory
+                Collections.sort(features, comparator);
+                SimpleFeatureIterator fi = new ListFeatureCollection(schema, features).features();
+                return new DelegateSimpleFeatureReader(schema, fi);
+            }
+
+            // store residual features and go merge-sort
+            if (!features.isEmpty()) {
+                runs.add(storeRun(file, encoder, codec, features));
+                features.clear();
+            }
+            file = reduceRuns(file, runs);
+            cleanFile = false;
+            return new RunMergeReader(schema, file, runs, codec);
+        } finally {
+            if (cleanFile && file != null) {
+                file.close();
+            }
+
+            reader.close();
+        }
+    }
+
+    /** Sorts the features on their binary keys and writes them as a new run */
+    static Run storeRun(
+            FeatureRunFile file,
+            SortKeyEncoder encoder,
+            FeatureRunCodec codec,
+            List<SimpleFeature> features)
+            throws IOException {
+        byte[][] keys = new byte[features.size()][];
+        Integer[] order = new Integer[features.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = encoder.encode(features.get(i));
+            order[i] = i;
+        }
+        // stable sort, equal keys keep the reading order
+        Arrays.sort(
+                order,
+                (i1, i2) ->
+                        SortKeyEncoder.compare(
+                                keys[i1], keys[i1].length, keys[i2], keys[i2].length));
+
+        RunOutput payload = new RunOutput();
+        for (Integer i : order) {
+            payload.reset();
+            codec.encode(features.get(i), payload);
+            file.write(keys[i], keys[i].length, payload.getBuffer(), 0, payload.size());
+        }
+        return file.endRun();
+    }
+
+    /**
+     * Merges the runs in multiple passes until at most {@link #MAX_MERGE_RUNS} are left, copying
+     * the records in binary form. Returns the file holding the runs, which are updated in place.
+     */
+    static FeatureRunFile reduceRuns(FeatureRunFile file, List<Run> runs) throws IOException {
+        while (runs.size() > MAX_MERGE_RUNS) {
+            FeatureRunFile merged = new FeatureRunFile();
+            List<Run> mergedRuns = new ArrayList<Run>();
+            try {
+                for (int i = 0; i < runs.size(); i += MAX_MERGE_RUNS) {
+                    List<Run> group = runs.subList(i, Math.min(i + MAX_MERGE_RUNS, runs.size()));
+                    PriorityQueue<FeatureRunReader> queue = RunMergeReader.open(file, group);
+                    while (!queue.isEmpty()) {
+                        FeatureRunReader reader = queue.poll();
+                        merged.write(
+                                reader.key,
+                                reader.keyLength,
+                                reader.buffer,
+                                reader.payloadOffset,
+                                reader.payloadLength);
+                        if (reader.next()) {
+                            queue.add(reader);
+                        }
+                    }
+                    mergedRuns.add(merged.endRun());
+                }
+            } catch (IOException | RuntimeException e) {
+                merged.close();
+                throw e;
+            } finally {
+                file.close();
+            }
+            file = merged;
+            runs.clear();
+            runs.addAll(mergedRuns);
+        }
+        return file;
+    }
 }
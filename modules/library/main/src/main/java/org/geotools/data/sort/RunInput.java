@@ -0,0 +1,88 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Reads the encodings written by {@link RunOutput} from a byte array slice */
+class RunInput {
+
+    byte[] buffer;
+
+    int position;
+
+    int limit;
+
+    RunInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    int read() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Unexpected end of sort run record");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    int readShort() throws IOException {
+        return (read() << 8) | read();
+    }
+
+    int readInt() throws IOException {
+        return (readShort() << 16) | readShort();
+    }
+
+    long readLong() throws IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = read();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer in sort run");
+    }
+
+    long readZigZag() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Returns the offset of the next {@code length} bytes, skipping them */
+    int skip(int length) throws IOException {
+        if (length < 0 || length > limit - position) {
+            throw new IOException("Unexpected end of sort run record");
+        }
+        int offset = position;
+        position += length;
+        return offset;
+    }
+
+    String readString() throws IOException {
+        int length = (int) readVarLong();
+        int offset = skip(length);
+        return new String(buffer, offset, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.geotools.data.simple.SimpleFeatureReader;
+import org.geotools.data.sort.FeatureRunFile.Run;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Merges the sorted runs of a {@link FeatureRunFile} with a priority queue ordered on the binary
+ * sort keys. Only the features actually returned are decoded.
+ */
+class RunMergeReader implements SimpleFeatureReader {
+
+    /** Key order, ties are resolved in run order to keep the sort stable */
+    static final Comparator<FeatureRunReader> ORDER =
+            (r1, r2) -> {
+                int result = SortKeyEncoder.compare(r1.key, r1.keyLength, r2.key, r2.keyLength);
+                return result != 0 ? result : Integer.compare(r1.index, r2.index);
+            };
+
+    SimpleFeatureType schema;
+
+    FeatureRunFile file;
+
+    FeatureRunCodec codec;
+
+    PriorityQueue<FeatureRunReader> queue;
+
+    public RunMergeReader(
+            SimpleFeatureType schema, FeatureRunFile file, List<Run> runs, FeatureRunCodec codec)
+            throws IOException {
+        this.schema = schema;
+        this.file = file;
+        this.codec = codec;
+        this.queue = open(file, runs);
+    }
+
+    /** Opens the readers of the specified runs, positioned on their first record */
+    static PriorityQueue<FeatureRunReader> open(FeatureRunFile file, List<Run> runs)
+            throws IOException {
+        PriorityQueue<FeatureRunReader> queue =
+                new PriorityQueue<>(Math.max(1, runs.size()), ORDER);
+        for (int i = 0; i < runs.size(); i++) {
+            FeatureRunReader reader = file.open(runs.get(i), i);
+            if (reader.next()) {
+                queue.add(reader);
+            }
+        }
+        return queue;
+    }
+
+    public SimpleFeatureType getFeatureType() {
+        return schema;
+    }
+
+    public SimpleFeature next()
+            throws IOException, IllegalArgumentException, NoSuchElementException {
+        FeatureRunReader reader = queue.poll();
+        if (reader == null) {
+            throw new NoSuchElementException();
+        }
+        // decode before moving on, the reader buffer is going to be reused
+        SimpleFeature feature =
+                codec.decode(reader.buffer, reader.payloadOffset, reader.payloadLength);
+        if (reader.next()) {
+            queue.add(reader);
+        }
+        return feature;
+    }
+
+    public boolean hasNext() throws IOException {
+        return !queue.isEmpty();
+    }
+
+    public void close() throws IOException {
+        queue.clear();
+        file.close();
+    }
+}
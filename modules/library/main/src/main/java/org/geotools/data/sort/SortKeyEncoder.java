@@ -0,0 +1,201 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Encodes the sort values of a feature in a byte array whose unsigned lexicographic order matches
+ * the order of the comparator returned by {@link SortedFeatureReader#getComparator(SortBy[])}, so
+ * that sort runs can be merged comparing bytes, without decoding the features.
+ *
+ * <p>Each sort value is written as a null marker followed by an order preserving encoding of the
+ * value: sign flipped big endian numbers, and zero escaped, zero terminated UTF-16 strings. The
+ * encoding of descending values is bit inverted.
+ */
+class SortKeyEncoder {
+
+    static final byte FID = 0;
+
+    static final byte INTEGRAL = 1;
+
+    static final byte DECIMAL = 2;
+
+    static final byte STRING = 3;
+
+    static final byte BOOLEAN = 4;
+
+    static final byte CHARACTER = 5;
+
+    static final byte DATE = 6;
+
+    /** Attribute indexes of the sort values, -1 for the feature id */
+    final int[] indexes;
+
+    final byte[] kinds;
+
+    final boolean[] ascending;
+
+    final RunOutput output = new RunOutput();
+
+    SortKeyEncoder(SimpleFeatureType schema, SortBy[] sortBy) {
+        indexes = new int[sortBy.length];
+        kinds = new byte[sortBy.length];
+        ascending = new boolean[sortBy.length];
+        for (int i = 0; i < sortBy.length; i++) {
+            SortBy sb = sortBy[i];
+            if (sb == SortBy.NATURAL_ORDER || sb == SortBy.REVERSE_ORDER) {
+                indexes[i] = -1;
+                kinds[i] = FID;
+                ascending[i] = sb == SortBy.NATURAL_ORDER;
+            } else {
+                String name = sb.getPropertyName().getPropertyName();
+                indexes[i] = schema.indexOf(name);
+                kinds[i] = getKind(schema.getDescriptor(name));
+                ascending[i] = sb.getSortOrder() == SortOrder.ASCENDING;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the sort values can be encoded, that is, if all sorting attributes have one
+     * of the supported bindings
+     */
+    static boolean canEncode(SimpleFeatureType schema, SortBy[] sortBy) {
+        if (sortBy == null || sortBy.length == 0) {
+            return false;
+        }
+        for (SortBy sb : sortBy) {
+            if (sb != SortBy.NATURAL_ORDER && sb != SortBy.REVERSE_ORDER) {
+                if (sb.getPropertyName() == null
+                        || getKind(schema.getDescriptor(sb.getPropertyName().getPropertyName()))
+                                < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte getKind(AttributeDescriptor ad) {
+        if (ad == null) {
+            return -1;
+        }
+        Class<?> binding = ad.getType().getBinding();
+        if (binding == Byte.class
+                || binding == Short.class
+                || binding == Integer.class
+                || binding == Long.class) {
+            return INTEGRAL;
+        } else if (binding == Float.class || binding == Double.class) {
+            return DECIMAL;
+        } else if (binding == String.class) {
+            return STRING;
+        } else if (binding == Boolean.class) {
+            return BOOLEAN;
+        } else if (binding == Character.class) {
+            return CHARACTER;
+        } else if (Date.class.isAssignableFrom(binding)) {
+            return DATE;
+        }
+        return -1;
+    }
+
+    /** Returns the sort key of the feature */
+    byte[] encode(SimpleFeature feature) {
+        output.reset();
+        for (int i = 0; i < indexes.length; i++) {
+            int start = output.size();
+            Object value = indexes[i] < 0 ? feature.getID() : feature.getAttribute(indexes[i]);
+            if (value == null) {
+                // nulls sort first, as in PropertyComparator
+                output.write(0);
+            } else {
+                output.write(1);
+                encode(kinds[i], value);
+            }
+            if (!ascending[i]) {
+                output.invert(start);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private void encode(byte kind, Object value) {
+        switch (kind) {
+            case INTEGRAL:
+                output.writeLong(((Number) value).longValue() ^ Long.MIN_VALUE);
+                break;
+            case DECIMAL:
+                long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+                // negatives have all bits flipped, positives just the sign
+                output.writeLong(bits ^ ((bits >> 63) | Long.MIN_VALUE));
+                break;
+            case BOOLEAN:
+                output.write(((Boolean) value) ? 1 : 0);
+                break;
+            case CHARACTER:
+                output.writeShort((Character) value);
+                break;
+            case DATE:
+                Date date = (Date) value;
+                output.writeLong(date.getTime() ^ Long.MIN_VALUE);
+                if (date instanceof Timestamp) {
+                    output.writeInt(((Timestamp) date).getNanos());
+                } else {
+                    output.writeInt((int) Math.floorMod(date.getTime(), 1000L) * 1000000);
+                }
+                break;
+            default:
+                // FID and STRING, code unit order as in String.compareTo
+                String string = (String) value;
+                for (int i = 0; i < string.length(); i++) {
+                    char c = string.charAt(i);
+                    writeEscaped(c >>> 8);
+                    writeEscaped(c & 0xFF);
+                }
+                // terminator, sorts before any escaped byte
+                output.write(0);
+                output.write(0);
+        }
+    }
+
+    private void writeEscaped(int b) {
+        output.write(b);
+        if (b == 0) {
+            output.write(0xFF);
+        }
+    }
+
+    /** Compares two keys as unsigned bytes */
+    static int compare(byte[] k1, int length1, byte[] k2, int length2) {
+        int length = Math.min(length1, length2);
+        for (int i = 0; i < length; i++) {
+            int result = (k1[i] & 0xFF) - (k2[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return length1 - length2;
+    }
+}
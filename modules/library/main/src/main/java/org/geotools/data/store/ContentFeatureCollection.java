@@ -25,9 +25,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 import org.geotools.data.DataUtilities;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Join;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.Query;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
@@ -35,14 +37,18 @@ import org.geotools.feature.FeatureIterator;
 import org.geotools.feature.FeatureTypes;
 import org.geotools.feature.SchemaException;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.feature.visitor.MergeableVisitor;
+import org.geotools.feature.visitor.ParallelVisitorExecutor;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.util.logging.Logging;
 import org.locationtech.jts.geom.Point;
+import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.feature.type.GeometryDescriptor;
 import org.opengis.filter.Filter;
+import org.opengis.util.ProgressListener;
 
 /**
  * A FeatureCollection that completely delegates to a backing FetaureSource#getReader
@@ -124,6 +130,33 @@ public class ContentFeatureCollection implements SimpleFeatureCollection {
         featureSource.accepts(query, visitor, progress);
     }
 
+    /**
+     * Visits the collection using the provided executor. If the feature source is a {@link
+     * PartitionedFeatureSource} and the visitor can be split, the features are visited in parallel,
+     * otherwise this method behaves as {@link #accepts(FeatureVisitor, ProgressListener)}. In both
+     * cases the visitor optimizations of the feature source are used when available.
+     */
+    public void accepts(
+            FeatureVisitor visitor, ProgressListener progress, ParallelVisitorExecutor executor)
+            throws IOException {
+        if (featureSource instanceof PartitionedFeatureSource && executor.canSplit(visitor)) {
+            Query partitionQuery =
+                    featureSource.resolvePropertyNames(DataUtilities.simplifyFilter(query));
+            if (featureSource.handleVisitor(partitionQuery, visitor)) {
+                return;
+            }
+            try (Stream<SimpleFeature> features =
+                    ((PartitionedFeatureSource) featureSource)
+                            .getFeatureStream(partitionQuery, executor.getPartitions())) {
+                if (features != null) {
+                    executor.visit(features, (MergeableVisitor) visitor, progress);
+                    return;
+                }
+            }
+        }
+        featureSource.accepts(query, visitor, progress);
+    }
+
     // Iterators
     public static class WrappingFeatureIterator implements SimpleFeatureIterator {
 
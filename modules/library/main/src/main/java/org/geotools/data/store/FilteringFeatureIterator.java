@@ -16,9 +16,13 @@
  */
 package org.geotools.data.store;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.NoSuchElementException;
 import org.geotools.feature.FeatureIterator;
+import org.geotools.filter.FilterCompiler;
 import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
 
 /**
@@ -35,6 +39,30 @@ public class FilteringFeatureIterator<F extends Feature> implements FeatureItera
     /** Next feature */
     protected F next;
 
+    /** Maximum number of features read ahead and evaluated at once when the filter compiles */
+    static final int BLOCK_SIZE = 256;
+
+    /** Size of the first block, doubled at each new block up to {@link #BLOCK_SIZE} */
+    static final int MIN_BLOCK_SIZE = 8;
+
+    /** Whether the filter has been compiled against the type of the first feature already */
+    boolean compiled;
+
+    /** The features read ahead, null if the filter is evaluated one feature at a time */
+    Object[] block;
+
+    /** The positions of the features in the block matching the filter */
+    BitSet matches;
+
+    /** The number of features to read in the next block */
+    int blockSize = MIN_BLOCK_SIZE;
+
+    /** The number of features in the block */
+    int blockCount;
+
+    /** The position in the block from which the next match is searched */
+    int blockPosition;
+
     public FilteringFeatureIterator(FeatureIterator<F> delegate, Filter filter) {
         this.delegate = delegate;
         this.filter = filter;
@@ -45,17 +73,67 @@ public class FilteringFeatureIterator<F extends Feature> implements FeatureItera
             return true;
         }
 
-        while (delegate.hasNext()) {
+        while (block == null && delegate.hasNext()) {
             F peek = (F) delegate.next();
+            if (!compiled) {
+                compile(peek);
+            }
             if (filter.evaluate(peek)) {
                 next = peek;
-                break;
+                return true;
             }
         }
+        if (block != null) {
+            return nextFromBlock();
+        }
 
         return next != null;
     }
 
+    /**
+     * Compiles the filter against the type of the first feature, if simple, and switches to block
+     * evaluation if successful
+     */
+    private void compile(F feature) {
+        compiled = true;
+        if (feature instanceof SimpleFeature) {
+            filter = FilterCompiler.compile(filter, ((SimpleFeature) feature).getFeatureType());
+            if (FilterCompiler.isCompiled(filter)) {
+                block = new Object[BLOCK_SIZE];
+                matches = new BitSet(BLOCK_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Finds the next matching feature in the current block, reading and evaluating new blocks as
+     * needed
+     */
+    @SuppressWarnings("unchecked")
+    private boolean nextFromBlock() {
+        while (true) {
+            int match = blockPosition < blockCount ? matches.nextSetBit(blockPosition) : -1;
+            if (match >= 0 && match < blockCount) {
+                next = (F) block[match];
+                blockPosition = match + 1;
+                return true;
+            }
+
+            // the current block is exhausted, read the next one
+            Arrays.fill(block, 0, blockCount, null);
+            blockCount = 0;
+            blockPosition = 0;
+            while (blockCount < blockSize && delegate.hasNext()) {
+                block[blockCount++] = delegate.next();
+            }
+            if (blockCount == 0) {
+                return false;
+            }
+            blockSize = Math.min(blockSize * 2, block.length);
+            FilterCompiler.evaluate(filter, block, blockCount, matches);
+        }
+    }
+
     public F next() throws NoSuchElementException {
         if (next == null && !this.hasNext()) {
             throw new NoSuchElementException();
@@ -70,5 +148,6 @@ public class FilteringFeatureIterator<F extends Feature> implements FeatureItera
         delegate = null;
         next = null;
         filter = null;
+        block = null;
     }
 }
@@ -17,12 +17,12 @@
 package org.geotools.data.util;
 
 import java.lang.reflect.Array;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /** Converter factory converting objects to single element arrays and vice-versa */
-public class ArrayConverterFactory implements ConverterFactory {
+public class ArrayConverterFactory implements CacheableConverterFactory {
     @Override
     public Converter createConverter(Class<?> source, Class<?> target, Hints hints) {
         if (source.isArray()
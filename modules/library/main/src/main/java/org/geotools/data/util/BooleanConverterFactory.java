@@ -16,8 +16,8 @@
  */
 package org.geotools.data.util;
 
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -37,7 +37,7 @@ import org.geotools.util.factory.Hints;
  * @author Justin Deoliveira, The Open Planning Project
  * @since 2.4
  */
-public class BooleanConverterFactory implements ConverterFactory {
+public class BooleanConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class source, Class target, Hints hints) {
         if (target.equals(Boolean.class)) {
@@ -19,8 +19,8 @@ package org.geotools.data.util;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.referencing.CRS;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
@@ -31,7 +31,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  * @since 12.0
  * @version 11.0
  */
-public class CRSConverterFactory implements ConverterFactory {
+public class CRSConverterFactory implements CacheableConverterFactory {
 
     private static final Logger LOGGER =
             org.geotools.util.logging.Logging.getLogger(CRSConverterFactory.class);
@@ -18,8 +18,8 @@ package org.geotools.data.util;
 
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -28,7 +28,7 @@ import org.geotools.util.factory.Hints;
  * @author Justin Deoliveira, The Open Planning Project
  * @since 2.5
  */
-public class CharsetConverterFactory implements ConverterFactory {
+public class CharsetConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class<?> source, Class<?> target, Hints hints) {
 
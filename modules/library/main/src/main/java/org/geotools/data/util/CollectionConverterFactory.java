@@ -25,8 +25,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -44,7 +44,7 @@ import org.geotools.util.factory.Hints;
  *
  * @author Justin Deoliveira, The Open Planning Project
  */
-public class CollectionConverterFactory implements ConverterFactory {
+public class CollectionConverterFactory implements CacheableConverterFactory {
 
     /** Converter for collection to collection */
     protected static final Converter CollectionToCollection =
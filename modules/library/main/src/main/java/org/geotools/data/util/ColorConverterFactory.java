@@ -24,8 +24,8 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -45,7 +45,7 @@ import org.geotools.util.factory.Hints;
  * @author Jody Garnett (Refractions Research)
  * @since 2.5
  */
-public class ColorConverterFactory implements ConverterFactory {
+public class ColorConverterFactory implements CacheableConverterFactory {
 
     /** Uses {@link Color#decode(String)} to convert String to Color. */
     public static Converter CONVERT_STRING =
@@ -24,8 +24,8 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -38,7 +38,7 @@ import org.geotools.util.factory.Hints;
  * @since 2.4
  * @version 2.7
  */
-public class CommonsConverterFactory implements ConverterFactory {
+public class CommonsConverterFactory implements CacheableConverterFactory {
 
     // some additional converters
     /** converts a string to a uri. */
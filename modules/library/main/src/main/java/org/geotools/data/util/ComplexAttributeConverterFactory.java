@@ -20,8 +20,8 @@ package org.geotools.data.util;
 import java.util.Collection;
 import org.geotools.feature.AttributeImpl;
 import org.geotools.filter.identity.FeatureIdImpl;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.Converters;
 import org.geotools.util.factory.Hints;
 import org.opengis.feature.Attribute;
@@ -36,7 +36,7 @@ import org.opengis.filter.identity.FeatureId;
  * @author Rini Angreani (CSIRO Earth Science and Resource Engineering)
  * @author Niels Charlier
  */
-public class ComplexAttributeConverterFactory implements ConverterFactory {
+public class ComplexAttributeConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class<?> source, Class<?> target, Hints hints) {
         if (ComplexAttribute.class.isAssignableFrom(source)) {
@@ -17,8 +17,8 @@
  */
 package org.geotools.data.util;
 
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -26,7 +26,7 @@ import org.geotools.util.factory.Hints;
  *
  * @author Andrea Aime - OpenGeo
  */
-public class EnumerationConverterFactory implements ConverterFactory {
+public class EnumerationConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class<?> source, Class<?> target, Hints hints) {
         if ((String.class.equals(source) && target.isEnum())
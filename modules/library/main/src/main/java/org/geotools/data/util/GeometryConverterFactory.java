@@ -18,8 +18,8 @@ package org.geotools.data.util;
 
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.geometry.jts.WKTReader2;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
@@ -43,7 +43,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  * @author Justin Deoliveira, The Open Planning Project
  * @since 2.4
  */
-public class GeometryConverterFactory implements ConverterFactory {
+public class GeometryConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class source, Class target, Hints hints) {
 
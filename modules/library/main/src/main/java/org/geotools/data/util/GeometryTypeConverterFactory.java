@@ -30,8 +30,8 @@ import org.geotools.geometry.jts.CompoundRing;
 import org.geotools.geometry.jts.CurvedGeometry;
 import org.geotools.geometry.jts.MultiCurve;
 import org.geotools.geometry.jts.MultiCurvedGeometry;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.Converters;
 import org.geotools.util.factory.Hints;
 import org.locationtech.jts.geom.Coordinate;
@@ -57,7 +57,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  *
  * @author m.bartolomeoli
  */
-public class GeometryTypeConverterFactory implements ConverterFactory {
+public class GeometryTypeConverterFactory implements CacheableConverterFactory {
 
     private static final Logger LOGGER =
             org.geotools.util.logging.Logging.getLogger(GeometryTypeConverterFactory.class);
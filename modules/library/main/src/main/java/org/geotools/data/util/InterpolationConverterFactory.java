@@ -25,8 +25,8 @@ import javax.media.jai.InterpolationBicubic;
 import javax.media.jai.InterpolationBicubic2;
 import javax.media.jai.InterpolationBilinear;
 import javax.media.jai.InterpolationNearest;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -36,7 +36,7 @@ import org.geotools.util.factory.Hints;
  * @since 12.0
  * @version 11.0
  */
-public class InterpolationConverterFactory implements ConverterFactory {
+public class InterpolationConverterFactory implements CacheableConverterFactory {
 
     private static final Logger LOGGER =
             org.geotools.util.logging.Logging.getLogger(InterpolationConverterFactory.class);
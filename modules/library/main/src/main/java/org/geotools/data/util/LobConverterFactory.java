@@ -26,8 +26,8 @@ import java.sql.Clob;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.logging.Logger;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 import org.geotools.util.logging.Logging;
 
@@ -39,7 +39,7 @@ import org.geotools.util.logging.Logging;
  *
  * @author Stefan Uhrig, SAP SE
  */
-public class LobConverterFactory implements ConverterFactory {
+public class LobConverterFactory implements CacheableConverterFactory {
 
     private static final Logger LOGGER = Logging.getLogger(LobConverterFactory.class);
 
@@ -23,8 +23,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.measure.Unit;
 import org.geotools.measure.Measure;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 import tec.uom.se.format.SimpleUnitFormat;
 
@@ -34,7 +34,7 @@ import tec.uom.se.format.SimpleUnitFormat;
  * @author Andrea Aime - GeoSolutions
  * @since 12.0
  */
-public class MeasureConverterFactory implements ConverterFactory {
+public class MeasureConverterFactory implements CacheableConverterFactory {
 
     static final Pattern MEASURE_PATTERN =
             Pattern.compile("\\s*([-\\+]?[0-9]*\\.?[0-9]*(?:[eE][-\\+]?[0-9]+)?)(.*)?");
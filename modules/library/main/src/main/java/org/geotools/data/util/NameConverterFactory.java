@@ -17,8 +17,8 @@
 package org.geotools.data.util;
 
 import org.geotools.feature.NameImpl;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 import org.opengis.feature.type.Name;
 
@@ -27,7 +27,7 @@ import org.opengis.feature.type.Name;
  *
  * @author Andrea Aime - GeoSolutions
  */
-public class NameConverterFactory implements ConverterFactory {
+public class NameConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class source, Class target, Hints hints) {
         if (target.equals(String.class) && source.equals(Name.class)) {
@@ -19,6 +19,7 @@ package org.geotools.data.util;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.HashMap;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
 import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
@@ -42,7 +43,12 @@ import org.geotools.util.factory.Hints;
  * @author Justin Deoliveira, The Open Planning Project
  * @since 2.4
  */
-public class NumericConverterFactory implements ConverterFactory {
+public class NumericConverterFactory implements CacheableConverterFactory {
+
+    /** The converters are stateless, a single instance of each is shared */
+    static final Converter NUMERIC = new NumericConverter();
+
+    static final Converter SAFE_NUMERIC = new SafeNumericConverter();
 
     public Converter createConverter(Class source, Class target, Hints hints) {
         // convert to non-primitive class
@@ -70,16 +76,16 @@ public class NumericConverterFactory implements ConverterFactory {
                 Object safeConversion = hints.get(ConverterFactory.SAFE_CONVERSION);
                 if (safeConversion instanceof Boolean
                         && ((Boolean) safeConversion).booleanValue()) {
-                    return new SafeNumericConverter();
+                    return SAFE_NUMERIC;
                 }
             }
-            return new NumericConverter();
+            return NUMERIC;
         }
 
         return null;
     }
 
-    class SafeNumericConverter implements Converter {
+    static class SafeNumericConverter implements Converter {
         public <T> T convert(Object source, Class<T> target) throws Exception {
             target = primitiveToWrapperClass(target);
             if (source instanceof Number) {
@@ -177,7 +183,7 @@ public class NumericConverterFactory implements ConverterFactory {
         }
     }
 
-    class NumericConverter implements Converter {
+    static class NumericConverter implements Converter {
 
         public Object convert(Object source, Class target) throws Exception {
             target = primitiveToWrapperClass(target);
@@ -205,14 +211,19 @@ public class NumericConverterFactory implements ConverterFactory {
                 // JD: we use the string reprensentation to avoid coordinate
                 // drift due to precision issues, there could be some
                 // performance issues with this.
+                // Integral values are converted directly instead, rounding the
+                // value gives the same result as parsing its string representation
+                boolean integral = isIntegral(s);
                 if (Double.class.equals(target)) {
-                    return Double.valueOf(s.toString());
+                    return integral ? Double.valueOf(s.longValue()) : Double.valueOf(s.toString());
                 }
                 if (Float.class.equals(target)) {
-                    return Float.valueOf(s.toString());
+                    return integral ? Float.valueOf(s.longValue()) : Float.valueOf(s.toString());
                 }
                 if (BigDecimal.class.equals(target)) {
-                    return new BigDecimal(s.toString());
+                    return integral
+                            ? BigDecimal.valueOf(s.longValue())
+                            : new BigDecimal(s.toString());
                 }
 
                 if (Number.class.equals(target)) {
@@ -241,8 +252,6 @@ public class NumericConverterFactory implements ConverterFactory {
                 // ensure we trim any space off the string
                 s = s.trim();
 
-                String integral = toIntegral(s);
-
                 // floating point
                 if (Double.class.equals(target)) {
                     return Double.valueOf(s);
@@ -254,6 +263,8 @@ public class NumericConverterFactory implements ConverterFactory {
                     return new BigDecimal(s);
                 }
 
+                String integral = toIntegral(s);
+
                 // textual
                 if (Long.class.equals(target)) {
                     return Long.valueOf(integral);
@@ -301,6 +312,12 @@ public class NumericConverterFactory implements ConverterFactory {
         }
     }
 
+    /** Returns true if the number is one of the integral types fitting in a long */
+    static boolean isIntegral(Number number) {
+        Class<?> c = number.getClass();
+        return c == Integer.class || c == Long.class || c == Short.class || c == Byte.class;
+    }
+
     /**
      * Extract the integral part out of a decimal format string.
      *
@@ -16,8 +16,8 @@
  */
 package org.geotools.data.util;
 
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -25,7 +25,7 @@ import org.geotools.util.factory.Hints;
  *
  * @author Andrea Aime - GeoSolutions
  */
-public class PercentageConverterFactory implements ConverterFactory {
+public class PercentageConverterFactory implements CacheableConverterFactory {
 
     static final PercentageConverter INSTANCE = new PercentageConverter();
 
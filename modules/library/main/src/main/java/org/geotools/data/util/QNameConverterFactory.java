@@ -17,8 +17,8 @@
 package org.geotools.data.util;
 
 import javax.xml.namespace.QName;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -26,7 +26,7 @@ import org.geotools.util.factory.Hints;
  *
  * @author Niels Charlier
  */
-public class QNameConverterFactory implements ConverterFactory {
+public class QNameConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class source, Class target, Hints hints) {
         if (target.equals(String.class)) {
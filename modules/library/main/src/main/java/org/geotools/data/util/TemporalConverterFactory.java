@@ -24,6 +24,7 @@ import java.util.GregorianCalendar;
 import java.util.TimeZone;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
 import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
@@ -65,7 +66,119 @@ import org.opengis.temporal.Instant;
  * @author Justin Deoliveira, The Open Planning Project
  * @since 2.4
  */
-public class TemporalConverterFactory implements ConverterFactory {
+public class TemporalConverterFactory implements CacheableConverterFactory {
+
+    // the converters are stateless, a single instance of each is shared
+
+    static final Converter DATE_TO_CALENDAR =
+            new Converter() {
+                public Object convert(Object source, Class target) throws Exception {
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.setTime((Date) source);
+
+                    return calendar;
+                }
+            };
+
+    static final Converter DATE_TO_SQL =
+            new Converter() {
+
+                public Object convert(Object source, Class target) throws Exception {
+                    Date date = (Date) source;
+                    return timeMillisToDate(date.getTime(), target);
+                }
+            };
+
+    static final Converter CALENDAR_TO_XML =
+            new Converter() {
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    if (source instanceof GregorianCalendar) {
+                        return (T)
+                                DatatypeFactory.newInstance()
+                                        .newXMLGregorianCalendar((GregorianCalendar) source);
+                    }
+
+                    return null;
+                }
+            };
+
+    static final Converter DATE_TO_XML =
+            new Converter() {
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    Date date = (Date) source;
+                    Calendar calendar = DATE_TO_CALENDAR.convert(date, Calendar.class);
+
+                    return (T) CALENDAR_TO_XML.convert(calendar, XMLGregorianCalendar.class);
+                }
+            };
+
+    static final Converter DATE_TO_LONG =
+            new Converter() {
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    return (T) Long.valueOf(((Date) source).getTime());
+                }
+            };
+
+    static final Converter CALENDAR_TO_DATE =
+            new Converter() {
+                public Object convert(Object source, Class target) throws Exception {
+                    Calendar calendar = (Calendar) source;
+
+                    return timeMillisToDate(
+                            calendar.getTimeInMillis(), target, calendar.getTimeZone());
+                }
+            };
+
+    static final Converter XML_TO_CALENDAR =
+            new Converter() {
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    XMLGregorianCalendar calendar = (XMLGregorianCalendar) source;
+                    return (T) calendar.toGregorianCalendar();
+                }
+            };
+
+    static final Converter XML_TO_DATE =
+            new Converter() {
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    Calendar calendar = XML_TO_CALENDAR.convert(source, Calendar.class);
+                    if (calendar != null) {
+                        return (T) CALENDAR_TO_DATE.convert(calendar, Date.class);
+                    }
+                    return null;
+                }
+            };
+
+    static final Converter TIMEZONE_TO_STRING =
+            new Converter() {
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    if (source == null) {
+                        return null;
+                    }
+                    return target.cast(((TimeZone) source).getID());
+                }
+            };
+
+    static final Converter INSTANT_TO_DATE =
+            new Converter() {
+
+                @Override
+                public <T> T convert(Object source, Class<T> target) throws Exception {
+                    Instant instant = (Instant) source;
+                    return (T) instant.getPosition().getDate();
+                }
+            };
+
+    static final Converter LONG_TO_DATE =
+            new Converter() {
+                @Override
+                public Object convert(Object source, Class target) throws Exception {
+                    if (source != null) {
+                        return new java.util.Date((Long) source);
+                    } else {
+                        return null;
+                    }
+                }
+            };
 
     public Converter createConverter(Class source, Class target, Hints hints) {
         boolean isSafeOnly = false;
@@ -86,14 +199,7 @@ public class TemporalConverterFactory implements ConverterFactory {
                     return null;
                 }
 
-                return new Converter() {
-                    public Object convert(Object source, Class target) throws Exception {
-                        Calendar calendar = Calendar.getInstance();
-                        calendar.setTime((Date) source);
-
-                        return calendar;
-                    }
-                };
+                return DATE_TO_CALENDAR;
             }
 
             // handle all of (java.util.Date) -> (java.sql.Timestamp,java.sql.Time)
@@ -106,36 +212,15 @@ public class TemporalConverterFactory implements ConverterFactory {
                     return null;
                 }
 
-                return new Converter() {
-
-                    public Object convert(Object source, Class target) throws Exception {
-                        Date date = (Date) source;
-                        return timeMillisToDate(date.getTime(), target);
-                    }
-                };
+                return DATE_TO_SQL;
             }
 
             if (XMLGregorianCalendar.class.isAssignableFrom(target)) {
-                return new Converter() {
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        Date date = (Date) source;
-                        Calendar calendar =
-                                createConverter(Date.class, Calendar.class, null)
-                                        .convert(date, Calendar.class);
-
-                        return (T)
-                                createConverter(Calendar.class, XMLGregorianCalendar.class, null)
-                                        .convert(calendar, XMLGregorianCalendar.class);
-                    }
-                };
+                return DATE_TO_XML;
             }
 
             if (Long.class.equals(target)) {
-                return new Converter() {
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        return (T) Long.valueOf(((Date) source).getTime());
-                    }
-                };
+                return DATE_TO_LONG;
             }
         }
 
@@ -147,93 +232,36 @@ public class TemporalConverterFactory implements ConverterFactory {
                     // Calendar -> Time is not saf
                     return null;
                 }
-                return new Converter() {
-                    public Object convert(Object source, Class target) throws Exception {
-                        Calendar calendar = (Calendar) source;
-
-                        return timeMillisToDate(
-                                calendar.getTimeInMillis(), target, calendar.getTimeZone());
-                    }
-                };
+                return CALENDAR_TO_DATE;
             }
             if (XMLGregorianCalendar.class.isAssignableFrom(target)) {
-                return new Converter() {
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        if (source instanceof GregorianCalendar) {
-                            return (T)
-                                    DatatypeFactory.newInstance()
-                                            .newXMLGregorianCalendar((GregorianCalendar) source);
-                        }
-
-                        return null;
-                    }
-                };
+                return CALENDAR_TO_XML;
             }
         }
 
         if (XMLGregorianCalendar.class.isAssignableFrom(source)) {
             if (Calendar.class.isAssignableFrom(target)) {
-                return new Converter() {
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        XMLGregorianCalendar calendar = (XMLGregorianCalendar) source;
-                        return (T) calendar.toGregorianCalendar();
-                    }
-                };
+                return XML_TO_CALENDAR;
             }
             if (Date.class.isAssignableFrom(target)) {
-                return new Converter() {
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        Calendar calendar =
-                                createConverter(XMLGregorianCalendar.class, Calendar.class, null)
-                                        .convert(source, Calendar.class);
-                        if (calendar != null) {
-                            return (T)
-                                    createConverter(Calendar.class, Date.class, null)
-                                            .convert(calendar, Date.class);
-                        }
-                        return null;
-                    }
-                };
+                return XML_TO_DATE;
             }
         }
 
         if (TimeZone.class.isAssignableFrom(source)) {
             if (String.class == target) {
-                return new Converter() {
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        if (source == null) {
-                            return null;
-                        }
-                        return target.cast(((TimeZone) source).getID());
-                    }
-                };
+                return TIMEZONE_TO_STRING;
             }
         }
 
         if (Instant.class.isAssignableFrom(source)) {
             if (Date.class == target) {
-                return new Converter() {
-
-                    @Override
-                    public <T> T convert(Object source, Class<T> target) throws Exception {
-                        Instant instant = (Instant) source;
-                        return (T) instant.getPosition().getDate();
-                    }
-                };
+                return INSTANT_TO_DATE;
             }
         }
 
         if (Long.class.isAssignableFrom(source) && java.util.Date.class.isAssignableFrom(target)) {
-            return new Converter() {
-                @Override
-                public Object convert(Object source, Class target) throws Exception {
-                    if (source != null) {
-                        return new java.util.Date((Long) source);
-                    } else {
-                        return null;
-                    }
-                }
-            };
+            return LONG_TO_DATE;
         }
         return null;
     }
@@ -246,11 +274,11 @@ public class TemporalConverterFactory implements ConverterFactory {
      * @param target
      * @return
      */
-    Date timeMillisToDate(long time, Class target) {
+    static Date timeMillisToDate(long time, Class target) {
         return timeMillisToDate(time, target, TimeZone.getDefault());
     }
 
-    Date timeMillisToDate(long time, Class target, TimeZone zone) {
+    static Date timeMillisToDate(long time, Class target, TimeZone zone) {
         if (Timestamp.class.isAssignableFrom(target)) {
             return new Timestamp(time);
         } else if (java.sql.Date.class.isAssignableFrom(target)) {
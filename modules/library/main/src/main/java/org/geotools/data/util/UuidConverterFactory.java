@@ -17,8 +17,8 @@
 package org.geotools.data.util;
 
 import java.util.UUID;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.factory.Hints;
 
 /**
@@ -33,7 +33,7 @@ import org.geotools.util.factory.Hints;
  *
  * @author Andrea Briganti <kbyte@ciotoni.net>
  */
-public class UuidConverterFactory implements ConverterFactory {
+public class UuidConverterFactory implements CacheableConverterFactory {
 
     public Converter createConverter(Class source, Class target, Hints hints) {
         if (target.equals(UUID.class)) {
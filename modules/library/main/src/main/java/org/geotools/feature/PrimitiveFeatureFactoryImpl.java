@@ -0,0 +1,41 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature;
+
+import org.geotools.feature.simple.PrimitiveSimpleFeatureImpl;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A lenient feature factory building {@link PrimitiveSimpleFeatureImpl} instances, which keep
+ * numeric attributes unboxed. Can be selected using the {@link
+ * org.geotools.util.factory.Hints#FEATURE_FACTORY} hint.
+ */
+public class PrimitiveFeatureFactoryImpl extends AbstractFeatureFactoryImpl {
+    public PrimitiveFeatureFactoryImpl() {
+        validating = false;
+    }
+
+    @Override
+    public SimpleFeature createSimpleFeature(Object[] array, SimpleFeatureType type, String id) {
+        if (type.isAbstract()) {
+            throw new IllegalArgumentException(
+                    "Cannot create an feature of an abstract FeatureType " + type.getTypeName());
+        }
+        return new PrimitiveSimpleFeatureImpl(array, type, ff.featureId(id), validating);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * A {@link SimpleFeature} storing its numeric attributes (those bound to {@link Double}, {@link
+ * Float}, {@link Long}, {@link Integer}, {@link Short} and {@link Byte}) in primitive form, and
+ * allowing to read and write them without boxing.
+ *
+ * <p>The generic {@link SimpleFeature} accessors are still fully supported, but will box the
+ * numeric values on each call.
+ */
+public interface PrimitiveSimpleFeature extends SimpleFeature {
+
+    /**
+     * Returns true if the attribute at the specified index is stored in primitive form, and can
+     * thus be read with {@link #getDouble(int)} and {@link #getLong(int)} without boxing
+     */
+    boolean isPrimitive(int index);
+
+    /**
+     * Returns true if the attribute at the specified index is stored as an integral number, in
+     * which case {@link #getLong(int)} returns it without loss of precision
+     */
+    boolean isIntegral(int index);
+
+    /** Returns true if the attribute at the specified index is null */
+    boolean isNull(int index);
+
+    /**
+     * Returns the attribute at the specified index as a double. Null values are returned as {@link
+     * Double#NaN}
+     *
+     * @throws IllegalArgumentException if the attribute is not numeric
+     */
+    double getDouble(int index);
+
+    /**
+     * Returns the attribute at the specified index as a long. Null values are returned as zero,
+     * check {@link #isNull(int)} to tell them apart
+     *
+     * @throws IllegalArgumentException if the attribute is not numeric
+     */
+    long getLong(int index);
+
+    /**
+     * Sets the attribute at the specified index, which must be stored in primitive form
+     *
+     * @throws IllegalArgumentException if the attribute is not stored in primitive form
+     */
+    void setDouble(int index, double value);
+
+    /**
+     * Sets the attribute at the specified index, which must be stored in primitive form
+     *
+     * @throws IllegalArgumentException if the attribute is not stored in primitive form
+     */
+    void setLong(int index, long value);
+}
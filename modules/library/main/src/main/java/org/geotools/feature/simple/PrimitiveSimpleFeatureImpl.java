@@ -0,0 +1,343 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.util.Converters;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.identity.FeatureId;
+
+/**
+ * A {@link SimpleFeatureImpl} storing the numeric attributes in primitive arrays, and the others in
+ * the usual Object[]. Numeric values are boxed only when accessed through the generic {@link
+ * org.opengis.feature.simple.SimpleFeature} API, the {@link PrimitiveSimpleFeature} accessors read
+ * and write them directly.
+ *
+ * <p>Values that cannot be converted to the attribute binding are stored as null, consistently with
+ * {@link SimpleFeatureImpl#setAttribute(int, Object)}.
+ */
+public class PrimitiveSimpleFeatureImpl extends SimpleFeatureImpl
+        implements PrimitiveSimpleFeature {
+
+    static final byte OBJECT = 0;
+
+    static final byte DOUBLE = 1;
+
+    static final byte FLOAT = 2;
+
+    static final byte LONG = 3;
+
+    static final byte INTEGER = 4;
+
+    static final byte SHORT = 5;
+
+    static final byte BYTE = 6;
+
+    /** Describes where each attribute of a feature type is stored, shared among features */
+    static final class Layout {
+        /** The storage kind of each attribute */
+        final byte[] kinds;
+
+        /** The position of each attribute in the doubles or longs array, -1 for objects */
+        final int[] slots;
+
+        /** The position of each primitive attribute in the null bit set, -1 for objects */
+        final int[] bits;
+
+        final int doubleCount;
+
+        final int longCount;
+
+        final int primitiveCount;
+
+        Layout(SimpleFeatureType type) {
+            int count = type.getAttributeCount();
+            kinds = new byte[count];
+            slots = new int[count];
+            bits = new int[count];
+            int doubles = 0;
+            int longs = 0;
+            int primitives = 0;
+            for (int i = 0; i < count; i++) {
+                byte kind = kind(type.getDescriptor(i).getType().getBinding());
+                kinds[i] = kind;
+                if (kind == OBJECT) {
+                    slots[i] = -1;
+                    bits[i] = -1;
+                } else {
+                    slots[i] = kind <= FLOAT ? doubles++ : longs++;
+                    bits[i] = primitives++;
+                }
+            }
+            doubleCount = doubles;
+            longCount = longs;
+            primitiveCount = primitives;
+        }
+
+        private static byte kind(Class<?> binding) {
+            if (binding == Double.class) {
+                return DOUBLE;
+            } else if (binding == Float.class) {
+                return FLOAT;
+            } else if (binding == Long.class) {
+                return LONG;
+            } else if (binding == Integer.class) {
+                return INTEGER;
+            } else if (binding == Short.class) {
+                return SHORT;
+            } else if (binding == Byte.class) {
+                return BYTE;
+            }
+            return OBJECT;
+        }
+    }
+
+    final Layout layout;
+
+    final double[] doubles;
+
+    final long[] longs;
+
+    /** One bit per primitive attribute, set when the value is null */
+    final long[] nulls;
+
+    /**
+     * Builds a new feature based on the provided values and feature type. The values are copied,
+     * and the numeric ones moved out of the copy into the primitive storage, the provided array is
+     * left untouched.
+     *
+     * @param values
+     * @param featureType
+     * @param id
+     * @param validating
+     */
+    public PrimitiveSimpleFeatureImpl(
+            Object[] values, SimpleFeatureType featureType, FeatureId id, boolean validating) {
+        this(values, featureType, id, validating, layout(featureType));
+    }
+
+    private PrimitiveSimpleFeatureImpl(
+            Object[] values,
+            SimpleFeatureType featureType,
+            FeatureId id,
+            boolean validating,
+            Layout layout) {
+        super(values.clone(), featureType, id, false);
+        this.layout = layout;
+        this.doubles = new double[layout.doubleCount];
+        this.longs = new long[layout.longCount];
+        this.nulls = new long[(layout.primitiveCount + 63) >> 6];
+        for (int i = 0; i < this.values.length; i++) {
+            if (layout.kinds[i] != OBJECT) {
+                setRawAttribute(i, this.values[i]);
+            }
+        }
+        this.validating = validating;
+        if (validating) validate();
+    }
+
+    /** Returns the layout of the specified feature type, caching it when possible */
+    static Layout layout(SimpleFeatureType featureType) {
+        if (featureType instanceof SimpleFeatureTypeImpl) {
+            SimpleFeatureTypeImpl impl = (SimpleFeatureTypeImpl) featureType;
+            Layout layout = impl.primitiveLayout;
+            if (layout == null) {
+                layout = new Layout(featureType);
+                impl.primitiveLayout = layout;
+            }
+            return layout;
+        }
+        return new Layout(featureType);
+    }
+
+    @Override
+    public Object getAttribute(int index) throws IndexOutOfBoundsException {
+        byte kind = layout.kinds[index];
+        if (kind == OBJECT) {
+            return values[index];
+        } else if (isNull(index)) {
+            return null;
+        }
+        int slot = layout.slots[index];
+        switch (kind) {
+            case DOUBLE:
+                return Double.valueOf(doubles[slot]);
+            case FLOAT:
+                return Float.valueOf((float) doubles[slot]);
+            case LONG:
+                return Long.valueOf(longs[slot]);
+            case INTEGER:
+                return Integer.valueOf((int) longs[slot]);
+            case SHORT:
+                return Short.valueOf((short) longs[slot]);
+            default:
+                return Byte.valueOf((byte) longs[slot]);
+        }
+    }
+
+    @Override
+    public List<Object> getAttributes() {
+        List<Object> result = new ArrayList<Object>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            result.add(getAttribute(i));
+        }
+        return result;
+    }
+
+    @Override
+    protected void setRawAttribute(int index, Object value) {
+        byte kind = layout.kinds[index];
+        if (kind == OBJECT) {
+            values[index] = value;
+            return;
+        }
+
+        Number number;
+        if (value == null || value instanceof Number) {
+            number = (Number) value;
+        } else {
+            number = Converters.convert(value, Number.class);
+        }
+        values[index] = null;
+        if (number == null) {
+            setNull(index, true);
+        } else if (kind <= FLOAT) {
+            store(index, number.doubleValue());
+        } else {
+            store(index, number.longValue());
+        }
+    }
+
+    private void setNull(int index, boolean isNull) {
+        int bit = layout.bits[index];
+        if (isNull) {
+            nulls[bit >> 6] |= 1L << bit;
+        } else {
+            nulls[bit >> 6] &= ~(1L << bit);
+        }
+    }
+
+    private void store(int index, double value) {
+        int slot = layout.slots[index];
+        doubles[slot] = layout.kinds[index] == FLOAT ? (float) value : value;
+        setNull(index, false);
+    }
+
+    private void store(int index, long value) {
+        int slot = layout.slots[index];
+        longs[slot] = value;
+        setNull(index, false);
+    }
+
+    @Override
+    public boolean isPrimitive(int index) {
+        return layout.kinds[index] != OBJECT;
+    }
+
+    @Override
+    public boolean isIntegral(int index) {
+        return layout.kinds[index] >= LONG;
+    }
+
+    @Override
+    public boolean isNull(int index) {
+        int bit = layout.bits[index];
+        if (bit < 0) {
+            return values[index] == null;
+        }
+        return (nulls[bit >> 6] & (1L << bit)) != 0;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        byte kind = layout.kinds[index];
+        if (kind == OBJECT) {
+            return toNumber(index).doubleValue();
+        } else if (isNull(index)) {
+            return Double.NaN;
+        } else if (kind <= FLOAT) {
+            return doubles[layout.slots[index]];
+        } else {
+            return longs[layout.slots[index]];
+        }
+    }
+
+    @Override
+    public long getLong(int index) {
+        byte kind = layout.kinds[index];
+        if (kind == OBJECT) {
+            return toNumber(index).longValue();
+        } else if (isNull(index)) {
+            return 0;
+        } else if (kind <= FLOAT) {
+            return (long) doubles[layout.slots[index]];
+        } else {
+            return longs[layout.slots[index]];
+        }
+    }
+
+    private Number toNumber(int index) {
+        Object value = values[index];
+        if (value == null) {
+            return Double.NaN;
+        } else if (value instanceof Number) {
+            return (Number) value;
+        }
+        throw new IllegalArgumentException(
+                "Attribute " + featureType.getDescriptor(index).getLocalName() + " is not numeric");
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        byte kind = layout.kinds[index];
+        if (kind == OBJECT) {
+            throw new IllegalArgumentException(
+                    "Attribute "
+                            + featureType.getDescriptor(index).getLocalName()
+                            + " is not stored in primitive form");
+        } else if (kind <= FLOAT) {
+            store(index, value);
+        } else {
+            store(index, (long) value);
+        }
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        byte kind = layout.kinds[index];
+        if (kind == OBJECT) {
+            throw new IllegalArgumentException(
+                    "Attribute "
+                            + featureType.getDescriptor(index).getLocalName()
+                            + " is not stored in primitive form");
+        } else if (kind <= FLOAT) {
+            store(index, (double) value);
+        } else {
+            store(index, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer("PrimitiveSimpleFeatureImpl:");
+        sb.append(getType().getName().getLocalPart());
+        sb.append("=");
+        sb.append(getValue());
+        return sb.toString();
+    }
+}
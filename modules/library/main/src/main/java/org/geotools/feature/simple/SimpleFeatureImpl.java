@@ -230,7 +230,19 @@ public class SimpleFeatureImpl implements SimpleFeature {
         // if necessary, validation too
         if (validating) Types.validate(featureType.getDescriptor(index), converted);
         // finally set the value into the feature
-        values[index] = converted;
+        setRawAttribute(index, converted);
+    }
+
+    /**
+     * Stores the value at the specified index, as is, without conversion nor validation. Subclasses
+     * using a different storage for some of the attributes must override this method along with
+     * {@link #getAttribute(int)} and {@link #getAttributes()}
+     *
+     * @param index
+     * @param value
+     */
+    protected void setRawAttribute(int index, Object value) {
+        values[index] = value;
     }
 
     public void setAttribute(String name, Object value) {
@@ -245,7 +257,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
 
     public void setAttributes(List<Object> values) {
         for (int i = 0; i < this.values.length; i++) {
-            this.values[i] = values.get(i);
+            setRawAttribute(i, values.get(i));
         }
     }
 
@@ -343,7 +355,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
     public void setValue(Collection<Property> values) {
         int i = 0;
         for (Property p : values) {
-            this.values[i++] = p.getValue();
+            setRawAttribute(i++, p.getValue());
         }
     }
 
@@ -422,21 +434,21 @@ public class SimpleFeatureImpl implements SimpleFeature {
         }
 
         for (int i = 0, ii = values.length; i < ii; i++) {
+            Object att = getAttribute(i);
             Object otherAtt = feat.getAttribute(i);
 
-            if (values[i] == null) {
+            if (att == null) {
                 if (otherAtt != null) {
                     return false;
                 }
             } else {
-                if (values[i] instanceof Geometry) {
+                if (att instanceof Geometry) {
                     if (!(otherAtt instanceof Geometry)) {
                         return false;
-                    } else if (!CoordinateSequences.equalsND(
-                            (Geometry) values[i], (Geometry) otherAtt)) {
+                    } else if (!CoordinateSequences.equalsND((Geometry) att, (Geometry) otherAtt)) {
                         return false;
                     }
-                } else if (!values[i].equals(otherAtt)) {
+                } else if (!att.equals(otherAtt)) {
                     return false;
                 }
             }
@@ -448,7 +460,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
     public void validate() {
         for (int i = 0; i < values.length; i++) {
             AttributeDescriptor descriptor = getType().getDescriptor(i);
-            Types.validate(descriptor, values[i]);
+            Types.validate(descriptor, getAttribute(i));
         }
     }
 
@@ -464,7 +476,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
         }
 
         public Attribute set(int index, Property element) {
-            values[index] = element.getValue();
+            setRawAttribute(index, element.getValue());
             return null;
         }
 
@@ -515,7 +527,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
         }
 
         public Object getValue() {
-            return values[index];
+            return getAttribute(index);
         }
 
         public boolean isNillable() {
@@ -523,7 +535,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
         }
 
         public void setValue(Object newValue) {
-            values[index] = newValue;
+            setRawAttribute(index, newValue);
         }
         /**
          * Override of hashCode; uses descriptor name to agree with AttributeImpl
@@ -560,7 +572,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
         }
 
         public void validate() {
-            Types.validate(getDescriptor(), values[index]);
+            Types.validate(getDescriptor(), getAttribute(index));
         }
 
         public String toString() {
@@ -580,7 +592,7 @@ public class SimpleFeatureImpl implements SimpleFeature {
                 sb.append(">");
             }
             sb.append("=");
-            sb.append(values[index]);
+            sb.append(getAttribute(index));
             return sb.toString();
         }
     }
@@ -44,6 +44,9 @@ public class SimpleFeatureTypeImpl extends FeatureTypeImpl implements SimpleFeat
 
     Map<String, AttributeDescriptor> descriptors;
 
+    /** The attribute storage layout used by {@link PrimitiveSimpleFeatureImpl}, lazily built */
+    volatile PrimitiveSimpleFeatureImpl.Layout primitiveLayout;
+
     @SuppressWarnings("unchecked")
     public SimpleFeatureTypeImpl(
             Name name,
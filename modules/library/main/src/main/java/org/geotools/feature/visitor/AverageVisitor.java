@@ -20,7 +20,9 @@ import java.util.Arrays;
 import java.util.List;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
 import org.geotools.filter.IllegalFilterException;
+import org.geotools.filter.expression.PrimitivePropertyReader;
 import org.opengis.feature.Feature;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -34,7 +36,7 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
     private Expression expr;
 
     /**
@@ -45,6 +47,8 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
 
     AverageStrategy strategy;
 
+    PrimitivePropertyReader primitives;
+
     /**
      * Constructor class for the AverageVisitor using AttributeDescriptor ID
      *
@@ -117,7 +121,40 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
         visit((Feature) feature);
     }
 
+    /**
+     * Visits the feature without boxing the attribute value, if it is a {@link
+     * PrimitiveSimpleFeature} and the expression is a property stored in primitive form
+     *
+     * @return true if the feature was handled
+     */
+    private boolean visitPrimitive(org.opengis.feature.Feature feature) {
+        if (primitives == null) {
+            primitives = new PrimitivePropertyReader(expr);
+        }
+        int index = primitives.indexOf(feature);
+        if (index >= 0) {
+            // fast path, accumulate without boxing
+            PrimitiveSimpleFeature pf = (PrimitiveSimpleFeature) feature;
+            if (!pf.isNull(index)) {
+                if (strategy == null) {
+                    strategy = createStrategy(pf.getType().getType(index).getBinding());
+                }
+                if (pf.isIntegral(index)) {
+                    strategy.add(pf.getLong(index));
+                } else {
+                    strategy.add(pf.getDouble(index));
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     public void visit(org.opengis.feature.Feature feature) {
+        if (visitPrimitive(feature)) {
+            return;
+        }
+
         Object value = expr.evaluate(feature);
 
         if (value != null) {
@@ -149,6 +186,29 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
         isOptimized = false;
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new AverageVisitor(expr);
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        AverageStrategy other = ((AverageVisitor) partial).strategy;
+        if (other == null) {
+            return;
+        }
+        if (strategy == null) {
+            strategy = other;
+        } else {
+            Number sum =
+                    CalcUtil.sum(
+                            new Number[] {(Number) strategy.getSum(), (Number) other.getSum()});
+            int count = strategy.getCount() + other.getCount();
+            strategy = createStrategy(sum.getClass());
+            strategy.set(count, sum);
+        }
+    }
+
     /** Returns a CalcResult object (containing the Average) */
     public CalcResult getResult() {
         if (strategy == null) {
@@ -180,6 +240,16 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
     interface AverageStrategy {
         public void add(Object value);
 
+        /** Adds a primitive value, by default boxing it and calling {@link #add(Object)} */
+        public default void add(double value) {
+            add(Double.valueOf(value));
+        }
+
+        /** Adds a primitive value, by default boxing it and calling {@link #add(Object)} */
+        public default void add(long value) {
+            add(Long.valueOf(value));
+        }
+
         public Object getResult();
 
         public Object getSum();
@@ -199,6 +269,18 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             count++;
         }
 
+        @Override
+        public void add(double value) {
+            number += value;
+            count++;
+        }
+
+        @Override
+        public void add(long value) {
+            number += value;
+            count++;
+        }
+
         public Object getResult() {
             return Double.valueOf(number / count);
         }
@@ -227,6 +309,18 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             count++;
         }
 
+        @Override
+        public void add(double value) {
+            number += (float) value;
+            count++;
+        }
+
+        @Override
+        public void add(long value) {
+            number += (float) value;
+            count++;
+        }
+
         public Object getResult() {
             return Float.valueOf((float) number / count);
         }
@@ -255,6 +349,18 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             count++;
         }
 
+        @Override
+        public void add(double value) {
+            number += (long) value;
+            count++;
+        }
+
+        @Override
+        public void add(long value) {
+            number += value;
+            count++;
+        }
+
         public Object getResult() {
             return Double.valueOf((double) number / count);
         }
@@ -283,6 +389,18 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             count++;
         }
 
+        @Override
+        public void add(double value) {
+            number += (int) value;
+            count++;
+        }
+
+        @Override
+        public void add(long value) {
+            number += (int) value;
+            count++;
+        }
+
         public Object getResult() {
             return Double.valueOf((double) number / count);
         }
@@ -25,7 +25,7 @@ import org.locationtech.jts.geom.Envelope;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class BoundsVisitor implements FeatureCalc {
+public class BoundsVisitor implements FeatureCalc, MergeableVisitor {
     ReferencedEnvelope bounds = new ReferencedEnvelope();
 
     public void visit(org.opengis.feature.Feature feature) {
@@ -40,6 +40,16 @@ public class BoundsVisitor implements FeatureCalc {
         this.bounds = new ReferencedEnvelope();
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new BoundsVisitor();
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        bounds.include(((BoundsVisitor) partial).bounds);
+    }
+
     public CalcResult getResult() {
         if (bounds == null || bounds.isEmpty()) {
             return CalcResult.NULL_RESULT;
@@ -26,7 +26,7 @@ import org.opengis.feature.simple.SimpleFeature;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class CountVisitor implements FeatureCalc {
+public class CountVisitor implements FeatureCalc, MergeableVisitor {
     Integer count = null;
 
     public void init(SimpleFeatureCollection collection) {
@@ -55,6 +55,19 @@ public class CountVisitor implements FeatureCalc {
         this.count = count;
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new CountVisitor();
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        Integer other = ((CountVisitor) partial).count;
+        if (other != null) {
+            count = count == null ? other : count + other;
+        }
+    }
+
     public void reset() {
         this.count = null;
     }
@@ -27,7 +27,9 @@ import org.opengis.filter.expression.Expression;
  * Obtains the data needed for a Equal Area operation (classification of features into classes each
  * roughly having the same area).
  *
- * <p>The result contains an array of lists with the expression values in each.
+ * <p>The result contains an array of lists with the expression values in each. When the bins are
+ * computed by other means (see {@link #setValue(List[])}) each list might just contain the minimum
+ * and maximum value of the bin.
  *
  * @author Andrea Aime, GeoSolutions
  */
@@ -61,6 +63,8 @@ public class EqualAreaListVisitor implements FeatureCalc {
     private int binCount;
     private List<ValueArea> items = new ArrayList<>();
     private List<Comparable>[] bins;
+    /** Bins computed by an optimized implementation, if not null they take priority over items */
+    private List[] optimizedBins;
 
     boolean visited = false;
     int countNull = 0;
@@ -77,7 +81,23 @@ public class EqualAreaListVisitor implements FeatureCalc {
         // do nothing
     }
 
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public Expression getAreaExpression() {
+        return areaExpression;
+    }
+
+    /** Returns the number of bins requested */
+    public int getBins() {
+        return binCount;
+    }
+
     public CalcResult getResult() {
+        if (optimizedBins != null) {
+            return optimizedBins.length == 0 ? CalcResult.NULL_RESULT : binsResult(optimizedBins);
+        }
         if (binCount == 0 || count == 0) {
             return CalcResult.NULL_RESULT;
         }
@@ -121,6 +141,10 @@ public class EqualAreaListVisitor implements FeatureCalc {
             this.bins = reduced;
         }
 
+        return binsResult(bins);
+    }
+
+    private CalcResult binsResult(List[] bins) {
         return new AbstractCalcResult() {
             public Object getValue() {
                 return bins;
@@ -128,6 +152,17 @@ public class EqualAreaListVisitor implements FeatureCalc {
         };
     }
 
+    /**
+     * Sets the bins computed by other means, e.g. by a database. Each bin can be reduced to its
+     * minimum and maximum value, which is all the classification functions need to build ranges.
+     *
+     * @param bins The bins, sorted, each one holding its values from lowest to highest
+     */
+    public void setValue(List[] bins) {
+        reset(bins.length);
+        this.optimizedBins = bins;
+    }
+
     public void visit(SimpleFeature feature) {
         visit((org.opengis.feature.Feature) feature);
     }
@@ -158,6 +193,7 @@ public class EqualAreaListVisitor implements FeatureCalc {
         this.count = 0;
         this.items = new ArrayList<>();
         this.bins = new ArrayList[bins];
+        this.optimizedBins = null;
         this.countNull = 0;
         this.countNaN = 0;
     }
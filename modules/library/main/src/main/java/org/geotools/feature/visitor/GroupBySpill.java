@@ -0,0 +1,214 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.sort.SimpleFeatureIO;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Disk backed storage for the {@link GroupByVisitor} rows that do not fit in memory. Each row holds
+ * the group by values and the value of the aggregate expression, and is hashed by group into one of
+ * a fixed number of partitions, each one stored in its own file using the {@link SimpleFeatureIO}
+ * binary format.
+ *
+ * <p>Partitions are aggregated one at a time, so that only the groups of a single partition need to
+ * be kept in memory. Partitions that still have too many groups are re-hashed into a new spill of
+ * the next level, up to {@link #MAX_LEVEL}.
+ */
+class GroupBySpill {
+
+    /** Number of partitions (and files) the rows are hashed into */
+    static final int PARTITIONS = 16;
+
+    /** Past this level the partitions are aggregated in memory regardless of their size */
+    static final int MAX_LEVEL = 8;
+
+    static final String GROUP_PREFIX = "group";
+
+    static final String VALUE = "value";
+
+    /** The expression used by the aggregate visitors to read back the spilled value */
+    static final PropertyName VALUE_PROPERTY =
+            CommonFactoryFinder.getFilterFactory(null).property(VALUE);
+
+    final SimpleFeatureType schema;
+
+    final int groupCount;
+
+    final int level;
+
+    final SimpleFeatureBuilder builder;
+
+    final SimpleFeatureIO[] partitions = new SimpleFeatureIO[PARTITIONS];
+
+    /**
+     * Builds a new spill
+     *
+     * @param schema The spilled rows schema, see {@link #buildSchema}
+     * @param level The re-hashing level, used to seed the partition hash
+     */
+    GroupBySpill(SimpleFeatureType schema, int level) {
+        this.schema = schema;
+        this.groupCount = schema.getAttributeCount() - 1;
+        this.level = level;
+        this.builder = new SimpleFeatureBuilder(schema);
+    }
+
+    /**
+     * Builds the schema of the spilled rows. Property names are bound to the type of the attribute
+     * they refer to, so that they are stored in the compact form, other expressions are serialized.
+     */
+    static SimpleFeatureType buildSchema(
+            SimpleFeatureType sourceType, List<Expression> groupByAttributes, Expression value) {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("GroupBySpill");
+        for (int i = 0; i < groupByAttributes.size(); i++) {
+            tb.add(GROUP_PREFIX + i, getBinding(sourceType, groupByAttributes.get(i)));
+        }
+        tb.add(VALUE, getBinding(sourceType, value));
+        return tb.buildFeatureType();
+    }
+
+    private static Class<?> getBinding(SimpleFeatureType sourceType, Expression expression) {
+        if (expression instanceof PropertyName && sourceType != null) {
+            Object descriptor = expression.evaluate(sourceType);
+            if (descriptor instanceof AttributeDescriptor) {
+                return ((AttributeDescriptor) descriptor).getType().getBinding();
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * Writes a row in the partition associated to its group
+     *
+     * @param groupByValues The group by values
+     * @param value The aggregate expression value
+     */
+    void write(List<Object> groupByValues, Object value) throws IOException {
+        for (Object groupByValue : groupByValues) {
+            builder.add(groupByValue);
+        }
+        builder.add(value);
+        write(groupByValues, builder.buildFeature(""));
+    }
+
+    private void write(List<Object> groupByValues, SimpleFeature row) throws IOException {
+        int partition = partition(groupByValues);
+        SimpleFeatureIO io = partitions[partition];
+        if (io == null) {
+            File file = File.createTempFile("groupby", ".features");
+            io = new SimpleFeatureIO(file, schema);
+            partitions[partition] = io;
+        }
+        io.write(row);
+    }
+
+    /** Hashes the group in a partition, mixing in the level so that re-hashing splits groups */
+    int partition(List<Object> groupByValues) {
+        int h = groupByValues.hashCode() + level * 0x9E3779B9;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (h & 0x7FFFFFFF) % PARTITIONS;
+    }
+
+    /**
+     * Aggregates the spilled rows partition by partition, releasing each partition file once done
+     *
+     * @param aggregate The aggregate used to create the group visitors
+     * @param maxGroups The maximum number of groups kept in memory while aggregating a partition
+     * @param results The map the group results are merged into
+     */
+    void aggregate(Aggregate aggregate, int maxGroups, Map<List<Object>, CalcResult> results)
+            throws IOException {
+        for (int p = 0; p < PARTITIONS; p++) {
+            SimpleFeatureIO io = partitions[p];
+            if (io == null) {
+                continue;
+            }
+            Map<List<Object>, FeatureCalc> groups = new HashMap<>();
+            GroupBySpill overflow = null;
+            try {
+                io.seek(0);
+                while (!io.endOfFile()) {
+                    SimpleFeature row = io.read();
+                    List<Object> groupByValues = new ArrayList<>(groupCount);
+                    for (int i = 0; i < groupCount; i++) {
+                        groupByValues.add(row.getAttribute(i));
+                    }
+                    FeatureCalc calc = groups.get(groupByValues);
+                    if (calc == null) {
+                        if (groups.size() >= maxGroups && level < MAX_LEVEL) {
+                            if (overflow == null) {
+                                overflow = new GroupBySpill(schema, level + 1);
+                            }
+                            overflow.write(groupByValues, row);
+                            continue;
+                        }
+                        calc = aggregate.create(VALUE_PROPERTY);
+                        groups.put(groupByValues, calc);
+                    }
+                    calc.visit(row);
+                }
+                partitions[p] = null;
+                io.close(true);
+
+                for (Map.Entry<List<Object>, FeatureCalc> entry : groups.entrySet()) {
+                    results.merge(entry.getKey(), entry.getValue().getResult(), CalcResult::merge);
+                }
+                groups.clear();
+                if (overflow != null) {
+                    overflow.aggregate(aggregate, maxGroups, results);
+                }
+            } finally {
+                if (overflow != null) {
+                    overflow.dispose();
+                }
+            }
+        }
+    }
+
+    /** Closes and deletes all the partition files still around */
+    void dispose() {
+        for (int p = 0; p < PARTITIONS; p++) {
+            SimpleFeatureIO io = partitions[p];
+            if (io != null) {
+                partitions[p] = null;
+                try {
+                    io.close(true);
+                } catch (IOException e) {
+                    // best effort, the file is a temporary one anyways
+                }
+            }
+        }
+    }
+}
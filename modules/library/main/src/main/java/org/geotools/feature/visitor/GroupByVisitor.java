@@ -16,6 +16,8 @@
  */
 package org.geotools.feature.visitor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -32,8 +34,15 @@ import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.expression.Expression;
 import org.opengis.util.ProgressListener;
 
-/** Group features by one or several attributes and applies an aggregator visitor to each group. */
-public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
+/**
+ * Group features by one or several attributes and applies an aggregator visitor to each group.
+ *
+ * <p>By default all the groups are kept in memory. When a limit is set with {@link
+ * #setMaxGroupsInMemory(int)}, features falling in new groups past the limit are hash partitioned
+ * and spilled to temporary files, which are aggregated one partition at a time and merged in the
+ * result when {@link #getResult()} is called.
+ */
+public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
 
     private final Aggregate aggregate;
     private final Expression expression;
@@ -44,6 +53,8 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
 
     private CalcResult optimizationResult = CalcResult.NULL_RESULT;
 
+    private int maxGroupsInMemory = Integer.MAX_VALUE;
+
     public GroupByVisitor(
             Aggregate aggregateVisitor,
             Expression expression,
@@ -60,7 +71,69 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
     }
 
     public boolean wasVisited() {
-        return !inMemoryGroupBy.groupByIndexes.isEmpty();
+        return !inMemoryGroupBy.groupByIndexes.isEmpty()
+                || inMemoryGroupBy.spill != null
+                || !inMemoryGroupBy.spilledResults.isEmpty();
+    }
+
+    /** Returns the maximum number of groups kept in memory while visiting features */
+    public int getMaxGroupsInMemory() {
+        return maxGroupsInMemory;
+    }
+
+    /**
+     * Sets the maximum number of groups kept in memory while visiting features. Features belonging
+     * to other groups are spilled to disk, and aggregated when the result is computed, keeping at
+     * most this many groups in memory at any time. Defaults to {@link Integer#MAX_VALUE}, that is,
+     * no spilling.
+     *
+     * @param maxGroupsInMemory the maximum number of groups, must be positive
+     */
+    public void setMaxGroupsInMemory(int maxGroupsInMemory) {
+        if (maxGroupsInMemory <= 0) {
+            throw new IllegalArgumentException(
+                    "The maximum number of groups in memory must be positive");
+        }
+        this.maxGroupsInMemory = maxGroupsInMemory;
+    }
+
+    /**
+     * Returns a partial visitor, or null if the aggregate visitor cannot be split, in which case
+     * the groups cannot be merged either
+     */
+    @Override
+    public MergeableVisitor createPartial() {
+        if (!(visitorProtoType instanceof MergeableVisitor)
+                || ((MergeableVisitor) visitorProtoType).createPartial() == null) {
+            return null;
+        }
+        GroupByVisitor partial = new GroupByVisitor(aggregate, expression, groupByAttributes, null);
+        partial.maxGroupsInMemory = maxGroupsInMemory;
+        return partial;
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        GroupByVisitor other = (GroupByVisitor) partial;
+        Map<List<Object>, FeatureCalc> groupByIndexes = inMemoryGroupBy.groupByIndexes;
+        for (Map.Entry<List<Object>, FeatureCalc> entry :
+                other.inMemoryGroupBy.groupByIndexes.entrySet()) {
+            FeatureCalc calc = groupByIndexes.get(entry.getKey());
+            if (calc != null) {
+                ((MergeableVisitor) calc).merge((MergeableVisitor) entry.getValue());
+            } else if (groupByIndexes.size() < maxGroupsInMemory) {
+                groupByIndexes.put(entry.getKey(), entry.getValue());
+            } else {
+                // past the limit, keep only the group result
+                inMemoryGroupBy.spilledResults.merge(
+                        entry.getKey(), entry.getValue().getResult(), CalcResult::merge);
+            }
+        }
+        for (Map.Entry<List<Object>, CalcResult> entry :
+                other.inMemoryGroupBy.getSpilledResults().entrySet()) {
+            inMemoryGroupBy.spilledResults.merge(
+                    entry.getKey(), entry.getValue(), CalcResult::merge);
+        }
     }
 
     /**
@@ -147,6 +220,12 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
         // feature collections grouped by the group by attributes
         private final Map<List<Object>, FeatureCalc> groupByIndexes = new HashMap<>();
 
+        // features of the groups that did not fit in memory, null until the limit is reached
+        private GroupBySpill spill;
+
+        // results of the spilled groups that have been aggregated already
+        private final Map<List<Object>, CalcResult> spilledResults = new HashMap<>();
+
         /**
          * Add a feature to the appropriate group by feature collection.
          *
@@ -163,6 +242,10 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
             // feature collection to allow duplicates)
             FeatureCalc calc = groupByIndexes.get(groupByValues);
             if (calc == null) {
+                if (groupByIndexes.size() >= maxGroupsInMemory) {
+                    spill(feature, groupByValues);
+                    return;
+                }
                 calc = aggregate.create(expression);
                 groupByIndexes.put(groupByValues, calc);
             }
@@ -180,8 +263,53 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
                 // we add the aggregation visitor to the results
                 results.put(entry.getKey(), entry.getValue().getResult());
             }
+            // spilled groups never overlap with the in memory ones, but partials merged past the
+            // limit might
+            for (Map.Entry<List<Object>, CalcResult> entry : getSpilledResults().entrySet()) {
+                results.merge(entry.getKey(), entry.getValue(), CalcResult::merge);
+            }
             return results;
         }
+
+        /**
+         * Writes the feature group values and aggregate value to disk, for groups that cannot be
+         * kept in memory
+         */
+        private void spill(SimpleFeature feature, List<Object> groupByValues) {
+            try {
+                if (spill == null) {
+                    spill =
+                            new GroupBySpill(
+                                    GroupBySpill.buildSchema(
+                                            feature.getFeatureType(),
+                                            groupByAttributes,
+                                            expression),
+                                    0);
+                }
+                spill.write(
+                        groupByValues, expression == null ? null : expression.evaluate(feature));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to spill the group by features to disk", e);
+            }
+        }
+
+        /**
+         * Aggregates the spilled features, if any, and returns the results of the spilled groups
+         */
+        Map<List<Object>, CalcResult> getSpilledResults() {
+            if (spill != null) {
+                try {
+                    spill.aggregate(aggregate, maxGroupsInMemory, spilledResults);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(
+                            "Failed to aggregate the group by features spilled to disk", e);
+                } finally {
+                    spill.dispose();
+                    spill = null;
+                }
+            }
+            return spilledResults;
+        }
     }
 
     /** This class implements the feature calculation result of the group by visitor. */
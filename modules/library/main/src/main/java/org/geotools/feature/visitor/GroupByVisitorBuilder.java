@@ -39,6 +39,7 @@ public final class GroupByVisitorBuilder {
     private Aggregate aggregateVisitor;
     private List<Expression> groupByAttributes = new ArrayList<>();
     private ProgressListener progressListener;
+    private int maxGroupsInMemory = Integer.MAX_VALUE;
 
     public GroupByVisitorBuilder withAggregateAttribute(
             int attributeTypeIndex, SimpleFeatureType type) {
@@ -97,6 +98,15 @@ public final class GroupByVisitorBuilder {
         return this;
     }
 
+    /**
+     * Sets the maximum number of groups kept in memory, see {@link
+     * GroupByVisitor#setMaxGroupsInMemory(int)}
+     */
+    public GroupByVisitorBuilder withMaxGroupsInMemory(int maxGroupsInMemory) {
+        this.maxGroupsInMemory = maxGroupsInMemory;
+        return this;
+    }
+
     private Expression toExpression(int attributeTypeIndex, SimpleFeatureType type) {
         FilterFactory filterFactory = CommonFactoryFinder.getFilterFactory(null);
         AttributeDescriptor attribute = type.getDescriptor(attributeTypeIndex);
@@ -134,7 +144,10 @@ public final class GroupByVisitorBuilder {
         if (progressListener == null) {
             progressListener = new NullProgressListener();
         }
-        return new GroupByVisitor(
-                aggregateVisitor, aggregateAttribute, groupByAttributes, progressListener);
+        GroupByVisitor visitor =
+                new GroupByVisitor(
+                        aggregateVisitor, aggregateAttribute, groupByAttributes, progressListener);
+        visitor.setMaxGroupsInMemory(maxGroupsInMemory);
+        return visitor;
     }
 }
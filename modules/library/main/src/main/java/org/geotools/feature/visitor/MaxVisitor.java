@@ -20,7 +20,9 @@ import java.util.Arrays;
 import java.util.List;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
 import org.geotools.filter.IllegalFilterException;
+import org.geotools.filter.expression.PrimitivePropertyReader;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.FilterFactory;
@@ -32,11 +34,12 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions Research Inc.
  * @since 2.2.M2
  */
-public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
     private Expression expr;
     Comparable maxvalue;
     Comparable curvalue;
     boolean visited = false;
+    PrimitivePropertyReader primitives;
     int countNull = 0;
     int countNaN = 0;
 
@@ -78,7 +81,50 @@ public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor {
         visit((org.opengis.feature.Feature) feature);
     }
 
+    /**
+     * Visits the feature without boxing the attribute value, if it is a {@link
+     * PrimitiveSimpleFeature} and the expression is a property stored in primitive form
+     *
+     * @return true if the feature was handled
+     */
+    private boolean visitPrimitive(org.opengis.feature.Feature feature) {
+        if (primitives == null) {
+            primitives = new PrimitivePropertyReader(expr);
+        }
+        int index = primitives.indexOf(feature);
+        if (index >= 0 && (!visited || maxvalue instanceof Number)) {
+            // fast path, compare without boxing, box only the new maximum
+            PrimitiveSimpleFeature pf = (PrimitiveSimpleFeature) feature;
+            if (pf.isNull(index)) {
+                countNull++; // increment the null count, but don't store its value
+                return true;
+            }
+            boolean replace;
+            if (pf.isIntegral(index)) {
+                replace = !visited || pf.getLong(index) > ((Number) maxvalue).longValue();
+            } else {
+                double value = pf.getDouble(index);
+                if ((Double.isNaN(value) || Double.isInfinite(value))
+                        && pf.getType().getType(index).getBinding() == Double.class) {
+                    countNaN++; // increment the NaN count, but don't store NaN as the max
+                    return true;
+                }
+                replace = !visited || Double.compare(value, ((Number) maxvalue).doubleValue()) > 0;
+            }
+            if (replace) {
+                maxvalue = (Comparable) pf.getAttribute(index);
+                visited = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
     public void visit(org.opengis.feature.Feature feature) {
+        if (visitPrimitive(feature)) {
+            return;
+        }
+
         Object attribValue = expr.evaluate(feature);
 
         if (attribValue == null) {
@@ -139,6 +185,21 @@ public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor {
         return expr;
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new MaxVisitor(expr);
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        MaxVisitor other = (MaxVisitor) partial;
+        countNull += other.countNull;
+        countNaN += other.countNaN;
+        if (other.visited) {
+            setValue(getResult().merge(other.getResult()).getValue());
+        }
+    }
+
     public CalcResult getResult() {
         if (!visited) {
             return CalcResult.NULL_RESULT;
@@ -34,7 +34,7 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class MedianVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class MedianVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
     private Expression expr;
     private List list = new ArrayList();
     /**
@@ -118,6 +118,16 @@ public class MedianVisitor implements FeatureCalc, FeatureAttributeVisitor {
         this.median = null;
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new MedianVisitor(expr);
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        list.addAll(((MedianVisitor) partial).list);
+    }
+
     public CalcResult getResult() {
         if (median != null) {
             // median was overwritten by an optimization
@@ -0,0 +1,46 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import org.opengis.feature.FeatureVisitor;
+
+/**
+ * A visitor whose work can be split among several partial visitors, each one visiting a subset of
+ * the features, and whose partial states can then be merged back, allowing the visit to run in
+ * parallel.
+ *
+ * @see ParallelVisitorExecutor
+ */
+public interface MergeableVisitor extends FeatureVisitor {
+
+    /**
+     * Returns a new visitor, configured as this one but holding no state, that will be used to
+     * visit a subset of the features.
+     *
+     * @return the partial visitor, or null if this visitor cannot be split in its current
+     *     configuration (e.g., because it is limiting the features it visits)
+     */
+    MergeableVisitor createPartial();
+
+    /**
+     * Merges into this visitor the state of a partial one, created by {@link #createPartial()},
+     * that visited features following the ones visited by this visitor.
+     *
+     * @param partial the partial visitor to merge
+     */
+    void merge(MergeableVisitor partial);
+}
@@ -20,7 +20,9 @@ import java.util.Arrays;
 import java.util.List;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
 import org.geotools.filter.IllegalFilterException;
+import org.geotools.filter.expression.PrimitivePropertyReader;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.FilterFactory;
@@ -32,11 +34,12 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
     private Expression expr;
     Comparable minvalue;
     Comparable curvalue;
     boolean visited = false;
+    PrimitivePropertyReader primitives;
 
     public MinVisitor(String attributeTypeName) {
         FilterFactory factory = CommonFactoryFinder.getFilterFactory(null);
@@ -76,7 +79,46 @@ public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor {
         visit((org.opengis.feature.Feature) feature);
     }
 
+    /**
+     * Visits the feature without boxing the attribute value, if it is a {@link
+     * PrimitiveSimpleFeature} and the expression is a property stored in primitive form
+     *
+     * @return true if the feature was handled
+     */
+    private boolean visitPrimitive(org.opengis.feature.Feature feature) {
+        if (primitives == null) {
+            primitives = new PrimitivePropertyReader(expr);
+        }
+        int index = primitives.indexOf(feature);
+        if (index >= 0 && (!visited || minvalue instanceof Number)) {
+            // fast path, compare without boxing, box only the new minimum
+            PrimitiveSimpleFeature pf = (PrimitiveSimpleFeature) feature;
+            if (pf.isNull(index)) {
+                return true;
+            }
+            boolean replace;
+            if (!visited) {
+                replace = true;
+            } else if (pf.isIntegral(index)) {
+                replace = Long.compare(pf.getLong(index), ((Number) minvalue).longValue()) < 0;
+            } else {
+                replace =
+                        Double.compare(pf.getDouble(index), ((Number) minvalue).doubleValue()) < 0;
+            }
+            if (replace) {
+                minvalue = (Comparable) pf.getAttribute(index);
+                visited = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
     public void visit(org.opengis.feature.Feature feature) {
+        if (visitPrimitive(feature)) {
+            return;
+        }
+
         Object attribValue = expr.evaluate(feature);
 
         if (attribValue == null) {
@@ -110,6 +152,19 @@ public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor {
         this.minvalue = Integer.valueOf(0);
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new MinVisitor(expr);
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        MinVisitor other = (MinVisitor) partial;
+        if (other.visited) {
+            setValue(getResult().merge(other.getResult()).getValue());
+        }
+    }
+
     public CalcResult getResult() {
         if (!visited) {
             return CalcResult.NULL_RESULT;
@@ -0,0 +1,169 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import org.geotools.data.PartitionedFeatureSource;
+import org.geotools.data.store.ContentFeatureCollection;
+import org.geotools.data.util.NullProgressListener;
+import org.geotools.feature.FeatureCollection;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.util.ProgressListener;
+
+/**
+ * Runs {@link MergeableVisitor} instances over feature collections in parallel, using a {@link
+ * ForkJoinPool}. Each partition of the data is visited by its own partial visitor, the partial
+ * results are then merged back into the visitor provided by the caller.
+ *
+ * <p>The parallel visit happens only if the collection comes from a {@link
+ * PartitionedFeatureSource} able to split the query at hand, and the visitor can be split, in all
+ * other cases the collection is visited sequentially, as {@link
+ * FeatureCollection#accepts(FeatureVisitor, ProgressListener)} would.
+ *
+ * <pre><code>
+ * ParallelVisitorExecutor executor = new ParallelVisitorExecutor();
+ * SumVisitor visitor = new SumVisitor("population", schema);
+ * executor.accepts(source.getFeatures(query), visitor, null);
+ * </code></pre>
+ */
+public class ParallelVisitorExecutor {
+
+    final ForkJoinPool pool;
+
+    final int partitions;
+
+    /**
+     * Builds an executor running on the common fork join pool, splitting the reads in four
+     * partitions per available thread
+     */
+    public ParallelVisitorExecutor() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism() * 4);
+    }
+
+    /**
+     * Builds an executor running on the specified pool
+     *
+     * @param pool the pool running the partial visits
+     * @param partitions the number of partitions the reads will be split into. Using a multiple of
+     *     the pool parallelism helps balancing the load when the partitions are not uniform
+     */
+    public ParallelVisitorExecutor(ForkJoinPool pool, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The number of partitions must be positive");
+        }
+        this.pool = pool;
+        this.partitions = partitions;
+    }
+
+    /** The pool running the partial visits */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /** The number of partitions the reads are split into */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Visits the collection, in parallel if possible, sequentially otherwise
+     *
+     * @param collection the collection to visit
+     * @param visitor the visitor, which will hold the results once the method returns
+     * @param progress used to report progress, may be null
+     */
+    public void accepts(
+            FeatureCollection<?, ?> collection, FeatureVisitor visitor, ProgressListener progress)
+            throws IOException {
+        if (collection instanceof ContentFeatureCollection) {
+            ((ContentFeatureCollection) collection).accepts(visitor, progress, this);
+        } else {
+            collection.accepts(visitor, progress);
+        }
+    }
+
+    /**
+     * Checks if the visitor can be split among partial visitors
+     *
+     * @param visitor the visitor to check
+     * @return true if the visitor is a {@link MergeableVisitor} able to create partial visitors
+     */
+    public boolean canSplit(FeatureVisitor visitor) {
+        return visitor instanceof MergeableVisitor
+                && ((MergeableVisitor) visitor).createPartial() != null;
+    }
+
+    /**
+     * Visits all the features in the stream, splitting the work among partial visitors, and merging
+     * their state back into the provided visitor. The stream is not closed.
+     *
+     * @param features the features to visit, in the order the visitor should see them
+     * @param visitor the visitor, must be able to create partial visitors
+     * @param progress used to report progress, may be null
+     */
+    public void visit(
+            Stream<? extends Feature> features, MergeableVisitor visitor, ProgressListener progress)
+            throws IOException {
+        if (progress == null) {
+            progress = new NullProgressListener();
+        }
+        if (visitor.createPartial() == null) {
+            throw new IllegalArgumentException("The visitor cannot be split: " + visitor);
+        }
+
+        progress.started();
+        try {
+            // the collect calls run in the pool, as they are started by one of its tasks, and
+            // combine the partial visitors preserving the encounter order
+            MergeableVisitor result =
+                    pool.submit(
+                                    () ->
+                                            features.parallel()
+                                                    .collect(
+                                                            visitor::createPartial,
+                                                            MergeableVisitor::visit,
+                                                            MergeableVisitor::merge))
+                            .get();
+            visitor.merge(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Parallel visit interrupted");
+            ioe.initCause(e);
+            progress.exceptionOccurred(ioe);
+            throw ioe;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            progress.exceptionOccurred(cause);
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Parallel visit failed", cause);
+        } finally {
+            progress.complete();
+        }
+    }
+}
@@ -27,7 +27,9 @@ import org.opengis.filter.expression.Expression;
  * Obtains the data needed for a Quantile operation (classification of features into classes of
  * equal size).
  *
- * <p>The result contains an array of lists with the expression values in each.
+ * <p>The result contains an array of lists with the expression values in each. When the bins are
+ * computed by other means (see {@link #setValue(List[])}) each list might just contain the minimum
+ * and maximum value of the bin.
  *
  * @author Cory Horner, Refractions Research Inc.
  */
@@ -37,6 +39,8 @@ public class QuantileListVisitor implements FeatureCalc {
     private int bins;
     private List items = new ArrayList();
     private List[] bin;
+    /** Bins computed by an optimized implementation, if not null they take priority over items */
+    private List[] optimizedBins;
 
     boolean visited = false;
     int countNull = 0;
@@ -52,7 +56,19 @@ public class QuantileListVisitor implements FeatureCalc {
         // do nothing
     }
 
+    public Expression getExpression() {
+        return expr;
+    }
+
+    /** Returns the number of bins requested */
+    public int getBins() {
+        return bins;
+    }
+
     public CalcResult getResult() {
+        if (optimizedBins != null) {
+            return optimizedBins.length == 0 ? CalcResult.NULL_RESULT : binsResult(optimizedBins);
+        }
         if (bins == 0 || count == 0) {
             return CalcResult.NULL_RESULT;
         }
@@ -82,13 +98,28 @@ public class QuantileListVisitor implements FeatureCalc {
             if (lastBigBin == binIndex)
                 binPop--; // decrease the number of items in a bin for the next item
         }
+        return binsResult(bin);
+    }
+
+    private CalcResult binsResult(List[] bins) {
         return new AbstractCalcResult() {
             public Object getValue() {
-                return bin;
+                return bins;
             }
         };
     }
 
+    /**
+     * Sets the bins computed by other means, e.g. by a database. Each bin can be reduced to its
+     * minimum and maximum value, which is all the classification functions need to build ranges.
+     *
+     * @param bins The bins, sorted, each one holding its values from lowest to highest
+     */
+    public void setValue(List[] bins) {
+        reset(bins.length);
+        this.optimizedBins = bins;
+    }
+
     public void visit(SimpleFeature feature) {
         visit((org.opengis.feature.Feature) feature);
     }
@@ -118,6 +149,7 @@ public class QuantileListVisitor implements FeatureCalc {
         this.count = 0;
         this.items = new ArrayList();
         this.bin = new ArrayList[bins];
+        this.optimizedBins = null;
         this.countNull = 0;
         this.countNaN = 0;
     }
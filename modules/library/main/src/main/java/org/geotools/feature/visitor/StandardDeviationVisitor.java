@@ -40,7 +40,8 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions Research Inc.
  * @author Andrea Aime, GeoSolutions
  */
-public class StandardDeviationVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class StandardDeviationVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
     public static class Result extends AbstractCalcResult {
         final Double deviation;
 
@@ -85,6 +86,10 @@ public class StandardDeviationVisitor implements FeatureCalc, FeatureAttributeVi
         return Arrays.asList(expr);
     }
 
+    public Expression getExpression() {
+        return expr;
+    }
+
     public CalcResult getResult() {
         if (count == 0) {
             return CalcResult.NULL_RESULT;
@@ -119,6 +124,43 @@ public class StandardDeviationVisitor implements FeatureCalc, FeatureAttributeVi
         m2 = m2 + delta * (x - mean); // This expression uses the new value of mean
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new StandardDeviationVisitor(expr);
+    }
+
+    /** Merges the partial statistics using the pairwise algorithm by Chan et al. */
+    @Override
+    public void merge(MergeableVisitor partial) {
+        StandardDeviationVisitor other = (StandardDeviationVisitor) partial;
+        countNull += other.countNull;
+        countNaN += other.countNaN;
+        if (other.count == 0) {
+            return;
+        }
+        int newCount = count + other.count;
+        double delta = other.mean - mean;
+        mean = mean + delta * other.count / newCount;
+        m2 = m2 + other.m2 + delta * delta * ((double) count * other.count / newCount);
+        count = newCount;
+    }
+
+    /**
+     * Sets the statistics computed by other means (e.g. by a database), the visitor will behave as
+     * if it had visited the specified number of non null values, and can still be merged with other
+     * partial results.
+     *
+     * @param count The number of non null values
+     * @param mean The mean of the values
+     * @param deviation The population standard deviation of the values
+     */
+    public void setValue(int count, double mean, double deviation) {
+        reset();
+        this.count = count;
+        this.mean = mean;
+        this.m2 = deviation * deviation * count;
+    }
+
     public void reset() {
         this.count = 0;
         this.countNull = 0;
@@ -23,6 +23,7 @@ import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Function;
 
 /**
  * Calculates the Sum of Areas for geometric fields
@@ -59,6 +60,12 @@ public class SumAreaVisitor extends SumVisitor {
         this(factory.property(type.getDescriptor(attrName).getLocalName()));
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        // the expression is wrapped in the area function, unwrap it to build the partial
+        return new SumAreaVisitor(((Function) getExpression()).getParameters().get(0));
+    }
+
     static class SumAreaStrategy implements SumStrategy {
         Double number = null;
 
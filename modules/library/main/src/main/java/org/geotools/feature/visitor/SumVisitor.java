@@ -20,9 +20,11 @@ import java.util.Arrays;
 import java.util.List;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
 import org.geotools.feature.visitor.AverageVisitor.AverageResult;
 import org.geotools.feature.visitor.CountVisitor.CountResult;
 import org.geotools.filter.IllegalFilterException;
+import org.geotools.filter.expression.PrimitivePropertyReader;
 import org.opengis.feature.Feature;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -36,11 +38,13 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableVisitor {
     private Expression expr;
 
     SumStrategy strategy;
 
+    PrimitivePropertyReader primitives;
+
     public SumVisitor(int attributeTypeIndex, SimpleFeatureType type)
             throws IllegalFilterException {
         FilterFactory factory = CommonFactoryFinder.getFilterFactory(null);
@@ -99,7 +103,40 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
         visit((Feature) feature);
     }
 
+    /**
+     * Visits the feature without boxing the attribute value, if it is a {@link
+     * PrimitiveSimpleFeature} and the expression is a property stored in primitive form
+     *
+     * @return true if the feature was handled
+     */
+    private boolean visitPrimitive(Feature feature) {
+        if (primitives == null) {
+            primitives = new PrimitivePropertyReader(expr);
+        }
+        int index = primitives.indexOf(feature);
+        if (index >= 0) {
+            // fast path, sum without boxing
+            PrimitiveSimpleFeature pf = (PrimitiveSimpleFeature) feature;
+            if (!pf.isNull(index)) {
+                if (strategy == null) {
+                    strategy = createStrategy(pf.getType().getType(index).getBinding());
+                }
+                if (pf.isIntegral(index)) {
+                    strategy.add(pf.getLong(index));
+                } else {
+                    strategy.add(pf.getDouble(index));
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     public void visit(Feature feature) {
+        if (visitPrimitive(feature)) {
+            return;
+        }
+
         Object value = expr.evaluate(feature);
 
         if (value != null) {
@@ -124,6 +161,25 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
         strategy.add(newSum);
     }
 
+    @Override
+    public MergeableVisitor createPartial() {
+        return new SumVisitor(expr);
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        SumStrategy other = ((SumVisitor) partial).strategy;
+        if (other == null || other.getResult() == null) {
+            return;
+        }
+        if (strategy == null) {
+            strategy = other;
+        } else {
+            // same behavior as visiting the partial values, the first strategy wins
+            strategy.add(other.getResult());
+        }
+    }
+
     public void reset() {
         strategy = null;
     }
@@ -138,6 +194,16 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
     protected interface SumStrategy {
         public void add(Object value);
 
+        /** Adds a primitive value, by default boxing it and calling {@link #add(Object)} */
+        public default void add(double value) {
+            add(Double.valueOf(value));
+        }
+
+        /** Adds a primitive value, by default boxing it and calling {@link #add(Object)} */
+        public default void add(long value) {
+            add(Long.valueOf(value));
+        }
+
         public Object getResult();
     }
 
@@ -148,6 +214,16 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number += ((Number) value).doubleValue();
         }
 
+        @Override
+        public void add(double value) {
+            number += value;
+        }
+
+        @Override
+        public void add(long value) {
+            number += value;
+        }
+
         public Object getResult() {
             return Double.valueOf(number);
         }
@@ -160,6 +236,16 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number += ((Number) value).floatValue();
         }
 
+        @Override
+        public void add(double value) {
+            number += (float) value;
+        }
+
+        @Override
+        public void add(long value) {
+            number += (float) value;
+        }
+
         public Object getResult() {
             return Float.valueOf(number);
         }
@@ -172,6 +258,16 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number += ((Number) value).longValue();
         }
 
+        @Override
+        public void add(double value) {
+            number += (long) value;
+        }
+
+        @Override
+        public void add(long value) {
+            number += value;
+        }
+
         public Object getResult() {
             return Long.valueOf(number);
         }
@@ -184,6 +280,16 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number += ((Number) value).intValue();
         }
 
+        @Override
+        public void add(double value) {
+            number += (int) value;
+        }
+
+        @Override
+        public void add(long value) {
+            number += (int) value;
+        }
+
         public Object getResult() {
             return Integer.valueOf(number);
         }
@@ -39,7 +39,8 @@ import org.opengis.filter.expression.Expression;
  * @author Cory Horner, Refractions
  * @since 2.2.M2
  */
-public class UniqueVisitor implements FeatureCalc, FeatureAttributeVisitor, LimitingVisitor {
+public class UniqueVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, LimitingVisitor, MergeableVisitor {
     private Expression expr;
     Set set = new HashSet();
     Set skipped = new HashSet();
@@ -154,6 +155,30 @@ public class UniqueVisitor implements FeatureCalc, FeatureAttributeVisitor, Limi
         currentItem = 0;
     }
 
+    /**
+     * Returns a partial visitor, or null if the visitor has limits, which require a sequential
+     * visit
+     */
+    @Override
+    public MergeableVisitor createPartial() {
+        if (hasLimits()) {
+            return null;
+        }
+        UniqueVisitor partial = new UniqueVisitor(expr);
+        partial.setPreserveOrder(preserveOrder);
+        return partial;
+    }
+
+    @Override
+    public void merge(MergeableVisitor partial) {
+        UniqueVisitor other = (UniqueVisitor) partial;
+        for (Object value : other.set) {
+            if (set.add(value)) {
+                currentItem++;
+            }
+        }
+    }
+
     public CalcResult getResult() {
         if (set.size() < 1) {
             return CalcResult.NULL_RESULT;
@@ -204,11 +204,26 @@ public class AttributeExpressionImpl extends DefaultExpression implements Proper
             }
         }
 
-        // made it here, means an accessor needs to be found
+        // the object type changed, look for the accessor that worked last time with this type
         if (!success) {
             if (namespaceSupport != null && hints == null) {
                 hints = new Hints(PropertyAccessorFactory.NAMESPACE_CONTEXT, namespaceSupport);
             }
+            PropertyAccessor cached =
+                    PropertyAccessors.getCachedPropertyAccessor(obj, attPath, target, hints);
+            if (cached != null && cached != accessor && cached.canHandle(obj, attPath, target)) {
+                try {
+                    value = cached.get(obj, attPath, target);
+                    success = true;
+                    setLastPropertyAccessor(cached);
+                } catch (Exception e) {
+                    // fine, we'll try another accessor
+                }
+            }
+        }
+
+        // made it here, means an accessor needs to be found
+        if (!success) {
             List<PropertyAccessor> accessors =
                     PropertyAccessors.findPropertyAccessors(obj, attPath, target, hints);
             List<Exception> exceptions = null;
@@ -245,7 +260,9 @@ public class AttributeExpressionImpl extends DefaultExpression implements Proper
                     throw exception;
                 }
             } else {
-                setLastPropertyAccessor(accessor);
+                setLastPropertyAccessor(
+                        PropertyAccessors.cachePropertyAccessor(
+                                obj, attPath, target, hints, accessor));
             }
         }
 
@@ -257,13 +274,13 @@ public class AttributeExpressionImpl extends DefaultExpression implements Proper
     }
 
     // accessor caching, scanning the registry every time is really very expensive
-    private PropertyAccessor lastAccessor;
+    private volatile PropertyAccessor lastAccessor;
 
-    private synchronized PropertyAccessor getLastPropertyAccessor() {
+    private PropertyAccessor getLastPropertyAccessor() {
         return lastAccessor;
     }
 
-    private synchronized void setLastPropertyAccessor(PropertyAccessor accessor) {
+    private void setLastPropertyAccessor(PropertyAccessor accessor) {
         lastAccessor = accessor;
     }
 
@@ -0,0 +1,106 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter;
+
+import org.geotools.filter.expression.AddImpl;
+import org.geotools.filter.expression.DivideImpl;
+import org.geotools.filter.expression.MultiplyImpl;
+import org.geotools.filter.expression.SubtractImpl;
+import org.geotools.util.Converters;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.ExpressionVisitor;
+
+/**
+ * An expression produced by {@link FilterCompiler}. Features of the compilation schema are
+ * evaluated by the compiled evaluator, everything else by the original expression, which is also
+ * the one exposed to visitors.
+ */
+class CompiledExpression implements Expression {
+
+    final Expression original;
+
+    final FilterCompiler.Evaluator evaluator;
+
+    final FilterCompiler.TypeGuard guard;
+
+    /**
+     * True if the original expression converts its plain result when asked for a specific type,
+     * false if it has its own conversion logic
+     */
+    final boolean converting;
+
+    CompiledExpression(
+            Expression original,
+            FilterCompiler.Evaluator evaluator,
+            FilterCompiler.TypeGuard guard) {
+        this.original = original;
+        this.evaluator = evaluator;
+        this.guard = guard;
+        Class<?> clazz = original.getClass();
+        this.converting =
+                clazz == AttributeExpressionImpl.class
+                        || clazz == AddImpl.class
+                        || clazz == SubtractImpl.class
+                        || clazz == MultiplyImpl.class
+                        || clazz == DivideImpl.class;
+    }
+
+    /** The expression that has been compiled */
+    public Expression getOriginal() {
+        return original;
+    }
+
+    @Override
+    public Object evaluate(Object object) {
+        if (guard.accepts(object)) {
+            return evaluator.evaluate((SimpleFeature) object);
+        }
+        return original.evaluate(object);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T evaluate(Object object, Class<T> context) {
+        if (converting && guard.accepts(object)) {
+            Object value = evaluator.evaluate((SimpleFeature) object);
+            return context == null ? (T) value : Converters.convert(value, context);
+        }
+        return original.evaluate(object, context);
+    }
+
+    @Override
+    public Object accept(ExpressionVisitor visitor, Object extraData) {
+        return original.accept(visitor, extraData);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompiledExpression
+                && original.equals(((CompiledExpression) obj).original);
+    }
+
+    @Override
+    public int hashCode() {
+        return original.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+}
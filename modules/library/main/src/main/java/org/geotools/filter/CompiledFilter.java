@@ -0,0 +1,95 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter;
+
+import java.util.BitSet;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterVisitor;
+
+/**
+ * A filter produced by {@link FilterCompiler}. Features of the compilation schema are evaluated by
+ * the compiled predicate, everything else by the original filter, which is also the one exposed to
+ * visitors.
+ */
+class CompiledFilter implements Filter {
+
+    final Filter original;
+
+    final FilterCompiler.Node predicate;
+
+    final FilterCompiler.TypeGuard guard;
+
+    CompiledFilter(Filter original, FilterCompiler.Node predicate, FilterCompiler.TypeGuard guard) {
+        this.original = original;
+        this.predicate = predicate;
+        this.guard = guard;
+    }
+
+    /** The filter that has been compiled */
+    public Filter getOriginal() {
+        return original;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+        if (guard.accepts(object)) {
+            return predicate.test((SimpleFeature) object);
+        }
+        return original.evaluate(object);
+    }
+
+    /**
+     * Evaluates a block of features, the ones of the compilation schema through the compiled nodes,
+     * the others with the original filter
+     */
+    void evaluate(Object[] features, int count, BitSet result) {
+        result.clear();
+        BitSet candidates = new BitSet(count);
+        for (int i = 0; i < count; i++) {
+            Object feature = features[i];
+            if (guard.accepts(feature)) {
+                candidates.set(i);
+            } else if (original.evaluate(feature)) {
+                result.set(i);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            predicate.evaluate(features, candidates, result);
+        }
+    }
+
+    @Override
+    public Object accept(FilterVisitor visitor, Object extraData) {
+        return original.accept(visitor, extraData);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompiledFilter && original.equals(((CompiledFilter) obj).original);
+    }
+
+    @Override
+    public int hashCode() {
+        return original.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+}
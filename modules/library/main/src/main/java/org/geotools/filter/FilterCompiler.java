@@ -0,0 +1,1229 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
+import org.geotools.filter.expression.AddImpl;
+import org.geotools.filter.expression.DivideImpl;
+import org.geotools.filter.expression.MultiplyImpl;
+import org.geotools.filter.expression.SubtractImpl;
+import org.geotools.filter.spatial.BBOXImpl;
+import org.geotools.util.ConverterFactory;
+import org.geotools.util.Converters;
+import org.geotools.util.factory.Hints;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.Attribute;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.BinaryLogicOperator;
+import org.opengis.filter.Filter;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Compiles filters and expressions against a {@link SimpleFeatureType}, turning them into a tree of
+ * specialized evaluators. Property names are resolved to attribute positions once, literals
+ * compared with an attribute are converted to the attribute binding once, and comparisons between
+ * an attribute and a literal skip the generic conversion machinery when the attribute value has the
+ * expected type.
+ *
+ * <p>The compiled filters produce the same results as the originals: nodes that cannot be compiled
+ * (spatial and temporal filters, functions, id filters, custom implementations) are evaluated
+ * through the original objects, and features not matching the compilation schema are evaluated by
+ * the original filter as a whole. Changes made to the original filter after compilation are not
+ * reflected in the compiled one.
+ *
+ * <p>Compilation can be disabled by setting the {@link #DISABLED_KEY} system property to true, in
+ * which case the compile methods return their argument unchanged.
+ */
+public class FilterCompiler {
+
+    static final Logger LOGGER = Logging.getLogger(FilterCompiler.class);
+
+    /** System property disabling the compilation, the original filters will be used instead */
+    public static final String DISABLED_KEY = "org.geotools.filter.compiler.disabled";
+
+    static final boolean DISABLED = Boolean.getBoolean(DISABLED_KEY);
+
+    /** Evaluates a compiled expression against a feature of the compilation schema */
+    interface Evaluator {
+        Object evaluate(SimpleFeature feature);
+    }
+
+    /**
+     * A compiled filter, evaluating either a single feature of the compilation schema, or a block
+     * of them
+     */
+    interface Node extends Predicate<SimpleFeature> {
+
+        /**
+         * Evaluates the candidate features of the block, setting the bit of those matching in the
+         * result. Bits of non candidate features are left untouched.
+         *
+         * @param features The feature block, all candidates are {@link SimpleFeature} of the
+         *     compilation schema
+         * @param candidates The positions of the features to be evaluated
+         * @param result The positions of the matching features
+         */
+        default void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (test((SimpleFeature) features[i])) {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
+    static final Node INCLUDE =
+            new Node() {
+                @Override
+                public boolean test(SimpleFeature feature) {
+                    return true;
+                }
+
+                @Override
+                public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+                    result.or(candidates);
+                }
+            };
+
+    static final Node EXCLUDE =
+            new Node() {
+                @Override
+                public boolean test(SimpleFeature feature) {
+                    return false;
+                }
+
+                @Override
+                public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+                    // nothing matches
+                }
+            };
+
+    final SimpleFeatureType schema;
+
+    /** The attribute positions read by the compiled nodes */
+    final BitSet indexes = new BitSet();
+
+    FilterCompiler(SimpleFeatureType schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Compiles the filter against the specified schema. The original filter is returned if
+     * compilation is disabled, or if no part of it could be compiled.
+     *
+     * @param filter The filter to be compiled
+     * @param schema The type of the features the filter will be evaluated against
+     * @return The compiled filter, or the original one
+     */
+    public static Filter compile(Filter filter, SimpleFeatureType schema) {
+        if (DISABLED
+                || filter == null
+                || schema == null
+                || filter == Filter.INCLUDE
+                || filter == Filter.EXCLUDE
+                || filter instanceof CompiledFilter) {
+            return filter;
+        }
+        try {
+            FilterCompiler compiler = new FilterCompiler(schema);
+            Node predicate = compiler.filter(filter);
+            if (predicate instanceof OpaqueFilter) {
+                return filter;
+            }
+            return new CompiledFilter(filter, predicate, compiler.guard());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not compile filter " + filter + ", will interpret it", e);
+            return filter;
+        }
+    }
+
+    /**
+     * Compiles the expression against the specified schema. The original expression is returned if
+     * compilation is disabled, or if no part of it could be compiled.
+     *
+     * @param expression The expression to be compiled
+     * @param schema The type of the features the expression will be evaluated against
+     * @return The compiled expression, or the original one
+     */
+    public static Expression compile(Expression expression, SimpleFeatureType schema) {
+        if (DISABLED
+                || expression == null
+                || schema == null
+                || expression instanceof Literal
+                || expression instanceof CompiledExpression) {
+            return expression;
+        }
+        try {
+            FilterCompiler compiler = new FilterCompiler(schema);
+            Evaluator evaluator = compiler.expression(expression);
+            if (isStatic(evaluator)) {
+                return expression;
+            }
+            return new CompiledExpression(expression, evaluator, compiler.guard());
+        } catch (RuntimeException e) {
+            LOGGER.log(
+                    Level.FINE,
+                    "Could not compile expression " + expression + ", will interpret it",
+                    e);
+            return expression;
+        }
+    }
+
+    /** Returns the original filter if the argument is a compiled one, the argument otherwise */
+    public static Filter getOriginal(Filter filter) {
+        if (filter instanceof CompiledFilter) {
+            return ((CompiledFilter) filter).getOriginal();
+        }
+        return filter;
+    }
+
+    /** Returns true if the filter has been compiled by this class */
+    public static boolean isCompiled(Filter filter) {
+        return filter instanceof CompiledFilter;
+    }
+
+    /**
+     * Evaluates the filter against a block of features, setting in the result the positions of the
+     * matching ones. Compiled filters run each node over the whole block, skipping the features
+     * already discarded by the previous children of a logic operator, other filters are evaluated
+     * one feature at a time.
+     *
+     * @param filter The filter to evaluate
+     * @param features The feature block
+     * @param count The number of features in the block, starting from the first one
+     * @param result Cleared, and then filled with the positions of the matching features
+     */
+    public static void evaluate(Filter filter, Object[] features, int count, BitSet result) {
+        if (filter instanceof CompiledFilter) {
+            ((CompiledFilter) filter).evaluate(features, count, result);
+        } else {
+            result.clear();
+            for (int i = 0; i < count; i++) {
+                if (filter.evaluate(features[i])) {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
+    TypeGuard guard() {
+        return new TypeGuard(schema, indexes);
+    }
+
+    Node filter(Filter filter) {
+        if (filter == Filter.INCLUDE) {
+            return INCLUDE;
+        } else if (filter == Filter.EXCLUDE) {
+            return EXCLUDE;
+        } else if (filter == null) {
+            return new OpaqueFilter(filter);
+        }
+
+        Class<?> clazz = filter.getClass();
+        if (clazz == AndImpl.class || clazz == OrImpl.class) {
+            return logic((BinaryLogicOperator) filter, clazz == AndImpl.class);
+        } else if (clazz == NotImpl.class) {
+            Node child = filter(((NotImpl) filter).getFilter());
+            if (child instanceof OpaqueFilter) {
+                return new OpaqueFilter(filter);
+            }
+            return new Not(child);
+        } else if (clazz == IsNullImpl.class) {
+            return isNull((IsNullImpl) filter);
+        } else if (clazz == IsEqualsToImpl.class
+                || clazz == IsNotEqualToImpl.class
+                || clazz == IsGreaterThanImpl.class
+                || clazz == IsGreaterThanOrEqualToImpl.class
+                || clazz == IsLessThenImpl.class
+                || clazz == IsLessThenOrEqualToImpl.class) {
+            return comparison((MultiCompareFilterImpl) filter);
+        } else if (clazz == IsBetweenImpl.class) {
+            return between((IsBetweenImpl) filter);
+        } else if (clazz == LikeFilterImpl.class) {
+            return like((LikeFilterImpl) filter);
+        } else if (clazz == BBOXImpl.class) {
+            return bbox((BBOXImpl) filter);
+        }
+
+        return new OpaqueFilter(filter);
+    }
+
+    private Node logic(BinaryLogicOperator filter, boolean and) {
+        List<Filter> children = filter.getChildren();
+        Node[] nodes = new Node[children.size()];
+        boolean opaque = true;
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = filter(children.get(i));
+            opaque &= nodes[i] instanceof OpaqueFilter;
+        }
+        if (opaque) {
+            return new OpaqueFilter(filter);
+        }
+        return and ? new And(nodes) : new Or(nodes);
+    }
+
+    private Node isNull(IsNullImpl filter) {
+        Evaluator evaluator = expression(filter.getExpression());
+        if (isStatic(evaluator)) {
+            return new OpaqueFilter(filter);
+        }
+        return new IsNull(filter, evaluator);
+    }
+
+    private Node comparison(MultiCompareFilterImpl filter) {
+        Evaluator e1 = expression(filter.getExpression1());
+        Evaluator e2 = expression(filter.getExpression2());
+        if (isStatic(e1) && isStatic(e2)) {
+            return new OpaqueFilter(filter);
+        }
+        Node generic = new Comparison(filter, e1, e2);
+
+        // attribute vs literal, the common case, gets a specialized node
+        AttributeReader property;
+        Object literal;
+        boolean propertyFirst;
+        if (e1 instanceof AttributeReader && e2 instanceof Constant) {
+            property = (AttributeReader) e1;
+            literal = ((Constant) e2).value;
+            propertyFirst = true;
+        } else if (e1 instanceof Constant && e2 instanceof AttributeReader) {
+            property = (AttributeReader) e2;
+            literal = ((Constant) e1).value;
+            propertyFirst = false;
+        } else {
+            return generic;
+        }
+        if (literal == null || property.binding == null) {
+            return generic;
+        }
+
+        Class<?> clazz = filter.getClass();
+        Node specialized;
+        if (clazz == IsEqualsToImpl.class) {
+            specialized = equality(property, literal, filter.isMatchingCase(), false, generic);
+        } else if (clazz == IsNotEqualToImpl.class) {
+            IsEqualsToImpl delegate = ((IsNotEqualToImpl) filter).delegate;
+            if (delegate.getExpression1() != filter.getExpression1()
+                    || delegate.getExpression2() != filter.getExpression2()) {
+                return generic;
+            }
+            specialized = equality(property, literal, delegate.isMatchingCase(), true, generic);
+        } else {
+            specialized = ordering(property, literal, propertyFirst, clazz, generic);
+        }
+        return specialized != null ? specialized : generic;
+    }
+
+    /**
+     * Replicates {@link IsEqualsToImpl#evaluateInternal(Object, Object)} for values of the
+     * attribute binding: equal classes are compared with equals, integral attributes against the
+     * literal converted to the binding. Returns null if the literal cannot be aligned.
+     */
+    private Node equality(
+            AttributeReader property,
+            Object literal,
+            boolean matchCase,
+            boolean negate,
+            Node fallback) {
+        Class<?> binding = property.binding;
+        Object aligned = null;
+        if (literal.getClass() == binding) {
+            aligned = literal;
+        } else if (isIntegral(binding)
+                && (literal instanceof Number || literal instanceof String)) {
+            aligned = Converters.convert(literal, binding);
+        }
+        if (aligned == null || aligned.getClass() != binding) {
+            return null;
+        }
+
+        final int index = property.index;
+        final Object expected = aligned;
+        if (!matchCase && binding == String.class) {
+            final String text = (String) expected;
+            return f -> {
+                Object value = f.getAttribute(index);
+                if (value != null && value.getClass() == String.class) {
+                    return text.equalsIgnoreCase((String) value) != negate;
+                }
+                return fallback.test(f);
+            };
+        }
+        return f -> {
+            Object value = f.getAttribute(index);
+            if (value != null && value.getClass() == binding) {
+                return value.equals(expected) != negate;
+            }
+            return fallback.test(f);
+        };
+    }
+
+    /**
+     * Replicates the alignment performed by {@link BinaryComparisonAbstract#eval(Object, Object)}
+     * and the comparison of {@link CompareFilterImpl#compare(Comparable, Comparable)} for values of
+     * the attribute binding. Returns null if the literal cannot be aligned.
+     */
+    private Node ordering(
+            AttributeReader property,
+            Object literal,
+            boolean propertyFirst,
+            Class<?> clazz,
+            Node fallback) {
+        Class<?> binding = property.binding;
+        if (!Comparable.class.isAssignableFrom(binding)) {
+            return null;
+        }
+        Object aligned = null;
+        if (literal.getClass() == binding) {
+            aligned = literal;
+        } else if (propertyFirst) {
+            // the literal is converted to the attribute type, using safe conversions first
+            aligned =
+                    Converters.convert(
+                            literal,
+                            binding,
+                            new Hints(ConverterFactory.SAFE_CONVERSION, Boolean.TRUE));
+        }
+        if (aligned == null || aligned.getClass() != binding) {
+            return null;
+        }
+
+        final int index = property.index;
+        final int operator = operator(clazz);
+        if (Number.class.isAssignableFrom(binding)) {
+            return new NumericComparison(
+                    index,
+                    binding,
+                    ((Number) aligned).doubleValue(),
+                    propertyFirst,
+                    operator,
+                    fallback);
+        }
+
+        final ValueComparator comparator;
+        if (binding == String.class) {
+            comparator = new StringComparator((String) aligned, propertyFirst);
+        } else {
+            @SuppressWarnings("unchecked")
+            final Comparable<Object> expected = (Comparable<Object>) aligned;
+            comparator =
+                    propertyFirst
+                            ? v -> ((Comparable<Object>) v).compareTo(expected)
+                            : v -> expected.compareTo(v);
+        }
+        return f -> {
+            Object value = f.getAttribute(index);
+            if (value != null && value.getClass() == binding) {
+                return matches(operator, comparator.compare(value));
+            }
+            return fallback.test(f);
+        };
+    }
+
+    private Node between(IsBetweenImpl filter) {
+        Evaluator value = expression(filter.getExpression());
+        Evaluator lower = expression(filter.getLowerBoundary());
+        Evaluator upper = expression(filter.getUpperBoundary());
+        if (isStatic(value) && isStatic(lower) && isStatic(upper)) {
+            return new OpaqueFilter(filter);
+        }
+
+        Node generic =
+                f -> {
+                    Object v = value.evaluate(f);
+                    if (v == null) {
+                        return false;
+                    }
+                    Object l = lower.evaluate(f);
+                    Object u = upper.evaluate(f);
+                    if (isPlain(v) && isPlain(l) && isPlain(u)) {
+                        return filter.evaluateInternal(v, l, u);
+                    }
+                    return filter.evaluate(f);
+                };
+
+        // attribute between two literals, convert the boundaries once
+        if (value instanceof AttributeReader
+                && lower instanceof Constant
+                && upper instanceof Constant) {
+            AttributeReader property = (AttributeReader) value;
+            Class<?> binding = property.binding;
+            if (binding != null) {
+                Object l = Converters.convert(((Constant) lower).value, binding);
+                Object u = Converters.convert(((Constant) upper).value, binding);
+                if (l instanceof Comparable && u instanceof Comparable) {
+                    @SuppressWarnings("unchecked")
+                    Comparable<Object> lc = (Comparable<Object>) l;
+                    @SuppressWarnings("unchecked")
+                    Comparable<Object> uc = (Comparable<Object>) u;
+                    return new Between(property.index, binding, lc, uc, generic);
+                }
+            }
+        }
+
+        return generic;
+    }
+
+    private Node like(LikeFilterImpl filter) {
+        if (filter.getExpression() == null) {
+            return EXCLUDE;
+        }
+        Evaluator evaluator = expression(filter.getExpression());
+        if (isStatic(evaluator)) {
+            return new OpaqueFilter(filter);
+        }
+        return new Like(filter, evaluator, filter.getCompiledPattern());
+    }
+
+    private Node bbox(BBOXImpl filter) {
+        Evaluator evaluator = expression(filter.getExpression1());
+        if (isStatic(evaluator) || !(filter.getExpression2() instanceof Literal)) {
+            return new OpaqueFilter(filter);
+        }
+        Geometry bounds =
+                Converters.convert(((Literal) filter.getExpression2()).getValue(), Geometry.class);
+        if (bounds == null) {
+            return new OpaqueFilter(filter);
+        }
+        return new BoundingBox(filter, evaluator, bounds);
+    }
+
+    Evaluator expression(Expression expression) {
+        if (expression instanceof LiteralExpressionImpl
+                || expression instanceof ConstantExpression) {
+            return new Constant(((Literal) expression).getValue());
+        } else if (expression != null && expression.getClass() == AttributeExpressionImpl.class) {
+            return property((PropertyName) expression);
+        } else if (expression instanceof MathExpressionImpl) {
+            return math((MathExpressionImpl) expression);
+        }
+        return new OpaqueExpression(expression);
+    }
+
+    private Evaluator property(PropertyName expression) {
+        String name = expression.getPropertyName();
+        if ("".equals(name) && expression.getNamespaceContext() == null) {
+            return new DefaultGeometry();
+        } else if (name == null
+                || expression.getNamespaceContext() != null
+                || name.indexOf('/') >= 0
+                || name.indexOf('[') >= 0
+                || name.indexOf('@') >= 0
+                || name.indexOf(':') >= 0) {
+            return new OpaqueExpression(expression);
+        }
+        int index = schema.indexOf(name);
+        if (index < 0) {
+            return new OpaqueExpression(expression);
+        }
+        indexes.set(index);
+        return new AttributeReader(index, schema.getDescriptor(index).getType().getBinding());
+    }
+
+    private Evaluator math(MathExpressionImpl expression) {
+        Class<?> clazz = expression.getClass();
+        Expression ex1 = expression.getExpression1();
+        Expression ex2 = expression.getExpression2();
+        if (ex1 == null
+                || ex2 == null
+                || (clazz != AddImpl.class
+                        && clazz != SubtractImpl.class
+                        && clazz != MultiplyImpl.class
+                        && clazz != DivideImpl.class)) {
+            return new OpaqueExpression(expression);
+        }
+        Evaluator e1 = expression(ex1);
+        Evaluator e2 = expression(ex2);
+        if (isStatic(e1) && isStatic(e2)) {
+            return new OpaqueExpression(expression);
+        }
+        if (clazz == AddImpl.class) {
+            return f ->
+                    Double.valueOf(Filters.number(e1.evaluate(f)) + Filters.number(e2.evaluate(f)));
+        } else if (clazz == SubtractImpl.class) {
+            return f ->
+                    Double.valueOf(Filters.number(e1.evaluate(f)) - Filters.number(e2.evaluate(f)));
+        } else if (clazz == MultiplyImpl.class) {
+            return f ->
+                    Double.valueOf(Filters.number(e1.evaluate(f)) * Filters.number(e2.evaluate(f)));
+        } else {
+            return f ->
+                    Double.valueOf(Filters.number(e1.evaluate(f)) / Filters.number(e2.evaluate(f)));
+        }
+    }
+
+    /**
+     * Returns true if the evaluator does not read the feature attributes directly, nodes built only
+     * on top of such evaluators are not worth compiling
+     */
+    static boolean isStatic(Evaluator evaluator) {
+        return evaluator instanceof OpaqueExpression || evaluator instanceof Constant;
+    }
+
+    /**
+     * Returns true if the value would not be transformed by {@link FilterAbstract#eval(Expression,
+     * Object)}, that is, it's neither a collection nor an attribute
+     */
+    static boolean isPlain(Object value) {
+        return !(value instanceof Collection) && !(value instanceof Attribute);
+    }
+
+    static final int GREATER = 0;
+
+    static final int GREATER_OR_EQUAL = 1;
+
+    static final int LESS = 2;
+
+    static final int LESS_OR_EQUAL = 3;
+
+    static int operator(Class<?> clazz) {
+        if (clazz == IsGreaterThanImpl.class) {
+            return GREATER;
+        } else if (clazz == IsGreaterThanOrEqualToImpl.class) {
+            return GREATER_OR_EQUAL;
+        } else if (clazz == IsLessThenImpl.class) {
+            return LESS;
+        } else {
+            return LESS_OR_EQUAL;
+        }
+    }
+
+    /** Applies the ordering operator to the result of a comparison */
+    static boolean matches(int operator, int comparison) {
+        switch (operator) {
+            case GREATER:
+                return comparison > 0;
+            case GREATER_OR_EQUAL:
+                return comparison >= 0;
+            case LESS:
+                return comparison < 0;
+            default:
+                return comparison <= 0;
+        }
+    }
+
+    static boolean isIntegral(Class<?> binding) {
+        return binding == Integer.class
+                || binding == Long.class
+                || binding == Short.class
+                || binding == Byte.class;
+    }
+
+    /** Same as the numeric branch of {@link CompareFilterImpl#compare(Comparable, Comparable)} */
+    static int compareDoubles(double left, double right) {
+        return left > right ? 1 : (left == right ? 0 : -1);
+    }
+
+    /** Compares a feature value against a literal, in the order used by the original filter */
+    interface ValueComparator {
+        int compare(Object value);
+    }
+
+    /**
+     * Compares strings like {@link CompareFilterImpl#compare(Comparable, Comparable)} does, as
+     * numbers if both can be parsed as such, lexicographically otherwise. The literal is parsed
+     * only once.
+     */
+    static final class StringComparator implements ValueComparator {
+        final String literal;
+
+        final Double number;
+
+        final boolean propertyFirst;
+
+        StringComparator(String literal, boolean propertyFirst) {
+            this.literal = literal;
+            this.propertyFirst = propertyFirst;
+            Double number;
+            try {
+                number = Double.valueOf(Double.parseDouble(literal));
+            } catch (NumberFormatException e) {
+                number = null;
+            }
+            this.number = number;
+        }
+
+        @Override
+        public int compare(Object value) {
+            String text = (String) value;
+            if (number != null) {
+                try {
+                    double parsed = Double.parseDouble(text);
+                    return propertyFirst
+                            ? Double.compare(parsed, number)
+                            : Double.compare(number, parsed);
+                } catch (NumberFormatException e) {
+                    // fall back on the lexicographic comparison
+                }
+            }
+            return propertyFirst ? text.compareTo(literal) : literal.compareTo(text);
+        }
+    }
+
+    /**
+     * Short circuited and, in batch mode each child only evaluates the survivors of the previous
+     */
+    static final class And implements Node {
+        final Node[] children;
+
+        And(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            for (Node child : children) {
+                if (!child.test(feature)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            BitSet current = candidates;
+            for (Node child : children) {
+                BitSet matched = new BitSet();
+                child.evaluate(features, current, matched);
+                current = matched;
+                if (current.isEmpty()) {
+                    return;
+                }
+            }
+            result.or(current);
+        }
+    }
+
+    /** Short circuited or, in batch mode each child only evaluates the features not matched yet */
+    static final class Or implements Node {
+        final Node[] children;
+
+        Or(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            for (Node child : children) {
+                if (child.test(feature)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            BitSet remaining = (BitSet) candidates.clone();
+            for (Node child : children) {
+                BitSet matched = new BitSet();
+                child.evaluate(features, remaining, matched);
+                result.or(matched);
+                remaining.andNot(matched);
+                if (remaining.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    static final class Not implements Node {
+        final Node child;
+
+        Not(Node child) {
+            this.child = child;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            return !child.test(feature);
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            BitSet matched = new BitSet();
+            child.evaluate(features, candidates, matched);
+            BitSet negated = (BitSet) candidates.clone();
+            negated.andNot(matched);
+            result.or(negated);
+        }
+    }
+
+    /** Same as {@link IsNullImpl}, checking the primitive storage null flags in batch mode */
+    static final class IsNull implements Node {
+        final IsNullImpl filter;
+
+        final Evaluator evaluator;
+
+        IsNull(IsNullImpl filter, Evaluator evaluator) {
+            this.filter = filter;
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            Object value = evaluator.evaluate(feature);
+            if (isPlain(value)) {
+                return value == null;
+            }
+            return filter.evaluate(feature);
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            int index =
+                    evaluator instanceof AttributeReader ? ((AttributeReader) evaluator).index : -1;
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                Object feature = features[i];
+                boolean matches;
+                if (index >= 0
+                        && feature instanceof PrimitiveSimpleFeature
+                        && ((PrimitiveSimpleFeature) feature).isPrimitive(index)) {
+                    matches = ((PrimitiveSimpleFeature) feature).isNull(index);
+                } else {
+                    matches = test((SimpleFeature) feature);
+                }
+                if (matches) {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ordering comparison between a numeric attribute and a literal, reading the values straight
+     * from the primitive storage in batch mode
+     */
+    static final class NumericComparison implements Node {
+        final int index;
+
+        final Class<?> binding;
+
+        final double expected;
+
+        final boolean propertyFirst;
+
+        final int operator;
+
+        final Node fallback;
+
+        NumericComparison(
+                int index,
+                Class<?> binding,
+                double expected,
+                boolean propertyFirst,
+                int operator,
+                Node fallback) {
+            this.index = index;
+            this.binding = binding;
+            this.expected = expected;
+            this.propertyFirst = propertyFirst;
+            this.operator = operator;
+            this.fallback = fallback;
+        }
+
+        boolean matches(double value) {
+            int comparison =
+                    propertyFirst
+                            ? compareDoubles(value, expected)
+                            : compareDoubles(expected, value);
+            return FilterCompiler.matches(operator, comparison);
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            Object value = feature.getAttribute(index);
+            if (value != null && value.getClass() == binding) {
+                return matches(((Number) value).doubleValue());
+            }
+            return fallback.test(feature);
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                Object feature = features[i];
+                boolean matches;
+                if (feature instanceof PrimitiveSimpleFeature
+                        && ((PrimitiveSimpleFeature) feature).isPrimitive(index)
+                        && !((PrimitiveSimpleFeature) feature).isNull(index)) {
+                    matches = matches(((PrimitiveSimpleFeature) feature).getDouble(index));
+                } else {
+                    matches = test((SimpleFeature) feature);
+                }
+                if (matches) {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Same as {@link IsBetweenImpl#evaluateInternal(Object, Object, Object)} for an attribute
+     * between two literals already converted to the attribute binding
+     */
+    static final class Between implements Node {
+        static final int OBJECT = 0;
+
+        static final int DOUBLE = 1;
+
+        static final int FLOAT = 2;
+
+        static final int INTEGRAL = 3;
+
+        final int index;
+
+        final Class<?> binding;
+
+        final Comparable<Object> lower;
+
+        final Comparable<Object> upper;
+
+        final Node fallback;
+
+        final int kind;
+
+        Between(
+                int index,
+                Class<?> binding,
+                Comparable<Object> lower,
+                Comparable<Object> upper,
+                Node fallback) {
+            this.index = index;
+            this.binding = binding;
+            this.lower = lower;
+            this.upper = upper;
+            this.fallback = fallback;
+            if (binding == Double.class) {
+                kind = DOUBLE;
+            } else if (binding == Float.class) {
+                kind = FLOAT;
+            } else if (isIntegral(binding)) {
+                kind = INTEGRAL;
+            } else {
+                kind = OBJECT;
+            }
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            Object value = feature.getAttribute(index);
+            if (value != null && value.getClass() == binding) {
+                return lower.compareTo(value) <= 0 && upper.compareTo(value) >= 0;
+            }
+            return fallback.test(feature);
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            if (kind == OBJECT) {
+                Node.super.evaluate(features, candidates, result);
+                return;
+            }
+            // the primitive comparisons are equivalent to the wrappers compareTo
+            double ld = ((Number) lower).doubleValue();
+            double ud = ((Number) upper).doubleValue();
+            long ll = ((Number) lower).longValue();
+            long ul = ((Number) upper).longValue();
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                Object feature = features[i];
+                boolean matches;
+                if (feature instanceof PrimitiveSimpleFeature
+                        && ((PrimitiveSimpleFeature) feature).isPrimitive(index)
+                        && !((PrimitiveSimpleFeature) feature).isNull(index)) {
+                    PrimitiveSimpleFeature pf = (PrimitiveSimpleFeature) feature;
+                    if (kind == INTEGRAL) {
+                        long value = pf.getLong(index);
+                        matches = ll <= value && ul >= value;
+                    } else if (kind == DOUBLE) {
+                        double value = pf.getDouble(index);
+                        matches = Double.compare(ld, value) <= 0 && Double.compare(ud, value) >= 0;
+                    } else {
+                        float value = (float) pf.getDouble(index);
+                        matches =
+                                Float.compare((float) ld, value) <= 0
+                                        && Float.compare((float) ud, value) >= 0;
+                    }
+                } else {
+                    matches = test((SimpleFeature) feature);
+                }
+                if (matches) {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
+    /** Same as {@link LikeFilterImpl}, reusing a single matcher in batch mode */
+    static final class Like implements Node {
+        final LikeFilterImpl filter;
+
+        final Evaluator evaluator;
+
+        final Pattern pattern;
+
+        Like(LikeFilterImpl filter, Evaluator evaluator, Pattern pattern) {
+            this.filter = filter;
+            this.evaluator = evaluator;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            Object value = evaluator.evaluate(feature);
+            if (value == null) {
+                return false;
+            } else if (isPlain(value)) {
+                return pattern.matcher(value.toString()).matches();
+            }
+            return filter.evaluate(feature);
+        }
+
+        @Override
+        public void evaluate(Object[] features, BitSet candidates, BitSet result) {
+            Matcher matcher = pattern.matcher("");
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                SimpleFeature feature = (SimpleFeature) features[i];
+                Object value = evaluator.evaluate(feature);
+                boolean matches;
+                if (value == null) {
+                    matches = false;
+                } else if (isPlain(value)) {
+                    matches = matcher.reset(value.toString()).matches();
+                } else {
+                    matches = filter.evaluate(feature);
+                }
+                if (matches) {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@link BBOXImpl} against a literal box, discarding the geometries whose envelope is
+     * disjoint from the box before calling the filter, as the filter would do itself
+     */
+    static final class BoundingBox implements Node {
+        final BBOXImpl filter;
+
+        final Evaluator evaluator;
+
+        final Geometry bounds;
+
+        final Envelope envelope;
+
+        BoundingBox(BBOXImpl filter, Evaluator evaluator, Geometry bounds) {
+            this.filter = filter;
+            this.evaluator = evaluator;
+            this.bounds = bounds;
+            this.envelope = bounds.getEnvelopeInternal();
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            Object value = evaluator.evaluate(feature);
+            if (value instanceof Geometry) {
+                Geometry geometry = (Geometry) value;
+                return envelope.intersects(geometry.getEnvelopeInternal())
+                        && filter.evaluateInternal(geometry, bounds);
+            }
+            return filter.evaluate(feature);
+        }
+    }
+
+    /** Reads an attribute by position */
+    static final class AttributeReader implements Evaluator {
+        final int index;
+
+        final Class<?> binding;
+
+        AttributeReader(int index, Class<?> binding) {
+            this.index = index;
+            this.binding = binding;
+        }
+
+        @Override
+        public Object evaluate(SimpleFeature feature) {
+            return feature.getAttribute(index);
+        }
+    }
+
+    /**
+     * Same as the default geometry property accessor, returns the default geometry, or the first
+     * geometry attribute if missing
+     */
+    static final class DefaultGeometry implements Evaluator {
+
+        @Override
+        public Object evaluate(SimpleFeature feature) {
+            Object geometry = feature.getDefaultGeometry();
+            if (geometry == null) {
+                for (Object value : feature.getAttributes()) {
+                    if (value instanceof Geometry) {
+                        return value;
+                    }
+                }
+            }
+            return geometry;
+        }
+    }
+
+    /** Returns a literal value */
+    static final class Constant implements Evaluator {
+        final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(SimpleFeature feature) {
+            return value;
+        }
+    }
+
+    /** Evaluates an expression that could not be compiled */
+    static final class OpaqueExpression implements Evaluator {
+        final Expression expression;
+
+        OpaqueExpression(Expression expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        public Object evaluate(SimpleFeature feature) {
+            return expression == null ? null : expression.evaluate(feature);
+        }
+    }
+
+    /** Evaluates a filter that could not be compiled */
+    static final class OpaqueFilter implements Node {
+        final Filter filter;
+
+        OpaqueFilter(Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            return filter.evaluate(feature);
+        }
+    }
+
+    /**
+     * Compares the compiled operands with the original filter, falling back on the full evaluation
+     * when the values are collections or attributes that need unpacking
+     */
+    static final class Comparison implements Node {
+        final MultiCompareFilterImpl filter;
+
+        final Evaluator e1;
+
+        final Evaluator e2;
+
+        Comparison(MultiCompareFilterImpl filter, Evaluator e1, Evaluator e2) {
+            this.filter = filter;
+            this.e1 = e1;
+            this.e2 = e2;
+        }
+
+        @Override
+        public boolean test(SimpleFeature feature) {
+            Object v1 = e1.evaluate(feature);
+            Object v2 = e2.evaluate(feature);
+            if (isPlain(v1) && isPlain(v2)) {
+                return filter.evaluateInternal(v1, v2);
+            }
+            return filter.evaluate(feature);
+        }
+    }
+
+    /**
+     * Checks whether a feature can be handed to the compiled evaluators, that is, its type has the
+     * same attributes as the compilation schema at the positions read by them. The last matching
+     * and non matching types are cached, features normally share the same type instance.
+     */
+    static final class TypeGuard {
+        final SimpleFeatureType schema;
+
+        final int[] indexes;
+
+        final String[] names;
+
+        final Class<?>[] bindings;
+
+        volatile SimpleFeatureType lastMatch;
+
+        volatile SimpleFeatureType lastMismatch;
+
+        TypeGuard(SimpleFeatureType schema, BitSet used) {
+            this.schema = schema;
+            this.indexes = used.stream().toArray();
+            this.names = new String[indexes.length];
+            this.bindings = new Class<?>[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                names[i] = schema.getDescriptor(indexes[i]).getLocalName();
+                bindings[i] = schema.getDescriptor(indexes[i]).getType().getBinding();
+            }
+        }
+
+        boolean accepts(Object object) {
+            if (!(object instanceof SimpleFeature)) {
+                return false;
+            }
+            SimpleFeatureType type = ((SimpleFeature) object).getFeatureType();
+            if (type == schema || type == lastMatch) {
+                return true;
+            } else if (type == lastMismatch || type == null) {
+                return false;
+            }
+            boolean compatible = isCompatible(type);
+            if (compatible) {
+                lastMatch = type;
+            } else {
+                lastMismatch = type;
+            }
+            return compatible;
+        }
+
+        private boolean isCompatible(SimpleFeatureType type) {
+            for (int i = 0; i < indexes.length; i++) {
+                int index = indexes[i];
+                if (type.indexOf(names[i]) != index
+                        || type.getDescriptor(index).getType().getBinding() != bindings[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -171,15 +171,22 @@ public class LikeFilterImpl extends AbstractFilter implements PropertyIsLike {
     }
 
     private Matcher getMatcher(String string) {
-        if (compPattern == null) {
+        return getCompiledPattern().matcher(string);
+    }
+
+    /** Returns the regular expression equivalent to this like filter, compiling it if necessary */
+    Pattern getCompiledPattern() {
+        Pattern result = compPattern;
+        if (result == null) {
             String pattern = new LikeToRegexConverter(this).getPattern();
-            compPattern =
+            result =
                     isMatchingCase()
                             ? Pattern.compile(pattern)
                             : Pattern.compile(
                                     pattern, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            compPattern = result;
         }
-        return compPattern.matcher(string);
+        return result;
     }
 
     /** Constructor which flags the operator as like. */
@@ -0,0 +1,83 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter.expression;
+
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Resolves a {@link PropertyName} against {@link PrimitiveSimpleFeature} instances, allowing
+ * callers to read the referenced attribute without boxing. The attribute position is cached for the
+ * last feature type seen, so resolution is a reference comparison when all features share the same
+ * type.
+ *
+ * <p>Instances are not thread safe, they are meant to be used by a single visitor or evaluator.
+ */
+public class PrimitivePropertyReader {
+
+    /** The plain attribute name, or null if the expression cannot be read in primitive form */
+    final String name;
+
+    SimpleFeatureType lastType;
+
+    int lastIndex = -1;
+
+    /**
+     * Builds a reader for the specified expression. Only simple property names, without XPath steps
+     * or predicates, are supported, other expressions will never be read in primitive form
+     */
+    public PrimitivePropertyReader(Expression expression) {
+        String name = null;
+        if (expression instanceof PropertyName) {
+            PropertyName pn = (PropertyName) expression;
+            String candidate = pn.getPropertyName();
+            if (candidate != null
+                    && pn.getNamespaceContext() == null
+                    && candidate.indexOf('/') < 0
+                    && candidate.indexOf('[') < 0
+                    && candidate.indexOf('@') < 0) {
+                name = candidate;
+            }
+        }
+        this.name = name;
+    }
+
+    /**
+     * Returns the index of the property in the specified feature, if the feature is a {@link
+     * PrimitiveSimpleFeature} and the property is stored in primitive form, -1 otherwise
+     */
+    public int indexOf(Object feature) {
+        if (name == null || !(feature instanceof PrimitiveSimpleFeature)) {
+            return -1;
+        }
+        PrimitiveSimpleFeature pf = (PrimitiveSimpleFeature) feature;
+        SimpleFeatureType type = pf.getFeatureType();
+        if (type != lastType) {
+            int index = type.indexOf(name);
+            lastIndex = index >= 0 && pf.isPrimitive(index) ? index : -1;
+            lastType = type;
+        }
+        return lastIndex;
+    }
+
+    /** Returns true if the expression can be read in primitive form, at least for some features */
+    public boolean isSupported() {
+        return name != null;
+    }
+}
@@ -17,9 +17,15 @@
 package org.geotools.filter.expression;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.ServiceLoader;
+import org.geotools.util.LRULinkedHashMap;
 import org.geotools.util.factory.Hints;
+import org.opengis.feature.Attribute;
+import org.opengis.feature.simple.SimpleFeature;
 
 /**
  * Convenience class for looking up a property accessor for a particular object type.
@@ -29,6 +35,15 @@ import org.geotools.util.factory.Hints;
 public class PropertyAccessors {
     static final PropertyAccessorFactory[] FACTORY_CACHE;
 
+    /** System property setting the maximum number of resolved accessors kept in memory */
+    public static final String CACHE_SIZE_KEY = "org.geotools.filter.accessorCacheSize";
+
+    /** The accessors that worked, by object type and xpath, bounded and shared among threads */
+    static final Map<AccessorKey, PropertyAccessor> RESOLVED =
+            Collections.synchronizedMap(
+                    LRULinkedHashMap.createForRecentAccess(
+                            Math.max(1, Integer.getInteger(CACHE_SIZE_KEY, 1024))));
+
     static {
         List<PropertyAccessorFactory> cache = new ArrayList<PropertyAccessorFactory>();
 
@@ -78,4 +93,102 @@ public class PropertyAccessors {
         }
         return list;
     }
+
+    /**
+     * Returns the accessor that was last found working for an object of the same type and the
+     * specified xpath, target and hints, or null if none was cached. Types are compared by
+     * identity, for features and attributes the type is their {@link Attribute#getType()}, for
+     * other objects their class.
+     *
+     * <p>The accessor might still be unable to handle the specific object, callers should check
+     * {@link PropertyAccessor#canHandle(Object, String, Class)} and fall back on {@link
+     * #findPropertyAccessors(Object, String, Class, Hints)} if needed.
+     *
+     * @param object The target object.
+     * @param xpath An xpath expression denoting a property of the target object.
+     * @param target The target class, might be null
+     * @param hints The hints passed to the factories during the lookup
+     * @return The cached accessor, or <code>null</code>
+     */
+    public static PropertyAccessor getCachedPropertyAccessor(
+            Object object, String xpath, Class target, Hints hints) {
+        if (object == null || xpath == null) return null;
+
+        return RESOLVED.get(new AccessorKey(typeOf(object), xpath, target, hints));
+    }
+
+    /**
+     * Caches an accessor found working for the specified object and xpath, so that it can be
+     * returned by {@link #getCachedPropertyAccessor(Object, String, Class, Hints)} for other
+     * objects of the same type. Attributes of a {@link SimpleFeature} are bound to their position
+     * in the feature type.
+     *
+     * @return The accessor actually cached, which should be used in place of the provided one
+     */
+    public static PropertyAccessor cachePropertyAccessor(
+            Object object, String xpath, Class target, Hints hints, PropertyAccessor accessor) {
+        if (object == null || xpath == null || accessor == null) return accessor;
+
+        if (accessor == SimpleFeaturePropertyAccessorFactory.ATTRIBUTE_ACCESS
+                && object instanceof SimpleFeature) {
+            PropertyAccessor bound =
+                    SimpleFeaturePropertyAccessorFactory.bind(
+                            ((SimpleFeature) object).getFeatureType(), xpath);
+            if (bound != null) {
+                accessor = bound;
+            }
+        }
+        RESOLVED.put(new AccessorKey(typeOf(object), xpath, target, hints), accessor);
+        return accessor;
+    }
+
+    private static Object typeOf(Object object) {
+        if (object instanceof Attribute) {
+            Object type = ((Attribute) object).getType();
+            if (type != null) {
+                return type;
+            }
+        }
+        return object.getClass();
+    }
+
+    /** Key of the resolved accessors cache, comparing types by identity */
+    static final class AccessorKey {
+        final Object type;
+
+        final String xpath;
+
+        final Class target;
+
+        final Hints hints;
+
+        final int hash;
+
+        AccessorKey(Object type, String xpath, Class target, Hints hints) {
+            this.type = type;
+            this.xpath = xpath;
+            this.target = target;
+            this.hints = hints;
+            this.hash =
+                    (System.identityHashCode(type) * 31 + xpath.hashCode()) * 31
+                            + Objects.hashCode(target);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof AccessorKey)) {
+                return false;
+            }
+            AccessorKey other = (AccessorKey) obj;
+            return type == other.type
+                    && target == other.target
+                    && xpath.equals(other.xpath)
+                    && Objects.equals(hints, other.hints);
+        }
+    }
 }
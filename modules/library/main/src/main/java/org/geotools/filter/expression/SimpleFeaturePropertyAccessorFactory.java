@@ -132,7 +132,7 @@ public class SimpleFeaturePropertyAccessorFactory implements PropertyAccessorFac
     static class FidSimpleFeaturePropertyAccessor implements PropertyAccessor {
         public boolean canHandle(Object object, String xpath, Class target) {
             // we only work against feature, not feature type
-            return object instanceof SimpleFeature && xpath.matches("@(\\w+:)?id");
+            return object instanceof SimpleFeature && idPattern.matcher(xpath).matches();
         }
 
         public Object get(Object object, String xpath, Class target) {
@@ -146,6 +146,54 @@ public class SimpleFeaturePropertyAccessorFactory implements PropertyAccessorFac
         }
     }
 
+    /**
+     * Returns an accessor bound to the position of the attribute in the specified feature type, or
+     * null if the xpath does not refer to one of its attributes
+     */
+    static PropertyAccessor bind(SimpleFeatureType type, String xpath) {
+        if (xpath == null || !propertyPattern.matcher(xpath).matches()) {
+            return null;
+        }
+        int index = type.indexOf(stripPrefixIndex(xpath));
+        if (index < 0) {
+            return null;
+        }
+        return new IndexedSimpleFeaturePropertyAccessor(type, xpath, index);
+    }
+
+    /**
+     * Access to a SimpleFeature attribute by position, for a specific feature type and xpath.
+     * Checking the accessor can handle a feature only requires a reference comparison on the type.
+     */
+    static class IndexedSimpleFeaturePropertyAccessor implements PropertyAccessor {
+        final SimpleFeatureType type;
+
+        final String xpath;
+
+        final int index;
+
+        IndexedSimpleFeaturePropertyAccessor(SimpleFeatureType type, String xpath, int index) {
+            this.type = type;
+            this.xpath = xpath;
+            this.index = index;
+        }
+
+        public boolean canHandle(Object object, String xpath, Class target) {
+            return object instanceof SimpleFeature
+                    && ((SimpleFeature) object).getFeatureType() == type
+                    && this.xpath.equals(xpath);
+        }
+
+        public Object get(Object object, String xpath, Class target) {
+            return ((SimpleFeature) object).getAttribute(index);
+        }
+
+        public void set(Object object, String xpath, Object value, Class target)
+                throws IllegalAttributeException {
+            ((SimpleFeature) object).setAttribute(index, value);
+        }
+    }
+
     static class DefaultGeometrySimpleFeaturePropertyAccessor implements PropertyAccessor {
 
         public boolean canHandle(Object object, String xpath, Class target) {
@@ -19,8 +19,8 @@ package org.geotools.temporal;
 import java.util.Date;
 import org.geotools.temporal.object.DefaultInstant;
 import org.geotools.temporal.object.DefaultPosition;
+import org.geotools.util.CacheableConverterFactory;
 import org.geotools.util.Converter;
-import org.geotools.util.ConverterFactory;
 import org.geotools.util.Converters;
 import org.geotools.util.factory.Hints;
 import org.opengis.temporal.Instant;
@@ -32,7 +32,7 @@ import org.opengis.temporal.TemporalObject;
  *
  * @author Justin Deoliveira, OpenGeo
  */
-public class TemporalConverterFactory implements ConverterFactory {
+public class TemporalConverterFactory implements CacheableConverterFactory {
 
     static Converter dateToInstant =
             new Converter() {
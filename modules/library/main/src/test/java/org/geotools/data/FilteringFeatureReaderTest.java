@@ -18,10 +18,13 @@ package org.geotools.data;
 
 import java.io.IOException;
 import java.util.NoSuchElementException;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.filter.FilterCompiler;
 import org.opengis.feature.IllegalAttributeException;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory;
 
 /**
  * Test FilteredFeatureReader for conformance.
@@ -132,6 +135,57 @@ public class FilteringFeatureReaderTest extends DataTestCase {
         }
     }
 
+    public void testBlockReadAhead() throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("numbers", "value:Integer");
+        SimpleFeature[] features = new SimpleFeature[1000];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = DataUtilities.createFeature(type, "numbers." + i + "=" + i);
+        }
+        FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+        Filter filter = ff.greaterOrEqual(ff.property("value"), ff.literal(0));
+
+        // a small limit does not pull a full block from the delegate
+        CountingReader counting = new CountingReader(DataUtilities.reader(features));
+        FilteringFeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                new FilteringFeatureReader<>(counting, filter);
+        assertTrue(FilterCompiler.isCompiled(reader.filter));
+        assertEquals(features[0], reader.next());
+        assertEquals(FilteringFeatureReader.MIN_BLOCK_SIZE, counting.count);
+        reader.close();
+
+        // the whole contents are still returned as the block grows
+        reader = new FilteringFeatureReader<>(DataUtilities.reader(features), filter);
+        assertContents(features, reader);
+    }
+
+    /** Counts the features read from the delegate */
+    static class CountingReader implements FeatureReader<SimpleFeatureType, SimpleFeature> {
+        FeatureReader<SimpleFeatureType, SimpleFeature> delegate;
+
+        int count;
+
+        CountingReader(FeatureReader<SimpleFeatureType, SimpleFeature> delegate) {
+            this.delegate = delegate;
+        }
+
+        public SimpleFeatureType getFeatureType() {
+            return delegate.getFeatureType();
+        }
+
+        public SimpleFeature next() throws IOException {
+            count++;
+            return delegate.next();
+        }
+
+        public boolean hasNext() throws IOException {
+            return delegate.hasNext();
+        }
+
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
     public void testNext() {}
 
     public void testClose() {}
@@ -0,0 +1,155 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public class SortKeyEncoderTest {
+
+    static final FilterFactory FF = CommonFactoryFinder.getFilterFactory(null);
+
+    static final String[] STRINGS = {
+        "", "a", "a\u0000", "a\u0000b", "ab", "b", "\u00E8", "\uFFFF", "\uD83D\uDE00", "A"
+    };
+
+    static final double[] DOUBLES = {
+        Double.NEGATIVE_INFINITY,
+        -Double.MAX_VALUE,
+        -1,
+        -Double.MIN_VALUE,
+        -0d,
+        0d,
+        Double.MIN_VALUE,
+        1,
+        Double.MAX_VALUE,
+        Double.POSITIVE_INFINITY,
+        Double.NaN
+    };
+
+    static SimpleFeatureType schema;
+
+    static List<SimpleFeature> features;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        schema =
+                DataUtilities.createType(
+                        "keys",
+                        "i:Integer,l:java.lang.Long,d:Double,f:Float,s:String,b:Boolean,"
+                                + "date:java.util.Date,ts:java.sql.Timestamp,geom:Point");
+        Random random = new Random(42);
+        features = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean nulls = random.nextInt(10) == 0;
+            Timestamp ts = new Timestamp(random.nextInt(5) * 1000L - 2000);
+            ts.setNanos(random.nextInt(3) * 1000);
+            features.add(
+                    SimpleFeatureBuilder.build(
+                            schema,
+                            new Object[] {
+                                nulls ? null : random.nextInt(7) - 3,
+                                nulls ? null : random.nextLong(),
+                                nulls ? null : DOUBLES[random.nextInt(DOUBLES.length)],
+                                nulls ? null : (float) DOUBLES[random.nextInt(DOUBLES.length)],
+                                nulls ? null : STRINGS[random.nextInt(STRINGS.length)],
+                                nulls ? null : random.nextBoolean(),
+                                nulls ? null : new Date(random.nextInt(2000) - 1000),
+                                nulls ? null : ts,
+                                null
+                            },
+                            STRINGS[random.nextInt(STRINGS.length)] + i));
+        }
+    }
+
+    @Test
+    public void testCanEncode() {
+        assertTrue(SortKeyEncoder.canEncode(schema, new SortBy[] {SortBy.NATURAL_ORDER}));
+        assertTrue(
+                SortKeyEncoder.canEncode(schema, new SortBy[] {FF.sort("s", SortOrder.ASCENDING)}));
+        assertFalse(
+                SortKeyEncoder.canEncode(schema, new SortBy[] {FF.sort("x", SortOrder.ASCENDING)}));
+        assertFalse(
+                SortKeyEncoder.canEncode(
+                        schema, new SortBy[] {FF.sort("geom", SortOrder.ASCENDING)}));
+    }
+
+    @Test
+    public void testSingleAttributeOrder() {
+        for (String name : new String[] {"i", "l", "d", "f", "s", "b", "date", "ts"}) {
+            for (SortOrder order : SortOrder.values()) {
+                assertSameOrder(new SortBy[] {FF.sort(name, order)});
+            }
+        }
+    }
+
+    @Test
+    public void testNaturalOrder() {
+        assertSameOrder(new SortBy[] {SortBy.NATURAL_ORDER});
+        assertSameOrder(new SortBy[] {SortBy.REVERSE_ORDER});
+    }
+
+    @Test
+    public void testMultipleAttributesOrder() {
+        assertSameOrder(
+                new SortBy[] {
+                    FF.sort("s", SortOrder.DESCENDING),
+                    FF.sort("i", SortOrder.ASCENDING),
+                    SortBy.NATURAL_ORDER
+                });
+        assertSameOrder(
+                new SortBy[] {
+                    FF.sort("b", SortOrder.ASCENDING), FF.sort("s", SortOrder.ASCENDING)
+                });
+    }
+
+    private void assertSameOrder(SortBy[] sortBy) {
+        Comparator<SimpleFeature> comparator = SortedFeatureReader.getComparator(sortBy);
+        SortKeyEncoder encoder = new SortKeyEncoder(schema, sortBy);
+        List<byte[]> keys = new ArrayList<>();
+        for (SimpleFeature f : features) {
+            keys.add(encoder.encode(f));
+        }
+        for (int i = 0; i < features.size(); i++) {
+            for (int j = 0; j < features.size(); j++) {
+                int expected = Integer.signum(comparator.compare(features.get(i), features.get(j)));
+                byte[] k1 = keys.get(i);
+                byte[] k2 = keys.get(j);
+                int actual = Integer.signum(SortKeyEncoder.compare(k1, k1.length, k2, k2.length));
+                assertEquals(features.get(i) + " vs " + features.get(j), expected, actual);
+            }
+        }
+    }
+}
@@ -5,7 +5,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.NoSuchElementException;
 import org.geotools.data.simple.DelegateSimpleFeatureReader;
 import org.geotools.data.simple.SimpleFeatureIterator;
@@ -263,6 +265,41 @@ public class SortedReaderTest {
         }
     }
 
+    @Test
+    public void testFileSortMultiPassMerge() throws IOException {
+        // sort on a value with duplicates, in enough runs to require more than one merge pass
+        SortBy[] sortBy =
+                new SortBy[] {
+                    ff.sort("byte", SortOrder.DESCENDING), ff.sort("sql_date", SortOrder.ASCENDING)
+                };
+        List<SimpleFeature> expected =
+                readAll(
+                        new SortedFeatureReader(
+                                new DelegateSimpleFeatureReader(schema, fc.features()),
+                                sortBy,
+                                1000));
+        assertTrue(fc.size() / 3 > MergeSortDumper.MAX_MERGE_RUNS);
+        List<SimpleFeature> actual = readAll(new SortedFeatureReader(fr, sortBy, 3));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            // same order, including equal keys, and same values
+            assertEquals(expected.get(i).getID(), actual.get(i).getID());
+            assertEquals(expected.get(i).getAttributes(), actual.get(i).getAttributes());
+        }
+    }
+
+    private List<SimpleFeature> readAll(SimpleFeatureReader reader) throws IOException {
+        List<SimpleFeature> result = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                result.add(reader.next());
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
     private void assertSortedOnPeopleAsc(SimpleFeatureReader fr)
             throws IllegalArgumentException, NoSuchElementException, IOException {
         double prev = -1;
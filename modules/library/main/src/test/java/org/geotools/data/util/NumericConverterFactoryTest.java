@@ -111,6 +111,23 @@ public class NumericConverterFactoryTest extends TestCase {
         assertEquals(new BigDecimal(127.0), convert(BigInteger.valueOf(127), BigDecimal.class));
     }
 
+    public void testIntegralToFloatMatchesParsing() throws Exception {
+        // integral values are converted directly, make sure we get what parsing them would give
+        java.util.Random random = new java.util.Random(0);
+        for (int i = 0; i < 1000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            String text = String.valueOf(value);
+            assertEquals(Double.valueOf(text), convert(Long.valueOf(value), Double.class));
+            assertEquals(Float.valueOf(text), convert(Long.valueOf(value), Float.class));
+            assertEquals(new BigDecimal(text), convert(Long.valueOf(value), BigDecimal.class));
+            assertEquals(
+                    Float.valueOf(String.valueOf((int) value)),
+                    convert(Integer.valueOf((int) value), Float.class));
+        }
+        // floats still go through their string representation
+        assertEquals(Double.valueOf(1.1), convert(Float.valueOf(1.1f), Double.class));
+    }
+
     public void testFloatToIntegral() throws Exception {
         // to byte
         assertEquals(Byte.valueOf((byte) 127), convert(Float.valueOf(127.127f), Byte.class));
@@ -0,0 +1,160 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.PrimitiveFeatureFactoryImpl;
+import org.geotools.util.factory.Hints;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKTReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class PrimitiveSimpleFeatureImplTest {
+
+    SimpleFeatureType schema;
+
+    SimpleFeatureBuilder builder;
+
+    @Before
+    public void setUp() throws Exception {
+        schema =
+                DataUtilities.createType(
+                        "test",
+                        "geom:Point,name:String,d:Double,f:Float,l:java.lang.Long,i:Integer,s:java.lang.Short,b:java.lang.Byte");
+        builder = new SimpleFeatureBuilder(schema, new PrimitiveFeatureFactoryImpl());
+    }
+
+    private PrimitiveSimpleFeature build(Object... values) {
+        builder.addAll(values);
+        return (PrimitiveSimpleFeature) builder.buildFeature("test.1");
+    }
+
+    @Test
+    public void testGetAttributes() throws Exception {
+        Point p = (Point) new WKTReader().read("POINT(1 2)");
+        Object[] values = {p, "abc", 1.5d, 2.5f, 3l, 4, (short) 5, (byte) 6};
+        PrimitiveSimpleFeature feature = build(values);
+
+        assertEquals(Arrays.asList(values), feature.getAttributes());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], feature.getAttribute(i));
+            assertEquals(values[i].getClass(), feature.getAttribute(i).getClass());
+        }
+        assertEquals(p, feature.getDefaultGeometry());
+        assertEquals(1.5d, feature.getAttribute("d"));
+        assertEquals(4, feature.getProperty("i").getValue());
+
+        // same contents as a plain feature
+        SimpleFeature plain = SimpleFeatureBuilder.build(schema, values, "test.1");
+        assertEquals(plain, feature);
+        assertEquals(plain.hashCode(), feature.hashCode());
+    }
+
+    @Test
+    public void testValuesNotModified() throws Exception {
+        Object[] values = {null, "abc", 1.5d, 2.5f, 3l, 4, (short) 5, (byte) 6};
+        Object[] copy = values.clone();
+        PrimitiveSimpleFeature feature =
+                (PrimitiveSimpleFeature)
+                        new PrimitiveFeatureFactoryImpl()
+                                .createSimpleFeature(values, schema, "test.1");
+
+        // the caller array is left untouched
+        assertArrayEquals(copy, values);
+        assertEquals(1.5d, feature.getDouble(2), 0d);
+        values[2] = 10d;
+        assertEquals(1.5d, feature.getAttribute(2));
+    }
+
+    @Test
+    public void testPrimitiveAccess() throws Exception {
+        PrimitiveSimpleFeature feature = build(null, "abc", 1.5d, 2.5f, 3l, 4, (short) 5, null);
+
+        assertFalse(feature.isPrimitive(0));
+        assertFalse(feature.isPrimitive(1));
+        for (int i = 2; i < 8; i++) {
+            assertTrue(feature.isPrimitive(i));
+        }
+        assertFalse(feature.isIntegral(2));
+        assertFalse(feature.isIntegral(3));
+        assertTrue(feature.isIntegral(4));
+        assertTrue(feature.isIntegral(7));
+
+        assertEquals(1.5d, feature.getDouble(2), 0d);
+        assertEquals(2.5d, feature.getDouble(3), 0d);
+        assertEquals(3l, feature.getLong(4));
+        assertEquals(4d, feature.getDouble(5), 0d);
+
+        // nulls
+        assertTrue(feature.isNull(0));
+        assertTrue(feature.isNull(7));
+        assertFalse(feature.isNull(6));
+        assertTrue(Double.isNaN(feature.getDouble(7)));
+        assertEquals(0, feature.getLong(7));
+        assertNull(feature.getAttribute(7));
+    }
+
+    @Test
+    public void testSetters() throws Exception {
+        PrimitiveSimpleFeature feature = build(null, "abc", null, null, null, null, null, null);
+
+        feature.setDouble(2, 10.25);
+        feature.setLong(5, 12);
+        feature.setAttribute("l", "42");
+        feature.setAttribute("b", 7);
+        feature.getProperty("s").setValue(Short.valueOf((short) 3));
+        assertEquals(10.25, feature.getAttribute(2));
+        assertEquals(12, feature.getAttribute(5));
+        assertEquals(42l, feature.getAttribute(4));
+        assertEquals((byte) 7, feature.getAttribute(7));
+        assertEquals((short) 3, feature.getAttribute(6));
+        assertFalse(feature.isNull(4));
+
+        feature.setAttribute("d", null);
+        assertTrue(feature.isNull(2));
+        assertNull(feature.getAttribute("d"));
+
+        // floats are stored with float precision
+        feature.setDouble(3, 0.1);
+        assertEquals(0.1f, feature.getAttribute(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetNonPrimitive() throws Exception {
+        build(null, "abc", null, null, null, null, null, null).setDouble(1, 1d);
+    }
+
+    @Test
+    public void testFactoryHint() throws Exception {
+        Hints hints = new Hints(Hints.FEATURE_FACTORY, PrimitiveFeatureFactoryImpl.class);
+        SimpleFeatureBuilder hinted =
+                new SimpleFeatureBuilder(schema, CommonFactoryFinder.getFeatureFactory(hints));
+        hinted.set("d", 1d);
+        assertTrue(hinted.buildFeature(null) instanceof PrimitiveSimpleFeatureImpl);
+    }
+}
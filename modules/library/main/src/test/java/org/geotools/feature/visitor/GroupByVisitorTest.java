@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -695,6 +696,71 @@ public class GroupByVisitorTest {
                 });
     }
 
+    @Test
+    public void testSpillToDisk() throws Exception {
+        GroupByVisitor visitor =
+                new GroupByVisitorBuilder()
+                        .withAggregateAttribute("energy_consumption", buildingType)
+                        .withAggregateVisitor("Average")
+                        .withGroupByAttribute("building_type", buildingType)
+                        .withGroupByAttribute("energy_type", buildingType)
+                        .withMaxGroupsInMemory(2)
+                        .build();
+        featureCollection.accepts(visitor, new NullProgressListener());
+        assertTrue(visitor.wasVisited());
+        checkResults(
+                visitor.getResult(),
+                new Object[][] {
+                    new Object[] {"FABRIC", "FLOWING_WATER", 500.0},
+                    new Object[] {"FABRIC", "NUCLEAR", 150.0},
+                    new Object[] {"FABRIC", "SOLAR", 30.0},
+                    new Object[] {"FABRIC", "WIND", 20.0},
+                    new Object[] {"HOUSE", "FUEL", 6.0},
+                    new Object[] {"HOUSE", "NUCLEAR", 4.0},
+                    new Object[] {"SCHOOL", "FLOWING_WATER", 50.0},
+                    new Object[] {"SCHOOL", "FUEL", 60.0},
+                    new Object[] {"SCHOOL", "NUCLEAR", 10.0},
+                    new Object[] {"SCHOOL", "SOLAR", 30.0},
+                    new Object[] {"SCHOOL", "WIND", 20.0}
+                });
+        // the result can be computed again once the spilled partitions are gone
+        assertEquals(11, visitor.getResult().toMap().size());
+    }
+
+    @Test
+    public void testSpillToDiskHighCardinality() throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("parcels", "parcel:Integer,value:Double");
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            features.add(
+                    SimpleFeatureBuilder.build(
+                            type, new Object[] {i % 700, (double) (i % 13)}, null));
+        }
+        FeatureCollection parcels = DataUtilities.collection(features);
+        for (String aggregate : new String[] {"Count", "Sum", "Median", "StdDev"}) {
+            GroupByVisitor expected =
+                    new GroupByVisitorBuilder()
+                            .withAggregateAttribute("value", type)
+                            .withAggregateVisitor(aggregate)
+                            .withGroupByAttribute("parcel", type)
+                            .build();
+            // 700 groups in 16 partitions do not fit in memory, forces re-hashing too
+            GroupByVisitor spilled =
+                    new GroupByVisitorBuilder()
+                            .withAggregateAttribute("value", type)
+                            .withAggregateVisitor(aggregate)
+                            .withGroupByAttribute("parcel", type)
+                            .withMaxGroupsInMemory(5)
+                            .build();
+            parcels.accepts(expected, null);
+            parcels.accepts(spilled, null);
+            Map expectedMap = expected.getResult().toMap();
+            Map spilledMap = spilled.getResult().toMap();
+            assertEquals(700, expectedMap.size());
+            assertEquals(aggregate, expectedMap, spilledMap);
+        }
+    }
+
     @Test
     public void testFeatureAttributeVisitor() {
         GroupByVisitor visitor =
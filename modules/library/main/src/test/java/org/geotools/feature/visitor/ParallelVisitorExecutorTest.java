@@ -0,0 +1,225 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.PartitionedFeatureSource;
+import org.geotools.data.Query;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory2;
+
+public class ParallelVisitorExecutorTest {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    MemoryDataStore store;
+
+    SimpleFeatureType schema;
+
+    ForkJoinPool pool;
+
+    ParallelVisitorExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        schema =
+                DataUtilities.createType(
+                        "test",
+                        "geom:Point,name:String,cat:Integer,value:Double,big:java.lang.Long");
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            fb.add(gf.createPoint(new Coordinate(i % 100, i / 100)));
+            fb.add("name" + (i % 37));
+            fb.add(i % 5);
+            fb.add(i % 11 == 0 ? null : i * 0.5 - 100);
+            fb.add((long) i * i);
+            features.add(fb.buildFeature("test." + i));
+        }
+        store = new MemoryDataStore(schema);
+        store.addFeatures(features);
+        pool = new ForkJoinPool(4);
+        executor = new ParallelVisitorExecutor(pool, 16);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+        store.dispose();
+    }
+
+    /** Runs the visitor sequentially and in parallel, and compares the results */
+    private void assertSameResult(Query query, Supplier<FeatureCalc> visitors) throws IOException {
+        SimpleFeatureCollection fc = store.getFeatureSource("test").getFeatures(query);
+        FeatureCalc sequential = visitors.get();
+        fc.accepts(sequential, null);
+        FeatureCalc parallel = visitors.get();
+        assertTrue(executor.canSplit(parallel));
+        executor.accepts(fc, parallel, null);
+        Object expected = sequential.getResult().getValue();
+        Object actual = parallel.getResult().getValue();
+        if (sequential instanceof GroupByVisitor) {
+            Map<Object, Object> expectedGroups = sequential.getResult().toMap();
+            Map<Object, Object> actualGroups = parallel.getResult().toMap();
+            assertEquals(expectedGroups.keySet(), actualGroups.keySet());
+            for (Object key : expectedGroups.keySet()) {
+                assertEquals(
+                        ((Number) expectedGroups.get(key)).doubleValue(),
+                        ((Number) actualGroups.get(key)).doubleValue(),
+                        1e-6);
+            }
+        } else if (expected instanceof Double) {
+            assertEquals((Double) expected, (Double) actual, 1e-6);
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testVisitors() throws Exception {
+        for (Query query :
+                Arrays.asList(
+                        Query.ALL,
+                        new Query("test", FF.greater(FF.property("cat"), FF.literal(2))))) {
+            assertSameResult(query, () -> new CountVisitor());
+            assertSameResult(query, () -> new BoundsVisitor());
+            assertSameResult(query, () -> new SumVisitor(FF.property("value")));
+            assertSameResult(query, () -> new SumVisitor(FF.property("big")));
+            assertSameResult(query, () -> new AverageVisitor(FF.property("value")));
+            assertSameResult(query, () -> new MinVisitor("value"));
+            assertSameResult(query, () -> new MaxVisitor("big"));
+            assertSameResult(query, () -> new MedianVisitor("value"));
+            assertSameResult(query, () -> new StandardDeviationVisitor(FF.property("value")));
+            assertSameResult(query, () -> new UniqueVisitor("name"));
+            assertSameResult(
+                    query,
+                    () ->
+                            new GroupByVisitorBuilder()
+                                    .withAggregateAttribute(FF.property("value"))
+                                    .withAggregateVisitor("Average")
+                                    .withGroupByAttribute(FF.property("cat"))
+                                    .build());
+        }
+    }
+
+    @Test
+    public void testPreserveOrder() throws Exception {
+        UniqueVisitor sequential = new UniqueVisitor("name");
+        sequential.setPreserveOrder(true);
+        UniqueVisitor parallel = new UniqueVisitor("name");
+        parallel.setPreserveOrder(true);
+        SimpleFeatureCollection fc = store.getFeatureSource("test").getFeatures();
+        fc.accepts(sequential, null);
+        executor.accepts(fc, parallel, null);
+        assertEquals(
+                new ArrayList<>(sequential.getUnique()), new ArrayList<>(parallel.getUnique()));
+    }
+
+    @Test
+    public void testNotSplittable() throws Exception {
+        UniqueVisitor limited = new UniqueVisitor("name");
+        limited.setMaxFeatures(5);
+        assertNull(limited.createPartial());
+        assertFalse(executor.canSplit(limited));
+        assertFalse(executor.canSplit(new NearestVisitor(FF.property("cat"), 3)));
+
+        // falls back on a sequential visit
+        executor.accepts(store.getFeatureSource("test").getFeatures(), limited, null);
+        assertEquals(5, limited.getUnique().size());
+    }
+
+    @Test
+    public void testNotPartitionable() throws Exception {
+        // paging and transactions are not supported, the memory store refuses the partitioning
+        Query query = new Query("test");
+        query.setMaxFeatures(10);
+        assertNull(
+                ((PartitionedFeatureSource) store.getFeatureSource("test"))
+                        .getFeatureStream(query, 4));
+        CountVisitor count = new CountVisitor();
+        executor.accepts(store.getFeatureSource("test").getFeatures(query), count, null);
+        assertEquals(10, count.getCount());
+
+        try (DefaultTransaction tx = new DefaultTransaction()) {
+            SimpleFeatureStore fs = (SimpleFeatureStore) store.getFeatureSource("test");
+            fs.setTransaction(tx);
+            fs.removeFeatures(FF.less(FF.property("cat"), FF.literal(1)));
+            assertNull(((PartitionedFeatureSource) fs).getFeatureStream(Query.ALL, 4));
+            count = new CountVisitor();
+            executor.accepts(fs.getFeatures(), count, null);
+            assertEquals(4000, count.getCount());
+            tx.rollback();
+        }
+    }
+
+    @Test
+    public void testStreamVisit() throws Exception {
+        SumVisitor sum = new SumVisitor(FF.property("cat"));
+        List<SimpleFeature> features =
+                DataUtilities.list(store.getFeatureSource("test").getFeatures());
+        try (Stream<SimpleFeature> stream = features.stream()) {
+            executor.visit(stream, sum, null);
+        }
+        assertNotNull(sum.getSum());
+        assertEquals(10000, sum.getResult().toInt());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testVisitorFailure() throws Exception {
+        FeatureVisitor failing =
+                new CountVisitor() {
+                    @Override
+                    public MergeableVisitor createPartial() {
+                        return this;
+                    }
+
+                    @Override
+                    public void visit(org.opengis.feature.Feature feature) {
+                        throw new IllegalStateException("failed");
+                    }
+                };
+        executor.accepts(store.getFeatureSource("test").getFeatures(), failing, null);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.PrimitiveFeatureFactoryImpl;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.expression.Expression;
+
+/** Checks the visitors unboxed fast paths return the same results as the generic ones */
+public class PrimitiveVisitorTest {
+
+    List<SimpleFeature> plain = new ArrayList<>();
+
+    List<SimpleFeature> primitive = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType schema =
+                DataUtilities.createType(
+                        "test", "d:Double,f:Float,l:java.lang.Long,i:Integer,name:String");
+        SimpleFeatureBuilder plainBuilder = new SimpleFeatureBuilder(schema);
+        SimpleFeatureBuilder primitiveBuilder =
+                new SimpleFeatureBuilder(schema, new PrimitiveFeatureFactoryImpl());
+        for (int i = 0; i < 100; i++) {
+            Object[] values = {
+                i % 7 == 0 ? null : i * 1.5 - 40,
+                (float) (i * 0.25 - 3),
+                i % 5 == 0 ? null : (long) i * 1000000000l - 7,
+                50 - i,
+                "name" + i
+            };
+            plain.add(plainBuilder.buildFeature(null, values));
+            primitive.add(primitiveBuilder.buildFeature(null, values));
+        }
+        // Max skips NaN values
+        Object[] values = {Double.NaN, 0f, 0l, 0, "nan"};
+        plain.add(plainBuilder.buildFeature(null, values));
+        primitive.add(primitiveBuilder.buildFeature(null, values));
+    }
+
+    private void assertSameResult(String attribute, FeatureCalc v1, FeatureCalc v2) {
+        for (SimpleFeature f : plain) {
+            v1.visit(f);
+        }
+        for (SimpleFeature f : primitive) {
+            v2.visit(f);
+        }
+        Object expected = v1.getResult().getValue();
+        Object actual = v2.getResult().getValue();
+        assertEquals(attribute, expected, actual);
+        assertEquals(attribute, expected.getClass(), actual.getClass());
+    }
+
+    @Test
+    public void testVisitors() throws Exception {
+        for (String attribute : new String[] {"d", "f", "l", "i"}) {
+            assertSameResult(
+                    attribute, new SumVisitor(ff(attribute)), new SumVisitor(ff(attribute)));
+            assertSameResult(
+                    attribute,
+                    new AverageVisitor(ff(attribute)),
+                    new AverageVisitor(ff(attribute)));
+            assertSameResult(attribute, new MinVisitor(attribute), new MinVisitor(attribute));
+            assertSameResult(attribute, new MaxVisitor(attribute), new MaxVisitor(attribute));
+        }
+        // not numeric, uses the generic path
+        assertSameResult("name", new MaxVisitor("name"), new MaxVisitor("name"));
+    }
+
+    @Test
+    public void testMaxCounters() throws Exception {
+        MaxVisitor v1 = new MaxVisitor("d");
+        MaxVisitor v2 = new MaxVisitor("d");
+        assertSameResult("d", v1, v2);
+        assertEquals(v1.countNull, v2.countNull);
+        assertEquals(v1.countNaN, v2.countNaN);
+    }
+
+    private Expression ff(String attribute) {
+        return CommonFactoryFinder.getFilterFactory2().property(attribute);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.PrimitiveFeatureFactoryImpl;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.filter.visitor.DefaultFilterVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.expression.Expression;
+
+public class FilterCompilerTest {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    static final GeometryFactory GF = new GeometryFactory();
+
+    static final Object[] LITERALS = {
+        null,
+        0,
+        1,
+        -1,
+        3,
+        0L,
+        3L,
+        Long.MAX_VALUE,
+        0d,
+        -0d,
+        3d,
+        3.5,
+        Double.NaN,
+        "3",
+        "3.0",
+        "-0.0",
+        "abc",
+        "ABC",
+        "b",
+        true
+    };
+
+    static final String[] PROPERTIES = {"i", "l", "d", "s", "b"};
+
+    @Test
+    public void testComparisons() throws Exception {
+        SimpleFeatureType schema = schema("test");
+        List<SimpleFeature> features = mixedFeatures(schema, 300, new Random(42));
+        List<Filter> filters = new ArrayList<>();
+        for (String name : PROPERTIES) {
+            for (Object value : LITERALS) {
+                Expression property = FF.property(name);
+                Expression literal = FF.literal(value);
+                for (Expression[] operands :
+                        new Expression[][] {{property, literal}, {literal, property}}) {
+                    Expression e1 = operands[0];
+                    Expression e2 = operands[1];
+                    filters.add(FF.equal(e1, e2, true));
+                    filters.add(FF.equal(e1, e2, false));
+                    filters.add(FF.notEqual(e1, e2, true));
+                    filters.add(FF.notEqual(e1, e2, false));
+                    filters.add(FF.greater(e1, e2));
+                    filters.add(FF.greaterOrEqual(e1, e2));
+                    filters.add(FF.less(e1, e2));
+                    filters.add(FF.lessOrEqual(e1, e2));
+                }
+            }
+            filters.add(FF.isNull(FF.property(name)));
+            filters.add(FF.between(FF.property(name), FF.literal(0), FF.literal(3)));
+            filters.add(FF.between(FF.property(name), FF.literal("-1"), FF.literal(2.5)));
+            filters.add(FF.equals(FF.property(name), FF.property("i")));
+            filters.add(FF.less(FF.property(name), FF.property("d")));
+        }
+        assertSameResults(schema, features, filters);
+    }
+
+    @Test
+    public void testLogicLikeAndMath() throws Exception {
+        SimpleFeatureType schema = schema("test");
+        List<SimpleFeature> features = mixedFeatures(schema, 300, new Random(7));
+        Filter greater = FF.greater(FF.property("i"), FF.literal(1));
+        Filter like = FF.like(FF.property("s"), "a*", "*", "?", "\\", false);
+        Filter likeCase = FF.like(FF.property("s"), "?b*", "*", "?", "\\", true);
+        Filter isNull = FF.isNull(FF.property("d"));
+        Filter sum =
+                FF.greater(
+                        FF.add(FF.property("i"), FF.property("l")),
+                        FF.multiply(FF.property("d"), FF.literal(2)));
+        Filter bbox = FF.bbox("geom", 0, 0, 5, 5, null);
+        List<Filter> filters =
+                Arrays.asList(
+                        like,
+                        likeCase,
+                        sum,
+                        FF.and(greater, like),
+                        FF.or(Arrays.asList(greater, isNull, likeCase)),
+                        FF.not(FF.and(Arrays.asList(greater, FF.not(isNull), sum))),
+                        bbox,
+                        FF.bbox(FF.property(""), new ReferencedEnvelope(2, 8, 1, 4, null)),
+                        FF.and(bbox, greater),
+                        FF.or(bbox, FF.equals(FF.property("s"), FF.literal("abc"))),
+                        FF.not(FF.or(Arrays.asList(FF.not(greater), isNull, bbox))));
+        assertSameResults(schema, features, filters);
+    }
+
+    @Test
+    public void testOtherFeatureTypes() throws Exception {
+        SimpleFeatureType schema = schema("test");
+        // same attributes, different type instance
+        SimpleFeatureType copy = schema("copy");
+        // different attribute order
+        SimpleFeatureType other =
+                DataUtilities.createType(
+                        "other", "s:String,d:Double,i:Integer,l:java.lang.Long,b:Boolean");
+        Filter filter =
+                FF.and(
+                        FF.greater(FF.property("i"), FF.literal(1)),
+                        FF.like(FF.property("s"), "a*", "*", "?", "\\", false));
+        Filter compiled = FilterCompiler.compile(filter, schema);
+        assertNotSame(filter, compiled);
+        for (SimpleFeatureType type : new SimpleFeatureType[] {schema, copy, other}) {
+            for (SimpleFeature feature : features(type, 100, new Random(3))) {
+                assertEquals(filter.evaluate(feature), compiled.evaluate(feature));
+            }
+        }
+        // not a feature at all
+        assertEquals(filter.evaluate(null), compiled.evaluate(null));
+
+        // blocks mixing all of the above
+        List<Object> mixed = new ArrayList<>();
+        mixed.addAll(features(schema, 50, new Random(5)));
+        mixed.addAll(features(copy, 50, new Random(6)));
+        mixed.addAll(features(other, 50, new Random(7)));
+        mixed.add(null);
+        Collections.shuffle(mixed, new Random(8));
+        Object[] block = mixed.toArray();
+        BitSet matches = new BitSet();
+        FilterCompiler.evaluate(compiled, block, block.length, matches);
+        for (int i = 0; i < block.length; i++) {
+            assertEquals(filter.evaluate(block[i]), matches.get(i));
+        }
+    }
+
+    @Test
+    public void testNotCompilable() throws Exception {
+        SimpleFeatureType schema = schema("test");
+        Filter intersects =
+                FF.intersects(
+                        FF.property("geom"), FF.literal(GF.createPoint(new Coordinate(1, 1))));
+        assertSame(intersects, FilterCompiler.compile(intersects, schema));
+        Filter missing = FF.equals(FF.property("missing"), FF.literal(1));
+        assertSame(missing, FilterCompiler.compile(missing, schema));
+        assertSame(Filter.INCLUDE, FilterCompiler.compile(Filter.INCLUDE, schema));
+        Filter filter = FF.equals(FF.property("i"), FF.literal(1));
+        assertSame(filter, FilterCompiler.compile(filter, null));
+        Expression function = FF.function("strToUpperCase", FF.property("s"));
+        assertSame(function, FilterCompiler.compile(function, schema));
+    }
+
+    @Test
+    public void testBatchNotCompiled() throws Exception {
+        Filter filter = FF.greater(FF.property("i"), FF.literal(1));
+        List<SimpleFeature> features = features(schema("test"), 20, new Random(1));
+        Object[] block = features.toArray();
+        BitSet matches = new BitSet();
+        matches.set(100);
+        FilterCompiler.evaluate(filter, block, 10, matches);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(filter.evaluate(block[i]), matches.get(i));
+        }
+        assertEquals(-1, matches.nextSetBit(10));
+    }
+
+    @Test
+    public void testVisitorsSeeOriginal() throws Exception {
+        SimpleFeatureType schema = schema("test");
+        Filter filter = FF.equals(FF.property("i"), FF.literal(1));
+        Filter compiled = FilterCompiler.compile(filter, schema);
+        assertSame(filter, FilterCompiler.getOriginal(compiled));
+        List<Filter> visited = new ArrayList<>();
+        compiled.accept(
+                new DefaultFilterVisitor() {
+                    @Override
+                    public Object visit(PropertyIsEqualTo filter, Object data) {
+                        visited.add(filter);
+                        return data;
+                    }
+                },
+                null);
+        assertEquals(Arrays.asList(filter), visited);
+        assertEquals(filter.toString(), compiled.toString());
+    }
+
+    @Test
+    public void testExpressions() throws Exception {
+        SimpleFeatureType schema = schema("test");
+        List<SimpleFeature> features = features(schema, 100, new Random(11));
+        Expression[] expressions = {
+            FF.property("s"),
+            FF.subtract(FF.property("d"), FF.literal(1)),
+            FF.divide(FF.property("l"), FF.property("i"))
+        };
+        for (Expression expression : expressions) {
+            Expression compiled = FilterCompiler.compile(expression, schema);
+            assertNotSame(expression, compiled);
+            for (SimpleFeature feature : features) {
+                assertEquals(expression.evaluate(feature), compiled.evaluate(feature));
+                assertEquals(
+                        expression.evaluate(feature, String.class),
+                        compiled.evaluate(feature, String.class));
+            }
+        }
+    }
+
+    private void assertSameResults(
+            SimpleFeatureType schema, List<SimpleFeature> features, List<Filter> filters) {
+        Object[] block = features.toArray();
+        BitSet matches = new BitSet();
+        for (Filter filter : filters) {
+            Filter compiled = FilterCompiler.compile(filter, schema);
+            FilterCompiler.evaluate(compiled, block, block.length, matches);
+            for (int i = 0; i < block.length; i++) {
+                SimpleFeature feature = features.get(i);
+                boolean expected = filter.evaluate(feature);
+                assertEquals(filter + " on " + feature, expected, compiled.evaluate(feature));
+                assertEquals(filter + " on " + feature + " in batch", expected, matches.get(i));
+            }
+        }
+    }
+
+    private SimpleFeatureType schema(String name) throws Exception {
+        return DataUtilities.createType(
+                name, "i:Integer,l:java.lang.Long,d:Double,s:String,b:Boolean,geom:Point");
+    }
+
+    private List<SimpleFeature> features(SimpleFeatureType schema, int count, Random random) {
+        return features(schema, count, random, new SimpleFeatureBuilder(schema));
+    }
+
+    /** Returns features mixing the plain and the primitive storage */
+    private List<SimpleFeature> mixedFeatures(SimpleFeatureType schema, int count, Random random) {
+        List<SimpleFeature> result = new ArrayList<>();
+        result.addAll(features(schema, count / 2, random));
+        result.addAll(
+                features(
+                        schema,
+                        count - count / 2,
+                        random,
+                        new SimpleFeatureBuilder(schema, new PrimitiveFeatureFactoryImpl())));
+        Collections.shuffle(result, random);
+        return result;
+    }
+
+    private List<SimpleFeature> features(
+            SimpleFeatureType schema, int count, Random random, SimpleFeatureBuilder fb) {
+        List<SimpleFeature> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            fb.set("i", pick(random, null, 0, 1, 3, -1, random.nextInt(10)));
+            fb.set("l", pick(random, null, 0L, 3L, Long.MAX_VALUE, (long) random.nextInt(10)));
+            fb.set("d", pick(random, null, 0d, -0d, 3d, 3.5, Double.NaN, random.nextDouble() * 10));
+            fb.set("s", pick(random, null, "3", "3.0", "abc", "ABC", "b", "Abba", "-0.0"));
+            fb.set("b", pick(random, null, true, false));
+            if (schema.getDescriptor("geom") != null) {
+                fb.set(
+                        "geom",
+                        GF.createPoint(new Coordinate(random.nextInt(10), random.nextInt(10))));
+            }
+            result.add(fb.buildFeature(null));
+        }
+        return result;
+    }
+
+    private Object pick(Random random, Object... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter.expression;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import junit.framework.TestCase;
+import org.geotools.data.DataUtilities;
+import org.geotools.filter.AttributeExpressionImpl;
+import org.geotools.filter.expression.SimpleFeaturePropertyAccessorFactory.IndexedSimpleFeaturePropertyAccessor;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class PropertyAccessorsTest extends TestCase {
+
+    SimpleFeatureType type;
+
+    SimpleFeatureType reordered;
+
+    SimpleFeature feature;
+
+    SimpleFeature other;
+
+    protected void setUp() throws Exception {
+        type = DataUtilities.createType("test", "foo:Integer,bar:String");
+        reordered = DataUtilities.createType("test", "bar:String,foo:Integer");
+        feature = DataUtilities.createFeature(type, "f1=1|abc");
+        other = DataUtilities.createFeature(reordered, "f2=def|2");
+    }
+
+    public void testBindSimpleFeatureAttribute() {
+        for (String xpath : new String[] {"foo", "sf:foo", "foo[1]"}) {
+            assertEquals(1, new AttributeExpressionImpl(xpath).evaluate(feature));
+            PropertyAccessor cached =
+                    PropertyAccessors.getCachedPropertyAccessor(feature, xpath, null, null);
+            assertTrue(cached instanceof IndexedSimpleFeaturePropertyAccessor);
+            assertEquals(0, ((IndexedSimpleFeaturePropertyAccessor) cached).index);
+            assertTrue(cached.canHandle(feature, xpath, null));
+            assertFalse(cached.canHandle(other, xpath, null));
+            assertFalse(cached.canHandle(feature, "bar", null));
+        }
+    }
+
+    public void testTypesComparedByIdentity() {
+        AttributeExpressionImpl foo = new AttributeExpressionImpl("foo");
+        AttributeExpressionImpl bar = new AttributeExpressionImpl("bar");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, foo.evaluate(feature));
+            assertEquals("abc", bar.evaluate(feature));
+            assertEquals(2, foo.evaluate(other));
+            assertEquals("def", bar.evaluate(other));
+        }
+        assertEquals(
+                1,
+                ((IndexedSimpleFeaturePropertyAccessor)
+                                PropertyAccessors.getCachedPropertyAccessor(
+                                        other, "foo", null, null))
+                        .index);
+    }
+
+    public void testNotBound() {
+        AttributeExpressionImpl fid = new AttributeExpressionImpl("@id");
+        assertEquals("f1", fid.evaluate(feature));
+        assertSame(
+                SimpleFeaturePropertyAccessorFactory.FID_ACCESS,
+                PropertyAccessors.getCachedPropertyAccessor(feature, "@id", null, null));
+
+        // the feature type itself is keyed on its class
+        AttributeExpressionImpl foo = new AttributeExpressionImpl("foo");
+        assertEquals(type.getDescriptor("foo"), foo.evaluate(type));
+        assertSame(
+                SimpleFeaturePropertyAccessorFactory.ATTRIBUTE_ACCESS,
+                PropertyAccessors.getCachedPropertyAccessor(type, "foo", null, null));
+        assertEquals(reordered.getDescriptor("foo"), foo.evaluate(reordered));
+
+        // missing attributes are not cached
+        assertNull(new AttributeExpressionImpl("missing").evaluate(feature));
+        assertNull(PropertyAccessors.getCachedPropertyAccessor(feature, "missing", null, null));
+        assertNull(PropertyAccessors.getCachedPropertyAccessor(null, "foo", null, null));
+    }
+
+    public void testConcurrentEvaluation() {
+        AttributeExpressionImpl foo = new AttributeExpressionImpl("foo");
+        List<Object> values =
+                IntStream.range(0, 10000)
+                        .parallel()
+                        .mapToObj(i -> foo.evaluate(i % 2 == 0 ? feature : other))
+                        .collect(Collectors.toList());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i % 2 == 0 ? 1 : 2, values.get(i));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.util.factory.GeoTools;
+import org.geotools.util.factory.Hints;
+import org.junit.Test;
+
+public class ConvertersTest {
+
+    @Test
+    public void testResolutionCached() {
+        assertEquals(Integer.valueOf(12), Converters.convert("12", Integer.class));
+        Converters.Resolution resolution = Converters.resolve(String.class, Integer.class, null);
+        assertTrue(resolution.converters.length > 0);
+        assertSame(resolution, Converters.resolve(String.class, Integer.class, null));
+        assertEquals(Integer.valueOf(13), Converters.convert("13", Integer.class));
+    }
+
+    @Test
+    public void testOnlyCacheableConvertersCached() {
+        // the core factories are cacheable
+        Converters.Resolution resolution = Converters.resolve(String.class, Integer.class, null);
+        assertNotNull(resolution.converters[0]);
+
+        AtomicInteger created = new AtomicInteger();
+        ConverterFactory stateful =
+                (source, target, hints) -> {
+                    if (source != Locale.class || target != StringBuilder.class) {
+                        return null;
+                    }
+                    created.incrementAndGet();
+                    return new Converter() {
+                        @Override
+                        public <T> T convert(Object source, Class<T> target) throws Exception {
+                            return target.cast(new StringBuilder(source.toString()));
+                        }
+                    };
+                };
+        Converters.factories = new ConverterFactory[] {stateful};
+        try {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(
+                        "en", Converters.convert(Locale.ENGLISH, StringBuilder.class).toString());
+            }
+            resolution = Converters.resolve(Locale.class, StringBuilder.class, null);
+            assertSame(stateful, resolution.creators[0]);
+            assertNull(resolution.converters[0]);
+            // one lookup for the resolution, then one converter per conversion
+            assertEquals(4, created.get());
+        } finally {
+            Converters.reset();
+        }
+    }
+
+    @Test
+    public void testHintsCopied() {
+        Hints hints = new Hints(ConverterFactory.SAFE_CONVERSION, Boolean.TRUE);
+        assertNull(Converters.convert(Double.valueOf(1.5), Integer.class, hints));
+
+        // changing the hints after the fact does not affect the cached resolution
+        hints.put(ConverterFactory.SAFE_CONVERSION, Boolean.FALSE);
+        assertEquals(
+                Integer.valueOf(1), Converters.convert(Double.valueOf(1.5), Integer.class, hints));
+        hints.put(ConverterFactory.SAFE_CONVERSION, Boolean.TRUE);
+        assertNull(Converters.convert(Double.valueOf(1.5), Integer.class, hints));
+    }
+
+    @Test
+    public void testConfigurationChangeResets() {
+        Converters.convert("12", Integer.class);
+        Converters.Resolution resolution = Converters.resolve(String.class, Integer.class, null);
+        GeoTools.fireConfigurationChanged();
+        assertTrue(Converters.RESOLUTIONS.isEmpty());
+        assertEquals(Integer.valueOf(12), Converters.convert("12", Integer.class));
+        assertNotSame(resolution, Converters.resolve(String.class, Integer.class, null));
+    }
+
+    @Test
+    public void testConversionCounts() {
+        boolean statistics = Converters.STATISTICS;
+        Converters.STATISTICS = true;
+        try {
+            GeoTools.fireConfigurationChanged();
+            for (int i = 0; i < 3; i++) {
+                Converters.convert(Integer.valueOf(i), Double.class);
+            }
+            Converters.convert("1", Long.class);
+            // not a conversion at all
+            Converters.convert("1", String.class);
+
+            Map<String, Long> counts = Converters.getConversionCounts();
+            assertEquals(Long.valueOf(3), counts.get("java.lang.Integer -> java.lang.Double"));
+            assertEquals(Long.valueOf(1), counts.get("java.lang.String -> java.lang.Long"));
+            assertEquals(2, counts.size());
+        } finally {
+            Converters.STATISTICS = statistics;
+        }
+    }
+}
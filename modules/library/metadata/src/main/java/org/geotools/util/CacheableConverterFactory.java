@@ -0,0 +1,25 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.util;
+
+/**
+ * Marker for the {@link ConverterFactory} implementations whose converters are thread safe, and
+ * depend only on the source class, target class and hints they have been created for. {@link
+ * Converters} caches the converters of these factories, while the other factories are asked for a
+ * new converter at each conversion.
+ */
+public interface CacheableConverterFactory extends ConverterFactory {}
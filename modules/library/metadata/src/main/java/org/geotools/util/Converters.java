@@ -16,10 +16,17 @@
  */
 package org.geotools.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.factory.FactoryCreator;
@@ -31,6 +38,12 @@ import org.geotools.util.logging.Logging;
 /**
  * Convenience class for converting an object from one type to an object of another.
  *
+ * <p>The factories able to convert a given source class to a target class, with the given hints,
+ * are cached. The converters themselves are cached only for the factories implementing {@link
+ * CacheableConverterFactory}, the others are asked for a new converter at each conversion. The
+ * cache is cleared when the GeoTools configuration changes, e.g., when a new class loader is added
+ * and the factories re-scanned.
+ *
  * @author Justin Deoliveira, The Open Planning Project
  * @since 2.4
  */
@@ -44,6 +57,33 @@ public final class Converters {
     /** The service registry for this manager. Will be initialized only when first needed. */
     private static volatile FactoryRegistry registry;
 
+    /**
+     * System property enabling the conversion counters, see {@link #getConversionCounts()}. Off by
+     * default.
+     */
+    public static final String STATISTICS_KEY = "org.geotools.converters.statistics";
+
+    static volatile boolean STATISTICS = Boolean.getBoolean(STATISTICS_KEY);
+
+    /** Number of cached resolutions above which the cache is cleared */
+    static final int CACHE_LIMIT = 1024;
+
+    /** The converters found for each source class, target class and hints combination */
+    static final Map<ConversionKey, Resolution> RESOLUTIONS = new ConcurrentHashMap<>();
+
+    static {
+        GeoTools.addChangeListener(e -> reset());
+    }
+
+    /**
+     * Drops the cached converter factories and converters, they will be looked up again on the next
+     * conversion
+     */
+    static synchronized void reset() {
+        factories = null;
+        RESOLUTIONS.clear();
+    }
+
     /**
      * Returns the service registry. The registry will be created the first time this method is
      * invoked.
@@ -145,27 +185,35 @@ public final class Converters {
             return target.cast(source);
         }
 
-        for (ConverterFactory factory : factories()) {
-            Converter converter = factory.createConverter(sourceClass, target, hints);
-            if (converter != null) {
-                try {
-                    T converted = converter.convert(source, target);
-                    if (converted != null) {
-                        return converted;
-                    }
-                } catch (Exception e) {
-                    if (LOGGER.isLoggable(Level.FINER))
-                        LOGGER.log(
-                                Level.FINER,
-                                "Error applying the converter "
-                                        + converter.getClass()
-                                        + " on ("
-                                        + source
-                                        + ","
-                                        + target
-                                        + ")",
-                                e);
+        Resolution resolution = resolve(sourceClass, target, hints);
+        if (STATISTICS) {
+            resolution.count.increment();
+        }
+        for (int i = 0; i < resolution.converters.length; i++) {
+            Converter converter = resolution.converters[i];
+            if (converter == null) {
+                converter = resolution.creators[i].createConverter(sourceClass, target, hints);
+                if (converter == null) {
+                    continue;
+                }
+            }
+            try {
+                T converted = converter.convert(source, target);
+                if (converted != null) {
+                    return converted;
                 }
+            } catch (Exception e) {
+                if (LOGGER.isLoggable(Level.FINER))
+                    LOGGER.log(
+                            Level.FINER,
+                            "Error applying the converter "
+                                    + converter.getClass()
+                                    + " on ("
+                                    + source
+                                    + ","
+                                    + target
+                                    + ")",
+                            e);
             }
         }
 
@@ -176,6 +224,122 @@ public final class Converters {
         return null;
     }
 
+    /**
+     * Returns the factories able to convert the specified classes with the specified hints, in
+     * factory order, along with their converters when cacheable. The factories are looked up only
+     * the first time a combination is seen.
+     */
+    static Resolution resolve(Class<?> source, Class<?> target, Hints hints) {
+        ConverterFactory[] factories = factories();
+        Resolution resolution = RESOLUTIONS.get(new ConversionKey(source, target, hints));
+        // the factories might have been re-scanned since the resolution was cached
+        if (resolution != null && resolution.factories == factories) {
+            return resolution;
+        }
+
+        List<ConverterFactory> creators = new ArrayList<>();
+        List<Converter> converters = new ArrayList<>();
+        for (ConverterFactory factory : factories) {
+            Converter converter = factory.createConverter(source, target, hints);
+            if (converter != null) {
+                creators.add(factory);
+                // converters of other factories might hold state, a new one is needed each time
+                converters.add(factory instanceof CacheableConverterFactory ? converter : null);
+            }
+        }
+        resolution =
+                new Resolution(
+                        factories,
+                        creators.toArray(new ConverterFactory[creators.size()]),
+                        converters.toArray(new Converter[converters.size()]));
+        if (RESOLUTIONS.size() >= CACHE_LIMIT) {
+            RESOLUTIONS.clear();
+        }
+        // hints are mutable, the key gets its own copy
+        Hints copy = hints == null ? null : new Hints(hints);
+        RESOLUTIONS.put(new ConversionKey(source, target, copy), resolution);
+        return resolution;
+    }
+
+    /**
+     * Returns how many times each conversion has been performed since the counters were enabled
+     * with the {@link #STATISTICS_KEY} system property, keyed by a "source -> target" description.
+     * Conversions from an object that is already an instance of the target class are not counted.
+     * The counters are reset when the GeoTools configuration changes.
+     *
+     * @return The conversion counts, empty if the counters are not enabled
+     */
+    public static Map<String, Long> getConversionCounts() {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<ConversionKey, Resolution> entry : RESOLUTIONS.entrySet()) {
+            long count = entry.getValue().count.sum();
+            if (count > 0) {
+                result.merge(entry.getKey().toString(), count, Long::sum);
+            }
+        }
+        return result;
+    }
+
+    /** Key of the converters cache */
+    static final class ConversionKey {
+        final Class<?> source;
+
+        final Class<?> target;
+
+        final Hints hints;
+
+        final int hash;
+
+        ConversionKey(Class<?> source, Class<?> target, Hints hints) {
+            this.source = source;
+            this.target = target;
+            this.hints = hints;
+            this.hash = source.hashCode() * 31 + Objects.hashCode(target);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ConversionKey)) {
+                return false;
+            }
+            ConversionKey other = (ConversionKey) obj;
+            return source == other.source
+                    && target == other.target
+                    && Objects.equals(hints, other.hints);
+        }
+
+        @Override
+        public String toString() {
+            return source.getName() + " -> " + (target == null ? null : target.getName());
+        }
+    }
+
+    /** The converters found for a conversion, along with the factories used to find them */
+    static final class Resolution {
+        /** All the registered factories, at the time the resolution was made */
+        final ConverterFactory[] factories;
+
+        /** The factories able to perform the conversion */
+        final ConverterFactory[] creators;
+
+        /** The converter of each creator, null if it has to be created at each conversion */
+        final Converter[] converters;
+
+        final LongAdder count = new LongAdder();
+
+        Resolution(
+                ConverterFactory[] factories, ConverterFactory[] creators, Converter[] converters) {
+            this.factories = factories;
+            this.creators = creators;
+            this.converters = converters;
+        }
+    }
+
     /**
      * Processed the {@link ConverterFactory} extension point.
      *
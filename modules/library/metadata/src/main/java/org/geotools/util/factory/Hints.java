@@ -607,6 +607,16 @@ public class Hints extends RenderingHints {
      */
     public static final Key MAX_MEMORY_SORT = new Key(Integer.class);
 
+    /**
+     * Key to resume a sorted, paged query right after the last feature of the previous page. The
+     * value is a {@code org.geotools.data.PagingCursor}. Stores that can use it seek directly to
+     * the next page instead of skipping the query start index features, the others ignore it, so
+     * the start index should be set anyways.
+     *
+     * @since 23.0
+     */
+    public static final Key PAGING_CURSOR = new Key("org.geotools.data.PagingCursor");
+
     /**
      * Asks a datastore having a vector pyramid (pre-generalized geometries) to return the geometry
      * version whose points have been generalized less than the specified distance (further
@@ -0,0 +1,171 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.label;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link LabelIndex} backed by a fixed grid of cells covering the display area, each cell storing
+ * the bounds of the labels touching it in a primitive array. Labels outside of the display area are
+ * accounted for in the border cells.
+ *
+ * <p>Compared to the tree based index it does not allocate on lookups, and allocates very little on
+ * insertion, which makes it a good fit for the main index used during label painting, where the
+ * number of lookups is much larger than the number of labels actually painted.
+ */
+class GridLabelIndex extends LabelIndex {
+
+    /** The default cell size, in pixels */
+    static final int DEFAULT_CELL_SIZE = 32;
+
+    /** Maximum number of cells in the grid, larger areas get larger cells */
+    static final int MAX_CELLS = 1 << 16;
+
+    /** Initial number of bounds allocated in a cell */
+    static final int INITIAL_CELL_CAPACITY = 4;
+
+    final double minX;
+
+    final double minY;
+
+    final double cellSize;
+
+    final int columns;
+
+    final int rows;
+
+    /** The bounds in each cell, packed as minX, minY, maxX, maxY, allocated on demand */
+    final double[][] cells;
+
+    /** The number of bounds stored in each cell */
+    final int[] counts;
+
+    /**
+     * Builds a new grid index covering the specified area
+     *
+     * @param area The display area
+     */
+    public GridLabelIndex(Rectangle area) {
+        double width = Math.max(1, area.getWidth());
+        double height = Math.max(1, area.getHeight());
+        double size = DEFAULT_CELL_SIZE;
+        if (width * height / (size * size) > MAX_CELLS) {
+            size = Math.ceil(Math.sqrt(width * height / MAX_CELLS));
+        }
+        this.minX = area.getMinX();
+        this.minY = area.getMinY();
+        this.cellSize = size;
+        this.columns = (int) Math.ceil(width / size);
+        this.rows = (int) Math.ceil(height / size);
+        this.cells = new double[columns * rows][];
+        this.counts = new int[columns * rows];
+    }
+
+    @Override
+    public boolean labelsWithinDistance(Rectangle2D bounds, double distance) {
+        if (distance < 0) return false;
+
+        double x1 = bounds.getMinX() - distance;
+        double y1 = bounds.getMinY() - distance;
+        double x2 = bounds.getMaxX() + distance;
+        double y2 = bounds.getMaxY() + distance;
+        int c1 = column(x1);
+        int c2 = column(x2);
+        int r1 = row(y1);
+        int r2 = row(y2);
+        for (int r = r1; r <= r2; r++) {
+            for (int c = c1; c <= c2; c++) {
+                int cell = r * columns + c;
+                double[] envelopes = cells[cell];
+                int end = counts[cell] * 4;
+                for (int i = 0; i < end; i += 4) {
+                    // same semantics as the JTS envelope intersection
+                    if (!(envelopes[i] > x2
+                            || envelopes[i + 2] < x1
+                            || envelopes[i + 1] > y2
+                            || envelopes[i + 3] < y1)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void addLabel(LabelCacheItem item, Rectangle2D bounds) {
+        add(bounds);
+    }
+
+    @Override
+    public void reserveArea(List<Rectangle2D> reserved) {
+        for (Rectangle2D area : reserved) {
+            add(area);
+        }
+    }
+
+    private void add(Rectangle2D bounds) {
+        double x1 = bounds.getMinX();
+        double y1 = bounds.getMinY();
+        double x2 = bounds.getMaxX();
+        double y2 = bounds.getMaxY();
+        int c1 = column(x1);
+        int c2 = column(x2);
+        int r1 = row(y1);
+        int r2 = row(y2);
+        for (int r = r1; r <= r2; r++) {
+            for (int c = c1; c <= c2; c++) {
+                int cell = r * columns + c;
+                double[] envelopes = cells[cell];
+                int offset = counts[cell] * 4;
+                if (envelopes == null) {
+                    envelopes = new double[INITIAL_CELL_CAPACITY * 4];
+                    cells[cell] = envelopes;
+                } else if (offset == envelopes.length) {
+                    envelopes = Arrays.copyOf(envelopes, envelopes.length * 2);
+                    cells[cell] = envelopes;
+                }
+                envelopes[offset] = x1;
+                envelopes[offset + 1] = y1;
+                envelopes[offset + 2] = x2;
+                envelopes[offset + 3] = y2;
+                counts[cell]++;
+            }
+        }
+    }
+
+    private int column(double x) {
+        return clamp((x - minX) / cellSize, columns);
+    }
+
+    private int row(double y) {
+        return clamp((y - minY) / cellSize, rows);
+    }
+
+    private static int clamp(double position, int size) {
+        if (!(position > 0)) {
+            // also handles NaN
+            return 0;
+        } else if (position >= size) {
+            return size - 1;
+        }
+        return (int) position;
+    }
+}
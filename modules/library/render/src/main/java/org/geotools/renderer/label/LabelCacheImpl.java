@@ -23,9 +23,11 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -37,6 +39,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -105,6 +110,18 @@ public class LabelCacheImpl implements LabelCache {
     public static boolean DISABLE_LETTER_LEVEL_CONFLICT =
             Boolean.getBoolean("org.geotools.labelcache.disableLetterLevelConflict");
 
+    /**
+     * When true, the labels are laid out sequentially while painting, instead of being prepared in
+     * parallel before the conflict resolution
+     */
+    public static final boolean DISABLE_PARALLEL_PREPARATION =
+            Boolean.getBoolean("org.geotools.labelcache.disableParallelPreparation");
+
+    /**
+     * The minimum number of labels each thread should prepare for parallel preparation to kick in
+     */
+    static final int MIN_LABELS_PER_THREAD = 64;
+
     public enum LabelRenderingMode {
         /**
          * Always uses {@link Graphics2D#drawGlyphVector(java.awt.font.GlyphVector, float, float)}
@@ -166,7 +183,10 @@ public class LabelCacheImpl implements LabelCache {
 
     protected SLDStyleFactory styleFactory = new SLDStyleFactory();
 
-    boolean stop = false;
+    volatile boolean stop = false;
+
+    /** The executor used for the parallel label preparation, if any */
+    ExecutorService preparationExecutor;
 
     Set<String> enabledLayers = new HashSet<String>();
 
@@ -201,6 +221,14 @@ public class LabelCacheImpl implements LabelCache {
         this.labelRenderingMode = mode;
     }
 
+    /**
+     * Sets the executor used to prepare the labels in parallel. When not set, the labels are laid
+     * out sequentially while painting.
+     */
+    public void setPreparationExecutor(ExecutorService preparationExecutor) {
+        this.preparationExecutor = preparationExecutor;
+    }
+
     /**
      * Change the method used to construct LabelPainters. Defaults to {@link
      * LabelPainter#LabelPainter}.
@@ -477,9 +505,6 @@ public class LabelCacheImpl implements LabelCache {
                             + " are layers that started rendering but have not completed,"
                             + " stop() or endLayer() must be called before end() is called");
         }
-        LabelIndex glyphs = new LabelIndex();
-        glyphs.reserveArea(reserved);
-
         // Used to check the paintLineLabel function
         int paintedLineLabels = 0;
 
@@ -494,6 +519,9 @@ public class LabelCacheImpl implements LabelCache {
         displayArea.width -= 1;
         displayArea.height -= 1;
 
+        LabelIndex glyphs = new GridLabelIndex(displayArea);
+        glyphs.reserveArea(reserved);
+
         // prepare the geometry clipper
         clipper =
                 new GeometryClipper(
@@ -510,12 +538,25 @@ public class LabelCacheImpl implements LabelCache {
             items = getActiveLabels();
         }
         LabelPainter painter = constructPainter.apply(graphics, labelRenderingMode);
-        for (LabelCacheItem labelItem : items) {
-            if (stop) return;
-
-            paintedLineLabels =
-                    paintLabel(
-                            graphics, displayArea, glyphs, paintedLineLabels, painter, labelItem);
+        try {
+            prepareLabels(graphics, items);
+            for (LabelCacheItem labelItem : items) {
+                if (stop) return;
+
+                paintedLineLabels =
+                        paintLabel(
+                                graphics,
+                                displayArea,
+                                glyphs,
+                                paintedLineLabels,
+                                painter,
+                                labelItem);
+            }
+        } finally {
+            // don't leave around layouts that might not match the next graphics
+            for (LabelCacheItem labelItem : items) {
+                labelItem.preparedLayout = null;
+            }
         }
         // Output for line labels
         LOGGER.log(Level.FINE, "TOTAL LINE LABELS : {0}", items.size());
@@ -523,6 +564,88 @@ public class LabelCacheImpl implements LabelCache {
         LOGGER.log(Level.FINE, "REMAINING LINE LABELS : {0}", items.size() - paintedLineLabels);
     }
 
+    /**
+     * Lays out the labels in parallel ahead of the conflict resolution, which is inherently
+     * sequential. Each thread uses its own painter, drawing on a scratch graphics with the same
+     * font render context as the target one, see {@link LabelPainter#prepareLabel(LabelCacheItem)}.
+     * Labels that could not be prepared are laid out as usual while painting. Nothing is done
+     * unless a {@link #setPreparationExecutor(ExecutorService) preparation executor} is set.
+     *
+     * @param graphics
+     * @param items
+     */
+    void prepareLabels(Graphics2D graphics, List<LabelCacheItem> items) {
+        int threads =
+                Math.min(
+                        Runtime.getRuntime().availableProcessors(),
+                        items.size() / MIN_LABELS_PER_THREAD);
+        ExecutorService executor = preparationExecutor;
+        if (DISABLE_PARALLEL_PREPARATION || executor == null || threads < 2) {
+            return;
+        }
+
+        final FontRenderContext frc = graphics.getFontRenderContext();
+        final RenderingHints hints = (RenderingHints) graphics.getRenderingHints().clone();
+        final AffineTransform transform = graphics.getTransform();
+        final int chunkSize = (items.size() + threads - 1) / threads;
+        List<Future<?>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int start = t * chunkSize;
+                final int end = Math.min(items.size(), start + chunkSize);
+                futures.add(
+                        executor.submit(
+                                () -> prepareLabels(items, start, end, frc, hints, transform)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // the labels will be laid out again while painting
+                    LOGGER.log(Level.FINE, "Failed to prepare labels", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop = true;
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /** Prepares the labels between start (included) and end (excluded) on a scratch graphics */
+    private void prepareLabels(
+            List<LabelCacheItem> items,
+            int start,
+            int end,
+            FontRenderContext frc,
+            RenderingHints hints,
+            AffineTransform transform) {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D scratch = image.createGraphics();
+        try {
+            scratch.setRenderingHints(hints);
+            scratch.setTransform(transform);
+            if (!frc.equals(scratch.getFontRenderContext())) {
+                // the layout would not match the one done on the target
+                return;
+            }
+            LabelPainter painter = constructPainter.apply(scratch, labelRenderingMode);
+            for (int i = start; i < end && !stop; i++) {
+                LabelCacheItem item = items.get(i);
+                try {
+                    painter.prepareLabel(item);
+                } catch (Exception e) {
+                    // will be laid out again while painting, errors reported then
+                    LOGGER.log(Level.FINE, "Failed to prepare label", e);
+                }
+            }
+        } finally {
+            scratch.dispose();
+        }
+    }
+
     int paintLabel(
             Graphics2D graphics,
             Rectangle displayArea,
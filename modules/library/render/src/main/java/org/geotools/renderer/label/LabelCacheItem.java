@@ -101,6 +101,9 @@ public class LabelCacheItem implements Comparable<LabelCacheItem> {
 
     boolean partialsEnabled = false;
 
+    /** The layout computed ahead of painting, if any */
+    LabelPainter.LabelLayout preparedLayout;
+
     /**
      * A value between 0 and 1 representing the portion of the label that overlaps with the geometry
      * (atm used only for polygons)
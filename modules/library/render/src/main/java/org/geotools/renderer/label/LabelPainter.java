@@ -80,6 +80,9 @@ public class LabelPainter {
     /** The cached label bounds */
     Rectangle2D labelBounds;
 
+    /** The cached label bounds, including halo and shield */
+    Rectangle2D fullLabelBounds;
+
     /** The class in charge of splitting the labels in multiple lines/scripts/fonts */
     LabelSplitter splitter = new LabelSplitter();
 
@@ -105,12 +108,44 @@ public class LabelPainter {
         TextStyle2D textStyle = labelItem.getTextStyle();
         textStyle.setLabel(labelItem.getLabel());
 
-        // reset previous caches
-        labelBounds = null;
-        lines = null;
+        // use the layout prepared ahead of time, if any
+        LabelLayout layout = labelItem.preparedLayout;
+        if (layout != null) {
+            labelItem.preparedLayout = null;
+        } else {
+            layout = layout(labelItem);
+        }
+        this.lines = layout.lines;
+        this.labelBounds = layout.labelBounds;
+        this.fullLabelBounds = layout.fullLabelBounds;
+    }
+
+    /**
+     * Lays out the label and computes its bounds ahead of painting, without altering the current
+     * label. The result is stored in the label item, and picked up by the next {@link
+     * #setLabel(LabelCacheItem)} call on it, by this painter or by another one sharing the same
+     * font render context.
+     *
+     * <p>Meant to be used in parallel, with one painter per thread, each one having its own
+     * graphics, as the layout changes the font of the graphics.
+     *
+     * @param labelItem
+     */
+    public void prepareLabel(LabelCacheItem labelItem) {
+        LabelLayout layout = layout(labelItem);
+        if (layout.labelBounds != null) {
+            layout.fullLabelBounds = computeFullLabelBounds(labelItem, layout.labelBounds);
+        }
+        labelItem.preparedLayout = layout;
+    }
+
+    /** Splits the label in lines and components, and computes the bounds of the straight label */
+    private LabelLayout layout(LabelCacheItem labelItem) {
+        TextStyle2D textStyle = labelItem.getTextStyle();
+        Rectangle2D labelBounds = null;
 
         // layout the label elements
-        lines = splitter.layout(labelItem, graphics);
+        List<LineInfo> lines = splitter.layout(labelItem, graphics);
 
         // compute the max line length
         double maxWidth = 0;
@@ -151,6 +186,8 @@ public class LabelPainter {
             info.setY(labelY);
         }
         normalizeBounds(labelBounds);
+
+        return new LabelLayout(lines, labelBounds);
     }
 
     /**
@@ -241,8 +278,16 @@ public class LabelPainter {
      * @return
      */
     public Rectangle2D getFullLabelBounds() {
+        if (fullLabelBounds == null) {
+            fullLabelBounds = computeFullLabelBounds(labelItem, getLabelBounds());
+        }
+        // callers are free to alter the bounds
+        return (Rectangle2D) fullLabelBounds.clone();
+    }
+
+    private Rectangle2D computeFullLabelBounds(LabelCacheItem labelItem, Rectangle2D labelBounds) {
         // base bounds (clone them, we're going to alter the bounds directly)
-        Rectangle2D bounds = (Rectangle2D) getLabelBounds().clone();
+        Rectangle2D bounds = (Rectangle2D) labelBounds.clone();
 
         // take into account halo
         int haloRadius =
@@ -893,4 +938,18 @@ public class LabelPainter {
         labelAngle = labelAngle % (Math.PI * 2);
         return labelAngle >= 0 && labelAngle < Math.PI;
     }
+
+    /** The lines and bounds of a laid out label, see {@link #prepareLabel(LabelCacheItem)} */
+    static class LabelLayout {
+        final List<LineInfo> lines;
+
+        final Rectangle2D labelBounds;
+
+        Rectangle2D fullLabelBounds;
+
+        LabelLayout(List<LineInfo> lines, Rectangle2D labelBounds) {
+            this.lines = lines;
+            this.labelBounds = labelBounds;
+        }
+    }
 }
@@ -55,8 +55,10 @@ class FilterMemoizer {
         public Object visit(Function expr, Object extraData) {
             if (expr instanceof VolatileFunction || expr instanceof InternalFunction) {
                 memoizable = false;
+                return expr;
             }
-            return expr;
+            // the parameters might be using volatile functions too
+            return super.visit(expr, extraData);
         }
     }
 
@@ -16,7 +16,9 @@
  */
 package org.geotools.renderer.lite;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -41,8 +43,11 @@ import org.opengis.filter.PropertyIsLike;
 import org.opengis.filter.PropertyIsNil;
 import org.opengis.filter.PropertyIsNotEqualTo;
 import org.opengis.filter.PropertyIsNull;
+import org.opengis.filter.capability.FunctionName;
 import org.opengis.filter.expression.Expression;
 import org.opengis.filter.expression.ExpressionVisitor;
+import org.opengis.filter.expression.Function;
+import org.opengis.filter.expression.Literal;
 import org.opengis.filter.expression.PropertyName;
 import org.opengis.filter.spatial.BBOX;
 import org.opengis.filter.spatial.Beyond;
@@ -61,6 +66,10 @@ import org.xml.sax.helpers.NamespaceSupport;
  * Optimizes filter trees by replacing expressions/filters with memoized equivalents, also replaces
  * the generic property access machinery with straight index access when the target feature type is
  * a {@link SimpleFeatureType}.
+ *
+ * <p>The same optimizer instance is meant to be used for all the rules of the styles painted
+ * together: repeated functions are replaced by a single {@link MemoizedFunction} shared by all the
+ * filters and symbolizers using them, so that they get evaluated only once per feature.
  */
 class MemoryFilterOptimizer extends DuplicatingFilterVisitor {
 
@@ -71,6 +80,9 @@ class MemoryFilterOptimizer extends DuplicatingFilterVisitor {
     Map<Filter, Filter> filterReplacements = new HashMap<>();
     SimpleFeatureType simpleFeatureType;
 
+    /** The number of memoized nodes returned so far, counting the shared ones each time */
+    int memoizedCount;
+
     /**
      * Prepares to duplicate a filter for a given target schema. Only filters included in the
      * memoizeCandidates set will be wrapped within a caching proxy
@@ -222,10 +234,39 @@ class MemoryFilterOptimizer extends DuplicatingFilterVisitor {
             replacement = FilterMemoizer.memoize(duplicated);
             filterReplacements.put(filter, replacement);
         }
+        memoizedCount++;
+
+        return replacement;
+    }
+
+    @Override
+    public Object visit(Function expression, Object extraData) {
+        if (!isMemoizable(expression)) {
+            return super.visit(expression, extraData);
+        }
+        // see if we already built a shared replacement for it
+        Expression replacement = expressionReplacements.get(expression);
+        if (replacement == null) {
+            Function duplicated = (Function) super.visit(expression, extraData);
+            replacement = new MemoizedFunction(duplicated);
+            expressionReplacements.put(expression, replacement);
+        }
+        memoizedCount++;
 
         return replacement;
     }
 
+    /** Returns true if the function repeats and can be replaced by a {@link MemoizedFunction} */
+    boolean isMemoizable(Function function) {
+        if (!memoizeCandidates.contains(function)) {
+            return false;
+        }
+        FilterMemoizer.MemoizableExpressionChecker checker =
+                new FilterMemoizer.MemoizableExpressionChecker();
+        function.accept(checker, null);
+        return checker.memoizable;
+    }
+
     @Override
     public Object visit(PropertyName expression, Object extraData) {
         Expression replacement = expressionReplacements.get(expression);
@@ -243,10 +284,23 @@ class MemoryFilterOptimizer extends DuplicatingFilterVisitor {
 
             expressionReplacements.put(expression, replacement);
         }
+        if (replacement instanceof MemoizedPropertyName) {
+            memoizedCount++;
+        }
 
         return replacement;
     }
 
+    /**
+     * Returns true if the optimized copy of the filter contains memoized nodes, shared with other
+     * filters or symbolizers
+     */
+    boolean isMemoized(Filter filter) {
+        int count = memoizedCount;
+        filter.accept(this, null);
+        return memoizedCount > count;
+    }
+
     /** Executes a straigth index access instead of a lookup by name when possible */
     static class IndexPropertyName implements PropertyName {
 
@@ -371,4 +425,106 @@ class MemoryFilterOptimizer extends DuplicatingFilterVisitor {
             return delegate.accept(visitor, extraData);
         }
     }
+
+    /**
+     * Evaluates the function once per feature, keeping the results of the last feature in a slot
+     * shared by all the filters and symbolizers referring to it. Results are kept separately for
+     * each target type, as functions can return different values depending on it (e.g., colors out
+     * of an interpolation). The slot is replaced atomically, so the function can be evaluated from
+     * multiple threads.
+     */
+    static class MemoizedFunction implements Function {
+        final Function delegate;
+
+        volatile Slot slot = new Slot(NULL_PLACEHOLDER, new Class[0], new Object[0]);
+
+        public MemoizedFunction(Function delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public FunctionName getFunctionName() {
+            return delegate.getFunctionName();
+        }
+
+        @Override
+        public List<Expression> getParameters() {
+            return delegate.getParameters();
+        }
+
+        @Override
+        public Literal getFallbackValue() {
+            return delegate.getFallbackValue();
+        }
+
+        @Override
+        public Object evaluate(Object object) {
+            return evaluate(object, null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T evaluate(Object object, Class<T> context) {
+            Slot current = slot;
+            if (current.feature == object) {
+                for (int i = 0; i < current.contexts.length; i++) {
+                    if (current.contexts[i] == context) {
+                        return (T) current.values[i];
+                    }
+                }
+            }
+            T result =
+                    context == null
+                            ? (T) delegate.evaluate(object)
+                            : delegate.evaluate(object, context);
+            slot =
+                    current.feature == object
+                            ? current.add(context, result)
+                            : new Slot(object, context, result);
+            return result;
+        }
+
+        @Override
+        public Object accept(ExpressionVisitor visitor, Object extraData) {
+            return delegate.accept(visitor, extraData);
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    /** The results of a function evaluation for a given feature, by target type */
+    static final class Slot {
+        final Object feature;
+
+        final Class<?>[] contexts;
+
+        final Object[] values;
+
+        Slot(Object feature, Class<?>[] contexts, Object[] values) {
+            this.feature = feature;
+            this.contexts = contexts;
+            this.values = values;
+        }
+
+        Slot(Object feature, Class<?> context, Object value) {
+            this(feature, new Class<?>[] {context}, new Object[] {value});
+        }
+
+        Slot add(Class<?> context, Object value) {
+            int n = contexts.length;
+            Class<?>[] newContexts = Arrays.copyOf(contexts, n + 1);
+            Object[] newValues = Arrays.copyOf(values, n + 1);
+            newContexts[n] = context;
+            newValues[n] = value;
+            return new Slot(feature, newContexts, newValues);
+        }
+    }
 }
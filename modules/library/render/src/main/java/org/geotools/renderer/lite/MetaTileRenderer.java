@@ -0,0 +1,403 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.CRS;
+import org.geotools.renderer.label.LabelCacheImpl;
+
+/**
+ * Renders a block of tiles, a meta tile, in a single {@link StreamingRenderer} pass, and then
+ * slices and encodes the single tiles in parallel.
+ *
+ * <p>Compared to rendering each tile on its own, the data is read, and the styles prepared, once
+ * per meta tile instead of once per tile, the screen maps are shared by all the tiles, and the
+ * labels go through a single conflict resolution pass, so they are not cut or duplicated at the
+ * boundaries between tiles of the same meta tile.
+ *
+ * <p>The meta tile can be surrounded by a gutter, an extra area rendered around it and then
+ * discarded, so that symbols of features sitting just outside the meta tile are painted in the
+ * border tiles too. The gutter is reserved in the label cache, labels are placed only when fully
+ * contained in the meta tile, and hence never cut at the meta tile boundaries either.
+ *
+ * <p>The renderer label cache is replaced by a {@link LabelCacheImpl} owned by this object, and
+ * reused across meta tiles. Instances of this class are not thread safe, like the wrapped renderer.
+ */
+public class MetaTileRenderer {
+
+    /**
+     * Encodes a single tile
+     *
+     * @param <T> The encoded tile type
+     */
+    public interface TileEncoder<T> {
+
+        /**
+         * Encodes the tile image. The image shares its raster with the meta tile, and must not be
+         * modified.
+         */
+        T encode(BufferedImage tile) throws IOException;
+    }
+
+    /**
+     * A single encoded tile
+     *
+     * @param <T> The encoded tile type
+     */
+    public static class Tile<T> {
+        final int column;
+
+        final int row;
+
+        final T data;
+
+        final long encodingTime;
+
+        Tile(int column, int row, T data, long encodingTime) {
+            this.column = column;
+            this.row = row;
+            this.data = data;
+            this.encodingTime = encodingTime;
+        }
+
+        /** The tile column in the meta tile, zero based, from left to right */
+        public int getColumn() {
+            return column;
+        }
+
+        /** The tile row in the meta tile, zero based, from top to bottom */
+        public int getRow() {
+            return row;
+        }
+
+        /** The encoded tile */
+        public T getData() {
+            return data;
+        }
+
+        /** The time spent slicing and encoding this tile, in nanoseconds */
+        public long getEncodingTime() {
+            return encodingTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Tile[column=" + column + ", row=" + row + "]";
+        }
+    }
+
+    /**
+     * The outcome of a meta tile rendering
+     *
+     * @param <T> The encoded tile type
+     */
+    public static class MetaTile<T> {
+        final List<Tile<T>> tiles;
+
+        final long renderingTime;
+
+        MetaTile(List<Tile<T>> tiles, long renderingTime) {
+            this.tiles = Collections.unmodifiableList(tiles);
+            this.renderingTime = renderingTime;
+        }
+
+        /** The tiles, row by row, from the top left one */
+        public List<Tile<T>> getTiles() {
+            return tiles;
+        }
+
+        /** Returns the tile at the specified position */
+        public Tile<T> getTile(int column, int row) {
+            for (Tile<T> tile : tiles) {
+                if (tile.column == column && tile.row == row) {
+                    return tile;
+                }
+            }
+            throw new IllegalArgumentException("No tile at column " + column + ", row " + row);
+        }
+
+        /** The time spent rendering the whole meta tile, in nanoseconds */
+        public long getRenderingTime() {
+            return renderingTime;
+        }
+
+        /** The time spent encoding all the tiles, in nanoseconds */
+        public long getEncodingTime() {
+            long total = 0;
+            for (Tile<T> tile : tiles) {
+                total += tile.encodingTime;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * The pool encoding the tiles when none is set, shared by all the meta tile renderers, and
+     * created on first use. Bounded to the number of processors, the encoders might block on I/O.
+     */
+    static final class DefaultPool {
+        static final ExecutorService INSTANCE =
+                Executors.newFixedThreadPool(
+                        Runtime.getRuntime().availableProcessors(),
+                        new ThreadFactory() {
+                            final AtomicInteger count = new AtomicInteger();
+
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread t =
+                                        new Thread(
+                                                r, "Meta tile encoder " + count.incrementAndGet());
+                                t.setDaemon(true);
+                                return t;
+                            }
+                        });
+    }
+
+    final StreamingRenderer renderer;
+
+    final int tileSize;
+
+    final int columns;
+
+    final int rows;
+
+    final int gutter;
+
+    final LabelCacheImpl labelCache = new LabelCacheImpl();
+
+    int imageType = BufferedImage.TYPE_INT_ARGB;
+
+    Color background;
+
+    ExecutorService threadPool;
+
+    /**
+     * Builds a new meta tile renderer
+     *
+     * @param renderer The renderer, already configured with the map content and its hints
+     * @param tileSize The size of the tiles, in pixels
+     * @param columns The number of tiles in a meta tile row
+     * @param rows The number of tiles in a meta tile column
+     * @param gutter The size in pixels of the area rendered around the meta tile
+     */
+    public MetaTileRenderer(
+            StreamingRenderer renderer, int tileSize, int columns, int rows, int gutter) {
+        if (tileSize <= 0 || columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException(
+                    "Tile size and meta tile factors must be positive, got tile size "
+                            + tileSize
+                            + ", columns "
+                            + columns
+                            + " and rows "
+                            + rows);
+        }
+        if (gutter < 0) {
+            throw new IllegalArgumentException("The gutter cannot be negative: " + gutter);
+        }
+        this.renderer = renderer;
+        this.tileSize = tileSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.gutter = gutter;
+
+        // keep labels out of the gutter, the reserved areas are preserved across renderings
+        if (gutter > 0) {
+            int width = getImageWidth();
+            int height = getImageHeight();
+            labelCache.put(new Rectangle2D.Double(0, 0, width, gutter));
+            labelCache.put(new Rectangle2D.Double(0, height - gutter, width, gutter));
+            labelCache.put(new Rectangle2D.Double(0, 0, gutter, height));
+            labelCache.put(new Rectangle2D.Double(width - gutter, 0, gutter, height));
+        }
+    }
+
+    /** Sets the type of the meta tile image, by default {@link BufferedImage#TYPE_INT_ARGB} */
+    public void setImageType(int imageType) {
+        this.imageType = imageType;
+    }
+
+    /** Sets the color used to fill the meta tile before rendering, none by default */
+    public void setBackground(Color background) {
+        this.background = background;
+    }
+
+    /**
+     * Sets the thread pool used to encode the tiles. If not set, a pool shared by all the meta tile
+     * renderers, with as many threads as processors, is used.
+     */
+    public void setThreadPool(ExecutorService threadPool) {
+        this.threadPool = threadPool;
+    }
+
+    /** The width of the meta tile image, gutter included */
+    int getImageWidth() {
+        return columns * tileSize + 2 * gutter;
+    }
+
+    /** The height of the meta tile image, gutter included */
+    int getImageHeight() {
+        return rows * tileSize + 2 * gutter;
+    }
+
+    /**
+     * Renders the meta tile covering the specified area, and returns its tiles encoded with the
+     * provided encoder
+     *
+     * @param envelope The area covered by the meta tile, gutter excluded
+     * @param encoder The tile encoder, called concurrently by multiple threads
+     */
+    public <T> MetaTile<T> render(ReferencedEnvelope envelope, TileEncoder<T> encoder)
+            throws IOException {
+        long start = System.nanoTime();
+        BufferedImage image = paint(envelope);
+        long renderingTime = System.nanoTime() - start;
+
+        ExecutorService executor = threadPool != null ? threadPool : DefaultPool.INSTANCE;
+        List<Future<Tile<T>>> futures = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int c = column;
+                final int r = row;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    long tileStart = System.nanoTime();
+                                    BufferedImage tile = getTileImage(image, c, r);
+                                    T data = encoder.encode(tile);
+                                    long encodingTime = System.nanoTime() - tileStart;
+                                    return new Tile<>(c, r, data, encodingTime);
+                                }));
+            }
+        }
+
+        List<Tile<T>> tiles = new ArrayList<>(futures.size());
+        try {
+            for (Future<Tile<T>> future : futures) {
+                tiles.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while encoding the tiles", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to encode the tiles", cause);
+        } finally {
+            for (Future<Tile<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return new MetaTile<>(tiles, renderingTime);
+    }
+
+    /** Paints the meta tile, gutter included, in a new image */
+    BufferedImage paint(ReferencedEnvelope envelope) {
+        int width = getImageWidth();
+        int height = getImageHeight();
+        ReferencedEnvelope renderingArea = getRenderingArea(envelope);
+
+        // use the meta tile label cache only for this paint, the caller configuration is restored
+        // afterwards
+        Map<Object, Object> hints = new HashMap<>();
+        Map original = renderer.getRendererHints();
+        LabelCache originalLabelCache = renderer.labelCache;
+        StyledShapePainter originalPainter = renderer.painter;
+        if (original != null) {
+            hints.putAll(original);
+        }
+        hints.put(StreamingRenderer.LABEL_CACHE_KEY, labelCache);
+
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            renderer.setRendererHints(hints);
+            if (background != null) {
+                graphics.setColor(background);
+                graphics.fillRect(0, 0, width, height);
+            }
+            renderer.paint(graphics, new Rectangle(width, height), renderingArea);
+        } finally {
+            graphics.dispose();
+            renderer.setRendererHints(original);
+            renderer.labelCache = originalLabelCache;
+            renderer.painter = originalPainter;
+        }
+        return image;
+    }
+
+    /** Expands the meta tile envelope to include the gutter */
+    ReferencedEnvelope getRenderingArea(ReferencedEnvelope envelope) {
+        if (gutter == 0) {
+            return envelope;
+        }
+        // the image x axis matches the first envelope axis, unless the axis order is north/east
+        boolean northEast =
+                envelope.getCoordinateReferenceSystem() != null
+                        && CRS.getAxisOrder(envelope.getCoordinateReferenceSystem())
+                                == CRS.AxisOrder.NORTH_EAST;
+        double xPixel = gutter / (double) (columns * tileSize);
+        double yPixel = gutter / (double) (rows * tileSize);
+        ReferencedEnvelope result = new ReferencedEnvelope(envelope);
+        if (northEast) {
+            result.expandBy(envelope.getWidth() * yPixel, envelope.getHeight() * xPixel);
+        } else {
+            result.expandBy(envelope.getWidth() * xPixel, envelope.getHeight() * yPixel);
+        }
+        return result;
+    }
+
+    /** Returns the image of a single tile, sharing the raster with the meta tile */
+    BufferedImage getTileImage(BufferedImage metaTile, int column, int row) {
+        return metaTile.getSubimage(
+                gutter + column * tileSize, gutter + row * tileSize, tileSize, tileSize);
+    }
+
+    /**
+     * Returns an encoder writing the tiles with {@link ImageIO} in the specified format, e.g. "png"
+     */
+    public static TileEncoder<byte[]> imageIOEncoder(String format) {
+        return tile -> {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            if (!ImageIO.write(tile, format, bos)) {
+                throw new IOException("No image writer found for format " + format);
+            }
+            return bos.toByteArray();
+        };
+    }
+}
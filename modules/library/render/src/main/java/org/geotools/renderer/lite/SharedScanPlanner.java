@@ -0,0 +1,162 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.coverage.util.FeatureUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.filter.visitor.SimplifyingFilterVisitor;
+import org.geotools.map.DirectLayer;
+import org.geotools.map.Layer;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.util.factory.Hints;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.FeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Plans the shared scan rendering enabled by {@link StreamingRenderer#SHARED_SCAN_KEY}: finds the
+ * adjacent layers reading from the same {@link FeatureSource}, and merges the queries they would
+ * run into a single one.
+ */
+class SharedScanPlanner {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    /**
+     * Returns the layers, starting from the given position, that can be painted out of a single
+     * scan of their feature source. The list always contains the start layer, and has more than one
+     * element only if sharing is possible.
+     *
+     * @param layers The layers being painted
+     * @param start The position of the first layer to be painted
+     */
+    static List<Layer> getSharedScanLayers(List<Layer> layers, int start) {
+        List<Layer> result = new ArrayList<>();
+        Layer first = layers.get(start);
+        result.add(first);
+        if (!isShareable(first)) {
+            return result;
+        }
+
+        FeatureSource source = first.getFeatureSource();
+        for (int i = start + 1; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layer.getFeatureSource() != source || !isShareable(layer)) {
+                break;
+            }
+            result.add(layer);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the layer is a plain vector layer whose features can be read along with other
+     * layers: no rendering transformations, sorting, compositing or paging are allowed, as they
+     * depend on the exact set of features read, or on their order.
+     */
+    static boolean isShareable(Layer layer) {
+        if (!layer.isVisible()
+                || layer instanceof DirectLayer
+                || layer instanceof ZGroupLayer
+                || layer.getFeatureSource() == null
+                || layer.getStyle() == null) {
+            return false;
+        }
+        FeatureType schema = layer.getFeatureSource().getSchema();
+        if (!(schema instanceof SimpleFeatureType)
+                || FeatureUtilities.isWrappedCoverage((SimpleFeatureType) schema)
+                || FeatureUtilities.isWrappedCoverageReader((SimpleFeatureType) schema)) {
+            return false;
+        }
+
+        Query query = layer.getQuery();
+        if (query != null
+                && ((query.getSortBy() != null && query.getSortBy().length > 0)
+                        || query.getMaxFeatures() != Query.DEFAULT_MAX
+                        || query.getStartIndex() != null
+                        || query.getCoordinateSystemReproject() != null
+                        || !query.getHints().isEmpty())) {
+            return false;
+        }
+
+        for (FeatureTypeStyle fts : layer.getStyle().featureTypeStyles()) {
+            Map<String, String> options = fts.getOptions();
+            if (fts.getTransformation() != null
+                    || options.get(FeatureTypeStyle.SORT_BY) != null
+                    || options.get(FeatureTypeStyle.SORT_BY_GROUP) != null
+                    || options.get(FeatureTypeStyle.COMPOSITE) != null
+                    || options.get(FeatureTypeStyle.COMPOSITE_BASE) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges the queries of the layers sharing a scan into one, reading the union of their
+     * attributes, and the features matching any of their filters. The queries are expected to have
+     * been built by the renderer for the same feature source and rendering area, the first one is
+     * used as a template for everything else.
+     */
+    static Query mergeQueries(List<Query> queries) {
+        Query first = queries.get(0);
+        List<Filter> filters = new ArrayList<>();
+        Map<String, PropertyName> properties = new LinkedHashMap<>();
+        boolean allProperties = false;
+        for (Query query : queries) {
+            filters.add(query.getFilter());
+            if (query.getProperties() == Query.ALL_PROPERTIES) {
+                allProperties = true;
+            } else {
+                for (PropertyName pn : query.getProperties()) {
+                    properties.putIfAbsent(pn.getPropertyName(), pn);
+                }
+            }
+        }
+
+        Query result = new Query(first);
+        Filter filter = FF.or(filters);
+        result.setFilter((Filter) filter.accept(new SimplifyingFilterVisitor(), null));
+        result.setProperties(
+                allProperties ? Query.ALL_PROPERTIES : new ArrayList<>(properties.values()));
+        // the screen maps are specific to each feature type style, cannot be shared
+        Hints hints = new Hints(first.getHints());
+        hints.remove(Hints.SCREENMAP);
+        result.setHints(hints);
+        return result;
+    }
+
+    /**
+     * Returns the filter used to pick, among the features read by the merged query, the ones
+     * matching the given layer query
+     */
+    static Filter getDispatchFilter(Query layerQuery, Query mergedQuery) {
+        Filter filter = layerQuery.getFilter();
+        if (filter == null || filter.equals(mergedQuery.getFilter())) {
+            return Filter.INCLUDE;
+        }
+        return filter;
+    }
+}
@@ -72,6 +72,7 @@ import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.FeatureIterator;
 import org.geotools.feature.FeatureTypes;
 import org.geotools.feature.SchemaException;
+import org.geotools.filter.FilterCompiler;
 import org.geotools.filter.IllegalFilterException;
 import org.geotools.filter.function.EnvFunction;
 import org.geotools.filter.function.GeometryTransformationVisitor;
@@ -209,6 +210,21 @@ public class StreamingRenderer implements GTRenderer {
      */
     public static final String RENDERING_BUFFER = "renderingBuffer";
 
+    /**
+     * Integer value, the size in pixels of the tiles used for parallel rendering. When set, and the
+     * paint area is larger than a tile, the area gets split in tiles that are rendered concurrently
+     * in separate images, using the thread pool set with {@link #setThreadPool(ExecutorService)} if
+     * available, and then composited on the target graphics. Labels are collected from all the
+     * tiles and go through a single conflict resolution pass, painted directly on the target
+     * graphics.
+     *
+     * <p>Meant for large raster outputs, as the vector data gets rasterized in the tile images,
+     * it's not applied if the graphics has a transformation other than a translation, or if {@link
+     * #setConcatTransforms(boolean)} is enabled. Render listeners might be called by multiple
+     * threads, once per tile a feature is painted into.
+     */
+    public static final String PARALLEL_TILE_SIZE_KEY = "parallelTileSize";
+
     /** Tolerance used to compare doubles for equality */
     private static final double TOLERANCE = 1e-6;
 
@@ -346,6 +362,25 @@ public class StreamingRenderer implements GTRenderer {
      */
     public static final String OPTIMIZE_FTS_RENDERING_KEY = "optimizeFTSRendering";
 
+    /**
+     * Boolean flag, disabled by default. When enabled, adjacent layers reading from the same
+     * feature source are painted out of a single scan: the renderer issues one query with the union
+     * of the attributes and filters of the layers, and dispatches each feature to the layers it
+     * matches.
+     *
+     * <p>The paint order is preserved by rendering all the feature type styles past the first one
+     * in memory back buffers, like {@link #OPTIMIZE_FTS_RENDERING_KEY} does. Layers using rendering
+     * transformations, sorting, compositing or paging in their query are always read on their own.
+     */
+    public static final String SHARED_SCAN_KEY = "sharedScan";
+
+    /**
+     * An {@link ExecutorService} used by {@link LabelCacheImpl} to lay out the labels in parallel
+     * before the conflict resolution. When missing, the labels are laid out sequentially while
+     * painting. The executor is shared among maps and not shut down by the renderer.
+     */
+    public static final String LABEL_PREPARATION_EXECUTOR_KEY = "labelPreparationExecutor";
+
     /**
      * Enables advanced reprojection handling. Geometries will be sliced to fit into the area of
      * definition of the rendering projection.
@@ -425,6 +460,12 @@ public class StreamingRenderer implements GTRenderer {
 
     private PainterThread painterThread;
 
+    /** The tiled painter, if a parallel tiled rendering is in progress */
+    private volatile TiledPainter tiledPainter;
+
+    /** Receives the feature shapes in place of the painter, if set */
+    private ShapeCollector shapeCollector;
+
     private static int MAX_PIXELS_DENSIFY =
             Integer.valueOf(System.getProperty("ADVANCED_PROJECTION_DENSIFY_MAX_PIXELS", "5"));
 
@@ -504,7 +545,7 @@ public class StreamingRenderer implements GTRenderer {
         }
     }
 
-    private void fireErrorEvent(Throwable t) {
+    void fireErrorEvent(Throwable t) {
         LOGGER.log(Level.SEVERE, t.getLocalizedMessage(), t);
         if (renderListeners.size() > 0) {
             Exception e;
@@ -527,18 +568,27 @@ public class StreamingRenderer implements GTRenderer {
      */
     public void stopRendering() {
         renderingStopRequested = true;
-        // un-block the queue in case it was filled with requests and the main
-        // thread got blocked on it
-        requests.clear();
-        // wake up the painter and put a death pill in the queue
-        painterThread.interrupt();
-        try {
-            requests.put(new EndRequest());
-        } catch (InterruptedException e) {
-            throw new RuntimeException(
-                    "Interrupted while trying to put the end "
-                            + "request in the requests queue, this should never happen",
-                    e);
+        TiledPainter tiled = this.tiledPainter;
+        if (tiled != null) {
+            tiled.stop();
+            labelCache.stop();
+            return;
+        }
+        // nothing to do if painting did not start yet
+        if (requests != null && painterThread != null) {
+            // un-block the queue in case it was filled with requests and the main
+            // thread got blocked on it
+            requests.clear();
+            // wake up the painter and put a death pill in the queue
+            painterThread.interrupt();
+            try {
+                requests.put(new EndRequest());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(
+                        "Interrupted while trying to put the end "
+                                + "request in the requests queue, this should never happen",
+                        e);
+            }
         }
 
         labelCache.stop();
@@ -655,7 +705,7 @@ public class StreamingRenderer implements GTRenderer {
                 worldToScreen);
     }
 
-    private double computeScale(
+    double computeScale(
             ReferencedEnvelope envelope,
             Rectangle paintArea,
             AffineTransform worldToScreen,
@@ -714,6 +764,26 @@ public class StreamingRenderer implements GTRenderer {
             if (worldToScreen == null) return;
         }
 
+        // large areas can be split in tiles and rendered in parallel
+        int tileSize = getParallelTileSize();
+        if (tileSize > 0
+                && (paintArea.width > tileSize || paintArea.height > tileSize)
+                && !concatTransforms
+                && (graphics.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+            if (mapContent == null) {
+                throw new IllegalStateException(
+                        "Cannot call paint, you did not set a MapContent in this renderer");
+            }
+            TiledPainter tiled = new TiledPainter(this, tileSize);
+            tiledPainter = tiled;
+            try {
+                tiled.paint(graphics, paintArea, mapArea, worldToScreen);
+            } finally {
+                tiledPainter = null;
+            }
+            return;
+        }
+
         CoordinateReferenceSystem mapCRS = mapArea.getCoordinateReferenceSystem();
         if (CRS.getAxisOrder(mapCRS) == CRS.AxisOrder.NORTH_EAST) {
             try {
@@ -852,9 +922,39 @@ public class StreamingRenderer implements GTRenderer {
                     ((LabelCacheImpl) labelCache)
                             .setLabelRenderingMode(
                                     LabelRenderingMode.valueOf(getTextRenderingMethod()));
+                    ((LabelCacheImpl) labelCache)
+                            .setPreparationExecutor(getLabelPreparationExecutor());
                 }
 
-                for (Layer layer : currentMapContent.layers()) {
+                List<Layer> layers = currentMapContent.layers();
+                for (int i = 0; i < layers.size(); i++) {
+                    Layer layer = layers.get(i);
+                    if (isSharedScanEnabled()) {
+                        List<Layer> shared = SharedScanPlanner.getSharedScanLayers(layers, i);
+                        if (shared.size() > 1) {
+                            if (renderingStopRequested) {
+                                return;
+                            }
+                            List<String> layerIds = new ArrayList<>();
+                            for (int j = 0; j < shared.size(); j++) {
+                                layerCounter++;
+                                String layerId = String.valueOf(layerCounter);
+                                layerIds.add(layerId);
+                                labelCache.startLayer(layerId);
+                            }
+                            try {
+                                processSharedScan(compositingGraphic, shared, layerIds);
+                            } catch (Throwable t) {
+                                fireErrorEvent(t);
+                            }
+                            for (String layerId : layerIds) {
+                                labelCache.endLayer(layerId, graphics, screenSize);
+                            }
+                            i += shared.size() - 1;
+                            continue;
+                        }
+                    }
+
                     layerCounter++;
                     String layerId = String.valueOf(layerCounter);
                     if (!layer.isVisible()) {
@@ -1604,6 +1704,26 @@ public class StreamingRenderer implements GTRenderer {
         return Boolean.TRUE.equals(result);
     }
 
+    /** Returns the executor to be used for the parallel label preparation, if any */
+    ExecutorService getLabelPreparationExecutor() {
+        if (rendererHints == null) return null;
+        Object result = rendererHints.get(LABEL_PREPARATION_EXECUTOR_KEY);
+        if (result instanceof ExecutorService) return (ExecutorService) result;
+        return null;
+    }
+
+    /**
+     * Checks if layers reading from the same feature source should share a single scan
+     *
+     * @return true if the {@link #SHARED_SCAN_KEY} hint is set to true, false otherwise
+     */
+    private boolean isSharedScanEnabled() {
+        if (rendererHints == null) return false;
+        Object result = rendererHints.get(SHARED_SCAN_KEY);
+        if (result == null) return false;
+        return Boolean.TRUE.equals(result);
+    }
+
     /**
      * Checks if the advanced projection handling is enabled
      *
@@ -2158,39 +2278,233 @@ public class StreamingRenderer implements GTRenderer {
             }
 
             // optimize filters for in memory sequential execution
-            // step one, collect duplicated filters and expressions
-            RepeatedFilterVisitor repeatedVisitor = new RepeatedFilterVisitor();
-            uniformLfts
-                    .stream()
-                    .flatMap(fts -> Arrays.stream(fts.ruleList))
-                    .filter(r -> !r.isElseFilter() && r.getFilter() != null)
-                    .forEach(r -> r.getFilter().accept(repeatedVisitor, null));
-            Set<Object> repeatedObjects = repeatedVisitor.getRepeatedObjects();
-            // step two, memoize the repeated ones and convert simple features access to indexed
-            if (schema instanceof SimpleFeatureType || !repeatedObjects.isEmpty()) {
-                MemoryFilterOptimizer filterOptimizer =
-                        new MemoryFilterOptimizer(features.getSchema(), repeatedObjects);
-                for (LiteFeatureTypeStyle fts : uniformLfts) {
-                    for (int i = 0; i < fts.ruleList.length; i++) {
-                        Rule rule = fts.ruleList[i];
+            optimizeRuleFilters(schema, features.getSchema(), uniformLfts);
+
+            // finally, perform rendering
+            if (isOptimizedFTSRenderingEnabled() && lfts.size() > 1) {
+                drawOptimized(graphics, layerId, features, uniformLfts);
+            } else {
+                drawPlain(graphics, layerId, features, uniformLfts);
+            }
+        }
+    }
+
+    /**
+     * Optimizes the rule filters and symbolizers of the given styles for in memory sequential
+     * execution. Filters and functions repeated across all the rules, either in filters or in
+     * symbolizers, are evaluated once per feature and their results shared
+     */
+    private void optimizeRuleFilters(
+            FeatureType schema, FeatureType featuresSchema, List<LiteFeatureTypeStyle> lfts) {
+        // step one, collect duplicated filters and expressions, in both filters and symbolizers
+        RepeatedFilterVisitor repeatedVisitor = new RepeatedFilterVisitor();
+        DuplicatingStyleVisitor collector =
+                new DuplicatingStyleVisitor(STYLE_FACTORY, filterFactory) {
+                    @Override
+                    protected Expression copy(Expression expression) {
+                        if (expression != null) {
+                            expression.accept(repeatedVisitor, null);
+                        }
+                        return expression;
+                    }
+
+                    @Override
+                    protected Filter copy(Filter filter) {
+                        if (filter != null) {
+                            filter.accept(repeatedVisitor, null);
+                        }
+                        return filter;
+                    }
+                };
+        lfts.stream()
+                .flatMap(
+                        fts ->
+                                Stream.concat(
+                                        Arrays.stream(fts.ruleList), Arrays.stream(fts.elseRules)))
+                .forEach(r -> r.accept(collector));
+        Set<Object> repeatedObjects = repeatedVisitor.getRepeatedObjects();
+        // step two, memoize the repeated ones and convert simple features access to indexed
+        if (schema instanceof SimpleFeatureType || !repeatedObjects.isEmpty()) {
+            MemoryFilterOptimizer filterOptimizer =
+                    new MemoryFilterOptimizer(featuresSchema, repeatedObjects);
+            for (LiteFeatureTypeStyle fts : lfts) {
+                for (Rule[] rules : new Rule[][] {fts.ruleList, fts.elseRules}) {
+                    for (int i = 0; i < rules.length; i++) {
+                        Rule rule = rules[i];
                         DuplicatingStyleVisitor optimizingStyleVisitor =
                                 new DuplicatingStyleVisitor(
                                         STYLE_FACTORY, filterFactory, filterOptimizer);
                         rule.accept(optimizingStyleVisitor);
-                        fts.ruleList[i] = (Rule) optimizingStyleVisitor.getCopy();
+                        Rule copy = (Rule) optimizingStyleVisitor.getCopy();
+                        compileRuleFilter(rule, copy, featuresSchema, filterOptimizer);
+                        rules[i] = copy;
                     }
                 }
             }
+        }
+    }
 
-            // finally, perform rendering
-            if (isOptimizedFTSRenderingEnabled() && lfts.size() > 1) {
-                drawOptimized(graphics, layerId, features, uniformLfts);
-            } else {
-                drawPlain(graphics, layerId, features, uniformLfts);
+    /**
+     * Replaces the filter of the optimized rule with a compiled version of the original one, when
+     * the features are simple and the filter can be compiled. The compiled filter resolves the
+     * attributes by position on its own, and avoids the conversions the interpreted filters perform
+     * on each evaluation. Filters whose optimized copy holds memoized nodes, like the functions
+     * shared with other rules, are left alone, the compiled version would evaluate them again.
+     */
+    private void compileRuleFilter(
+            Rule original,
+            Rule copy,
+            FeatureType featuresSchema,
+            MemoryFilterOptimizer filterOptimizer) {
+        Filter filter = original.getFilter();
+        if (!(featuresSchema instanceof SimpleFeatureType)
+                || original.isElseFilter()
+                || filter == null
+                || filterOptimizer.isMemoized(filter)) {
+            return;
+        }
+        Filter compiled = FilterCompiler.compile(filter, (SimpleFeatureType) featuresSchema);
+        if (compiled != filter) {
+            copy.setFilter(compiled);
+        }
+    }
+
+    /**
+     * Paints layers reading from the same feature source out of a single scan, see {@link
+     * #SHARED_SCAN_KEY}. Each feature read is dispatched to the layers whose own query it matches.
+     *
+     * @param graphics Target graphics for rendering
+     * @param layers The layers sharing the scan, in paint order
+     * @param layerIds Handles used to identify the layers in the {@link LabelCache}
+     * @throws Exception
+     */
+    private void processSharedScan(
+            final Graphics2D graphics, final List<Layer> layers, List<String> layerIds)
+            throws Exception {
+        final FeatureSource featureSource = layers.get(0).getFeatureSource();
+        final FeatureType schema = featureSource.getSchema();
+
+        List<Layer> paintedLayers = new ArrayList<>();
+        List<String> paintedIds = new ArrayList<>();
+        List<List<LiteFeatureTypeStyle>> layerStyles = new ArrayList<>();
+        List<LiteFeatureTypeStyle> allStyles = new ArrayList<>();
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            ArrayList<LiteFeatureTypeStyle> lfts =
+                    createLiteFeatureTypeStyles(layer, graphics, true);
+            if (lfts.isEmpty()) {
+                continue;
+            }
+            // only the very first feature type style paints straight on the graphics,
+            // the others go in back buffers merged in order at the end
+            if (!allStyles.isEmpty()) {
+                lfts.get(0).graphics = new DelayedBackbufferGraphic(graphics, screenSize);
             }
+            paintedLayers.add(layer);
+            paintedIds.add(layerIds.get(i));
+            layerStyles.add(lfts);
+            allStyles.addAll(lfts);
+        }
+        if (paintedLayers.isEmpty()) {
+            return;
+        } else if (paintedLayers.size() == 1) {
+            // nothing to share at this scale
+            processStylers(graphics, paintedLayers.get(0), paintedIds.get(0));
+            return;
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(
+                    "Processing "
+                            + paintedLayers.size()
+                            + " layers with a shared scan of "
+                            + schema.getName());
+        }
+
+        // build the layer queries, and merge them in one
+        List<Query> queries = new ArrayList<>();
+        for (int i = 0; i < paintedLayers.size(); i++) {
+            queries.add(getLayerQuery(paintedLayers.get(i), schema, layerStyles.get(i)));
+        }
+        Query query = SharedScanPlanner.mergeQueries(queries);
+        FeatureCollection features = featureSource.getFeatures(query);
+        features =
+                RendererUtilities.fixFeatureCollectionReferencing(features, getSourceCrs(schema));
+        optimizeRuleFilters(schema, features.getSchema(), allStyles);
+
+        // the same feature can be painted by multiple layers, each one transforming
+        // the geometries, so cloning is always required
+        Filter[] dispatchFilters = new Filter[paintedLayers.size()];
+        RenderableFeature[] renderables = new RenderableFeature[paintedLayers.size()];
+        for (int i = 0; i < dispatchFilters.length; i++) {
+            dispatchFilters[i] = SharedScanPlanner.getDispatchFilter(queries.get(i), query);
+            renderables[i] = createRenderableFeature(paintedIds.get(i), true);
+        }
+        try (FeatureIterator<?> iterator = features.features()) {
+            while (iterator.hasNext() && !renderingStopRequested) {
+                Feature feature = iterator.next();
+                for (int i = 0; i < dispatchFilters.length; i++) {
+                    Filter filter = dispatchFilters[i];
+                    if (filter == Filter.INCLUDE || filter.evaluate(feature)) {
+                        RenderableFeature rf = renderables[i];
+                        rf.setFeature(feature);
+                        for (LiteFeatureTypeStyle liteFeatureTypeStyle : layerStyles.get(i)) {
+                            processFeature(rf, liteFeatureTypeStyle);
+                        }
+                    }
+                }
+            }
+            // submit the merge request
+            requests.put(new MergeLayersRequest(graphics, allStyles));
+        } catch (InterruptedException e) {
+            fireErrorEvent(e);
         }
     }
 
+    /**
+     * Builds the query reading the features of a layer that has no rendering transformation, mixing
+     * the layer definition query with the one derived from the styles
+     */
+    Query getLayerQuery(Layer layer, FeatureType schema, List<LiteFeatureTypeStyle> lfts)
+            throws IOException, FactoryException {
+        final FeatureSource featureSource = layer.getFeatureSource();
+        final CoordinateReferenceSystem sourceCrs = getSourceCrs(schema);
+        Query styleQuery =
+                getStyleQuery(
+                        layer,
+                        lfts,
+                        mapExtent,
+                        destinationCrs,
+                        sourceCrs,
+                        screenSize,
+                        schema.getGeometryDescriptor(),
+                        worldToScreenTransform,
+                        false);
+        Query definitionQuery = getDefinitionQuery(layer, featureSource, sourceCrs);
+        return mixQueries(featureSource, definitionQuery, styleQuery);
+    }
+
+    /** Returns the native CRS of the default geometry, if any */
+    private CoordinateReferenceSystem getSourceCrs(FeatureType schema) {
+        final GeometryDescriptor geometryAttribute = schema.getGeometryDescriptor();
+        if (geometryAttribute != null && geometryAttribute.getType() != null) {
+            return geometryAttribute.getType().getCoordinateReferenceSystem();
+        } else {
+            return null;
+        }
+    }
+
+    private Query mixQueries(FeatureSource featureSource, Query definitionQuery, Query styleQuery) {
+        Query mixed = DataUtilities.mixQueries(definitionQuery, styleQuery, null);
+        // mix the sort by, the style query takes precedence
+        if (styleQuery.getSortBy() != null) {
+            mixed.setSortBy(styleQuery.getSortBy());
+        } else {
+            mixed.setSortBy(definitionQuery.getSortBy());
+        }
+        checkAttributeExistence(featureSource.getSchema(), mixed);
+        return mixed;
+    }
+
     FeatureCollection getFeatures(
             final Layer layer,
             final FeatureType schema,
@@ -2201,13 +2515,8 @@ public class StreamingRenderer implements GTRenderer {
         Expression transform = featureTypeStyles.get(0).transformation;
 
         // grab the source crs and geometry attribute
-        final CoordinateReferenceSystem sourceCrs;
+        final CoordinateReferenceSystem sourceCrs = getSourceCrs(schema);
         final GeometryDescriptor geometryAttribute = schema.getGeometryDescriptor();
-        if (geometryAttribute != null && geometryAttribute.getType() != null) {
-            sourceCrs = geometryAttribute.getType().getCoordinateReferenceSystem();
-        } else {
-            sourceCrs = null;
-        }
 
         // ... assume we have to do the generalization, the query layer process will
         // turn down the flag if we don't
@@ -2291,14 +2600,7 @@ public class StreamingRenderer implements GTRenderer {
                                 + result.getClass());
             }
         } else {
-            Query mixed = DataUtilities.mixQueries(definitionQuery, styleQuery, null);
-            // mix the sort by, the style query takes precedence
-            if (styleQuery.getSortBy() != null) {
-                mixed.setSortBy(styleQuery.getSortBy());
-            } else {
-                mixed.setSortBy(definitionQuery.getSortBy());
-            }
-            checkAttributeExistence(featureSource.getSchema(), mixed);
+            Query mixed = mixQueries(featureSource, definitionQuery, styleQuery);
             features = featureSource.getFeatures(mixed);
             features = RendererUtilities.fixFeatureCollectionReferencing(features, sourceCrs);
         }
@@ -2838,6 +3140,19 @@ public class StreamingRenderer implements GTRenderer {
 
         for (Symbolizer symbolizer : symbolizers) {
 
+            // shapes are collected rather than painted, raster data has no place in there
+            if (shapeCollector != null) {
+                if (symbolizer instanceof RasterSymbolizer) {
+                    continue;
+                }
+                LiteShape2 shape = drawMe.getShape(symbolizer, worldToScreenTransform);
+                if (shape != null) {
+                    shapeCollector.collect(drawMe.layer, drawMe.feature, symbolizer, shape);
+                    paintCommands++;
+                }
+                continue;
+            }
+
             // /////////////////////////////////////////////////////////////////
             //
             // RASTER
@@ -3138,6 +3453,14 @@ public class StreamingRenderer implements GTRenderer {
         return result.intValue();
     }
 
+    /** Returns the size of the tiles used for parallel rendering, or 0 if disabled */
+    private int getParallelTileSize() {
+        if (rendererHints == null) return 0;
+        Number result = (Number) rendererHints.get(PARALLEL_TILE_SIZE_KEY);
+        if (result == null) return 0;
+        return result.intValue();
+    }
+
     /** Returns scale computation algorithm to be used. */
     private String getScaleComputationMethod() {
         if (rendererHints == null) return scaleComputationMethodDEFAULT;
@@ -3147,7 +3470,7 @@ public class StreamingRenderer implements GTRenderer {
     }
 
     /** Returns the text rendering method */
-    private String getTextRenderingMethod() {
+    String getTextRenderingMethod() {
         if (rendererHints == null) return textRenderingModeDEFAULT;
         String result = (String) rendererHints.get(TEXT_RENDERING_KEY);
         if (result == null) return textRenderingModeDEFAULT;
@@ -3221,6 +3544,33 @@ public class StreamingRenderer implements GTRenderer {
         return rendererHints;
     }
 
+    /**
+     * Creates the renderer used to paint a single tile during parallel tiled rendering, see {@link
+     * #PARALLEL_TILE_SIZE_KEY}. The caller takes care of copying over the renderer configuration,
+     * subclasses can override to return a specialized renderer.
+     */
+    protected StreamingRenderer createTileRenderer() {
+        return new StreamingRenderer();
+    }
+
+    /**
+     * Sets a collector receiving the feature shapes, in screen space, after reprojection,
+     * generalization and screen map filtering, instead of painting them. Raster data is skipped.
+     */
+    void setShapeCollector(ShapeCollector shapeCollector) {
+        this.shapeCollector = shapeCollector;
+    }
+
+    /** Returns the thread pool used for parallel rendering, if any */
+    ExecutorService getThreadPool() {
+        return threadPool;
+    }
+
+    /** Returns the registered render listeners */
+    List<RenderListener> getRenderListeners() {
+        return renderListeners;
+    }
+
     public void setMapContent(MapContent mapContent) {
         this.mapContent = mapContent;
     }
@@ -3516,6 +3866,21 @@ public class StreamingRenderer implements GTRenderer {
         }
     }
 
+    /** Receives the feature shapes in place of the painter, see {@link #setShapeCollector} */
+    interface ShapeCollector {
+
+        /**
+         * Collects a shape
+         *
+         * @param layer The layer being rendered
+         * @param feature The feature the shape comes from
+         * @param symbolizer The symbolizer that would have painted the shape
+         * @param shape The shape, in screen space
+         */
+        void collect(Layer layer, Feature feature, Symbolizer symbolizer, LiteShape2 shape)
+                throws Exception;
+    }
+
     /**
      * A request sent to the painting thread
      *
@@ -3601,6 +3966,10 @@ public class StreamingRenderer implements GTRenderer {
 
         @Override
         void execute() {
+            // nothing got painted while collecting shapes
+            if (shapeCollector != null) {
+                return;
+            }
             if (graphics instanceof DelayedBackbufferGraphic) {
                 ((DelayedBackbufferGraphic) graphics).init();
             }
@@ -0,0 +1,458 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+import org.geotools.renderer.RenderListener;
+import org.geotools.renderer.label.LabelCacheImpl;
+import org.geotools.renderer.label.LabelCacheImpl.LabelRenderingMode;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.util.NumberRange;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.identity.FeatureId;
+
+/**
+ * Paints a map for a {@link StreamingRenderer} by splitting the paint area in tiles, rendering each
+ * one concurrently with its own renderer, graphics and screen maps, and then compositing the tile
+ * images on the target graphics, see {@link StreamingRenderer#PARALLEL_TILE_SIZE_KEY}.
+ *
+ * <p>The tile renderers do not paint labels, they collect them instead, the labels are then fed to
+ * the label cache of the main renderer, layer by layer, and tile by tile, and painted in a single
+ * conflict resolution pass. The features crossing multiple tiles are labelled only once.
+ */
+class TiledPainter {
+
+    static final Logger LOGGER = Logging.getLogger(TiledPainter.class);
+
+    final StreamingRenderer renderer;
+
+    final int tileSize;
+
+    final List<StreamingRenderer> tileRenderers = new CopyOnWriteArrayList<>();
+
+    volatile boolean stopped;
+
+    TiledPainter(StreamingRenderer renderer, int tileSize) {
+        this.renderer = renderer;
+        this.tileSize = tileSize;
+    }
+
+    /** Stops the tile renderers */
+    void stop() {
+        stopped = true;
+        for (StreamingRenderer tileRenderer : tileRenderers) {
+            tileRenderer.stopRendering();
+        }
+    }
+
+    /**
+     * Paints the map on the graphics, with the same semantics as {@link
+     * StreamingRenderer#paint(Graphics2D, Rectangle, ReferencedEnvelope, AffineTransform)}
+     */
+    void paint(
+            Graphics2D graphics,
+            Rectangle paintArea,
+            ReferencedEnvelope mapArea,
+            AffineTransform worldToScreen) {
+        RenderingHints java2dHints = renderer.getJava2DHints();
+        if (java2dHints != null) graphics.setRenderingHints(java2dHints);
+        RenderingHints tileHints = (RenderingHints) graphics.getRenderingHints().clone();
+        Map<Object, Object> rendererHints = getTileRendererHints(mapArea, paintArea, worldToScreen);
+
+        List<Rectangle> tiles = getTiles(paintArea);
+        ExecutorService executor = renderer.getThreadPool();
+        boolean localPool = false;
+        if (executor == null) {
+            int threads = Math.min(tiles.size(), Runtime.getRuntime().availableProcessors());
+            executor = Executors.newFixedThreadPool(threads);
+            localPool = true;
+        }
+        List<Future<TileResult>> futures = new ArrayList<>();
+        List<TileResult> results = new ArrayList<>();
+        Shape previousClip = graphics.getClip();
+        try {
+            try {
+                for (Rectangle tile : tiles) {
+                    futures.add(
+                            executor.submit(
+                                    () ->
+                                            paintTile(
+                                                    tile,
+                                                    mapArea,
+                                                    worldToScreen,
+                                                    tileHints,
+                                                    rendererHints)));
+                }
+
+                // composite the tiles in the target graphics as they become available
+                graphics.clip(paintArea);
+                for (Future<TileResult> future : futures) {
+                    try {
+                        TileResult result = future.get();
+                        if (result != null && !stopped) {
+                            graphics.drawImage(result.image, result.tile.x, result.tile.y, null);
+                            result.image = null;
+                            results.add(result);
+                        }
+                    } catch (ExecutionException e) {
+                        renderer.fireErrorEvent(e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                stop();
+                renderer.fireErrorEvent(e);
+            } finally {
+                if (stopped) {
+                    for (Future<TileResult> future : futures) {
+                        future.cancel(true);
+                    }
+                }
+                if (localPool) {
+                    executor.shutdown();
+                }
+            }
+
+            LabelCache labelCache = renderer.labelCache;
+            if (!stopped) {
+                paintLabels(labelCache, graphics, paintArea, results);
+            } else {
+                labelCache.clear();
+            }
+        } finally {
+            graphics.setClip(previousClip);
+        }
+    }
+
+    /** Splits the paint area in tiles, row by row */
+    List<Rectangle> getTiles(Rectangle paintArea) {
+        List<Rectangle> tiles = new ArrayList<>();
+        for (int y = paintArea.y; y < paintArea.y + paintArea.height; y += tileSize) {
+            for (int x = paintArea.x; x < paintArea.x + paintArea.width; x += tileSize) {
+                int width = Math.min(tileSize, paintArea.x + paintArea.width - x);
+                int height = Math.min(tileSize, paintArea.y + paintArea.height - y);
+                tiles.add(new Rectangle(x, y, width, height));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Copies the renderer hints for the tiles, making sure the tiles are not split again, and that
+     * the scale denominator does not vary among tiles
+     */
+    Map<Object, Object> getTileRendererHints(
+            ReferencedEnvelope mapArea, Rectangle paintArea, AffineTransform worldToScreen) {
+        Map<Object, Object> hints = new HashMap<>();
+        Map original = renderer.getRendererHints();
+        if (original != null) {
+            hints.putAll(original);
+        }
+        hints.remove(StreamingRenderer.PARALLEL_TILE_SIZE_KEY);
+        hints.remove(StreamingRenderer.LABEL_CACHE_KEY);
+        // the accurate scale depends on the area position, compute it once for the whole map
+        if (StreamingRenderer.SCALE_ACCURATE.equals(
+                        hints.get(StreamingRenderer.SCALE_COMPUTATION_METHOD_KEY))
+                && !hints.containsKey(StreamingRenderer.DECLARED_SCALE_DENOM_KEY)) {
+            hints.put(
+                    StreamingRenderer.DECLARED_SCALE_DENOM_KEY,
+                    renderer.computeScale(mapArea, paintArea, worldToScreen, original));
+        }
+        return hints;
+    }
+
+    /** Paints a single tile in its own image, returns null if the rendering got stopped */
+    TileResult paintTile(
+            Rectangle tile,
+            ReferencedEnvelope mapArea,
+            AffineTransform worldToScreen,
+            RenderingHints java2dHints,
+            Map<Object, Object> rendererHints)
+            throws NoninvertibleTransformException {
+        if (stopped) {
+            return null;
+        }
+
+        LabelRecorder labels = new LabelRecorder();
+        Map<Object, Object> hints = new HashMap<>(rendererHints);
+        hints.put(StreamingRenderer.LABEL_CACHE_KEY, labels);
+        StreamingRenderer tileRenderer = renderer.createTileRenderer();
+        tileRenderer.setMapContent(renderer.getMapContent());
+        tileRenderer.setJava2DHints(renderer.getJava2DHints());
+        tileRenderer.setRendererHints(hints);
+        tileRenderer.setGeneralizationDistance(renderer.getGeneralizationDistance());
+        tileRenderer.setInteractive(renderer.isInteractive());
+        tileRenderer.addRenderListener(new ForwardingRenderListener());
+
+        // the tile renderer works in the tile own pixel space, back buffers and screen maps
+        // assume the paint area origin is at 0,0
+        AffineTransform tileTransform = AffineTransform.getTranslateInstance(-tile.x, -tile.y);
+        tileTransform.concatenate(worldToScreen);
+        Rectangle tileArea = new Rectangle(0, 0, tile.width, tile.height);
+        ReferencedEnvelope tileEnvelope =
+                new ReferencedEnvelope(
+                        RendererUtilities.createMapEnvelope(tileArea, tileTransform),
+                        mapArea.getCoordinateReferenceSystem());
+
+        BufferedImage image =
+                new BufferedImage(tile.width, tile.height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = image.createGraphics();
+        tileRenderers.add(tileRenderer);
+        try {
+            graphics.setRenderingHints(java2dHints);
+            tileRenderer.paint(graphics, tileArea, tileEnvelope, tileTransform);
+        } finally {
+            tileRenderers.remove(tileRenderer);
+            graphics.dispose();
+        }
+
+        if (stopped) {
+            return null;
+        }
+        return new TileResult(tile, image, labels);
+    }
+
+    /**
+     * Feeds the labels collected by the tiles to the label cache and paints them. The symbolizers
+     * are rescaled independently in each tile renderer, so equal ones are collapsed to a single
+     * instance, allowing labels grouping across tiles.
+     */
+    void paintLabels(
+            LabelCache labelCache,
+            Graphics2D graphics,
+            Rectangle paintArea,
+            List<TileResult> results) {
+        labelCache.start();
+        if (labelCache instanceof LabelCacheImpl) {
+            ((LabelCacheImpl) labelCache)
+                    .setLabelRenderingMode(
+                            LabelRenderingMode.valueOf(renderer.getTextRenderingMethod()));
+            ((LabelCacheImpl) labelCache)
+                    .setPreparationExecutor(renderer.getLabelPreparationExecutor());
+        }
+
+        // the obstacles are not layer specific
+        Set<String> layerIds = new LinkedHashSet<>();
+        for (TileResult result : results) {
+            layerIds.addAll(result.labels.layers.keySet());
+            for (Rectangle2D obstacle : result.labels.obstacles) {
+                labelCache.put(
+                        new Rectangle2D.Double(
+                                obstacle.getX() + result.tile.x,
+                                obstacle.getY() + result.tile.y,
+                                obstacle.getWidth(),
+                                obstacle.getHeight()));
+            }
+        }
+        Map<TextSymbolizer, TextSymbolizer> symbolizers = new HashMap<>();
+        // how many times a feature has been labelled with a given symbolizer, a feature
+        // crossing tiles shows up in all of them
+        Map<List<Object>, Integer> labelled = new HashMap<>();
+        for (String layerId : layerIds) {
+            labelCache.startLayer(layerId);
+            for (TileResult result : results) {
+                List<Label> labels = result.labels.layers.get(layerId);
+                if (labels == null) {
+                    continue;
+                }
+                Map<TextSymbolizer, TextSymbolizer> tileSymbolizers = new IdentityHashMap<>();
+                Map<List<Object>, Integer> tileLabelled = new HashMap<>();
+                for (Label label : labels) {
+                    TextSymbolizer symbolizer =
+                            tileSymbolizers.computeIfAbsent(
+                                    label.symbolizer, s -> symbolizers.computeIfAbsent(s, k -> k));
+                    FeatureId id = label.feature.getIdentifier();
+                    if (id != null) {
+                        List<Object> key = Arrays.asList(layerId, symbolizer, id);
+                        int count = tileLabelled.merge(key, 1, Integer::sum);
+                        if (count <= labelled.getOrDefault(key, 0)) {
+                            continue;
+                        }
+                        labelled.put(key, count);
+                    }
+                    try {
+                        LiteShape2 shape =
+                                new LiteShape2(
+                                        label.shape.getGeometry(),
+                                        new AffineTransform2D(
+                                                AffineTransform.getTranslateInstance(
+                                                        result.tile.x, result.tile.y)),
+                                        null,
+                                        false);
+                        labelCache.put(layerId, symbolizer, label.feature, shape, label.scaleRange);
+                    } catch (Exception e) {
+                        LOGGER.log(Level.FINE, "Failed to move the label in the map space", e);
+                    }
+                }
+            }
+            labelCache.endLayer(layerId, graphics, paintArea);
+        }
+
+        labelCache.end(graphics, paintArea);
+    }
+
+    /** The outcome of a tile rendering */
+    static class TileResult {
+        Rectangle tile;
+
+        BufferedImage image;
+
+        LabelRecorder labels;
+
+        TileResult(Rectangle tile, BufferedImage image, LabelRecorder labels) {
+            this.tile = tile;
+            this.image = image;
+            this.labels = labels;
+        }
+    }
+
+    /** A label collected by a tile renderer */
+    static class Label {
+        TextSymbolizer symbolizer;
+
+        Feature feature;
+
+        LiteShape2 shape;
+
+        NumberRange<Double> scaleRange;
+
+        Label(
+                TextSymbolizer symbolizer,
+                Feature feature,
+                LiteShape2 shape,
+                NumberRange<Double> scaleRange) {
+            this.symbolizer = symbolizer;
+            this.feature = feature;
+            this.shape = shape;
+            this.scaleRange = scaleRange;
+        }
+    }
+
+    /**
+     * A label cache recording the labels and obstacles of a tile, in the tile own pixel space,
+     * without painting them. The obstacles are added by the painter thread, hence the
+     * synchronization.
+     */
+    static class LabelRecorder implements LabelCache {
+
+        /** Labels by layer id, in insertion order */
+        Map<String, List<Label>> layers = new LinkedHashMap<>();
+
+        List<Rectangle2D> obstacles = new ArrayList<>();
+
+        @Override
+        public void start() {}
+
+        @Override
+        public synchronized void startLayer(String layerId) {
+            layers.computeIfAbsent(layerId, k -> new ArrayList<>());
+        }
+
+        @Override
+        public synchronized void put(
+                String layerId,
+                TextSymbolizer symbolizer,
+                Feature feature,
+                LiteShape2 shape,
+                NumberRange<Double> scaleRange) {
+            layers.computeIfAbsent(layerId, k -> new ArrayList<>())
+                    .add(new Label(symbolizer, feature, shape, scaleRange));
+        }
+
+        @Override
+        public synchronized void put(Rectangle2D geometry) {
+            obstacles.add(geometry);
+        }
+
+        @Override
+        public void endLayer(String layerId, Graphics2D graphics, Rectangle displayArea) {}
+
+        @Override
+        public void end(Graphics2D graphics, Rectangle displayArea) {}
+
+        @Override
+        public void stop() {}
+
+        @Override
+        public synchronized void clear() {
+            layers.clear();
+            obstacles.clear();
+        }
+
+        @Override
+        public synchronized void clear(String layerId) {
+            layers.remove(layerId);
+        }
+
+        @Override
+        public void disableLayer(String layerId) {}
+
+        @Override
+        public void enableLayer(String layerId) {}
+
+        @Override
+        public List orderedLabels() {
+            return Collections.emptyList();
+        }
+    }
+
+    /** Forwards the tile renderers events to the main renderer listeners */
+    class ForwardingRenderListener implements RenderListener {
+
+        @Override
+        public void featureRenderer(SimpleFeature feature) {
+            for (RenderListener listener : renderer.getRenderListeners()) {
+                listener.featureRenderer(feature);
+            }
+        }
+
+        @Override
+        public void errorOccurred(Exception e) {
+            for (RenderListener listener : renderer.getRenderListeners()) {
+                listener.errorOccurred(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * Encodes features in the <a href="https://github.com/mapbox/vector-tile-spec">Mapbox Vector
+ * Tile</a> format, version 2.
+ *
+ * <p>The geometries are expected to be in tile coordinates already, with the origin in the upper
+ * left corner and the y axis pointing down. They are rounded to integers, and polygon rings are
+ * oriented as requested by the specification. Geometries collapsing to nothing after rounding are
+ * skipped.
+ *
+ * <p>The protobuf messages are written directly, without depending on a protobuf library.
+ */
+public class VectorTileEncoder {
+
+    /** The default tile extent, as suggested by the specification */
+    public static final int DEFAULT_EXTENT = 4096;
+
+    static final int VERSION = 2;
+
+    // geometry types
+    static final int POINT = 1;
+
+    static final int LINESTRING = 2;
+
+    static final int POLYGON = 3;
+
+    // geometry commands
+    static final int MOVE_TO = 1;
+
+    static final int LINE_TO = 2;
+
+    static final int CLOSE_PATH = 7;
+
+    // protobuf wire types
+    static final int VARINT = 0;
+
+    static final int FIXED64 = 1;
+
+    static final int LENGTH_DELIMITED = 2;
+
+    static final int FIXED32 = 5;
+
+    /** A single tile layer, with its attribute key and value dictionaries */
+    static class TileLayer {
+        final String name;
+
+        final Map<String, Integer> keys = new LinkedHashMap<>();
+
+        final Map<Object, Integer> values = new LinkedHashMap<>();
+
+        final ByteArrayOutputStream features = new ByteArrayOutputStream();
+
+        int featureCount;
+
+        TileLayer(String name) {
+            this.name = name;
+        }
+    }
+
+    final int extent;
+
+    final Map<String, TileLayer> layers = new LinkedHashMap<>();
+
+    /** Builds an encoder for tiles with the {@link #DEFAULT_EXTENT} */
+    public VectorTileEncoder() {
+        this(DEFAULT_EXTENT);
+    }
+
+    /**
+     * Builds an encoder for tiles with the specified extent
+     *
+     * @param extent The tile size, in tile coordinates
+     */
+    public VectorTileEncoder(int extent) {
+        if (extent <= 0) {
+            throw new IllegalArgumentException("The extent must be positive: " + extent);
+        }
+        this.extent = extent;
+    }
+
+    /** The tile extent */
+    public int getExtent() {
+        return extent;
+    }
+
+    /**
+     * Adds a feature to the specified layer, creating the layer if missing. Geometry collections
+     * are split into one feature per component.
+     *
+     * @param layerName The layer name
+     * @param id The feature id, or null if not available
+     * @param attributes The feature attributes, null values are skipped
+     * @param geometry The geometry, in tile coordinates
+     * @return True if the feature got encoded, false if its geometry was empty after rounding
+     */
+    public boolean addFeature(
+            String layerName, Long id, Map<String, Object> attributes, Geometry geometry) {
+        if (geometry == null || geometry.isEmpty()) {
+            return false;
+        }
+        if (geometry instanceof GeometryCollection
+                && !(geometry instanceof MultiPoint)
+                && !(geometry instanceof MultiLineString)
+                && !(geometry instanceof MultiPolygon)) {
+            boolean added = false;
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                added |= addFeature(layerName, id, attributes, geometry.getGeometryN(i));
+            }
+            return added;
+        }
+
+        List<Integer> commands = new ArrayList<>();
+        int type;
+        if (geometry instanceof Point || geometry instanceof MultiPoint) {
+            type = POINT;
+            encodePoints(geometry, commands);
+        } else if (geometry instanceof LineString || geometry instanceof MultiLineString) {
+            type = LINESTRING;
+            encodeLines(geometry, commands);
+        } else if (geometry instanceof Polygon || geometry instanceof MultiPolygon) {
+            type = POLYGON;
+            encodePolygons(geometry, commands);
+        } else {
+            throw new IllegalArgumentException("Unsupported geometry type " + geometry);
+        }
+        if (commands.isEmpty()) {
+            return false;
+        }
+
+        TileLayer layer = layers.computeIfAbsent(layerName, TileLayer::new);
+        ByteArrayOutputStream feature = new ByteArrayOutputStream();
+        if (id != null && id >= 0) {
+            writeTag(feature, 1, VARINT);
+            writeVarint(feature, id);
+        }
+        if (attributes != null && !attributes.isEmpty()) {
+            ByteArrayOutputStream tags = new ByteArrayOutputStream();
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                Object value = normalize(entry.getValue());
+                if (value == null) {
+                    continue;
+                }
+                int key = layer.keys.computeIfAbsent(entry.getKey(), k -> layer.keys.size());
+                int valueIdx = layer.values.computeIfAbsent(value, k -> layer.values.size());
+                writeVarint(tags, key);
+                writeVarint(tags, valueIdx);
+            }
+            if (tags.size() > 0) {
+                writeBytes(feature, 2, tags.toByteArray());
+            }
+        }
+        writeTag(feature, 3, VARINT);
+        writeVarint(feature, type);
+        ByteArrayOutputStream geom = new ByteArrayOutputStream();
+        for (Integer command : commands) {
+            writeVarint(geom, command & 0xFFFFFFFFL);
+        }
+        writeBytes(feature, 4, geom.toByteArray());
+
+        writeBytes(layer.features, 2, feature.toByteArray());
+        layer.featureCount++;
+        return true;
+    }
+
+    /** Returns the number of features added to the specified layer */
+    public int getFeatureCount(String layerName) {
+        TileLayer layer = layers.get(layerName);
+        return layer == null ? 0 : layer.featureCount;
+    }
+
+    /** Encodes the tile. Layers without features are not included. */
+    public byte[] encode() {
+        ByteArrayOutputStream tile = new ByteArrayOutputStream();
+        for (TileLayer layer : layers.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTag(out, 15, VARINT);
+            writeVarint(out, VERSION);
+            writeBytes(out, 1, layer.name.getBytes(StandardCharsets.UTF_8));
+            byte[] features = layer.features.toByteArray();
+            out.write(features, 0, features.length);
+            for (String key : layer.keys.keySet()) {
+                writeBytes(out, 3, key.getBytes(StandardCharsets.UTF_8));
+            }
+            for (Object value : layer.values.keySet()) {
+                writeBytes(out, 4, encodeValue(value));
+            }
+            writeTag(out, 5, VARINT);
+            writeVarint(out, extent);
+            writeBytes(tile, 3, out.toByteArray());
+        }
+        return tile.toByteArray();
+    }
+
+    /** Maps the attribute values to the types supported by the specification */
+    static Object normalize(Object value) {
+        if (value == null || value instanceof Geometry) {
+            return null;
+        } else if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+            return Long.valueOf(((Number) value).longValue());
+        } else if (value instanceof Long
+                || value instanceof Float
+                || value instanceof Double
+                || value instanceof Boolean
+                || value instanceof String) {
+            return value;
+        } else {
+            return value.toString();
+        }
+    }
+
+    static byte[] encodeValue(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (value instanceof String) {
+            writeBytes(out, 1, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Float) {
+            writeTag(out, 2, FIXED32);
+            writeFixed(out, Float.floatToIntBits((Float) value), 4);
+        } else if (value instanceof Double) {
+            writeTag(out, 3, FIXED64);
+            writeFixed(out, Double.doubleToLongBits((Double) value), 8);
+        } else if (value instanceof Long) {
+            writeTag(out, 6, VARINT);
+            writeVarint(out, zigZag((Long) value));
+        } else if (value instanceof Boolean) {
+            writeTag(out, 7, VARINT);
+            writeVarint(out, ((Boolean) value) ? 1 : 0);
+        }
+        return out.toByteArray();
+    }
+
+    /** Encodes points, or multipoints, as a single move to with multiple parameters */
+    void encodePoints(Geometry geometry, List<Integer> commands) {
+        GeometryCursor cursor = new GeometryCursor();
+        List<Integer> params = new ArrayList<>();
+        int count = 0;
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            Point point = (Point) geometry.getGeometryN(i);
+            if (!point.isEmpty()) {
+                cursor.moveTo(point.getCoordinate(), params);
+                count++;
+            }
+        }
+        if (count > 0) {
+            commands.add(command(MOVE_TO, count));
+            commands.addAll(params);
+        }
+    }
+
+    void encodeLines(Geometry geometry, List<Integer> commands) {
+        GeometryCursor cursor = new GeometryCursor();
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            LineString line = (LineString) geometry.getGeometryN(i);
+            int[] coordinates = round(line.getCoordinateSequence(), false);
+            if (coordinates.length >= 4) {
+                cursor.path(coordinates, false, commands);
+            }
+        }
+    }
+
+    void encodePolygons(Geometry geometry, List<Integer> commands) {
+        GeometryCursor cursor = new GeometryCursor();
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            Polygon polygon = (Polygon) geometry.getGeometryN(i);
+            int[] shell = round(polygon.getExteriorRing().getCoordinateSequence(), true);
+            // a polygon without a valid exterior ring would turn its holes into exterior rings
+            if (shell.length < 6 || area(shell) == 0) {
+                continue;
+            }
+            // exterior rings have a positive area in tile coordinates, interior ones a negative
+            cursor.path(orient(shell, true), true, commands);
+            for (int j = 0; j < polygon.getNumInteriorRing(); j++) {
+                LinearRing hole = (LinearRing) polygon.getInteriorRingN(j);
+                int[] ring = round(hole.getCoordinateSequence(), true);
+                if (ring.length >= 6 && area(ring) != 0) {
+                    cursor.path(orient(ring, false), true, commands);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rounds the coordinates to integers, removing repeated points. For rings the closing point is
+     * removed too.
+     */
+    static int[] round(CoordinateSequence cs, boolean ring) {
+        int size = cs.size();
+        int[] result = new int[size * 2];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int x = (int) Math.round(cs.getX(i));
+            int y = (int) Math.round(cs.getY(i));
+            if (count == 0 || result[count - 2] != x || result[count - 1] != y) {
+                result[count++] = x;
+                result[count++] = y;
+            }
+        }
+        if (ring
+                && count >= 4
+                && result[0] == result[count - 2]
+                && result[1] == result[count - 1]) {
+            count -= 2;
+        }
+        if (count < result.length) {
+            int[] copy = new int[count];
+            System.arraycopy(result, 0, copy, 0, count);
+            return copy;
+        }
+        return result;
+    }
+
+    /** Twice the signed area of the ring, positive if clockwise with the y axis pointing down */
+    static long area(int[] ring) {
+        long area = 0;
+        int n = ring.length / 2;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            area += (long) ring[i * 2] * ring[j * 2 + 1] - (long) ring[j * 2] * ring[i * 2 + 1];
+        }
+        return area;
+    }
+
+    static int[] orient(int[] ring, boolean exterior) {
+        if ((area(ring) > 0) == exterior) {
+            return ring;
+        }
+        int n = ring.length / 2;
+        int[] result = new int[ring.length];
+        for (int i = 0; i < n; i++) {
+            result[i * 2] = ring[(n - 1 - i) * 2];
+            result[i * 2 + 1] = ring[(n - 1 - i) * 2 + 1];
+        }
+        return result;
+    }
+
+    static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    /** Keeps track of the cursor position, geometry parameters are relative to it */
+    static class GeometryCursor {
+        int x;
+
+        int y;
+
+        void moveTo(Coordinate c, List<Integer> params) {
+            int cx = (int) Math.round(c.x);
+            int cy = (int) Math.round(c.y);
+            params.add(zigZag(cx - x));
+            params.add(zigZag(cy - y));
+            x = cx;
+            y = cy;
+        }
+
+        void path(int[] coordinates, boolean close, List<Integer> commands) {
+            int n = coordinates.length / 2;
+            commands.add(command(MOVE_TO, 1));
+            add(coordinates, 0, commands);
+            commands.add(command(LINE_TO, n - 1));
+            for (int i = 1; i < n; i++) {
+                add(coordinates, i, commands);
+            }
+            if (close) {
+                commands.add(command(CLOSE_PATH, 1));
+            }
+        }
+
+        private void add(int[] coordinates, int i, List<Integer> commands) {
+            int cx = coordinates[i * 2];
+            int cy = coordinates[i * 2 + 1];
+            commands.add(zigZag(cx - x));
+            commands.add(zigZag(cy - y));
+            x = cx;
+            y = cy;
+        }
+    }
+
+    static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, (field << 3) | wireType);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeFixed(ByteArrayOutputStream out, long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            out.write((int) (value >>> (i * 8)) & 0xFF);
+        }
+    }
+
+    static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+        writeTag(out, field, LENGTH_DELIMITED);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.geometry.jts.GeometryClipper;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.styling.Symbolizer;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.identity.FeatureId;
+
+/**
+ * Encodes the contents of a {@link MapContent} as a Mapbox Vector Tile, going through the same
+ * pipeline as {@link StreamingRenderer}, but without painting anything.
+ *
+ * <p>The styles drive the data queries, rule filters, scale dependencies and the attributes read,
+ * the geometries are reprojected (with the advanced projection handling, if enabled in the hints),
+ * generalized, filtered with the screen maps, and transformed into tile coordinates as they would
+ * be for rendering. They are then clipped to the tile extent plus a buffer and quantized to
+ * integers by {@link VectorTileEncoder}.
+ *
+ * <p>Each map layer becomes a tile layer named after the layer title, or the feature type name if
+ * the title is missing. Each feature is encoded once per layer, with the geometry extracted for the
+ * first symbolizer applying to it, and with the non geometric attributes that were read for the
+ * styles. Raster layers are skipped.
+ */
+public class VectorTileRenderer {
+
+    static final Logger LOGGER = Logging.getLogger(VectorTileRenderer.class);
+
+    /** The default buffer around the tile, in tile coordinates */
+    public static final int DEFAULT_BUFFER = 64;
+
+    /** The default nominal tile size, in pixels, used to compute the scale denominator */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    final MapContent mapContent;
+
+    int extent = VectorTileEncoder.DEFAULT_EXTENT;
+
+    int buffer = DEFAULT_BUFFER;
+
+    int tileSize = DEFAULT_TILE_SIZE;
+
+    Map<Object, Object> rendererHints = new HashMap<>();
+
+    /**
+     * Builds a new vector tile renderer
+     *
+     * @param mapContent The layers to be encoded
+     */
+    public VectorTileRenderer(MapContent mapContent) {
+        this.mapContent = mapContent;
+    }
+
+    /**
+     * Sets the tile extent, in tile coordinates, by default {@link
+     * VectorTileEncoder#DEFAULT_EXTENT}
+     */
+    public void setExtent(int extent) {
+        this.extent = extent;
+    }
+
+    /** Sets the buffer around the tile, in tile coordinates, by default {@link #DEFAULT_BUFFER} */
+    public void setBuffer(int buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Sets the size in pixels a client is expected to draw the tile at, used to compute the scale
+     * denominator for the style rules, by default {@link #DEFAULT_TILE_SIZE}
+     */
+    public void setTileSize(int tileSize) {
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Sets the hints for the underlying {@link StreamingRenderer}. The generalization and
+     * projection handling related ones apply in tile coordinates.
+     */
+    public void setRendererHints(Map<Object, Object> rendererHints) {
+        this.rendererHints = new HashMap<>(rendererHints);
+    }
+
+    /**
+     * Encodes the tile covering the specified area
+     *
+     * @param tileEnvelope The tile area
+     * @return The encoded tile
+     */
+    public byte[] render(ReferencedEnvelope tileEnvelope) {
+        VectorTileEncoder encoder = new VectorTileEncoder(extent);
+        render(tileEnvelope, encoder);
+        return encoder.encode();
+    }
+
+    /**
+     * Adds the features in the specified area to the encoder, allows to mix in extra layers before
+     * encoding the tile
+     */
+    public void render(ReferencedEnvelope tileEnvelope, VectorTileEncoder encoder) {
+        StreamingRenderer renderer = new StreamingRenderer();
+        renderer.setMapContent(mapContent);
+        Map<Object, Object> hints = new HashMap<>(rendererHints);
+        hints.remove(StreamingRenderer.PARALLEL_TILE_SIZE_KEY);
+        Number renderingBuffer = (Number) hints.get(StreamingRenderer.RENDERING_BUFFER);
+        if (renderingBuffer == null || renderingBuffer.intValue() < buffer) {
+            hints.put(StreamingRenderer.RENDERING_BUFFER, buffer);
+        }
+        renderer.setRendererHints(hints);
+
+        // the scale depends on the nominal tile size, not on the extent
+        if (!hints.containsKey(StreamingRenderer.DECLARED_SCALE_DENOM_KEY)) {
+            Rectangle nominal = new Rectangle(tileSize, tileSize);
+            double scale =
+                    renderer.computeScale(
+                            tileEnvelope,
+                            nominal,
+                            RendererUtilities.worldToScreenTransform(tileEnvelope, nominal),
+                            hints);
+            hints.put(StreamingRenderer.DECLARED_SCALE_DENOM_KEY, scale);
+            renderer.setRendererHints(hints);
+        }
+
+        Collector collector = new Collector(encoder);
+        renderer.setShapeCollector(collector);
+        // the graphics is used only for setup, nothing gets painted on it
+        Graphics2D graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        try {
+            renderer.paint(graphics, new Rectangle(extent, extent), tileEnvelope);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /** Returns the tile layer name for the map layer */
+    static String getLayerName(Layer layer) {
+        String title = layer.getTitle();
+        if (title != null && !title.isEmpty()) {
+            return title;
+        }
+        return layer.getFeatureSource().getSchema().getName().getLocalPart();
+    }
+
+    /**
+     * Returns the numeric part of the feature id, if any, as the specification requires unsigned
+     * integer ids
+     */
+    static Long getFeatureId(Feature feature) {
+        FeatureId identifier = feature.getIdentifier();
+        if (identifier == null || identifier.getID() == null) {
+            return null;
+        }
+        String id = identifier.getID();
+        String suffix = id.substring(id.lastIndexOf('.') + 1);
+        try {
+            long result = Long.parseLong(suffix);
+            return result >= 0 ? result : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Returns the non geometric attributes of the feature */
+    static Map<String, Object> getAttributes(Feature feature) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (feature instanceof SimpleFeature) {
+            SimpleFeature sf = (SimpleFeature) feature;
+            int i = 0;
+            for (AttributeDescriptor ad : sf.getFeatureType().getAttributeDescriptors()) {
+                if (!(ad instanceof GeometryDescriptor)) {
+                    attributes.put(ad.getLocalName(), sf.getAttribute(i));
+                }
+                i++;
+            }
+        }
+        return attributes;
+    }
+
+    /** Clips the shapes on the buffered tile area and feeds them to the encoder */
+    class Collector implements StreamingRenderer.ShapeCollector {
+
+        final VectorTileEncoder encoder;
+
+        final GeometryClipper clipper;
+
+        /** The features already encoded, by layer name */
+        final Map<String, Set<String>> encoded = new HashMap<>();
+
+        Collector(VectorTileEncoder encoder) {
+            this.encoder = encoder;
+            this.clipper =
+                    new GeometryClipper(
+                            new Envelope(-buffer, extent + buffer, -buffer, extent + buffer));
+        }
+
+        @Override
+        public void collect(Layer layer, Feature feature, Symbolizer symbolizer, LiteShape2 shape) {
+            String layerName = getLayerName(layer);
+            FeatureId identifier = feature.getIdentifier();
+            Set<String> ids = encoded.computeIfAbsent(layerName, k -> new HashSet<>());
+            if (identifier != null && ids.contains(identifier.getID())) {
+                return;
+            }
+
+            Geometry geometry = clipper.clipSafe(shape.getGeometry(), false, 1);
+            if (geometry == null || geometry.isEmpty()) {
+                return;
+            }
+            try {
+                // another symbolizer might still produce an encodable shape, record the feature
+                // only once it's in the tile
+                if (encoder.addFeature(
+                                layerName, getFeatureId(feature), getAttributes(feature), geometry)
+                        && identifier != null) {
+                    ids.add(identifier.getID());
+                }
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.FINE, "Skipping feature " + identifier, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.label;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class GridLabelIndexTest {
+
+    @Test
+    public void testOverlap() {
+        GridLabelIndex index = new GridLabelIndex(new Rectangle(0, 0, 256, 256));
+        index.addLabel(null, new Rectangle2D.Double(10, 10, 50, 10));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(50, 15, 50, 10), 0));
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(70, 15, 50, 10), 0));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(70, 15, 50, 10), 10));
+        // negative distances disable the check
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(50, 15, 50, 10), -1));
+    }
+
+    @Test
+    public void testOutsideArea() {
+        GridLabelIndex index = new GridLabelIndex(new Rectangle(0, 0, 256, 256));
+        List<Rectangle2D> reserved = new ArrayList<>();
+        reserved.add(new Rectangle2D.Double(-100, -100, 90, 90));
+        index.reserveArea(reserved);
+        index.addLabel(null, new Rectangle2D.Double(250, 300, 100, 20));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(-50, -50, 10, 10), 0));
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(-5, -5, 10, 10), 0));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(300, 310, 10, 10), 0));
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(300, 250, 10, 10), 0));
+    }
+
+    @Test
+    public void testLargeArea() {
+        // cells get larger to keep the grid size under control
+        GridLabelIndex index = new GridLabelIndex(new Rectangle(0, 0, 20000, 20000));
+        assertTrue(index.columns * index.rows <= GridLabelIndex.MAX_CELLS);
+        index.addLabel(null, new Rectangle2D.Double(19990, 19990, 5, 5));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(19980, 19980, 10, 10), 1));
+    }
+
+    @Test
+    public void testSameAsTreeIndex() {
+        Random random = new Random(0);
+        Rectangle area = new Rectangle(20, 30, 700, 500);
+        LabelIndex expected = new LabelIndex();
+        GridLabelIndex actual = new GridLabelIndex(area);
+        for (int i = 0; i < 5000; i++) {
+            Rectangle2D bounds =
+                    new Rectangle2D.Double(
+                            area.x - 50 + random.nextDouble() * (area.width + 100),
+                            area.y - 50 + random.nextDouble() * (area.height + 100),
+                            random.nextDouble() * 100,
+                            random.nextDouble() * 20);
+            double distance = random.nextInt(5);
+            boolean conflict = expected.labelsWithinDistance(bounds, distance);
+            assertEquals(conflict, actual.labelsWithinDistance(bounds, distance));
+            if (!conflict) {
+                expected.addLabel(null, bounds);
+                actual.addLabel(null, bounds);
+            }
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package org.geotools.renderer.label;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.awt.Font;
@@ -78,6 +80,27 @@ public class LabelPainterTest {
         assertEquals(3, painter.getLineCount());
     }
 
+    @Test
+    public void testPrepareLabel() {
+        LabelCacheItem labelItem =
+                new LabelCacheItem("LAYERID", style, shape, "line1\nline2", symbolizer);
+        LabelPainter painter = new LabelPainter(graphics, LabelRenderingMode.STRING);
+        painter.setLabel(labelItem);
+
+        // prepare with a separate painter, the result gets picked up by set label
+        new LabelPainter(graphics, LabelRenderingMode.STRING).prepareLabel(labelItem);
+        assertNotNull(labelItem.preparedLayout);
+        LabelPainter prepared = new LabelPainter(graphics, LabelRenderingMode.STRING);
+        prepared.setLabel(labelItem);
+        assertNull(labelItem.preparedLayout);
+        assertEquals(painter.getLineCount(), prepared.getLineCount());
+        assertEquals(painter.getLabelBounds(), prepared.getLabelBounds());
+        assertEquals(painter.getFullLabelBounds(), prepared.getFullLabelBounds());
+        // the full bounds can be modified by the caller without affecting the painter
+        prepared.getFullLabelBounds().setRect(0, 0, 1, 1);
+        assertEquals(painter.getFullLabelBounds(), prepared.getFullLabelBounds());
+    }
+
     @Test
     public void testEmptyLinesInLabelWithAutoWrap() {
         LabelPainter painter = new LabelPainter(graphics, LabelRenderingMode.STRING);
@@ -35,19 +35,21 @@ public class FilterMemoizerTest extends DataTestCase {
 
         Filter nameR1 = FF.equal(FF.property("name"), FF.literal("r1"), false);
         Filter memoized = FilterMemoizer.memoize(nameR1);
+        // the attribute might be read by name or by position, the former delegating to the latter
+        int nameIndex = roadType.indexOf("name");
 
         // evaluate twice on rf0, just one call to getAttribute should be made
         assertTrue(memoized.evaluate(rf0));
         assertTrue(memoized.evaluate(rf0));
-        Mockito.verify(rf0, Mockito.times(1)).getAttribute("name");
+        Mockito.verify(rf0, Mockito.times(1)).getAttribute(nameIndex);
 
         // switch feature, not the same, new call should be made on it
         assertFalse(memoized.evaluate(rf1));
-        Mockito.verify(rf1, Mockito.times(1)).getAttribute("name");
+        Mockito.verify(rf1, Mockito.times(1)).getAttribute(nameIndex);
 
         // and back, another call expected, for a total of 2
         assertTrue(memoized.evaluate(rf0));
-        Mockito.verify(rf0, Mockito.times(2)).getAttribute("name");
+        Mockito.verify(rf0, Mockito.times(2)).getAttribute(nameIndex);
     }
 
     public void testVolatileFunction() throws Exception {
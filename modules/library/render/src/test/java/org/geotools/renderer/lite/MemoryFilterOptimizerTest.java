@@ -23,11 +23,14 @@ import java.util.HashSet;
 import java.util.List;
 import org.geotools.data.DataTestCase;
 import org.geotools.renderer.lite.MemoryFilterOptimizer.IndexPropertyName;
+import org.geotools.renderer.lite.MemoryFilterOptimizer.MemoizedFunction;
 import org.mockito.Mockito;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.And;
 import org.opengis.filter.Filter;
 import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Function;
 import org.opengis.filter.expression.PropertyName;
 
 public class MemoryFilterOptimizerTest extends DataTestCase {
@@ -95,6 +98,20 @@ public class MemoryFilterOptimizerTest extends DataTestCase {
         checkPropertiesIndexed(equalNameCopy, equalIdCopy);
     }
 
+    public void testIsMemoized() {
+        MemoryFilterOptimizer optimizer =
+                new MemoryFilterOptimizer(roadType, Collections.singleton(equalName));
+        assertTrue(optimizer.isMemoized(and));
+        assertTrue(optimizer.isMemoized(equalName));
+        assertFalse(optimizer.isMemoized(equalId));
+
+        // property names missing from the schema are memoized instead of indexed
+        PropertyName missing = ff.property("foobar");
+        optimizer = new MemoryFilterOptimizer(roadType, Collections.singleton(missing));
+        assertTrue(optimizer.isMemoized(ff.isNull(missing)));
+        assertFalse(optimizer.isMemoized(equalName));
+    }
+
     public void testMemoizeDefaultGeometry() {
         PropertyName property = ff.property("");
 
@@ -120,4 +137,44 @@ public class MemoryFilterOptimizerTest extends DataTestCase {
         PropertyName memoized = (PropertyName) property.accept(optimizer, null);
         assertNull(memoized.evaluate(roadFeatures[0]));
     }
+
+    public void testMemoizeSharedFunction() {
+        Function concat = ff.function("strConcat", name, ff.literal("-suffix"));
+        PropertyIsEqualTo equalConcat = ff.equal(concat, ff.literal("r1-suffix"), false);
+
+        MemoryFilterOptimizer optimizer =
+                new MemoryFilterOptimizer(roadType, Collections.singleton(concat));
+        assertTrue(optimizer.isMemoized(equalConcat));
+        assertFalse(optimizer.isMemoized(equalName));
+
+        // the filter and the expression share the same slot
+        PropertyIsEqualTo filterCopy = (PropertyIsEqualTo) equalConcat.accept(optimizer, null);
+        Expression expressionCopy = (Expression) concat.accept(optimizer, null);
+        assertTrue(expressionCopy instanceof MemoizedFunction);
+        assertSame(expressionCopy, filterCopy.getExpression1());
+        assertEquals("strConcat", ((Function) expressionCopy).getName());
+        assertEquals(2, ((Function) expressionCopy).getParameters().size());
+
+        // evaluated once per feature
+        SimpleFeature spy = Mockito.spy(roadFeatures[0]);
+        assertTrue(filterCopy.evaluate(spy));
+        assertEquals("r1-suffix", expressionCopy.evaluate(spy));
+        Mockito.verify(spy, Mockito.times(1)).getAttribute(2);
+
+        // results are kept by target type, and evaluated again for a different feature
+        assertEquals("r1-suffix", expressionCopy.evaluate(spy, String.class));
+        assertEquals("r1-suffix", expressionCopy.evaluate(spy));
+        assertEquals("r2-suffix", expressionCopy.evaluate(roadFeatures[1]));
+        assertFalse(filterCopy.evaluate(roadFeatures[1]));
+    }
+
+    public void testVolatileFunctionNotMemoized() {
+        Function concat = ff.function("strConcat", name, ff.function("random"));
+
+        MemoryFilterOptimizer optimizer =
+                new MemoryFilterOptimizer(roadType, Collections.singleton(concat));
+        assertFalse(optimizer.isMemoized(ff.equal(concat, ff.literal("r1"), false)));
+        Expression copy = (Expression) concat.accept(optimizer, null);
+        assertFalse(copy instanceof MemoizedFunction);
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import static java.awt.RenderingHints.KEY_ANTIALIASING;
+import static java.awt.RenderingHints.VALUE_ANTIALIAS_ON;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.image.test.ImageAssert;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.MapContent;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.renderer.lite.MetaTileRenderer.MetaTile;
+import org.geotools.renderer.lite.MetaTileRenderer.Tile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class MetaTileRendererTest {
+
+    static final int TILE_SIZE = 128;
+
+    SimpleFeatureCollection lines;
+
+    ReferencedEnvelope bounds;
+
+    MapContent mc;
+
+    @BeforeClass
+    public static void setupFonts() throws Exception {
+        RendererBaseTest.setupVeraFonts();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType type =
+                DataUtilities.createType("lines", "geom:LineString:4326,name:String");
+        lines =
+                DataUtilities.collection(
+                        new SimpleFeature[] {
+                            DataUtilities.createFeature(type, "l1=LINESTRING(0 4, 10 5)|one"),
+                            DataUtilities.createFeature(type, "l2=LINESTRING(10 6, 0 7)|two"),
+                            DataUtilities.createFeature(type, "l3=LINESTRING(-2 8, 12 9)|three"),
+                            DataUtilities.createFeature(type, "l4=LINESTRING(2 -1, 1 11)|four"),
+                            DataUtilities.createFeature(type, "l5=LINESTRING(5 0, 5 10)|five")
+                        });
+        bounds = new ReferencedEnvelope(0, 10, 0, 10, DefaultGeographicCRS.WGS84);
+    }
+
+    @After
+    public void disposeMap() {
+        if (mc != null) {
+            mc.dispose();
+        }
+    }
+
+    StreamingRenderer getRenderer(String styleName) throws Exception {
+        mc = new MapContent();
+        mc.addLayer(new FeatureLayer(lines, RendererBaseTest.loadStyle(this, styleName)));
+        StreamingRenderer renderer = new StreamingRenderer();
+        renderer.setMapContent(mc);
+        renderer.setJava2DHints(new RenderingHints(KEY_ANTIALIASING, VALUE_ANTIALIAS_ON));
+        return renderer;
+    }
+
+    BufferedImage renderDirect(String styleName) throws Exception {
+        StreamingRenderer renderer = getRenderer(styleName);
+        BufferedImage image =
+                new BufferedImage(TILE_SIZE * 2, TILE_SIZE * 2, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        renderer.paint(graphics, new Rectangle(image.getWidth(), image.getHeight()), bounds);
+        graphics.dispose();
+        mc.dispose();
+        return image;
+    }
+
+    MetaTile<BufferedImage> renderMetaTile(String styleName, int gutter) throws Exception {
+        MetaTileRenderer metaRenderer =
+                new MetaTileRenderer(getRenderer(styleName), TILE_SIZE, 2, 2, gutter);
+        metaRenderer.setBackground(Color.WHITE);
+        return metaRenderer.render(bounds, tile -> tile);
+    }
+
+    /** Checks each tile matches the corresponding area of the expected image */
+    void assertTiles(BufferedImage expected, MetaTile<BufferedImage> metaTile) {
+        assertEquals(4, metaTile.getTiles().size());
+        for (Tile<BufferedImage> tile : metaTile.getTiles()) {
+            BufferedImage image = tile.getData();
+            assertEquals(TILE_SIZE, image.getWidth());
+            assertEquals(TILE_SIZE, image.getHeight());
+            BufferedImage area =
+                    expected.getSubimage(
+                            tile.getColumn() * TILE_SIZE,
+                            tile.getRow() * TILE_SIZE,
+                            TILE_SIZE,
+                            TILE_SIZE);
+            ImageAssert.assertEquals(area, image, 10);
+        }
+    }
+
+    @Test
+    public void testSlicing() throws Exception {
+        BufferedImage expected = renderDirect("lineGray.sld");
+        assertTiles(expected, renderMetaTile("lineGray.sld", 0));
+    }
+
+    @Test
+    public void testGutter() throws Exception {
+        BufferedImage expected = renderDirect("lineGray.sld");
+        assertTiles(expected, renderMetaTile("lineGray.sld", 32));
+    }
+
+    @Test
+    public void testLabelsAcrossTiles() throws Exception {
+        // labels are placed once for the whole meta tile, and are not cut at the tile boundaries
+        BufferedImage expected = renderDirect("LineStyle.sld");
+        assertTiles(expected, renderMetaTile("LineStyle.sld", 0));
+    }
+
+    @Test
+    public void testEncoding() throws Exception {
+        MetaTileRenderer metaRenderer =
+                new MetaTileRenderer(getRenderer("LineStyle.sld"), TILE_SIZE, 2, 1, 16);
+        MetaTile<byte[]> metaTile =
+                metaRenderer.render(bounds, MetaTileRenderer.imageIOEncoder("png"));
+        assertEquals(2, metaTile.getTiles().size());
+        assertTrue(metaTile.getRenderingTime() > 0);
+        for (int column = 0; column < 2; column++) {
+            Tile<byte[]> tile = metaTile.getTile(column, 0);
+            assertTrue(tile.getEncodingTime() > 0);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(tile.getData()));
+            assertEquals(TILE_SIZE, image.getWidth());
+            assertEquals(TILE_SIZE, image.getHeight());
+        }
+    }
+
+    @Test
+    public void testRendererHintsRestored() throws Exception {
+        StreamingRenderer renderer = getRenderer("LineStyle.sld");
+        Map<Object, Object> hints = new HashMap<>();
+        hints.put(StreamingRenderer.OPTIMIZE_FTS_RENDERING_KEY, Boolean.FALSE);
+        renderer.setRendererHints(hints);
+        LabelCache labelCache = renderer.labelCache;
+
+        MetaTileRenderer metaRenderer = new MetaTileRenderer(renderer, TILE_SIZE, 2, 1, 16);
+        metaRenderer.render(bounds, MetaTileRenderer.imageIOEncoder("png"));
+        assertSame(hints, renderer.getRendererHints());
+        assertFalse(hints.containsKey(StreamingRenderer.LABEL_CACHE_KEY));
+        assertSame(labelCache, renderer.labelCache);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.collection.CollectionFeatureSource;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.filter.text.ecql.ECQL;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.image.test.ImageAssert;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public class SharedScanTest {
+
+    static final int SIZE = 300;
+
+    static final StyleBuilder SB = new StyleBuilder();
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    CollectionFeatureSource source;
+
+    List<Query> queries = new ArrayList<>();
+
+    ReferencedEnvelope bounds;
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType type =
+                DataUtilities.createType("roads", "geom:LineString:4326,name:String,type:String");
+        SimpleFeatureCollection roads =
+                DataUtilities.collection(
+                        new SimpleFeature[] {
+                            DataUtilities.createFeature(
+                                    type, "r1=LINESTRING(0 4, 10 5)|one|highway"),
+                            DataUtilities.createFeature(
+                                    type, "r2=LINESTRING(10 6, 0 7)|two|highway"),
+                            DataUtilities.createFeature(
+                                    type, "r3=LINESTRING(0 8, 10 9)|three|primary"),
+                            DataUtilities.createFeature(
+                                    type, "r4=LINESTRING(2 0, 1 10)|four|secondary"),
+                            DataUtilities.createFeature(
+                                    type, "r5=LINESTRING(5 0, 5 10)|five|secondary")
+                        });
+        // keeps track of the queries run against the source
+        source =
+                new CollectionFeatureSource(roads) {
+                    @Override
+                    public SimpleFeatureCollection getFeatures(Query query) {
+                        queries.add(query);
+                        return super.getFeatures(query);
+                    }
+                };
+        bounds = new ReferencedEnvelope(0, 10, 0, 10, DefaultGeographicCRS.WGS84);
+    }
+
+    Layer layer(String filter, Color color, double width) throws Exception {
+        Style style = SB.createStyle(SB.createLineSymbolizer(color, width));
+        FeatureLayer layer = new FeatureLayer(source, style);
+        if (filter != null) {
+            layer.setQuery(new Query("roads", ECQL.toFilter(filter)));
+        }
+        return layer;
+    }
+
+    BufferedImage render(boolean shared, Layer... layers) {
+        MapContent mc = new MapContent();
+        for (Layer layer : layers) {
+            mc.addLayer(layer);
+        }
+        try {
+            StreamingRenderer renderer = new StreamingRenderer();
+            renderer.setMapContent(mc);
+            Map<Object, Object> hints = new HashMap<>();
+            hints.put(StreamingRenderer.SHARED_SCAN_KEY, shared);
+            renderer.setRendererHints(hints);
+
+            BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, SIZE, SIZE);
+            renderer.paint(graphics, new Rectangle(SIZE, SIZE), bounds);
+            graphics.dispose();
+            return image;
+        } finally {
+            mc.dispose();
+        }
+    }
+
+    Layer[] basemap() throws Exception {
+        return new Layer[] {
+            layer("type = 'highway'", Color.RED, 8),
+            layer(null, Color.BLUE, 2),
+            layer("type = 'secondary' and name = 'five'", Color.GREEN, 5)
+        };
+    }
+
+    Layer[] sortedBasemap() throws Exception {
+        Layer[] layers = basemap();
+        // sorting depends on the exact set of features read, cannot be shared
+        Query sorted = new Query("roads");
+        sorted.setSortBy(new SortBy[] {FF.sort("name", SortOrder.ASCENDING)});
+        ((FeatureLayer) layers[2]).setQuery(sorted);
+        return layers;
+    }
+
+    @Test
+    public void testSingleScan() throws Exception {
+        BufferedImage expected = render(false, basemap());
+        assertEquals(3, queries.size());
+
+        queries.clear();
+        BufferedImage actual = render(true, basemap());
+        assertEquals(1, queries.size());
+        ImageAssert.assertEquals(expected, actual, 10);
+    }
+
+    @Test
+    public void testPaintOrder() throws Exception {
+        // the green line is painted last, on top of the blue one
+        BufferedImage image = render(true, basemap());
+        assertEquals(Color.GREEN.getRGB(), image.getRGB(SIZE / 2, SIZE - 5));
+        // the blue line is on top of the red one
+        int y = (int) (SIZE - 4.25 * SIZE / 10);
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(SIZE / 4, y));
+    }
+
+    @Test
+    public void testNotShareable() throws Exception {
+        BufferedImage expected = render(false, sortedBasemap());
+
+        queries.clear();
+        BufferedImage actual = render(true, sortedBasemap());
+        assertEquals(2, queries.size());
+        ImageAssert.assertEquals(expected, actual, 10);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import static java.awt.RenderingHints.KEY_ANTIALIASING;
+import static java.awt.RenderingHints.VALUE_ANTIALIAS_ON;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.image.test.ImageAssert;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.MapContent;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.renderer.label.LabelCacheImpl;
+import org.geotools.styling.Style;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.util.NumberRange;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class TiledRenderingTest {
+
+    static final int SIZE = 600;
+
+    SimpleFeatureCollection lines;
+
+    ReferencedEnvelope bounds;
+
+    @BeforeClass
+    public static void setupFonts() throws Exception {
+        RendererBaseTest.setupVeraFonts();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType type =
+                DataUtilities.createType("lines", "geom:LineString:4326,name:String");
+        lines =
+                DataUtilities.collection(
+                        new SimpleFeature[] {
+                            DataUtilities.createFeature(type, "l1=LINESTRING(0 4, 10 5)|one"),
+                            DataUtilities.createFeature(type, "l2=LINESTRING(10 6, 0 7)|two"),
+                            DataUtilities.createFeature(type, "l3=LINESTRING(0 8, 10 9)|three"),
+                            DataUtilities.createFeature(type, "l4=LINESTRING(2 0, 1 10)|four"),
+                            DataUtilities.createFeature(type, "l5=LINESTRING(5 0, 5 10)|five")
+                        });
+        bounds = new ReferencedEnvelope(0, 10, 0, 10, DefaultGeographicCRS.WGS84);
+    }
+
+    BufferedImage render(Map<Object, Object> hints, LabelCacheImpl labelCache) throws Exception {
+        Style style = RendererBaseTest.loadStyle(this, "LineStyle.sld");
+        MapContent mc = new MapContent();
+        mc.addLayer(new FeatureLayer(lines, style));
+        try {
+            StreamingRenderer renderer = new StreamingRenderer();
+            renderer.setMapContent(mc);
+            renderer.setJava2DHints(new RenderingHints(KEY_ANTIALIASING, VALUE_ANTIALIAS_ON));
+            Map<Object, Object> rendererHints = new HashMap<>(hints);
+            if (labelCache != null) {
+                rendererHints.put(StreamingRenderer.LABEL_CACHE_KEY, labelCache);
+            }
+            renderer.setRendererHints(rendererHints);
+
+            BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, SIZE, SIZE);
+            renderer.paint(graphics, new Rectangle(SIZE, SIZE), bounds);
+            graphics.dispose();
+            return image;
+        } finally {
+            mc.dispose();
+        }
+    }
+
+    Map<Object, Object> tiled(int tileSize) {
+        Map<Object, Object> hints = new HashMap<>();
+        hints.put(StreamingRenderer.PARALLEL_TILE_SIZE_KEY, tileSize);
+        return hints;
+    }
+
+    @Test
+    public void testSameAsSerial() throws Exception {
+        BufferedImage expected = render(new HashMap<>(), null);
+        BufferedImage actual = render(tiled(128), null);
+        ImageAssert.assertEquals(expected, actual, 50);
+    }
+
+    @Test
+    public void testUnevenTiles() throws Exception {
+        BufferedImage expected = render(new HashMap<>(), null);
+        BufferedImage actual = render(tiled(250), null);
+        ImageAssert.assertEquals(expected, actual, 50);
+    }
+
+    @Test
+    public void testLabelledOnce() throws Exception {
+        // the lines cross several tiles, but each should be labelled only once
+        CountingLabelCache serial = new CountingLabelCache();
+        render(new HashMap<>(), serial);
+        CountingLabelCache tiled = new CountingLabelCache();
+        render(tiled(100), tiled);
+        assertEquals(5, serial.counts.size());
+        assertEquals(serial.counts, tiled.counts);
+    }
+
+    @Test
+    public void testExternalThreadPool() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            BufferedImage expected = render(new HashMap<>(), null);
+
+            Style style = RendererBaseTest.loadStyle(this, "LineStyle.sld");
+            MapContent mc = new MapContent();
+            mc.addLayer(new FeatureLayer(lines, style));
+            StreamingRenderer renderer = new StreamingRenderer();
+            renderer.setMapContent(mc);
+            renderer.setThreadPool(pool);
+            renderer.setJava2DHints(new RenderingHints(KEY_ANTIALIASING, VALUE_ANTIALIAS_ON));
+            renderer.setRendererHints(tiled(128));
+            BufferedImage actual = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = actual.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, SIZE, SIZE);
+            renderer.paint(graphics, new Rectangle(SIZE, SIZE), bounds);
+            graphics.dispose();
+            mc.dispose();
+
+            ImageAssert.assertEquals(expected, actual, 50);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Counts the labels added for each feature */
+    static class CountingLabelCache extends LabelCacheImpl {
+
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+        @Override
+        public void put(
+                String layerId,
+                TextSymbolizer symbolizer,
+                Feature feature,
+                LiteShape2 shape,
+                NumberRange scaleRange) {
+            counts.merge(feature.getIdentifier().getID(), 1, Integer::sum);
+            super.put(layerId, symbolizer, feature, shape, scaleRange);
+        }
+    }
+}
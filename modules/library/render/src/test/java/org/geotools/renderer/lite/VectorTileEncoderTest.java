@@ -0,0 +1,224 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+
+public class VectorTileEncoderTest {
+
+    /** A minimal protobuf reader, collecting the fields of a message */
+    static class Message {
+        Map<Integer, List<Object>> fields = new LinkedHashMap<>();
+
+        Message(byte[] bytes) {
+            ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+            while (in.available() > 0) {
+                long tag = readVarint(in);
+                int field = (int) (tag >>> 3);
+                int type = (int) (tag & 0x7);
+                Object value;
+                if (type == VectorTileEncoder.VARINT) {
+                    value = readVarint(in);
+                } else if (type == VectorTileEncoder.LENGTH_DELIMITED) {
+                    byte[] data = new byte[(int) readVarint(in)];
+                    in.read(data, 0, data.length);
+                    value = data;
+                } else if (type == VectorTileEncoder.FIXED64) {
+                    value = readFixed(in, 8);
+                } else {
+                    value = readFixed(in, 4);
+                }
+                fields.computeIfAbsent(field, k -> new ArrayList<>()).add(value);
+            }
+        }
+
+        static long readVarint(ByteArrayInputStream in) {
+            long result = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = in.read();
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return result;
+        }
+
+        static long readFixed(ByteArrayInputStream in, int bytes) {
+            long result = 0;
+            for (int i = 0; i < bytes; i++) {
+                result |= (long) in.read() << (i * 8);
+            }
+            return result;
+        }
+
+        List<Object> get(int field) {
+            return fields.getOrDefault(field, new ArrayList<>());
+        }
+
+        Message message(int field, int index) {
+            return new Message((byte[]) get(field).get(index));
+        }
+
+        String string(int field, int index) {
+            return new String((byte[]) get(field).get(index), StandardCharsets.UTF_8);
+        }
+
+        long number(int field) {
+            return (Long) get(field).get(0);
+        }
+
+        List<Long> packed(int field) {
+            List<Long> result = new ArrayList<>();
+            for (Object value : get(field)) {
+                ByteArrayInputStream in = new ByteArrayInputStream((byte[]) value);
+                while (in.available() > 0) {
+                    result.add(readVarint(in));
+                }
+            }
+            return result;
+        }
+    }
+
+    Geometry geometry(String wkt) throws Exception {
+        return new WKTReader().read(wkt);
+    }
+
+    List<Long> commands(VectorTileEncoder encoder, String wkt) throws Exception {
+        encoder.addFeature("test", null, null, geometry(wkt));
+        Message tile = new Message(encoder.encode());
+        Message layer = tile.message(3, 0);
+        Message feature = layer.message(2, layer.get(2).size() - 1);
+        return feature.packed(4);
+    }
+
+    @Test
+    public void testPoint() throws Exception {
+        // examples from the specification
+        assertEquals(
+                Arrays.asList(9L, 50L, 34L), commands(new VectorTileEncoder(), "POINT(25 17)"));
+        assertEquals(
+                Arrays.asList(17L, 10L, 14L, 3L, 9L),
+                commands(new VectorTileEncoder(), "MULTIPOINT((5 7), (3 2))"));
+    }
+
+    @Test
+    public void testLine() throws Exception {
+        assertEquals(
+                Arrays.asList(9L, 4L, 4L, 18L, 0L, 16L, 16L, 0L),
+                commands(new VectorTileEncoder(), "LINESTRING(2 2, 2 10, 10 10)"));
+        assertEquals(
+                Arrays.asList(9L, 4L, 4L, 18L, 0L, 16L, 16L, 0L, 9L, 17L, 17L, 10L, 4L, 8L),
+                commands(
+                        new VectorTileEncoder(),
+                        "MULTILINESTRING((2 2, 2 10, 10 10), (1 1, 3 5))"));
+        // rounding collapses the line to a single point
+        VectorTileEncoder encoder = new VectorTileEncoder();
+        assertFalse(encoder.addFeature("test", null, null, geometry("LINESTRING(1 1, 1.2 1.1)")));
+        assertEquals(0, encoder.getFeatureCount("test"));
+    }
+
+    @Test
+    public void testPolygon() throws Exception {
+        assertEquals(
+                Arrays.asList(9L, 6L, 12L, 18L, 10L, 12L, 24L, 44L, 15L),
+                commands(new VectorTileEncoder(), "POLYGON((3 6, 8 12, 20 34, 3 6))"));
+        // counter clockwise shell and clockwise hole get reoriented
+        List<Long> commands =
+                commands(
+                        new VectorTileEncoder(),
+                        "POLYGON((0 0, 0 10, 10 10, 10 0, 0 0), (2 2, 8 2, 8 8, 2 8, 2 2))");
+        assertEquals(
+                Arrays.asList(
+                        9L, 20L, 0L, 26L, 0L, 20L, 19L, 0L, 0L, 19L, 15L, 9L, 4L, 16L, 26L, 12L, 0L,
+                        0L, 11L, 11L, 0L, 15L),
+                commands);
+    }
+
+    @Test
+    public void testAttributes() throws Exception {
+        VectorTileEncoder encoder = new VectorTileEncoder(512);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("name", "one");
+        attributes.put("count", 3);
+        attributes.put("ratio", 0.5d);
+        attributes.put("flag", true);
+        attributes.put("missing", null);
+        assertTrue(encoder.addFeature("layer", 12L, attributes, geometry("POINT(1 1)")));
+        attributes.put("name", "two");
+        attributes.put("count", -3L);
+        assertTrue(encoder.addFeature("layer", 13L, attributes, geometry("POINT(2 2)")));
+        assertEquals(2, encoder.getFeatureCount("layer"));
+
+        Message layer = new Message(encoder.encode()).message(3, 0);
+        assertEquals(2, layer.number(15));
+        assertEquals("layer", layer.string(1, 0));
+        assertEquals(512, layer.number(5));
+        assertEquals(Arrays.asList("name", "count", "ratio", "flag"), strings(layer, 3));
+        // values are shared among features
+        List<Object> values = layer.get(4);
+        assertEquals(6, values.size());
+        assertEquals("one", new Message((byte[]) values.get(0)).string(1, 0));
+        assertEquals(6L, new Message((byte[]) values.get(1)).number(6));
+        assertEquals(
+                0.5d, Double.longBitsToDouble(new Message((byte[]) values.get(2)).number(3)), 0d);
+        assertEquals(1L, new Message((byte[]) values.get(3)).number(7));
+        assertEquals("two", new Message((byte[]) values.get(4)).string(1, 0));
+        assertEquals(5L, new Message((byte[]) values.get(5)).number(6));
+
+        Message first = layer.message(2, 0);
+        assertEquals(12L, first.number(1));
+        assertEquals(1L, first.number(3));
+        assertEquals(Arrays.asList(0L, 0L, 1L, 1L, 2L, 2L, 3L, 3L), first.packed(2));
+        Message second = layer.message(2, 1);
+        assertEquals(13L, second.number(1));
+        assertEquals(Arrays.asList(0L, 4L, 1L, 5L, 2L, 2L, 3L, 3L), second.packed(2));
+    }
+
+    @Test
+    public void testCollection() throws Exception {
+        VectorTileEncoder encoder = new VectorTileEncoder();
+        assertTrue(
+                encoder.addFeature(
+                        "test",
+                        null,
+                        null,
+                        geometry("GEOMETRYCOLLECTION(POINT(1 1), LINESTRING(0 0, 10 10))")));
+        assertEquals(2, encoder.getFeatureCount("test"));
+    }
+
+    List<String> strings(Message message, int field) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < message.get(field).size(); i++) {
+            result.add(message.string(field, i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.MapContent;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.renderer.lite.VectorTileEncoderTest.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class VectorTileRendererTest {
+
+    SimpleFeatureCollection lines;
+
+    MapContent mc;
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType type =
+                DataUtilities.createType("lines", "geom:LineString:4326,name:String,code:int");
+        lines =
+                DataUtilities.collection(
+                        new SimpleFeature[] {
+                            DataUtilities.createFeature(
+                                    type, "lines.1=LINESTRING(0 4, 10 5)|one|1"),
+                            DataUtilities.createFeature(
+                                    type, "lines.2=LINESTRING(10 6, 0 7)|two|2"),
+                            DataUtilities.createFeature(
+                                    type, "lines.4=LINESTRING(2 0, 1 10)|four|4"),
+                            DataUtilities.createFeature(
+                                    type, "lines.5=LINESTRING(5 0, 5 10)|five|5")
+                        });
+        mc = new MapContent();
+    }
+
+    @After
+    public void tearDown() {
+        mc.dispose();
+    }
+
+    Message renderTile(String style, ReferencedEnvelope envelope) throws Exception {
+        mc.addLayer(new FeatureLayer(lines, RendererBaseTest.loadStyle(this, style)));
+        VectorTileRenderer renderer = new VectorTileRenderer(mc);
+        renderer.setExtent(256);
+        renderer.setBuffer(8);
+        return new Message(renderer.render(envelope));
+    }
+
+    @Test
+    public void testEncodeLines() throws Exception {
+        Message tile =
+                renderTile(
+                        "LineStyle.sld",
+                        new ReferencedEnvelope(0, 5, 0, 5, DefaultGeographicCRS.WGS84));
+        assertEquals(1, tile.get(3).size());
+        Message layer = tile.message(3, 0);
+        assertEquals("lines", layer.string(1, 0));
+        assertEquals(256, layer.number(5));
+        // the line outside of the tile and buffer is skipped, the labelled lines are encoded once
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < layer.get(2).size(); i++) {
+            Message feature = layer.message(2, i);
+            ids.add(feature.number(1));
+            assertEquals(VectorTileEncoder.LINESTRING, feature.number(3));
+            assertWithinBuffer(feature.packed(4), 256, 8);
+        }
+        assertEquals(Arrays.asList(1L, 4L, 5L), ids);
+        // only the attributes used by the style are read
+        assertEquals("name", layer.string(3, 0));
+        assertEquals(1, layer.get(3).size());
+    }
+
+    /** Decodes the geometry commands, checking the coordinates are within extent and buffer */
+    void assertWithinBuffer(List<Long> commands, int extent, int buffer) {
+        long x = 0;
+        long y = 0;
+        int i = 0;
+        while (i < commands.size()) {
+            long command = commands.get(i++);
+            long id = command & 0x7;
+            long count = command >> 3;
+            if (id == VectorTileEncoder.CLOSE_PATH) {
+                continue;
+            }
+            for (int j = 0; j < count; j++) {
+                x += unZigZag(commands.get(i++));
+                y += unZigZag(commands.get(i++));
+                assertTrue(x >= -buffer && x <= extent + buffer);
+                assertTrue(y >= -buffer && y <= extent + buffer);
+            }
+        }
+    }
+
+    long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    @Test
+    public void testEmptyTile() throws Exception {
+        Message tile =
+                renderTile(
+                        "lineGray.sld",
+                        new ReferencedEnvelope(20, 30, 20, 30, DefaultGeographicCRS.WGS84));
+        assertEquals(0, tile.get(3).size());
+    }
+
+    @Test
+    public void testEncodedAfterFirstShapeSkipped() throws Exception {
+        FeatureLayer layer =
+                new FeatureLayer(lines, RendererBaseTest.loadStyle(this, "lineGray.sld"));
+        VectorTileRenderer renderer = new VectorTileRenderer(mc);
+        renderer.setExtent(256);
+        renderer.setBuffer(8);
+        VectorTileEncoder encoder = new VectorTileEncoder(256);
+        VectorTileRenderer.Collector collector = renderer.new Collector(encoder);
+
+        // the first shape falls outside of the tile, the one from the next symbolizer does not
+        SimpleFeature feature = DataUtilities.first(lines);
+        WKTReader reader = new WKTReader();
+        Geometry outside = reader.read("LINESTRING(300 300, 400 400)");
+        Geometry inside = reader.read("LINESTRING(10 10, 100 100)");
+        collector.collect(layer, feature, null, new LiteShape2(outside, null, null, false));
+        collector.collect(layer, feature, null, new LiteShape2(inside, null, null, false));
+        collector.collect(layer, feature, null, new LiteShape2(inside, null, null, false));
+
+        Message tile = new Message(encoder.encode());
+        assertEquals(1, tile.get(3).size());
+        assertEquals(1, tile.message(3, 0).get(2).size());
+    }
+}
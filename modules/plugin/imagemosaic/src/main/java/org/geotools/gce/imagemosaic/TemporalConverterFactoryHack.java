@@ -47,23 +47,59 @@ import org.geotools.util.factory.Hints;
  */
 class TemporalConverterFactoryHack implements ConverterFactory {
 
+    static final Converter DATE_TO_STRING =
+            new Converter() {
+                public Object convert(Object source, Class target) throws Exception {
+                    if (source instanceof Date) {
+                        return format((Date) source);
+                    }
+                    return null;
+                }
+            };
+
+    static final Converter CALENDAR_TO_STRING =
+            new Converter() {
+                public Object convert(Object source, Class target) throws Exception {
+                    if (source instanceof Calendar) {
+                        return format(((Calendar) source).getTime());
+                    }
+                    return null;
+                }
+            };
+
+    static final Converter XML_TO_STRING =
+            new Converter() {
+                public Object convert(Object source, Class target) throws Exception {
+                    if (source instanceof XMLGregorianCalendar) {
+                        return format(
+                                ((XMLGregorianCalendar) source)
+                                        .toGregorianCalendar(
+                                                TimeZone.getTimeZone("GMT"),
+                                                Locale.getDefault(),
+                                                null)
+                                        .getTime());
+                    }
+                    return null;
+                }
+            };
+
+    /**
+     * Formats the date in UTC. SimpleDateFormat is not thread safe, so a new one is used for each
+     * conversion, as the converters are shared.
+     */
+    static String format(Date date) {
+        final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        df.setTimeZone(TimeZone.getTimeZone("UTC")); // we DO work only with UTC times
+        return df.format(date);
+    }
+
     public Converter createConverter(Class source, Class target, Hints hints) {
 
         if (Date.class.isAssignableFrom(source)) {
 
             // target is string
             if (String.class.equals(target)) {
-                final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-                df.setTimeZone(TimeZone.getTimeZone("UTC")); // we DO work only with UTC times
-
-                return new Converter() {
-                    public Object convert(Object source, Class target) throws Exception {
-                        if (source instanceof Date) {
-                            return df.format((Date) source);
-                        }
-                        return null;
-                    }
-                };
+                return DATE_TO_STRING;
             }
         }
 
@@ -73,40 +109,14 @@ class TemporalConverterFactoryHack implements ConverterFactory {
 
             // target is string
             if (String.class.equals(target)) {
-                final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-                df.setTimeZone(TimeZone.getTimeZone("UTC")); // we DO work only with UTC times
-
-                return new Converter() {
-                    public Object convert(Object source, Class target) throws Exception {
-                        if (source instanceof Calendar) {
-                            return df.format(((Calendar) source).getTime());
-                        }
-                        return null;
-                    }
-                };
+                return CALENDAR_TO_STRING;
             }
         }
 
         if (XMLGregorianCalendar.class.isAssignableFrom(source)) {
             // target is string
             if (String.class.equals(target)) {
-                final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-                df.setTimeZone(TimeZone.getTimeZone("UTC")); // we DO work only with UTC times
-
-                return new Converter() {
-                    public Object convert(Object source, Class target) throws Exception {
-                        if (source instanceof XMLGregorianCalendar) {
-                            return df.format(
-                                    ((XMLGregorianCalendar) source)
-                                            .toGregorianCalendar(
-                                                    TimeZone.getTimeZone("GMT"),
-                                                    Locale.getDefault(),
-                                                    null)
-                                            .getTime());
-                        }
-                        return null;
-                    }
-                };
+                return XML_TO_STRING;
             }
         }
         return null;
@@ -0,0 +1,71 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.gce.imagemosaic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.geotools.util.Converter;
+import org.junit.Test;
+
+public class TemporalConverterFactoryHackTest {
+
+    @Test
+    public void testConcurrentDateToString() throws Exception {
+        // the converter is shared, make sure it can be used by many threads at once
+        Converter converter =
+                new TemporalConverterFactoryHack().createConverter(Date.class, String.class, null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t;
+                tasks.add(
+                        () -> {
+                            Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                            for (int i = 0; i < 1000; i++) {
+                                int day = i % 28 + 1;
+                                calendar.clear();
+                                calendar.set(2008, offset, day, 12, 30, 45);
+                                calendar.set(Calendar.MILLISECOND, i);
+                                String expected =
+                                        String.format(
+                                                "2008-%02d-%02dT12:30:45.%03dZ",
+                                                offset + 1, day, i);
+                                assertEquals(
+                                        expected,
+                                        converter.convert(calendar.getTime(), String.class));
+                            }
+                            return null;
+                        });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -542,6 +542,11 @@ public class H2Dialect extends SQLDialect {
         return true;
     }
 
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return true;
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         if (limit >= 0 && limit < Integer.MAX_VALUE) {
@@ -21,7 +21,9 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
+import java.util.function.ObjIntConsumer;
 import org.geotools.data.jdbc.FilterToSQL;
 import org.geotools.jdbc.BasicSQLDialect;
 import org.geotools.jdbc.JDBCDataStore;
@@ -244,6 +246,20 @@ public class H2DialectBasic extends BasicSQLDialect {
         return delegate.isLimitOffsetSupported();
     }
 
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return delegate.isKeysetPagingSupported();
+    }
+
+    @Override
+    public void encodeKeysetPredicate(
+            List<String> columns,
+            boolean[] ascending,
+            ObjIntConsumer<StringBuffer> values,
+            StringBuffer sql) {
+        delegate.encodeKeysetPredicate(columns, ascending, values, sql);
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         delegate.applyLimitOffset(sql, limit, offset);
@@ -24,7 +24,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.List;
 import java.util.Map;
+import java.util.function.ObjIntConsumer;
 import org.geotools.jdbc.JDBCDataStore;
 import org.geotools.jdbc.PreparedStatementSQLDialect;
 import org.geotools.util.factory.Hints;
@@ -211,6 +213,20 @@ public class H2DialectPrepared extends PreparedStatementSQLDialect {
         return delegate.isLimitOffsetSupported();
     }
 
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return delegate.isKeysetPagingSupported();
+    }
+
+    @Override
+    public void encodeKeysetPredicate(
+            List<String> columns,
+            boolean[] ascending,
+            ObjIntConsumer<StringBuffer> values,
+            StringBuffer sql) {
+        delegate.encodeKeysetPredicate(columns, ascending, values, sql);
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         delegate.applyLimitOffset(sql, limit, offset);
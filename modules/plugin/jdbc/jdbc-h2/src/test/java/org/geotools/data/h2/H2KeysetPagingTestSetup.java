@@ -0,0 +1,48 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.h2;
+
+import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.jdbc.JDBCKeysetPagingTestSetup;
+
+public class H2KeysetPagingTestSetup extends JDBCKeysetPagingTestSetup {
+
+    protected H2KeysetPagingTestSetup() {
+        super(new H2TestSetup());
+    }
+
+    @Override
+    protected void setUpDataStore(JDBCDataStore dataStore) {
+        super.setUpDataStore(dataStore);
+        dataStore.setDatabaseSchema(null);
+    }
+
+    @Override
+    protected void createPagedTable() throws Exception {
+        run(
+                "CREATE TABLE \"paged\" (\"id\" int AUTO_INCREMENT(1) PRIMARY KEY, "
+                        + "\"name\" varchar(10) NOT NULL, \"score\" int NOT NULL, \"note\" varchar(10))");
+        run(
+                "INSERT INTO \"paged\" (\"name\", \"score\", \"note\") VALUES "
+                        + "('a', 3, 'x'), ('b', 1, NULL), ('c', 2, 'y'), ('d', 3, NULL), ('e', 1, 'z'), ('f', 2, 'x'), ('g', 3, 'y'), ('h', 1, NULL), ('i', 2, 'z'), ('j', 3, 'x')");
+    }
+
+    @Override
+    protected void dropPagedTable() throws Exception {
+        run("DROP TABLE \"paged\"");
+    }
+}
@@ -1488,6 +1488,11 @@ public class OracleDialect extends PreparedStatementSQLDialect {
         return true;
     }
 
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return true;
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         // see http://progcookbook.blogspot.com/2006/02/using-rownum-properly-for-pagination.html
@@ -85,6 +85,10 @@ public class OracleNGOCIDataStoreFactory extends OracleNGDataStoreFactory {
         parameters.put(MINCONN.key, MINCONN);
         parameters.put(FETCHSIZE.key, FETCHSIZE);
         parameters.put(BATCH_INSERT_SIZE.key, BATCH_INSERT_SIZE);
+        parameters.put(PREFETCH_DEPTH.key, PREFETCH_DEPTH);
+        parameters.put(RESULT_CACHE_SIZE.key, RESULT_CACHE_SIZE);
+        parameters.put(BULK_INTROSPECTION.key, BULK_INTROSPECTION);
+        parameters.put(SCHEMA_SNAPSHOT_FILE.key, SCHEMA_SNAPSHOT_FILE);
         parameters.put(MAXWAIT.key, MAXWAIT);
         if (getValidationQuery() != null) parameters.put(VALIDATECONN.key, VALIDATECONN);
         parameters.put(PK_METADATA_TABLE.key, PK_METADATA_TABLE);
@@ -0,0 +1,493 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import org.geotools.geometry.jts.CurvedGeometry;
+import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.jdbc.PrimaryKey;
+import org.geotools.jdbc.PrimaryKeyColumn;
+import org.geotools.util.Converters;
+import org.geotools.util.factory.Hints;
+import org.geotools.util.logging.Logging;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.WKBConstants;
+import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Loads features in a table with the PostgreSQL <code>COPY ... FROM STDIN (FORMAT binary)</code>
+ * command. Values are encoded on the fly in the binary format of the target columns, geometries as
+ * EWKB, and streamed to the server.
+ *
+ * <p>The binary format is strict about the column types, so the loader only handles the common
+ * scalar types, and refuses tables using any other type.
+ */
+class PostGISCopyLoader {
+
+    static final Logger LOGGER = Logging.getLogger(PostGISCopyLoader.class);
+
+    /** The binary copy file signature */
+    static final byte[] SIGNATURE = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+    };
+
+    /** The PostgreSQL date and time epoch, 2000-01-01, as seconds since the Java epoch */
+    static final long EPOCH_SECONDS = 946684800L;
+
+    /** The PostgreSQL date and time epoch, 2000-01-01, as days since the Java epoch */
+    static final long EPOCH_DAYS = 10957L;
+
+    static final int EWKB_SRID_FLAG = 0x20000000;
+
+    static final int BUFFER_SIZE = 65536;
+
+    /** Writes a non null value, length included, in the binary format of a column */
+    interface ColumnEncoder {
+        void write(Object value, DataOutputStream out) throws IOException;
+    }
+
+    final JDBCDataStore dataStore;
+
+    final SimpleFeatureType featureType;
+
+    final PrimaryKey key;
+
+    /** The loaded columns, attributes first, then the primary key ones */
+    final List<String> columns = new ArrayList<>();
+
+    /** The attribute of each column, or null for the primary key columns */
+    final List<AttributeDescriptor> descriptors = new ArrayList<>();
+
+    PostGISCopyLoader(JDBCDataStore dataStore, SimpleFeatureType featureType, PrimaryKey key) {
+        this.dataStore = dataStore;
+        this.featureType = featureType;
+        this.key = key;
+        for (AttributeDescriptor ad : featureType.getAttributeDescriptors()) {
+            // skip the pk columns in case we have exposed them, we grab the value from the pk
+            if (key.getColumn(ad.getLocalName()) == null) {
+                columns.add(ad.getLocalName());
+                descriptors.add(ad);
+            }
+        }
+        for (PrimaryKeyColumn column : key.getColumns()) {
+            columns.add(column.getName());
+            descriptors.add(null);
+        }
+    }
+
+    /**
+     * Loads the features, returns false if the table or the features cannot be encoded in binary
+     * form
+     */
+    boolean load(
+            Collection<? extends SimpleFeature> features,
+            List<List<Object>> keyValues,
+            PGConnection pgcx,
+            Connection cx)
+            throws IOException, SQLException {
+        ColumnEncoder[] encoders = getEncoders(cx);
+        if (encoders == null || !canEncode(features)) {
+            return false;
+        }
+
+        int attributes = columns.size() - key.getColumns().size();
+        PGCopyOutputStream copy = new PGCopyOutputStream(pgcx, getCopySQL(), BUFFER_SIZE);
+        try {
+            DataOutputStream out = new DataOutputStream(copy);
+            out.write(SIGNATURE);
+            // flags and header extension length
+            out.writeInt(0);
+            out.writeInt(0);
+            int i = 0;
+            for (SimpleFeature feature : features) {
+                out.writeShort(columns.size());
+                for (int c = 0; c < columns.size(); c++) {
+                    Object value =
+                            c < attributes
+                                    ? feature.getAttribute(columns.get(c))
+                                    : keyValues.get(i).get(c - attributes);
+                    if (value == null) {
+                        out.writeInt(-1);
+                    } else {
+                        encoders[c].write(value, out);
+                    }
+                }
+                i++;
+            }
+            out.writeShort(-1);
+            out.flush();
+            long rows = copy.endCopy();
+            if (rows != features.size()) {
+                throw new IOException(
+                        "Copied " + rows + " rows, but " + features.size() + " were expected");
+            }
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        return true;
+    }
+
+    String getCopySQL() throws SQLException {
+        StringBuffer sql = new StringBuffer("COPY ");
+        dataStore.encodeTableName(featureType.getTypeName(), sql, null);
+        sql.append(" (");
+        encodeColumns(sql);
+        sql.append(") FROM STDIN (FORMAT binary)");
+        return sql.toString();
+    }
+
+    private void encodeColumns(StringBuffer sql) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            dataStore.getSQLDialect().encodeColumnName(null, columns.get(i), sql);
+        }
+    }
+
+    /** Checks the features do not contain geometries that cannot be represented as EWKB */
+    private boolean canEncode(Collection<? extends SimpleFeature> features) {
+        for (SimpleFeature feature : features) {
+            for (Object value : feature.getAttributes()) {
+                if (value instanceof CurvedGeometry) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Looks up the native column types, and returns their encoders, or null if not supported */
+    ColumnEncoder[] getEncoders(Connection cx) throws SQLException {
+        StringBuffer sql = new StringBuffer("SELECT ");
+        encodeColumns(sql);
+        sql.append(" FROM ");
+        dataStore.encodeTableName(featureType.getTypeName(), sql, null);
+        sql.append(" LIMIT 0");
+
+        Statement st = cx.createStatement();
+        try {
+            ResultSet rs = st.executeQuery(sql.toString());
+            try {
+                ResultSetMetaData md = rs.getMetaData();
+                ColumnEncoder[] encoders = new ColumnEncoder[columns.size()];
+                for (int i = 0; i < encoders.length; i++) {
+                    String typeName = md.getColumnTypeName(i + 1);
+                    encoders[i] = getEncoder(typeName, descriptors.get(i));
+                    if (encoders[i] == null) {
+                        LOGGER.fine(
+                                "Cannot copy column "
+                                        + columns.get(i)
+                                        + " of type "
+                                        + typeName
+                                        + " in binary form");
+                        return null;
+                    }
+                }
+                return encoders;
+            } finally {
+                dataStore.closeSafe(rs);
+            }
+        } finally {
+            dataStore.closeSafe(st);
+        }
+    }
+
+    static ColumnEncoder getEncoder(String typeName, AttributeDescriptor descriptor) {
+        switch (typeName) {
+            case "bool":
+                return (v, out) -> {
+                    out.writeInt(1);
+                    out.writeBoolean(convert(v, Boolean.class));
+                };
+            case "int2":
+                return (v, out) -> {
+                    out.writeInt(2);
+                    out.writeShort(convert(v, Number.class).shortValue());
+                };
+            case "int4":
+                return (v, out) -> {
+                    out.writeInt(4);
+                    out.writeInt(convert(v, Number.class).intValue());
+                };
+            case "int8":
+                return (v, out) -> {
+                    out.writeInt(8);
+                    out.writeLong(convert(v, Number.class).longValue());
+                };
+            case "float4":
+                return (v, out) -> {
+                    out.writeInt(4);
+                    out.writeFloat(convert(v, Number.class).floatValue());
+                };
+            case "float8":
+                return (v, out) -> {
+                    out.writeInt(8);
+                    out.writeDouble(convert(v, Number.class).doubleValue());
+                };
+            case "numeric":
+                return (v, out) -> writeNumeric(convert(v, Number.class), out);
+            case "text":
+            case "varchar":
+            case "bpchar":
+            case "name":
+                return (v, out) -> writeBytes(toString(v).getBytes(StandardCharsets.UTF_8), out);
+            case "bytea":
+                return (v, out) -> writeBytes(convert(v, byte[].class), out);
+            case "uuid":
+                return (v, out) -> {
+                    UUID uuid = convert(v, UUID.class);
+                    out.writeInt(16);
+                    out.writeLong(uuid.getMostSignificantBits());
+                    out.writeLong(uuid.getLeastSignificantBits());
+                };
+            case "date":
+                return (v, out) -> {
+                    // dates are local to the JVM time zone, like in JDBC
+                    java.sql.Date date = new java.sql.Date(convert(v, Date.class).getTime());
+                    out.writeInt(4);
+                    out.writeInt((int) (date.toLocalDate().toEpochDay() - EPOCH_DAYS));
+                };
+            case "time":
+                return (v, out) -> {
+                    Timestamp ts = new Timestamp(convert(v, Time.class).getTime());
+                    out.writeInt(8);
+                    out.writeLong(ts.toLocalDateTime().toLocalTime().toNanoOfDay() / 1000);
+                };
+            case "timestamp":
+                return (v, out) -> {
+                    // timestamps are local to the JVM time zone, like in JDBC
+                    LocalDateTime time = toTimestamp(v).toLocalDateTime();
+                    long seconds = time.toEpochSecond(ZoneOffset.UTC) - EPOCH_SECONDS;
+                    out.writeInt(8);
+                    out.writeLong(seconds * 1000000 + time.getNano() / 1000);
+                };
+            case "timestamptz":
+                return (v, out) -> {
+                    Timestamp time = toTimestamp(v);
+                    long seconds = Math.floorDiv(time.getTime(), 1000) - EPOCH_SECONDS;
+                    out.writeInt(8);
+                    out.writeLong(seconds * 1000000 + time.getNanos() / 1000);
+                };
+            case "geometry":
+            case "geography":
+                return getGeometryEncoder(descriptor);
+            default:
+                return null;
+        }
+    }
+
+    static ColumnEncoder getGeometryEncoder(AttributeDescriptor descriptor) {
+        if (!(descriptor instanceof GeometryDescriptor)) {
+            return null;
+        }
+        Integer srid = (Integer) descriptor.getUserData().get(JDBCDataStore.JDBC_NATIVE_SRID);
+        Integer dimension = (Integer) descriptor.getUserData().get(Hints.COORDINATE_DIMENSION);
+        if (dimension != null && dimension > 3) {
+            // measures cannot be encoded
+            return null;
+        }
+        WKBWriter writer2 = new WKBWriter(2);
+        WKBWriter writer3 = new WKBWriter(3);
+        return (v, out) -> {
+            Geometry g = convert(v, Geometry.class);
+            int dim = dimension != null && dimension > 0 ? dimension : guessDimension(g);
+            byte[] wkb =
+                    g.isEmpty() ? getEmptyWKB(g, dim) : (dim == 3 ? writer3 : writer2).write(g);
+            int gsrid = srid != null && srid > 0 ? srid : g.getSRID();
+            if (gsrid > 0) {
+                // turn the big endian WKB into EWKB, with the srid following the type
+                int type =
+                        ((wkb[1] & 0xFF) << 24)
+                                | ((wkb[2] & 0xFF) << 16)
+                                | ((wkb[3] & 0xFF) << 8)
+                                | (wkb[4] & 0xFF);
+                out.writeInt(wkb.length + 4);
+                out.write(wkb[0]);
+                out.writeInt(type | EWKB_SRID_FLAG);
+                out.writeInt(gsrid);
+                out.write(wkb, 5, wkb.length - 5);
+            } else {
+                writeBytes(wkb, out);
+            }
+        };
+    }
+
+    /**
+     * Returns the big endian WKB of an empty geometry, as JTS cannot write empty points: those are
+     * represented with NaN coordinates, as PostGIS does, the other types with zero components
+     */
+    static byte[] getEmptyWKB(Geometry g, int dimension) {
+        int type;
+        if (g instanceof Point) {
+            type = WKBConstants.wkbPoint;
+        } else if (g instanceof LineString) {
+            type = WKBConstants.wkbLineString;
+        } else if (g instanceof Polygon) {
+            type = WKBConstants.wkbPolygon;
+        } else if (g instanceof MultiPoint) {
+            type = WKBConstants.wkbMultiPoint;
+        } else if (g instanceof MultiLineString) {
+            type = WKBConstants.wkbMultiLineString;
+        } else if (g instanceof MultiPolygon) {
+            type = WKBConstants.wkbMultiPolygon;
+        } else {
+            type = WKBConstants.wkbGeometryCollection;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(g instanceof Point ? 5 + 8 * dimension : 9);
+        buffer.put((byte) WKBConstants.wkbXDR);
+        buffer.putInt(dimension == 3 ? type | 0x80000000 : type);
+        if (g instanceof Point) {
+            for (int i = 0; i < dimension; i++) {
+                buffer.putDouble(Double.NaN);
+            }
+        } else {
+            buffer.putInt(0);
+        }
+        return buffer.array();
+    }
+
+    static int guessDimension(Geometry g) {
+        Coordinate c = g.getCoordinate();
+        return c != null && !Double.isNaN(c.getZ()) ? 3 : 2;
+    }
+
+    /** Writes a numeric value, as base 10000 digits */
+    static void writeNumeric(Number number, DataOutputStream out) throws IOException {
+        if (number instanceof Double || number instanceof Float) {
+            if (Double.isNaN(number.doubleValue())) {
+                out.writeInt(8);
+                out.writeShort(0);
+                out.writeShort(0);
+                out.writeShort(0xC000);
+                out.writeShort(0);
+                return;
+            }
+        }
+        BigDecimal value =
+                number instanceof BigDecimal
+                        ? (BigDecimal) number
+                        : new BigDecimal(number.toString());
+        int scale = Math.max(0, value.scale());
+        String plain = value.abs().toPlainString();
+        int dot = plain.indexOf('.');
+        String integer = dot < 0 ? plain : plain.substring(0, dot);
+        String fraction = dot < 0 ? "" : plain.substring(dot + 1);
+
+        // pad to groups of 4 digits, on the left for the integer part, on the right for the
+        // fraction
+        StringBuilder sb = new StringBuilder();
+        for (int i = (4 - integer.length() % 4) % 4; i > 0; i--) {
+            sb.append('0');
+        }
+        sb.append(integer);
+        int integerGroups = sb.length() / 4;
+        sb.append(fraction);
+        while (sb.length() % 4 != 0) {
+            sb.append('0');
+        }
+        int[] groups = new int[sb.length() / 4];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = Integer.parseInt(sb.substring(i * 4, i * 4 + 4));
+        }
+
+        // strip the leading and trailing zero groups
+        int first = 0;
+        while (first < groups.length && groups[first] == 0) {
+            first++;
+        }
+        int last = groups.length;
+        while (last > first && groups[last - 1] == 0) {
+            last--;
+        }
+        int digits = last - first;
+        int weight = digits == 0 ? 0 : integerGroups - 1 - first;
+        int sign = value.signum() < 0 ? 0x4000 : 0;
+
+        out.writeInt(8 + digits * 2);
+        out.writeShort(digits);
+        out.writeShort(weight);
+        out.writeShort(sign);
+        out.writeShort(scale);
+        for (int i = first; i < last; i++) {
+            out.writeShort(groups[i]);
+        }
+    }
+
+    static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static Timestamp toTimestamp(Object value) throws IOException {
+        if (value instanceof Timestamp) {
+            return (Timestamp) value;
+        }
+        return new Timestamp(convert(value, Date.class).getTime());
+    }
+
+    static String toString(Object value) {
+        String converted = Converters.convert(value, String.class);
+        return converted != null ? converted : value.toString();
+    }
+
+    static <T> T convert(Object value, Class<T> target) throws IOException {
+        if (target.isInstance(value)) {
+            return target.cast(value);
+        }
+        T converted = Converters.convert(value, target);
+        if (converted == null) {
+            throw new IOException(
+                    "Cannot convert " + value + " to " + target.getSimpleName() + " for copy");
+        }
+        return converted;
+    }
+}
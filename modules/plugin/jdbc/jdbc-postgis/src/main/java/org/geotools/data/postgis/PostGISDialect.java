@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.reflect.Array;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Savepoint;
@@ -28,6 +29,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,8 +37,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.ObjIntConsumer;
 import java.util.logging.Level;
 import org.geotools.data.jdbc.FilterToSQL;
+import org.geotools.data.jdbc.datasource.DataSourceFinder;
+import org.geotools.data.jdbc.datasource.UnWrapper;
+import org.geotools.feature.visitor.MedianVisitor;
+import org.geotools.feature.visitor.StandardDeviationVisitor;
 import org.geotools.geometry.jts.CircularRing;
 import org.geotools.geometry.jts.CircularString;
 import org.geotools.geometry.jts.CompoundCurve;
@@ -50,6 +57,7 @@ import org.geotools.geometry.jts.WKTWriter2;
 import org.geotools.jdbc.BasicSQLDialect;
 import org.geotools.jdbc.ColumnMetadata;
 import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.jdbc.PrimaryKey;
 import org.geotools.referencing.CRS;
 import org.geotools.util.Version;
 import org.geotools.util.factory.Hints;
@@ -67,10 +75,13 @@ import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.feature.type.GeometryDescriptor;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.postgresql.PGConnection;
 
 public class PostGISDialect extends BasicSQLDialect {
 
@@ -168,6 +179,32 @@ public class PostGISDialect extends BasicSQLDialect {
         return "distinct".equalsIgnoreCase(function);
     }
 
+    @Override
+    public void registerAggregateFunctions(
+            Map<Class<? extends FeatureVisitor>, String> aggregates) {
+        super.registerAggregateFunctions(aggregates);
+        aggregates.put(StandardDeviationVisitor.class, "stddev_pop");
+        // ordered set aggregates are available since 9.4
+        if (pgsqlVersion != null && pgsqlVersion.compareTo(PGSQL_V_9_4) >= 0) {
+            aggregates.put(MedianVisitor.class, "median");
+        }
+    }
+
+    @Override
+    public void encodeAggregateFunction(String function, String expression, StringBuffer sql) {
+        if ("median".equals(function)) {
+            sql.append("percentile_cont(0.5) WITHIN GROUP (ORDER BY ");
+            sql.append(expression).append(")");
+        } else {
+            super.encodeAggregateFunction(function, expression, sql);
+        }
+    }
+
+    @Override
+    public boolean isWindowFunctionSupported() {
+        return pgsqlVersion != null && pgsqlVersion.compareTo(PGSQL_V_8_4) >= 0;
+    }
+
     static final Version V_1_5_0 = new Version("1.5.0");
 
     static final Version V_2_0_0 = new Version("2.0.0");
@@ -176,10 +213,16 @@ public class PostGISDialect extends BasicSQLDialect {
 
     static final Version V_2_2_0 = new Version("2.2.0");
 
+    static final Version PGSQL_V_8_4 = new Version("8.4");
+
     static final Version PGSQL_V_9_0 = new Version("9.0");
 
     static final Version PGSQL_V_9_1 = new Version("9.1");
 
+    static final Version PGSQL_V_9_4 = new Version("9.4");
+
+    static final Version PGSQL_V_14 = new Version("14.0");
+
     public PostGISDialect(JDBCDataStore dataStore) {
         super(dataStore);
     }
@@ -325,6 +368,31 @@ public class PostGISDialect extends BasicSQLDialect {
         }
     }
 
+    @Override
+    public Object readRawGeometryValue(
+            GeometryDescriptor descriptor,
+            ResultSet rs,
+            int column,
+            GeometryFactory factory,
+            Connection cx,
+            Hints hints)
+            throws IOException, SQLException {
+        return rs.getBytes(column);
+    }
+
+    @Override
+    public RawGeometryDecoder getRawGeometryDecoder(
+            GeometryDescriptor descriptor, GeometryFactory factory, Connection cx, Hints hints)
+            throws IOException, SQLException {
+        // resolve the encoding, which depends on the database version, upfront
+        if (isTWKBTransferEnabled(cx, descriptor, hints)) {
+            Class<?> binding = descriptor.getType().getBinding();
+            return raw -> (Geometry) getTWKBReader(factory).read((byte[]) raw, binding);
+        } else {
+            return raw -> (Geometry) getWKBReader(factory).read((byte[]) raw);
+        }
+    }
+
     private boolean isTWKBTransferEnabled(Connection cx, GeometryDescriptor descriptor, Hints hints)
             throws SQLException {
         Double distance = (Double) hints.get(Hints.GEOMETRY_SIMPLIFICATION);
@@ -875,6 +943,126 @@ public class PostGISDialect extends BasicSQLDialect {
         return dimension;
     }
 
+    @Override
+    public Map<String, Map<String, ColumnMetadata>> getGeometryColumnMetadata(
+            String schemaName, Connection cx) throws SQLException {
+        if (schemaName == null) schemaName = "public";
+
+        Map<String, Map<String, ColumnMetadata>> result = new HashMap<>();
+        if (supportsGeography(cx)) {
+            try {
+                // geography columns are always in 4326
+                readGeometryColumns(
+                        "SELECT F_TABLE_NAME, F_GEOGRAPHY_COLUMN, TYPE, SRID, COORD_DIMENSION "
+                                + "FROM GEOGRAPHY_COLUMNS WHERE F_TABLE_SCHEMA = ?",
+                        schemaName,
+                        4326,
+                        result,
+                        cx);
+            } catch (SQLException e) {
+                LOGGER.log(
+                        Level.WARNING,
+                        "Failed to read the geography_columns table of " + schemaName,
+                        e);
+            }
+        }
+        readGeometryColumns(
+                "SELECT F_TABLE_NAME, F_GEOMETRY_COLUMN, TYPE, SRID, COORD_DIMENSION "
+                        + "FROM GEOMETRY_COLUMNS WHERE F_TABLE_SCHEMA = ?",
+                schemaName,
+                null,
+                result,
+                cx);
+
+        return result;
+    }
+
+    private void readGeometryColumns(
+            String sql,
+            String schemaName,
+            Integer forcedSrid,
+            Map<String, Map<String, ColumnMetadata>> result,
+            Connection cx)
+            throws SQLException {
+        LOGGER.log(Level.FINE, "Geometry columns lookup; {0} ", sql);
+        PreparedStatement ps = cx.prepareStatement(sql);
+        ResultSet rs = null;
+        try {
+            ps.setString(1, schemaName);
+            rs = ps.executeQuery();
+            boolean zeroMeansUnset = getVersion(cx).compareTo(V_2_0_0) >= 0;
+            while (rs.next()) {
+                ColumnMetadata column = new ColumnMetadata();
+                column.setName(rs.getString(2));
+                String gType = rs.getString(3);
+                Class binding = gType != null ? TYPE_TO_CLASS_MAP.get(gType.toUpperCase()) : null;
+                column.setBinding(binding != null ? binding : Geometry.class);
+                if (forcedSrid != null) {
+                    column.setSrid(forcedSrid);
+                } else {
+                    int srid = rs.getInt(4);
+                    // same as in getGeometrySRID, leave the unset ones to the table inspection
+                    if (!rs.wasNull() && !(zeroMeansUnset && srid == 0)) {
+                        column.setSrid(srid);
+                    }
+                }
+                int dimension = rs.getInt(5);
+                if (!rs.wasNull() && dimension > 0) {
+                    column.setDimension(dimension);
+                }
+                result.computeIfAbsent(rs.getString(1), t -> new HashMap<>())
+                        .putIfAbsent(column.getName(), column);
+            }
+        } finally {
+            dataStore.closeSafe(rs);
+            dataStore.closeSafe(ps);
+        }
+    }
+
+    /**
+     * Hashes the columns, types, defaults, primary keys and unique indexes of the schema with a
+     * single catalog query, requires PostgreSQL 9.0 or newer for <code>string_agg</code>
+     */
+    @Override
+    public String getSchemaFingerprint(String schemaName, Connection cx) throws SQLException {
+        if (getPostgreSQLVersion(cx).compareTo(PGSQL_V_9_0) < 0) {
+            return null;
+        }
+        if (schemaName == null) schemaName = "public";
+
+        String sql =
+                "SELECT md5(coalesce(("
+                        + "SELECT string_agg(c.relname || '.' || a.attname || ':' "
+                        + "|| format_type(a.atttypid, a.atttypmod) || ':' || a.attnotnull || ':' "
+                        + "|| coalesce(pg_get_expr(d.adbin, d.adrelid), ''), ',' "
+                        + "ORDER BY c.relname, a.attnum) "
+                        + "FROM pg_attribute a "
+                        + "JOIN pg_class c ON a.attrelid = c.oid "
+                        + "JOIN pg_namespace n ON c.relnamespace = n.oid "
+                        + "LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum "
+                        + "WHERE a.attnum > 0 AND NOT a.attisdropped "
+                        + "AND c.relkind IN ('r', 'v', 'm', 'f', 'p') AND n.nspname = ?), '') "
+                        + "|| '|' || coalesce(("
+                        + "SELECT string_agg(c.relname || ':' || i.indisprimary || ':' "
+                        + "|| i.indkey::text, ',' ORDER BY c.relname, i.indisprimary, i.indkey::text) "
+                        + "FROM pg_index i "
+                        + "JOIN pg_class c ON i.indrelid = c.oid "
+                        + "JOIN pg_namespace n ON c.relnamespace = n.oid "
+                        + "WHERE (i.indisprimary OR i.indisunique) AND n.nspname = ?), ''))";
+        LOGGER.log(Level.FINE, "Schema fingerprint; {0} ", sql);
+        PreparedStatement ps = cx.prepareStatement(sql);
+        ResultSet rs = null;
+        try {
+            ps.setString(1, schemaName);
+            ps.setString(2, schemaName);
+            rs = ps.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        } finally {
+            dataStore.closeSafe(rs);
+            dataStore.closeSafe(ps);
+        }
+    }
+
     protected Integer getDimensionFromFirstGeo(
             String schemaName, String tableName, String columnName, Connection cx)
             throws SQLException {
@@ -978,6 +1166,34 @@ public class PostGISDialect extends BasicSQLDialect {
         return null;
     }
 
+    @Override
+    public List<Object> getNextSequenceValues(
+            String schemaName, String sequenceName, int count, Connection cx) throws SQLException {
+        Statement st = cx.createStatement();
+        try {
+            String sql =
+                    "SELECT "
+                            + encodeNextSequenceValue(schemaName, sequenceName)
+                            + " FROM generate_series(1, "
+                            + count
+                            + ")";
+
+            dataStore.getLogger().fine(sql);
+            ResultSet rs = st.executeQuery(sql);
+            try {
+                List<Object> result = new ArrayList<>(count);
+                while (rs.next()) {
+                    result.add(rs.getLong(1));
+                }
+                return result;
+            } finally {
+                dataStore.closeSafe(rs);
+            }
+        } finally {
+            dataStore.closeSafe(st);
+        }
+    }
+
     @Override
     public String encodeNextSequenceValue(String schemaName, String sequenceName) {
         return "nextval('" + sequenceName + "')";
@@ -1336,6 +1552,162 @@ public class PostGISDialect extends BasicSQLDialect {
         return true;
     }
 
+    /**
+     * Splits the table on ranges of physical pages, using the row <code>ctid</code>. Only used
+     * against PostgreSQL 14 or newer, which can scan a range of pages without reading the whole
+     * table.
+     */
+    @Override
+    public List<String> getScanPartitions(
+            String schemaName, String tableName, int partitions, Connection cx)
+            throws SQLException {
+        if (getPostgreSQLVersion(cx).compareTo(PGSQL_V_14) < 0) {
+            return null;
+        }
+
+        // views and partitioned tables have no pages of their own, and are reported as empty
+        StringBuffer table = new StringBuffer();
+        if (schemaName != null) {
+            encodeSchemaName(schemaName, table);
+            table.append(".");
+        }
+        encodeTableName(tableName, table);
+        String sql =
+                "SELECT pg_relation_size(c.oid) / current_setting('block_size')::bigint "
+                        + "FROM pg_class c WHERE c.oid = ?::regclass AND c.relkind IN ('r', 'm')";
+        long pages = 0;
+        try (PreparedStatement ps = cx.prepareStatement(sql)) {
+            ps.setString(1, table.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    pages = rs.getLong(1);
+                }
+            }
+        }
+        if (pages == 0) {
+            return null;
+        }
+
+        List<String> predicates = new ArrayList<>();
+        long start = 0;
+        for (int i = 1; i <= partitions && start < pages; i++) {
+            long end = i == partitions ? pages : pages * i / partitions;
+            if (end <= start) {
+                continue;
+            }
+            StringBuilder predicate = new StringBuilder();
+            if (start > 0) {
+                predicate.append("ctid >= '(").append(start).append(",0)'::tid");
+            }
+            // the last partition is open ended, the table might grow while reading it
+            if (end < pages) {
+                if (predicate.length() > 0) {
+                    predicate.append(" AND ");
+                }
+                predicate.append("ctid < '(").append(end).append(",0)'::tid");
+            }
+            if (predicate.length() > 0) {
+                predicates.add(predicate.toString());
+            }
+            start = end;
+        }
+        return predicates;
+    }
+
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isBulkInsertSupported() {
+        return true;
+    }
+
+    /** Loads the features with a binary COPY, geometries are encoded as EWKB */
+    @Override
+    public boolean bulkInsert(
+            SimpleFeatureType featureType,
+            Collection<? extends SimpleFeature> features,
+            PrimaryKey key,
+            List<List<Object>> keyValues,
+            Connection cx)
+            throws IOException, SQLException {
+        PGConnection pgcx = unwrapConnection(cx);
+        if (pgcx == null) {
+            LOGGER.fine("Cannot unwrap the native connection, will not use COPY");
+            return false;
+        }
+        PostGISCopyLoader loader = new PostGISCopyLoader(dataStore, featureType, key);
+        return loader.load(features, keyValues, pgcx, cx);
+    }
+
+    /** Obtains the native PostgreSQL connection object, or null if it cannot be found */
+    @SuppressWarnings("PMD.CloseResource")
+    PGConnection unwrapConnection(Connection cx) throws SQLException {
+        if (cx instanceof PGConnection) {
+            return (PGConnection) cx;
+        }
+
+        try {
+            // Unwrap the connection multiple levels as necessary to get at the underlying
+            // PGConnection
+            Connection testCon = cx;
+            Connection toUnwrap;
+            do {
+                UnWrapper unwrapper = DataSourceFinder.getUnWrapper(testCon);
+                if (unwrapper == null) {
+                    break;
+                }
+                toUnwrap = testCon;
+                testCon = unwrapper.unwrap(testCon);
+                if (testCon instanceof PGConnection) {
+                    return (PGConnection) testCon;
+                }
+            } while (testCon != null && testCon != toUnwrap);
+
+            // try to use java 6 unwrapping
+            if (cx.isWrapperFor(PGConnection.class)) {
+                return cx.unwrap(PGConnection.class);
+            }
+        } catch (Throwable t) {
+            // not a mistake, old DBCP versions will throw an Error here, we need to catch it
+            LOGGER.log(Level.FINER, "Failed to unwrap connection", t);
+        }
+        return null;
+    }
+
+    @Override
+    public void encodeKeysetPredicate(
+            List<String> columns,
+            boolean[] ascending,
+            ObjIntConsumer<StringBuffer> values,
+            StringBuffer sql) {
+        // row value comparison can use a multi column index, but only if the sort directions
+        // are all the same
+        for (int i = 1; i < ascending.length; i++) {
+            if (ascending[i] != ascending[0]) {
+                super.encodeKeysetPredicate(columns, ascending, values, sql);
+                return;
+            }
+        }
+        sql.append("(");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            encodeColumnName(null, columns.get(i), sql);
+        }
+        sql.append(ascending[0] ? ") > (" : ") < (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            values.accept(sql, i);
+        }
+        sql.append(")");
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         if (limit >= 0 && limit < Integer.MAX_VALUE) {
@@ -22,18 +22,24 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 import org.geotools.jdbc.ColumnMetadata;
 import org.geotools.jdbc.JDBCDataStore;
 import org.geotools.jdbc.PreparedFilterToSQL;
 import org.geotools.jdbc.PreparedStatementSQLDialect;
+import org.geotools.jdbc.PrimaryKey;
 import org.geotools.util.factory.Hints;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.feature.type.GeometryDescriptor;
@@ -59,6 +65,22 @@ public class PostGISPSDialect extends PreparedStatementSQLDialect {
         return "distinct".equalsIgnoreCase(function);
     }
 
+    @Override
+    public void registerAggregateFunctions(
+            Map<Class<? extends FeatureVisitor>, String> aggregates) {
+        delegate.registerAggregateFunctions(aggregates);
+    }
+
+    @Override
+    public void encodeAggregateFunction(String function, String expression, StringBuffer sql) {
+        delegate.encodeAggregateFunction(function, expression, sql);
+    }
+
+    @Override
+    public boolean isWindowFunctionSupported() {
+        return delegate.isWindowFunctionSupported();
+    }
+
     @Override
     public boolean includeTable(String schemaName, String tableName, Connection cx)
             throws SQLException {
@@ -93,6 +115,25 @@ public class PostGISPSDialect extends PreparedStatementSQLDialect {
         return delegate.decodeGeometryValue(descriptor, rs, column, factory, cx, hints);
     }
 
+    @Override
+    public Object readRawGeometryValue(
+            GeometryDescriptor descriptor,
+            ResultSet rs,
+            int column,
+            GeometryFactory factory,
+            Connection cx,
+            Hints hints)
+            throws IOException, SQLException {
+        return delegate.readRawGeometryValue(descriptor, rs, column, factory, cx, hints);
+    }
+
+    @Override
+    public RawGeometryDecoder getRawGeometryDecoder(
+            GeometryDescriptor descriptor, GeometryFactory factory, Connection cx, Hints hints)
+            throws IOException, SQLException {
+        return delegate.getRawGeometryDecoder(descriptor, factory, cx, hints);
+    }
+
     @Override
     public void encodeGeometryColumn(
             GeometryDescriptor gatt, String prefix, int srid, Hints hints, StringBuffer sql) {
@@ -144,6 +185,12 @@ public class PostGISPSDialect extends PreparedStatementSQLDialect {
         return delegate.getNextSequenceValue(schemaName, sequenceName, cx);
     }
 
+    @Override
+    public List<Object> getNextSequenceValues(
+            String schemaName, String sequenceName, int count, Connection cx) throws SQLException {
+        return delegate.getNextSequenceValues(schemaName, sequenceName, count, cx);
+    }
+
     @Override
     public String encodeNextSequenceValue(String schemaName, String sequenceName) {
         return delegate.encodeNextSequenceValue(schemaName, sequenceName);
@@ -252,6 +299,43 @@ public class PostGISPSDialect extends PreparedStatementSQLDialect {
         return delegate.isLimitOffsetSupported();
     }
 
+    @Override
+    public List<String> getScanPartitions(
+            String schemaName, String tableName, int partitions, Connection cx)
+            throws SQLException {
+        return delegate.getScanPartitions(schemaName, tableName, partitions, cx);
+    }
+
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return delegate.isKeysetPagingSupported();
+    }
+
+    @Override
+    public boolean isBulkInsertSupported() {
+        return delegate.isBulkInsertSupported();
+    }
+
+    @Override
+    public boolean bulkInsert(
+            SimpleFeatureType featureType,
+            Collection<? extends SimpleFeature> features,
+            PrimaryKey key,
+            List<List<Object>> keyValues,
+            Connection cx)
+            throws IOException, SQLException {
+        return delegate.bulkInsert(featureType, features, key, keyValues, cx);
+    }
+
+    @Override
+    public void encodeKeysetPredicate(
+            List<String> columns,
+            boolean[] ascending,
+            ObjIntConsumer<StringBuffer> values,
+            StringBuffer sql) {
+        delegate.encodeKeysetPredicate(columns, ascending, values, sql);
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         delegate.applyLimitOffset(sql, limit, offset);
@@ -264,6 +348,17 @@ public class PostGISPSDialect extends PreparedStatementSQLDialect {
         return delegate.getGeometryDimension(schemaName, tableName, columnName, cx);
     }
 
+    @Override
+    public Map<String, Map<String, ColumnMetadata>> getGeometryColumnMetadata(
+            String schemaName, Connection cx) throws SQLException {
+        return delegate.getGeometryColumnMetadata(schemaName, cx);
+    }
+
+    @Override
+    public String getSchemaFingerprint(String schemaName, Connection cx) throws SQLException {
+        return delegate.getSchemaFingerprint(schemaName, cx);
+    }
+
     public boolean isFunctionEncodingEnabled() {
         return delegate.isFunctionEncodingEnabled();
     }
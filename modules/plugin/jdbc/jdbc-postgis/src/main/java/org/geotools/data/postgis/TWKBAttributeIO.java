@@ -190,6 +190,17 @@ class TWKBAttributeIO {
         }
     }
 
+    /** Decodes the bytes read from a geometry column, null values are returned as null */
+    public Object read(byte[] bytes, Class<?> binding) throws IOException {
+        if (bytes == null) {
+            return null;
+        }
+        if (base64EncodingEnabled) {
+            bytes = Base64.decode(bytes);
+        }
+        return adaptToBinding(wkb2Geometry(bytes), binding);
+    }
+
     /**
      * The TWKB encoding collapses geometries into points and encodes them as such, causing an
      * inefficient conversion to be called later down the road, handle this case in a special way to
@@ -118,6 +118,17 @@ public class WKBAttributeIO {
         }
     }
 
+    /** Decodes the bytes read from a geometry column, null values are returned as null */
+    public Object read(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            return null;
+        }
+        if (base64EncodingEnabled) {
+            bytes = Base64.decode(bytes);
+        }
+        return wkb2Geometry(bytes);
+    }
+
     /**
      * @see org.geotools.data.jdbc.attributeio.AttributeIO#write(java.sql.PreparedStatement, int,
      *     java.lang.Object)
@@ -0,0 +1,216 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.jdbc.JDBCTestSetup;
+import org.geotools.jdbc.JDBCTestSupport;
+import org.geotools.util.factory.Hints;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.identity.FeatureId;
+
+public class PostGISBulkInsertOnlineTest extends JDBCTestSupport {
+
+    static final int COUNT = 25000;
+
+    static final FilterFactory FF = CommonFactoryFinder.getFilterFactory();
+
+    GeometryFactory gf = new GeometryFactory();
+
+    @Override
+    protected JDBCTestSetup createTestSetup() {
+        return new PostGISBulkInsertTestSetup(new PostGISTestSetup());
+    }
+
+    @Test
+    public void testBulkInsert() throws Exception {
+        SimpleFeatureStore fs = (SimpleFeatureStore) dataStore.getFeatureSource(tname("bulktest"));
+        SimpleFeatureType schema = fs.getSchema();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            fb.set(aname("geom"), gf.createPoint(new Coordinate(i % 180, i % 90)));
+            // leave some nulls around
+            fb.set(aname("name"), i % 10 == 0 ? null : "name" + i);
+            fb.set(aname("intProperty"), i);
+            fb.set(aname("doubleProperty"), i / 8d);
+            fb.set(
+                    aname("numericProperty"),
+                    new BigDecimal("-1234.5678").add(BigDecimal.valueOf(i)));
+            fb.set(aname("dateProperty"), Date.valueOf("2019-06-28"));
+            fb.set(aname("timestampProperty"), Timestamp.valueOf("2009-06-28 15:12:41.123"));
+            features.add(fb.buildFeature(null));
+        }
+
+        List<FeatureId> fids;
+        try (Transaction tx = new DefaultTransaction()) {
+            tx.putProperty(JDBCDataStore.JDBC_BULK_INSERT, Boolean.TRUE);
+            fs.setTransaction(tx);
+            fids = fs.addFeatures(new ListFeatureCollection(schema, features));
+            tx.commit();
+        }
+        fs.setTransaction(Transaction.AUTO_COMMIT);
+
+        // fids are unique and usable
+        assertEquals(COUNT, fids.size());
+        Set<String> ids = new HashSet<>();
+        for (FeatureId fid : fids) {
+            ids.add(fid.getID());
+        }
+        assertEquals(COUNT, ids.size());
+        assertEquals(COUNT, fs.getCount(Query.ALL));
+
+        SimpleFeature f =
+                DataUtilities.first(fs.getFeatures(FF.id(Collections.singleton(fids.get(123)))));
+        assertEquals("name123", f.getAttribute(aname("name")));
+        assertEquals(123, ((Number) f.getAttribute(aname("intProperty"))).intValue());
+        assertEquals(
+                123 / 8d, ((Number) f.getAttribute(aname("doubleProperty"))).doubleValue(), 0d);
+        assertEquals(
+                0,
+                new BigDecimal("-1111.5678")
+                        .compareTo((BigDecimal) f.getAttribute(aname("numericProperty"))));
+        assertEquals(
+                Date.valueOf("2019-06-28").toString(),
+                f.getAttribute(aname("dateProperty")).toString());
+        assertEquals(
+                Timestamp.valueOf("2009-06-28 15:12:41.123"),
+                f.getAttribute(aname("timestampProperty")));
+        Point p = (Point) f.getDefaultGeometry();
+        assertEquals(123, p.getX(), 0d);
+        assertEquals(33, p.getY(), 0d);
+        assertEquals(4326, p.getSRID());
+
+        f = DataUtilities.first(fs.getFeatures(FF.id(Collections.singleton(fids.get(120)))));
+        assertNull(f.getAttribute(aname("name")));
+
+        // the srid has been written along with the geometry
+        Query bbox =
+                new Query(tname("bulktest"), FF.bbox(aname("geom"), -1, -1, 180, 90, "EPSG:4326"));
+        assertEquals(COUNT, fs.getCount(bbox));
+    }
+
+    @Test
+    public void testBulkInsertEmptyGeometry() throws Exception {
+        SimpleFeatureStore fs = (SimpleFeatureStore) dataStore.getFeatureSource(tname("bulktest"));
+        SimpleFeatureType schema = fs.getSchema();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            fb.set(
+                    aname("geom"),
+                    i % 2 == 0 ? gf.createPoint() : gf.createPoint(new Coordinate(i, i)));
+            fb.set(aname("intProperty"), i);
+            features.add(fb.buildFeature(null));
+        }
+
+        try (Transaction tx = new DefaultTransaction()) {
+            tx.putProperty(JDBCDataStore.JDBC_BULK_INSERT, Boolean.TRUE);
+            fs.setTransaction(tx);
+            assertEquals(10, fs.addFeatures(new ListFeatureCollection(schema, features)).size());
+            tx.commit();
+        }
+        fs.setTransaction(Transaction.AUTO_COMMIT);
+
+        // empty geometries are stored as such, not as nulls
+        assertEquals(10, fs.getCount(Query.ALL));
+        Query nullGeometries = new Query(tname("bulktest"), FF.isNull(FF.property(aname("geom"))));
+        assertEquals(0, fs.getCount(nullGeometries));
+        Query nonEmpty =
+                new Query(tname("bulktest"), FF.bbox(aname("geom"), -1, -1, 180, 90, "EPSG:4326"));
+        assertEquals(5, fs.getCount(nonEmpty));
+    }
+
+    @Test
+    public void testBulkInsertProvidedFid() throws Exception {
+        SimpleFeatureStore fs = (SimpleFeatureStore) dataStore.getFeatureSource(tname("bulktest"));
+        SimpleFeatureType schema = fs.getSchema();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            fb.set(aname("intProperty"), i);
+            SimpleFeature feature = fb.buildFeature(tname("bulktest") + "." + (1000 + i));
+            feature.getUserData().put(Hints.USE_PROVIDED_FID, true);
+            features.add(feature);
+        }
+
+        List<FeatureId> fids;
+        try (Transaction tx = new DefaultTransaction()) {
+            tx.putProperty(JDBCDataStore.JDBC_BULK_INSERT, Boolean.TRUE);
+            fs.setTransaction(tx);
+            fids = fs.addFeatures(new ListFeatureCollection(schema, features));
+            tx.commit();
+        }
+        fs.setTransaction(Transaction.AUTO_COMMIT);
+
+        assertEquals(tname("bulktest") + ".1000", fids.get(0).getID());
+        SimpleFeature f =
+                DataUtilities.first(fs.getFeatures(FF.id(Collections.singleton(fids.get(5)))));
+        assertEquals(5, ((Number) f.getAttribute(aname("intProperty"))).intValue());
+    }
+
+    @Test
+    public void testUnsupportedTypeFallback() throws Exception {
+        SimpleFeatureStore fs =
+                (SimpleFeatureStore) dataStore.getFeatureSource(tname("bulkfallback"));
+        SimpleFeatureType schema = fs.getSchema();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(schema);
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            fb.set(aname("geom"), gf.createPoint(new Coordinate(i, i)));
+            fb.set(aname("strings"), new String[] {"a", String.valueOf(i)});
+            features.add(fb.buildFeature(null));
+        }
+
+        try (Transaction tx = new DefaultTransaction()) {
+            tx.putProperty(JDBCDataStore.JDBC_BULK_INSERT, Boolean.TRUE);
+            fs.setTransaction(tx);
+            assertEquals(100, fs.addFeatures(new ListFeatureCollection(schema, features)).size());
+            tx.commit();
+        }
+        fs.setTransaction(Transaction.AUTO_COMMIT);
+
+        assertEquals(100, fs.getCount(Query.ALL));
+        try (SimpleFeatureIterator it = fs.getFeatures().features()) {
+            String[] strings = (String[]) it.next().getAttribute(aname("strings"));
+            assertEquals("a", strings[0]);
+        }
+    }
+}
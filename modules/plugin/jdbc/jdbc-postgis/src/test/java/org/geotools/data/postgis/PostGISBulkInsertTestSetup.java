@@ -0,0 +1,42 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import org.geotools.jdbc.JDBCDelegatingTestSetup;
+import org.geotools.jdbc.JDBCTestSetup;
+
+public class PostGISBulkInsertTestSetup extends JDBCDelegatingTestSetup {
+
+    public PostGISBulkInsertTestSetup(JDBCTestSetup delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected void setUpData() throws Exception {
+        runSafe("DROP TABLE \"bulktest\" cascade");
+        runSafe("DROP TABLE \"bulkfallback\" cascade");
+
+        run(
+                "CREATE TABLE \"bulktest\" (\"fid\" serial PRIMARY KEY, "
+                        + "\"geom\" geometry(Point, 4326), \"name\" VARCHAR, \"intProperty\" INT, "
+                        + "\"doubleProperty\" DOUBLE PRECISION, \"numericProperty\" NUMERIC, "
+                        + "\"dateProperty\" DATE, \"timestampProperty\" TIMESTAMP)");
+        run(
+                "CREATE TABLE \"bulkfallback\" (\"fid\" serial PRIMARY KEY, "
+                        + "\"geom\" geometry(Point, 4326), \"strings\" VARCHAR[])");
+    }
+}
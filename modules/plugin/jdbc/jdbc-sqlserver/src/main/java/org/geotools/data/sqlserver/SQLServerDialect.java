@@ -708,6 +708,11 @@ public class SQLServerDialect extends BasicSQLDialect {
         return useOffsetLimit;
     }
 
+    @Override
+    public boolean isKeysetPagingSupported() {
+        return true;
+    }
+
     @Override
     public void applyLimitOffset(StringBuffer sql, int limit, int offset) {
         if (offset == 0) {
@@ -17,6 +17,7 @@
 package org.geotools.data.shapefile;
 
 import static org.geotools.data.shapefile.files.ShpFileType.FIX;
+import static org.geotools.data.shapefile.files.ShpFileType.HRX;
 import static org.geotools.data.shapefile.files.ShpFileType.QIX;
 import static org.geotools.data.shapefile.files.ShpFileType.SHP;
 import static org.geotools.data.shapefile.files.ShpFileType.SHX;
@@ -24,6 +25,7 @@ import static org.geotools.data.shapefile.files.ShpFileType.SHX;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,6 +42,7 @@ import org.geotools.data.shapefile.files.ShpFiles;
 import org.geotools.data.shapefile.index.CachedQuadTree;
 import org.geotools.data.shapefile.index.Data;
 import org.geotools.data.shapefile.index.DataDefinition;
+import org.geotools.data.shapefile.index.PackedRTree;
 import org.geotools.data.shapefile.index.TreeException;
 import org.geotools.data.shapefile.index.quadtree.QuadTree;
 import org.geotools.data.shapefile.index.quadtree.StoreException;
@@ -63,12 +66,26 @@ class IndexManager {
 
     static final int DEFAULT_MAX_QIX_CACHE_SIZE;
 
+    static final ShpFileType DEFAULT_SPATIAL_INDEX_TYPE;
+
     ShpFiles shpFiles;
 
     int maxQixCacheSize = DEFAULT_MAX_QIX_CACHE_SIZE;
 
     CachedQuadTree cachedTree;
 
+    /**
+     * The type of spatial index that gets created, {@link ShpFileType#QIX} or {@link
+     * ShpFileType#HRX}
+     */
+    ShpFileType spatialIndexType = DEFAULT_SPATIAL_INDEX_TYPE;
+
+    /** The memory mapped packed R-tree, shared by all the queries */
+    PackedRTree packedTree;
+
+    /** The last modified time of the file backing {@link #packedTree} */
+    long packedTreeTimestamp;
+
     ShapefileDataStore store;
 
     /** Used to lock the files when doing accesses to check indexes and the like */
@@ -92,6 +109,21 @@ class IndexManager {
             LOGGER.log(Level.SEVERE, "Could not set the max qix cache size", t);
         }
         DEFAULT_MAX_QIX_CACHE_SIZE = max;
+
+        ShpFileType type = QIX;
+        try {
+            String stype = System.getProperty("org.geotools.shapefile.spatialIndexType");
+            if (stype != null) {
+                type = ShpFileType.valueOf(stype.toUpperCase());
+                if (type != QIX && type != HRX) {
+                    throw new IllegalArgumentException(stype + " is not a spatial index type");
+                }
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Could not set the spatial index type", t);
+            type = QIX;
+        }
+        DEFAULT_SPATIAL_INDEX_TYPE = type;
     }
 
     public IndexManager(ShpFiles shpFiles, ShapefileDataStore store) {
@@ -106,14 +138,19 @@ class IndexManager {
      * @return true if the spatial index has been created/updated
      */
     public boolean createSpatialIndex(boolean force) {
+        return createSpatialIndex(spatialIndexType, force);
+    }
+
+    boolean createSpatialIndex(ShpFileType indexType, boolean force) {
         // create index as needed
         try {
-            if (shpFiles.isLocal() && (isIndexStale(QIX) || force)) {
+            if (shpFiles.isLocal() && (isIndexStale(indexType) || force)) {
                 ShapefileDataStoreFactory.LOGGER.fine(
                         "Creating spatial index for " + shpFiles.get(SHP));
 
                 ShapeFileIndexer indexer = new ShapeFileIndexer();
                 indexer.setShapeFileName(shpFiles);
+                indexer.setIndexType(indexType);
                 indexer.index(false, new NullProgressListener());
 
                 return true;
@@ -191,7 +228,7 @@ class IndexManager {
      * @return
      */
     boolean isSpatialIndexAvailable() {
-        return shpFiles.isLocal() && shpFiles.exists(QIX);
+        return shpFiles.isLocal() && (shpFiles.exists(QIX) || shpFiles.exists(HRX));
     }
 
     /**
@@ -315,8 +352,39 @@ class IndexManager {
             throws DataSourceException, IOException, TreeException {
         CloseableIterator<Data> tmp = null;
 
+        // an up to date packed R-tree is used even if the configured index type is QIX
+        ShpFileType indexType = spatialIndexType;
+        if (indexType == QIX && isIndexUseable(HRX)) {
+            indexType = HRX;
+        }
+
         // check if the spatial index needs recreating
-        createSpatialIndex(false);
+        if (store.isIndexCreationEnabled() || shpFiles.exists(indexType)) {
+            createSpatialIndex(indexType, false);
+        }
+
+        // the packed R-tree is searched in place, no need to load anything
+        if (indexType == HRX && isIndexUseable(HRX)) {
+            // search while holding the read lock, the tree cannot be replaced meanwhile
+            URL treeURL = shpFiles.acquireRead(HRX, writer);
+            try {
+                PackedRTree tree = openPackedRTree();
+                if (tree != null) {
+                    if (!bbox.contains(tree.getBounds())) {
+                        return tree.search(bbox);
+                    } else {
+                        return null;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(
+                        Level.WARNING,
+                        "Could not open the packed R-tree index, falling back on the quadtree",
+                        e);
+            } finally {
+                shpFiles.unlockRead(treeURL, writer);
+            }
+        }
 
         if (cachedTree == null) {
             boolean canCache = false;
@@ -396,7 +464,59 @@ class IndexManager {
         }
     }
 
+    /**
+     * Returns the memory mapped packed R-tree, mapping it again if the file changed since the last
+     * call. The caller must hold a read lock on the {@link ShpFileType#HRX} file while using the
+     * returned tree, as the previous mapping gets released when the tree is replaced.
+     *
+     * @return The packed R-tree, or null if not available
+     * @throws IOException
+     */
+    synchronized PackedRTree openPackedRTree() throws IOException {
+        if (!shpFiles.isLocal()) {
+            return null;
+        }
+        URL treeURL = shpFiles.acquireRead(HRX, writer);
+        try {
+            File treeFile = URLs.urlToFile(treeURL);
+            if (!treeFile.exists() || (treeFile.length() == 0)) {
+                closePackedRTree();
+                return null;
+            }
+
+            long timestamp = treeFile.lastModified();
+            if (packedTree == null || packedTreeTimestamp != timestamp) {
+                closePackedRTree();
+                try (FileChannel channel = (FileChannel) shpFiles.getReadChannel(HRX, writer)) {
+                    if (shpFiles.isMemoryMapCacheEnabled()) {
+                        // the channel maps through the shared memory map cache, which owns the
+                        // buffer, the tree must not unmap it
+                        packedTree =
+                                new PackedRTree(
+                                        channel.map(
+                                                FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                    } else {
+                        packedTree = PackedRTree.open(channel);
+                    }
+                }
+                packedTreeTimestamp = timestamp;
+            }
+            return packedTree;
+        } finally {
+            shpFiles.unlockRead(treeURL, writer);
+        }
+    }
+
+    /** Releases the memory mapped packed R-tree, if any */
+    private synchronized void closePackedRTree() {
+        if (packedTree != null) {
+            packedTree.close();
+            packedTree = null;
+        }
+    }
+
     public void dispose() {
         this.cachedTree = null;
+        closePackedRTree();
     }
 }
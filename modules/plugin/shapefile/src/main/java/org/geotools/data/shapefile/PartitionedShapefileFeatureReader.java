@@ -0,0 +1,114 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile;
+
+import java.io.IOException;
+import org.geotools.data.shapefile.dbf.DbaseFileReader.Row;
+import org.geotools.data.shapefile.dbf.IndexedDbaseFileReader;
+import org.geotools.data.shapefile.fid.IndexedFidReader;
+import org.geotools.data.shapefile.shp.IndexFile;
+import org.geotools.data.shapefile.shp.ShapefileReader;
+import org.geotools.data.shapefile.shp.ShapefileReader.Record;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A shapefile feature reader that only reads a contiguous range of records, using the .shx file to
+ * locate the records in the .shp file. Each instance works against its own readers and channels, so
+ * that separate ranges of the same shapefile can be decoded concurrently by separate threads.
+ */
+class PartitionedShapefileFeatureReader extends ShapefileFeatureReader {
+
+    IndexFile shx;
+
+    int current;
+
+    int last;
+
+    /**
+     * Create the partition reader
+     *
+     * @param schema - the schema that we are going to read.
+     * @param shp - the shape reader, required, opened in random access only mode
+     * @param dbf - the dbf file reader. May be null, in this case no attributes will be read from
+     *     the dbf file
+     * @param fidReader - the fid reader, may be null
+     * @param shx - the index file used to locate the records in the .shp file
+     * @param first - the first record to read (zero based, included)
+     * @param last - the last record to read (zero based, excluded)
+     */
+    public PartitionedShapefileFeatureReader(
+            SimpleFeatureType schema,
+            ShapefileReader shp,
+            IndexedDbaseFileReader dbf,
+            IndexedFidReader fidReader,
+            IndexFile shx,
+            int first,
+            int last)
+            throws IOException {
+        super(schema, shp, dbf, fidReader);
+        this.shx = shx;
+        this.current = first;
+        this.last = Math.min(last, shx.getRecordCount());
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        while (nextFeature == null && current < last) {
+            int offset = shx.getOffsetInBytes(current);
+            // dbf records are aligned with the shx ones, one based
+            int recno = ++current;
+
+            shp.goTo(offset);
+            Record record = shp.nextRecord();
+
+            // read the geometry, so that we can decide if this row is to be skipped or not
+            Geometry geometry = getGeometry(record);
+            if (geometry == SKIP) {
+                continue;
+            }
+
+            // read the dbf only if the geometry was not skipped
+            Row row;
+            if (dbf != null) {
+                ((IndexedDbaseFileReader) dbf).goTo(recno);
+                row = dbf.readRow();
+                if (row.isDeleted()) {
+                    continue;
+                }
+            } else {
+                row = null;
+            }
+
+            nextFeature = buildFeature(record.number, geometry, row, record.envelope());
+        }
+
+        return nextFeature != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (shx != null) {
+                shx.close();
+            }
+            shx = null;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.geotools.data.shapefile.files.ShpFileType;
 import org.geotools.data.shapefile.files.ShpFiles;
 import org.geotools.data.shapefile.files.StorageFile;
 import org.geotools.data.shapefile.index.LockTimeoutException;
+import org.geotools.data.shapefile.index.PackedRTree;
 import org.geotools.data.shapefile.index.TreeException;
 import org.geotools.data.shapefile.index.quadtree.Node;
 import org.geotools.data.shapefile.index.quadtree.QuadTree;
@@ -38,6 +39,7 @@ import org.geotools.data.shapefile.index.quadtree.StoreException;
 import org.geotools.data.shapefile.index.quadtree.fs.FileSystemIndexStore;
 import org.geotools.data.shapefile.index.quadtree.fs.IndexHeader;
 import org.geotools.data.shapefile.shp.IndexFile;
+import org.geotools.data.shapefile.shp.ShapeType;
 import org.geotools.data.shapefile.shp.ShapefileHeader;
 import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.shapefile.shp.ShapefileReader.Record;
@@ -60,6 +62,7 @@ class ShapeFileIndexer implements FileWriter {
     private int leafSize = 16;
 
     private String byteOrder;
+    private ShpFileType indexType = ShpFileType.QIX;
     private ShpFiles shpFiles;
 
     public static void main(String[] args) throws IOException {
@@ -73,9 +76,14 @@ class ShapeFileIndexer implements FileWriter {
 
         for (int i = 0; i < args.length; i++) {
             if (args[i].equals("-t")) {
-                // idx.setIdxType(IndexType.valueOf(args[++i]));
-                // just skip it for backwards compatibility
-                i++;
+                String type = args[++i].toUpperCase();
+                if (type.equals("QIX") || type.equals("QUADTREE") || type.equals("RTREE")) {
+                    idx.setIndexType(ShpFileType.QIX);
+                } else if (type.equals("HRX")) {
+                    idx.setIndexType(ShpFileType.HRX);
+                } else {
+                    usage();
+                }
             } else if (args[i].equals("-M")) {
                 idx.setMax(Integer.parseInt(args[++i]));
             } else if (args[i].equals("-s")) {
@@ -110,7 +118,7 @@ class ShapeFileIndexer implements FileWriter {
     private static void usage() {
         System.out.println(
                 "Usage: ShapeFileIndexer "
-                        + "-t <QIX> "
+                        + "-t <QIX | HRX> "
                         + "[-M <max tree depth>] "
                         + "[-b <byte order NL | NM>] "
                         + "<shape file>"
@@ -119,7 +127,9 @@ class ShapeFileIndexer implements FileWriter {
         System.out.println();
 
         System.out.println("Options:");
-        System.out.println("\t-t Index type: RTREE or QUADTREE");
+        System.out.println(
+                "\t-t Index type: QIX, QUADTREE or RTREE (quadtree, default) or HRX (memory mapped "
+                        + "packed R-tree)");
         System.out.println();
         System.out.println("Following options apllies only to QUADTREE:");
         System.out.println("\t-b byte order to use: NL = LSB; " + "NM = MSB (default)");
@@ -152,32 +162,37 @@ class ShapeFileIndexer implements FileWriter {
         ShapefileReader reader = null;
 
         // Temporary file for building...
-        StorageFile storage = shpFiles.getStorageFile(ShpFileType.QIX);
+        StorageFile storage = shpFiles.getStorageFile(indexType);
         File treeFile = storage.getFile();
 
         try {
             reader = new ShapefileReader(shpFiles, true, false, new GeometryFactory());
 
-            if (max == -1) {
-                // compute a reasonable index max depth, considering a fully developed
-                // 10 levels one already contains 200k index nodes, good for indexing up
-                // to 3M features without consuming too much memory
-                int features = reader.getCount(0);
-                max = 1;
-                int nodes = 1;
-                while (nodes * leafSize < features) {
-                    max++;
-                    nodes *= 4;
-                }
-                if (max < 10) {
-                    max = 10;
+            if (indexType == ShpFileType.HRX) {
+                // the packed tree has no depth to configure
+                cnt = this.buildPackedRTree(reader, treeFile);
+            } else {
+                if (max == -1) {
+                    // compute a reasonable index max depth, considering a fully developed
+                    // 10 levels one already contains 200k index nodes, good for indexing up
+                    // to 3M features without consuming too much memory
+                    int features = reader.getCount(0);
+                    max = 1;
+                    int nodes = 1;
+                    while (nodes * leafSize < features) {
+                        max++;
+                        nodes *= 4;
+                    }
+                    if (max < 10) {
+                        max = 10;
+                    }
+
+                    reader.close();
+                    reader = new ShapefileReader(shpFiles, true, false, new GeometryFactory());
                 }
 
-                reader.close();
-                reader = new ShapefileReader(shpFiles, true, false, new GeometryFactory());
+                cnt = this.buildQuadTree(reader, treeFile, verbose);
             }
-
-            cnt = this.buildQuadTree(reader, treeFile, verbose);
         } finally {
             if (reader != null) reader.close();
         }
@@ -250,6 +265,30 @@ class ShapeFileIndexer implements FileWriter {
         return cnt;
     }
 
+    private int buildPackedRTree(ShapefileReader reader, File file) throws IOException {
+        LOGGER.fine("Building packed R-tree spatial index for file " + file.getAbsolutePath());
+
+        IndexFile shpIndex = new IndexFile(shpFiles, false);
+        try {
+            PackedRTree.Builder builder =
+                    new PackedRTree.Builder(shpIndex.getRecordCount(), Math.max(leafSize, 2));
+            int cnt = 0;
+            while (reader.hasNext()) {
+                Record rec = reader.nextRecord();
+                // null shapes cannot match a spatial filter, no need to index them
+                if (rec.type != ShapeType.NULL) {
+                    builder.add(
+                            rec.minX, rec.minY, rec.maxX, rec.maxY, shpIndex.getOffsetInBytes(cnt));
+                }
+                cnt++;
+            }
+            builder.write(file);
+            return cnt;
+        } finally {
+            shpIndex.close();
+        }
+    }
+
     private Node optimizeTree(
             QuadTree tree, Node node, int level, ShapefileReader reader, IndexFile index)
             throws StoreException, IOException {
@@ -402,6 +441,20 @@ class ShapeFileIndexer implements FileWriter {
         return getClass().getName();
     }
 
+    /**
+     * The type of spatial index to build, either {@link ShpFileType#QIX} or {@link ShpFileType#HRX}
+     */
+    public void setIndexType(ShpFileType indexType) {
+        if (indexType != ShpFileType.QIX && indexType != ShpFileType.HRX) {
+            throw new IllegalArgumentException(indexType + " is not a spatial index type");
+        }
+        this.indexType = indexType;
+    }
+
+    public ShpFileType getIndexType() {
+        return indexType;
+    }
+
     public int getLeafSize() {
         return leafSize;
     }
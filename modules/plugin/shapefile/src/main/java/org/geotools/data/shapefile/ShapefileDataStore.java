@@ -34,6 +34,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.geotools.data.DataSourceException;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
@@ -45,11 +47,13 @@ import org.geotools.data.shapefile.dbf.DbaseFileHeader;
 import org.geotools.data.shapefile.files.ShpFileType;
 import org.geotools.data.shapefile.files.ShpFiles;
 import org.geotools.data.shapefile.files.StorageFile;
+import org.geotools.data.shapefile.shp.IndexFile;
 import org.geotools.data.shapefile.shp.ShapeType;
 import org.geotools.data.shapefile.shp.ShapefileWriter;
 import org.geotools.data.store.ContentDataStore;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.data.util.FeatureStreams;
 import org.geotools.feature.FeatureTypes;
 import org.geotools.feature.NameImpl;
 import org.geotools.referencing.wkt.Formattable;
@@ -119,6 +123,7 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
 
     public ShapefileDataStore(URL url) {
         shpFiles = new ShpFiles(url);
+        shpFiles.setMemoryMapCacheEnabled(bufferCachingEnabled);
         if (TRACE_ENABLED) {
             trace = new Exception();
             trace.fillInStackTrace();
@@ -182,8 +187,16 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
         return bufferCachingEnabled;
     }
 
+    /**
+     * When set to true (default) and the store is memory mapped, the read only memory maps are
+     * cached and reused, sharing them with the other stores in the JVM, see {@link
+     * org.geotools.data.shapefile.files.MemoryMapCache#getInstance()}
+     *
+     * @param bufferCachingEnabled
+     */
     public void setBufferCachingEnabled(boolean bufferCachingEnabled) {
         this.bufferCachingEnabled = bufferCachingEnabled;
+        shpFiles.setMemoryMapCacheEnabled(bufferCachingEnabled);
     }
 
     public boolean isIndexed() {
@@ -249,6 +262,77 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
         return getFeatureSource().getCount(query);
     }
 
+    /**
+     * Returns a parallel stream of the features matching the query. The shapefile records are
+     * split, based on the .shx index file, in the specified number of partitions, and each one is
+     * decoded with its own set of readers, allowing full scans to use multiple cores. The stream is
+     * ordered, but the features are read outside of any transaction, and the {@link
+     * org.geotools.util.factory.Hints#SCREENMAP} hint is not supported.
+     *
+     * <p>If the .shx file is not available, or the query requires sorting, paging or reprojection,
+     * the features are streamed sequentially instead.
+     *
+     * <p>The sequential fallback holds open files, use the stream in a try-with-resources clause to
+     * make sure they get released.
+     *
+     * @param query The query to be run
+     * @param partitions The number of partitions the records will be split into, typically the
+     *     number of available cores
+     */
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The number of partitions must be positive");
+        }
+        Query partitionQuery =
+                query == null ? new Query(getTypeName().getLocalPart()) : new Query(query);
+        partitionQuery.setTypeName(getTypeName().getLocalPart());
+        Stream<SimpleFeature> stream = getPartitionedStream(partitionQuery, partitions);
+        if (stream == null) {
+            return FeatureStreams.toFeatureStream(getFeatureSource().getFeatures(partitionQuery));
+        }
+        return stream;
+    }
+
+    /**
+     * Returns a parallel stream over the record partitions, or null if the query cannot be
+     * partitioned or the .shx file is not available
+     */
+    Stream<SimpleFeature> getPartitionedStream(Query partitionQuery, int partitions)
+            throws IOException {
+        IndexFile shx = isPartitionable(partitionQuery) ? shpManager.openIndexFile() : null;
+        if (shx == null) {
+            return null;
+        }
+        int count;
+        try {
+            count = shx.getRecordCount();
+        } finally {
+            shx.close();
+        }
+        ShapefileFeatureSource source =
+                new ShapefileFeatureSource(ensureEntry(getTypeName()), shpFiles);
+        ShapefileFeatureSpliterator spliterator =
+                new ShapefileFeatureSpliterator(
+                        source,
+                        partitionQuery,
+                        0,
+                        count,
+                        (int) ((count + (long) partitions - 1) / partitions));
+        return StreamSupport.stream(spliterator, true);
+    }
+
+    /**
+     * Checks if the query can be run against independent record ranges, that is, if it does not
+     * require sorting, paging or reprojection, which are handled on top of the raw reader
+     */
+    boolean isPartitionable(Query query) {
+        return (query.getSortBy() == null || query.getSortBy().length == 0)
+                && query.getStartIndex() == null
+                && query.isMaxFeaturesUnlimited()
+                && query.getCoordinateSystem() == null
+                && query.getCoordinateSystemReproject() == null;
+    }
+
     /**
      * Set the FeatureType of this DataStore. This method will delete any existing local resources
      * or throw an IOException if the DataStore is remote.
@@ -541,6 +625,29 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
         this.indexCreationEnabled = indexCreationEnabled;
     }
 
+    /**
+     * The type of spatial index created on demand, {@link ShpFileType#QIX} by default, or the value
+     * of the <code>org.geotools.shapefile.spatialIndexType</code> system property
+     */
+    public ShpFileType getSpatialIndexType() {
+        return indexManager.spatialIndexType;
+    }
+
+    /**
+     * Sets the type of spatial index to be created on demand. {@link ShpFileType#QIX} builds a
+     * quadtree that is read on the heap, {@link ShpFileType#HRX} builds a packed R-tree that is
+     * memory mapped and searched in place, better suited to serve many large shapefiles at the same
+     * time. An up to date .hrx file is used, if found, regardless of this setting.
+     *
+     * @param spatialIndexType
+     */
+    public void setSpatialIndexType(ShpFileType spatialIndexType) {
+        if (spatialIndexType != ShpFileType.QIX && spatialIndexType != ShpFileType.HRX) {
+            throw new IllegalArgumentException(spatialIndexType + " is not a spatial index type");
+        }
+        indexManager.spatialIndexType = spatialIndexType;
+    }
+
     @Override
     public void removeSchema(String typeName) throws IOException {
         removeSchema(new NameImpl(null, typeName));
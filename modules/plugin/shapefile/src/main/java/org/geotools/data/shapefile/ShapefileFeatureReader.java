@@ -17,9 +17,11 @@
 package org.geotools.data.shapefile;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.data.FeatureReader;
@@ -32,6 +34,10 @@ import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.shapefile.shp.ShapefileReader.Record;
 import org.geotools.data.util.ScreenMap;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureImpl;
+import org.geotools.filter.FilterAttributeExtractor;
+import org.geotools.filter.FilterCompiler;
+import org.geotools.filter.identity.FeatureIdImpl;
 import org.geotools.geometry.jts.LiteCoordinateSequence;
 import org.geotools.util.logging.Logging;
 import org.locationtech.jts.geom.Envelope;
@@ -84,6 +90,13 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
 
     Filter filter;
 
+    /**
+     * Flags the attributes the filter needs to be evaluated, these are decoded first, the others
+     * only if the feature is accepted. Null if all attributes are to be decoded before evaluating
+     * the filter.
+     */
+    boolean[] filterAttributes;
+
     public ShapefileFeatureReader(
             SimpleFeatureType schema,
             ShapefileReader shp,
@@ -136,6 +149,12 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
                     }
                 }
             }
+
+            // avoid transferring from the file the fields we are not going to parse
+            int[] fields = Arrays.stream(dbfindexes).filter(i -> i >= 0).distinct().toArray();
+            if (fields.length < head.getNumFields()) {
+                dbf.setFieldsToRead(fields);
+            }
         }
     }
 
@@ -251,25 +270,49 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
 
     SimpleFeature buildFeature(int number, Geometry geometry, Row row, Envelope envelope)
             throws IOException {
-        if (dbfindexes != null) {
+        // build the feature id
+        String featureId = buildFeatureId(number);
+        SimpleFeature feature;
+        if (dbfindexes != null && filterAttributes != null) {
+            // decode the attributes the filter needs first
+            Object[] values = new Object[dbfindexes.length];
             for (int i = 0; i < dbfindexes.length; i++) {
                 if (dbfindexes[i] == -1) {
-                    builder.add(geometry);
-                } else {
-                    builder.add(row.read(dbfindexes[i]));
+                    values[i] = geometry;
+                } else if (filterAttributes[i]) {
+                    values[i] = row.read(dbfindexes[i]);
                 }
             }
-        } else if (geometry != null) {
-            builder.add(geometry);
-        }
-        // build the feature id
-        String featureId = buildFeatureId(number);
-        SimpleFeature feature = builder.buildFeature(featureId);
-        if (filter != null) {
-            // if we should not return the feature, just drop it and continue reading
+            // the feature shares the values array, and is not visible outside of this reader
+            // until returned, the other attributes can be decoded right into it later
+            feature = new SimpleFeatureImpl(values, schema, new FeatureIdImpl(featureId), false);
             if (!filter.evaluate(feature)) {
                 return null;
             }
+            for (int i = 0; i < dbfindexes.length; i++) {
+                if (dbfindexes[i] != -1 && !filterAttributes[i]) {
+                    values[i] = row.read(dbfindexes[i]);
+                }
+            }
+        } else {
+            if (dbfindexes != null) {
+                for (int i = 0; i < dbfindexes.length; i++) {
+                    if (dbfindexes[i] == -1) {
+                        builder.add(geometry);
+                    } else {
+                        builder.add(row.read(dbfindexes[i]));
+                    }
+                }
+            } else if (geometry != null) {
+                builder.add(geometry);
+            }
+            feature = builder.buildFeature(featureId);
+            if (filter != null) {
+                // if we should not return the feature, just drop it and continue reading
+                if (!filter.evaluate(feature)) {
+                    return null;
+                }
+            }
         }
 
         // update screenmap if present, now that we have the certainty
@@ -373,10 +416,26 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
     }
 
     public Filter getFilter() {
-        return filter;
+        return FilterCompiler.getOriginal(filter);
     }
 
     public void setFilter(Filter filter) {
-        this.filter = filter;
+        // records are read and filtered one at a time, the deferred attribute decoding
+        // and the screenmap updates depend on it, so the filter is compiled but not batched
+        this.filter = FilterCompiler.compile(filter, schema);
+        this.filterAttributes = null;
+        if (filter != null && dbfindexes != null) {
+            FilterAttributeExtractor extractor = new FilterAttributeExtractor(schema);
+            filter.accept(extractor, null);
+            if (!extractor.isUsingDynamincProperties()) {
+                Set<String> names = extractor.getAttributeNameSet();
+                boolean[] attributes = new boolean[dbfindexes.length];
+                for (int i = 0; i < dbfindexes.length; i++) {
+                    String name = schema.getDescriptor(i).getLocalName();
+                    attributes[i] = names.contains(name);
+                }
+                this.filterAttributes = attributes;
+            }
+        }
     }
 }
@@ -30,16 +30,20 @@ import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 import org.geotools.data.CloseableIterator;
 import org.geotools.data.DataSourceException;
 import org.geotools.data.EmptyFeatureReader;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureSource;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.PrjFileReader;
 import org.geotools.data.Query;
 import org.geotools.data.ReTypeFeatureReader;
+import org.geotools.data.Transaction;
 import org.geotools.data.shapefile.dbf.DbaseFileHeader;
 import org.geotools.data.shapefile.dbf.DbaseFileReader;
+import org.geotools.data.shapefile.dbf.IndexedDbaseFileReader;
 import org.geotools.data.shapefile.fid.IndexedFidReader;
 import org.geotools.data.shapefile.files.FileReader;
 import org.geotools.data.shapefile.files.ShpFileType;
@@ -99,7 +103,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  *
  * @author Andrea Aime - GeoSolutions
  */
-class ShapefileFeatureSource extends ContentFeatureSource {
+class ShapefileFeatureSource extends ContentFeatureSource implements PartitionedFeatureSource {
 
     /**
      * Attribute extract that resolves empty PropertyName references to the default geometry where
@@ -313,13 +317,7 @@ class ShapefileFeatureSource extends ContentFeatureSource {
         GeometryFactory geometryFactory = getGeometryFactory(q);
 
         // grab the target bbox, if any
-        Envelope bbox = new ReferencedEnvelope();
-        if (q != null && q.getFilter() != null) {
-            bbox = (Envelope) q.getFilter().accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, bbox);
-            if (bbox == null) {
-                bbox = new ReferencedEnvelope();
-            }
-        }
+        Envelope bbox = getTargetBBox(q);
 
         // see if we can use indexing to speedup the data access
         Filter filter = q != null ? q.getFilter() : null;
@@ -417,6 +415,95 @@ class ShapefileFeatureSource extends ContentFeatureSource {
         }
     }
 
+    /**
+     * Returns a reader for the records between first (included) and last (excluded), located by
+     * means of the .shx file. The reader opens its own shp, dbf, shx and fid readers, so that
+     * different ranges can be read concurrently. The screen map hint, if present, is ignored, as
+     * screen maps cannot be shared among threads.
+     *
+     * @param q The query to be run
+     * @param first The first record, zero based, included
+     * @param last The last record, zero based, excluded
+     */
+    FeatureReader<SimpleFeatureType, SimpleFeature> getPartitionReader(Query q, int first, int last)
+            throws IOException {
+        SimpleFeatureType resultSchema = getResultSchema(q);
+        SimpleFeatureType readSchema = getReadSchema(q);
+        GeometryFactory geometryFactory = getGeometryFactory(q);
+        Envelope bbox = getTargetBBox(q);
+        Filter filter = q != null ? q.getFilter() : null;
+
+        ShapefileSetManager shpManager = getDataStore().shpManager;
+        IndexFile shx = shpManager.openIndexFile();
+        if (shx == null) {
+            throw new IOException("Partitioned reads require the .shx file to be available");
+        }
+        IndexedFidReader fidReader = null;
+        ShapefileReader shapeReader = null;
+        DbaseFileReader dbfReader = null;
+        try {
+            IndexManager indexManager = getDataStore().indexManager;
+            if (getDataStore().isFidIndexed() && indexManager.hasFidIndex(false)) {
+                fidReader = new IndexedFidReader(shpFiles);
+            }
+            shapeReader = shpManager.openShapeReader(geometryFactory, true);
+            List<AttributeDescriptor> attributes = readSchema.getAttributeDescriptors();
+            if (attributes.size() > 1
+                    || (attributes.size() == 1 && readSchema.getGeometryDescriptor() == null)) {
+                dbfReader = shpManager.openDbfReader(true);
+            }
+            PartitionedShapefileFeatureReader reader =
+                    new PartitionedShapefileFeatureReader(
+                            readSchema,
+                            shapeReader,
+                            (IndexedDbaseFileReader) dbfReader,
+                            fidReader,
+                            shx,
+                            first,
+                            last);
+            if (filter != null && !Filter.INCLUDE.equals(filter)) {
+                reader.setFilter(filter);
+            }
+            if (!bbox.isNull()) {
+                reader.setTargetBBox(bbox);
+            }
+            Hints hints = q != null ? q.getHints() : null;
+            if (hints != null) {
+                Number simplificationDistance = (Number) hints.get(Hints.GEOMETRY_DISTANCE);
+                if (simplificationDistance != null) {
+                    reader.setSimplificationDistance(simplificationDistance.doubleValue());
+                }
+                if (Boolean.TRUE.equals(hints.get(Hints.FEATURE_2D))) {
+                    shapeReader.setFlatGeometry(true);
+                }
+            }
+
+            if (!FeatureTypes.equals(readSchema, resultSchema)) {
+                return new ReTypeFeatureReader(reader, resultSchema);
+            } else {
+                return reader;
+            }
+        } catch (IOException | RuntimeException e) {
+            if (shapeReader != null) shapeReader.close();
+            if (dbfReader != null) dbfReader.close();
+            if (fidReader != null) fidReader.close();
+            shx.close();
+            throw e;
+        }
+    }
+
+    /** Returns the bounding box of the query filter, or a null envelope if there is none */
+    Envelope getTargetBBox(Query q) {
+        Envelope bbox = new ReferencedEnvelope();
+        if (q != null && q.getFilter() != null) {
+            bbox = (Envelope) q.getFilter().accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, bbox);
+            if (bbox == null) {
+                bbox = new ReferencedEnvelope();
+            }
+        }
+        return bbox;
+    }
+
     SimpleFeatureType getResultSchema(Query q) {
         if (q.getPropertyNames() == null) {
             return getSchema();
@@ -604,4 +691,21 @@ class ShapefileFeatureSource extends ContentFeatureSource {
     protected boolean handleVisitor(Query query, FeatureVisitor visitor) throws IOException {
         return super.handleVisitor(query, visitor);
     }
+
+    /**
+     * Returns a parallel stream over partitions of the shapefile records, or null if the query
+     * cannot be partitioned, or the source is working against a transaction
+     */
+    @Override
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The number of partitions must be positive");
+        }
+        if (getTransaction() != Transaction.AUTO_COMMIT) {
+            return null;
+        }
+        Query partitionQuery = new Query(query);
+        partitionQuery.setTypeName(getEntry().getTypeName());
+        return getDataStore().getPartitionedStream(partitionQuery, partitions);
+    }
 }
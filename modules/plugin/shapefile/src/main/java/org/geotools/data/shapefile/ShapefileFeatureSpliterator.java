@@ -0,0 +1,135 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A {@link Spliterator} over a range of shapefile records, splitting the range in chunks that can
+ * be read in parallel, each one with its own {@link PartitionedShapefileFeatureReader}.
+ *
+ * <p>The shapefile read locks are bound to the thread that acquired them, so readers are never kept
+ * open across calls: {@link #forEachRemaining(Consumer)} reads its whole range in one go, while
+ * {@link #tryAdvance(Consumer)} reads and buffers small batches of records.
+ */
+class ShapefileFeatureSpliterator implements Spliterator<SimpleFeature> {
+
+    /** Number of records read at once by {@link #tryAdvance(Consumer)} */
+    static final int BATCH_SIZE = 1024;
+
+    final ShapefileFeatureSource source;
+
+    final Query query;
+
+    final int chunkSize;
+
+    final ArrayDeque<SimpleFeature> buffer = new ArrayDeque<>();
+
+    int first;
+
+    int last;
+
+    /**
+     * Builds a new spliterator covering the specified record range
+     *
+     * @param source The feature source used to open the partition readers
+     * @param query The query to run against each partition
+     * @param first The first record, zero based, included
+     * @param last The last record, zero based, excluded
+     * @param chunkSize The number of records below which the range won't be split further
+     */
+    public ShapefileFeatureSpliterator(
+            ShapefileFeatureSource source, Query query, int first, int last, int chunkSize) {
+        this.source = source;
+        this.query = query;
+        this.first = first;
+        this.last = last;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SimpleFeature> action) {
+        while (buffer.isEmpty() && first < last) {
+            int end = (int) Math.min((long) first + BATCH_SIZE, last);
+            read(first, end, buffer::add);
+            first = end;
+        }
+        if (buffer.isEmpty()) {
+            return false;
+        }
+        action.accept(buffer.poll());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super SimpleFeature> action) {
+        while (!buffer.isEmpty()) {
+            action.accept(buffer.poll());
+        }
+        if (first < last) {
+            int end = last;
+            read(first, end, action);
+            first = end;
+        }
+    }
+
+    /** Reads the specified record range, opening and closing the readers in the calling thread */
+    private void read(int from, int to, Consumer<? super SimpleFeature> action) {
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                source.getPartitionReader(query, from, to)) {
+            while (reader.hasNext()) {
+                action.accept(reader.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Spliterator<SimpleFeature> trySplit() {
+        // cannot split while holding buffered features, or if we are at the chunk size already
+        int size = last - first;
+        if (!buffer.isEmpty() || size <= chunkSize) {
+            return null;
+        }
+        // split along chunk boundaries, the prefix goes to the new spliterator
+        int chunks = (size + chunkSize - 1) / chunkSize;
+        int mid = first + (chunks / 2) * chunkSize;
+        ShapefileFeatureSpliterator prefix =
+                new ShapefileFeatureSpliterator(source, query, first, mid, chunkSize);
+        this.first = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return last - first + buffer.size();
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
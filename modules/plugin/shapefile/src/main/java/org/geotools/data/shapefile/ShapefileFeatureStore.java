@@ -18,9 +18,11 @@ package org.geotools.data.shapefile;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
 import org.geotools.data.FilteringFeatureWriter;
+import org.geotools.data.PartitionedFeatureSource;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.ResourceInfo;
@@ -42,7 +44,7 @@ import org.opengis.filter.Filter;
  *
  * @author Andrea Aime - GeoSolutions
  */
-class ShapefileFeatureStore extends ContentFeatureStore {
+class ShapefileFeatureStore extends ContentFeatureStore implements PartitionedFeatureSource {
 
     ShapefileFeatureSource delegate;
 
@@ -175,4 +177,9 @@ class ShapefileFeatureStore extends ContentFeatureStore {
     protected boolean handleVisitor(Query query, FeatureVisitor visitor) throws IOException {
         return delegate.handleVisitor(query, visitor);
     }
+
+    @Override
+    public Stream<SimpleFeature> getFeatureStream(Query query, int partitions) throws IOException {
+        return delegate.getFeatureStream(query, partitions);
+    }
 }
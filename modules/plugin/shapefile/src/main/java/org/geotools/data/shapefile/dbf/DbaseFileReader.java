@@ -29,6 +29,7 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -71,6 +72,10 @@ public class DbaseFileReader implements FileReader {
         boolean deleted;
 
         public Object read(final int column) throws IOException {
+            if (fieldsToRead != null && !fieldsToRead[column]) {
+                throw new IllegalArgumentException(
+                        "Field " + column + " is not among the fields to be read");
+            }
             final int offset = fieldOffsets[column];
             return readObject(offset, column);
         }
@@ -78,6 +83,9 @@ public class DbaseFileReader implements FileReader {
         public String toString() {
             final StringBuffer ret = new StringBuffer("DBF Row - ");
             for (int i = 0; i < header.getNumFields(); i++) {
+                if (fieldsToRead != null && !fieldsToRead[i]) {
+                    continue;
+                }
                 ret.append(header.getFieldName(i)).append(": \"");
                 try {
                     ret.append(this.read(i));
@@ -108,6 +116,12 @@ public class DbaseFileReader implements FileReader {
 
     int[] fieldOffsets;
 
+    /** The fields actually transferred from the file on read, or null to read all of them */
+    boolean[] fieldsToRead;
+
+    /** The byte ranges of the fields to read, as [offset, length] pairs, merged when adjacent */
+    int[] readRanges;
+
     int cnt = 1;
 
     Row row;
@@ -235,6 +249,41 @@ public class DbaseFileReader implements FileReader {
         row = new Row();
     }
 
+    /**
+     * Restricts the fields transferred from the file when reading a record. On wide tables this
+     * avoids copying the bytes of fields that are never going to be parsed. Trying to read a field
+     * not included in the set via {@link Row#read(int)} or {@link #readField(int)} will result in
+     * an {@link IllegalArgumentException}, while {@link #readEntry(Object[])} will leave them null.
+     *
+     * @param fields The zero based indexes of the fields to be read, or null to read all of them
+     */
+    public void setFieldsToRead(int[] fields) {
+        if (fields == null) {
+            fieldsToRead = null;
+            readRanges = null;
+            return;
+        }
+        final int numFields = header.getNumFields();
+        fieldsToRead = new boolean[numFields];
+        for (int field : fields) {
+            fieldsToRead[field] = true;
+        }
+        // compute the byte ranges to be copied, merging adjacent fields
+        int[] ranges = new int[numFields * 2];
+        int count = 0;
+        for (int i = 0; i < numFields; i++) {
+            if (fieldsToRead[i] && fieldLengths[i] > 0) {
+                if (count > 0 && ranges[count - 2] + ranges[count - 1] == fieldOffsets[i]) {
+                    ranges[count - 1] += fieldLengths[i];
+                } else {
+                    ranges[count++] = fieldOffsets[i];
+                    ranges[count++] = fieldLengths[i];
+                }
+            }
+        }
+        readRanges = Arrays.copyOf(ranges, count);
+    }
+
     protected int fill(final ByteBuffer buffer, final ReadableByteChannel channel)
             throws IOException {
         int r = buffer.remaining();
@@ -385,7 +434,11 @@ public class DbaseFileReader implements FileReader {
         final int numFields = header.getNumFields();
 
         for (int j = 0; j < numFields; j++) {
-            entry[j + offset] = readObject(fieldOffsets[j], j);
+            if (fieldsToRead == null || fieldsToRead[j]) {
+                entry[j + offset] = readObject(fieldOffsets[j], j);
+            } else {
+                entry[j + offset] = null;
+            }
         }
 
         return entry;
@@ -401,7 +454,7 @@ public class DbaseFileReader implements FileReader {
      * @return The value of the field
      */
     public Object readField(final int fieldNum) throws IOException {
-        return readObject(fieldOffsets[fieldNum], fieldNum);
+        return row.read(fieldNum);
     }
 
     /** Transfer, by bytes, the next record to the writer. */
@@ -430,9 +483,19 @@ public class DbaseFileReader implements FileReader {
             final char deleted = (char) buffer.get();
             row.deleted = deleted == '*';
 
-            buffer.limit(buffer.position() + header.getRecordLength() - 1);
-            buffer.get(bytes); // SK: There is a side-effect here!!!
-            buffer.limit(buffer.capacity());
+            if (readRanges == null) {
+                buffer.limit(buffer.position() + header.getRecordLength() - 1);
+                buffer.get(bytes); // SK: There is a side-effect here!!!
+                buffer.limit(buffer.capacity());
+            } else {
+                // only transfer the fields we are going to parse
+                final int start = buffer.position();
+                for (int i = 0; i < readRanges.length; i += 2) {
+                    buffer.position(start + readRanges[i]);
+                    buffer.get(bytes, readRanges[i], readRanges[i + 1]);
+                }
+                buffer.position(start + header.getRecordLength() - 1);
+            }
 
             foundRecord = true;
         }
@@ -489,9 +552,7 @@ public class DbaseFileReader implements FileReader {
                         if (oneBytePerChar) {
                             object = fastParse(bytes, fieldOffset, fieldLen).trim();
                         } else {
-                            object =
-                                    new String(bytes, fieldOffset, fieldLen, stringCharset.name())
-                                            .trim();
+                            object = new String(bytes, fieldOffset, fieldLen, stringCharset).trim();
                         }
                     }
                     break;
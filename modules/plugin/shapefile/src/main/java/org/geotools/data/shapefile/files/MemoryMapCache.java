@@ -23,28 +23,103 @@ import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.geotools.util.NIOUtilities;
-import org.geotools.util.SoftValueHashMap;
-import org.geotools.util.SoftValueHashMap.ValueCleaner;
 import org.geotools.util.URLs;
 import org.geotools.util.logging.Logging;
 
 /**
  * A cache for memory mapped buffers, used to avoid generating over and over read only memory mapped
  * buffers. Mapping a file is a synchronized operation, plus by generating light copies the same
- * buffer can be shared by various threads
+ * buffer can be shared by various threads.
+ *
+ * <p>A single instance is shared by all the {@link ShpFiles} in the JVM, see {@link
+ * #getInstance()}. The cache is bounded both in total mapped bytes and number of mappings, and
+ * evicts the least recently used mappings first. The limits can be set with the <code>
+ * org.geotools.shapefile.memoryMapCache.maxBytes</code> and <code>
+ * org.geotools.shapefile.memoryMapCache.maxMappings</code> system properties, or at runtime.
+ *
+ * <p>Evicted buffers are not forcefully unmapped, as other threads might still be reading their
+ * copies, the mapping is released by the garbage collector once no copy is in use anymore. The
+ * limits are thus advisory: they bound the mappings held by the cache, but the mapped address space
+ * in use can temporarily exceed them, see {@link #getEvictions()}.
+ *
+ * <p>Files are mapped outside of the cache lock, concurrent requests for the same region wait for a
+ * single mapping to complete, while requests for other regions proceed in parallel.
  *
  * @author Andrea Aime - OpenGeo
  */
-class MemoryMapCache {
+public class MemoryMapCache {
 
     static final Logger LOGGER = Logging.getLogger(MemoryMapCache.class);
 
-    SoftValueHashMap<MappingKey, MappedByteBuffer> buffers =
-            new SoftValueHashMap<MappingKey, MappedByteBuffer>(0, new BufferCleaner());
+    static final long DEFAULT_MAX_BYTES;
+
+    static final int DEFAULT_MAX_MAPPINGS;
+
+    static {
+        long maxBytes = 4L * 1024 * 1024 * 1024;
+        try {
+            String value = System.getProperty("org.geotools.shapefile.memoryMapCache.maxBytes");
+            if (value != null) {
+                maxBytes = Long.parseLong(value);
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Could not set the max memory map cache size", t);
+        }
+        DEFAULT_MAX_BYTES = maxBytes;
+
+        int maxMappings = 4096;
+        try {
+            String value = System.getProperty("org.geotools.shapefile.memoryMapCache.maxMappings");
+            if (value != null) {
+                maxMappings = Integer.parseInt(value);
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Could not set the max memory map cache mappings", t);
+        }
+        DEFAULT_MAX_MAPPINGS = maxMappings;
+    }
+
+    static final MemoryMapCache INSTANCE =
+            new MemoryMapCache(DEFAULT_MAX_BYTES, DEFAULT_MAX_MAPPINGS);
+
+    /** The mappings, in access order, guarded by the cache monitor */
+    final LinkedHashMap<MappingKey, MappedByteBuffer> buffers =
+            new LinkedHashMap<MappingKey, MappedByteBuffer>(16, 0.75f, true);
+
+    /** The mappings being created outside of the cache monitor, guarded by the cache monitor */
+    final Map<MappingKey, FutureTask<MappedByteBuffer>> pending =
+            new HashMap<MappingKey, FutureTask<MappedByteBuffer>>();
+
+    long maxBytes;
+
+    int maxMappings;
+
+    long mappedBytes;
+
+    long hits;
+
+    long misses;
+
+    long evictions;
+
+    /** Returns the memory map cache shared by all the shapefiles in the JVM */
+    public static MemoryMapCache getInstance() {
+        return INSTANCE;
+    }
+
+    MemoryMapCache(long maxBytes, int maxMappings) {
+        this.maxBytes = maxBytes;
+        this.maxMappings = maxMappings;
+    }
 
     MappedByteBuffer map(FileChannel wrapped, URL url, MapMode mode, long position, long size)
             throws IOException {
@@ -54,50 +129,146 @@ class MemoryMapCache {
 
         File file = URLs.urlToFile(url).getCanonicalFile();
         MappingKey mk = new MappingKey(file, position, size);
-        MappedByteBuffer buffer = buffers.get(mk);
-        if (buffer == null) {
+        FutureTask<MappedByteBuffer> task;
+        boolean owner = false;
+        synchronized (this) {
+            MappedByteBuffer buffer = buffers.get(mk);
+            if (buffer != null) {
+                hits++;
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Using cached map for " + file.getAbsolutePath());
+                }
+                return (MappedByteBuffer) buffer.duplicate();
+            }
+            // another thread might be mapping the same region already, wait for it
+            task = pending.get(mk);
+            if (task == null) {
+                misses++;
+                task = new FutureTask<>(() -> wrapped.map(mode, position, size));
+                pending.put(mk, task);
+                owner = true;
+            } else {
+                hits++;
+            }
+        }
+
+        // map outside of the lock, it's a system call that can take a while
+        MappedByteBuffer buffer;
+        if (owner) {
+            task.run();
+            try {
+                buffer = getMapping(task);
+            } catch (IOException | RuntimeException | Error e) {
+                synchronized (this) {
+                    pending.remove(mk, task);
+                }
+                throw e;
+            }
             synchronized (this) {
-                buffer = buffers.get(mk);
-                if (buffer == null) {
-                    buffer = wrapped.map(mode, position, size);
+                // the file might have been released while mapping, don't cache it in that case
+                if (pending.remove(mk, task) && size <= maxBytes && maxMappings > 0) {
                     buffers.put(mk, buffer);
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.log(Level.FINE, "Mapping and caching " + file.getAbsolutePath());
-                    }
+                    mappedBytes += size;
+                    evict();
                 }
             }
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Mapping and caching " + file.getAbsolutePath());
+            }
         } else {
+            buffer = getMapping(task);
             if (LOGGER.isLoggable(Level.FINE)) {
-                LOGGER.log(Level.FINE, "Using cached map for " + file.getAbsolutePath());
+                LOGGER.log(Level.FINE, "Using concurrent map for " + file.getAbsolutePath());
             }
         }
 
         return (MappedByteBuffer) buffer.duplicate();
     }
 
+    /** Waits for a mapping to be completed, unwrapping the eventual {@link IOException} */
+    private static MappedByteBuffer getMapping(FutureTask<MappedByteBuffer> task)
+            throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
-     * Cleans up all memory mapped regions for a specified file. It is necessary to call this method
-     * before any attempt to open a file for writing on Windows
+     * Drops the least recently used mappings until the cache is back within its limits. The dropped
+     * buffers are not unmapped, so this bounds the mappings the cache holds on to, not the memory
+     * actually mapped, which is released only when the buffers are garbage collected
+     */
+    private void evict() {
+        Iterator<Map.Entry<MappingKey, MappedByteBuffer>> it = buffers.entrySet().iterator();
+        while ((mappedBytes > maxBytes || buffers.size() > maxMappings) && it.hasNext()) {
+            MappingKey key = it.next().getKey();
+            it.remove();
+            mappedBytes -= key.size;
+            evictions++;
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Evicted mapping for " + key.file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Removes all the memory mapped regions for a specified file from the cache, without unmapping
+     * them. The cache is shared by all the {@link ShpFiles} in the JVM, each with its own lock, so
+     * readers of other stores might still be using the buffers even while the file is being written
      *
      * @param file
      */
-    void cleanFileCache(URL url) {
+    void releaseFileCache(URL url) {
+        removeFileCache(url);
+    }
+
+    private List<MappedByteBuffer> removeFileCache(URL url) {
+        List<MappedByteBuffer> removed = new ArrayList<MappedByteBuffer>();
         try {
             final File rawFile = URLs.urlToFile(url);
             if (rawFile == null) {
                 // not a local file
-                return;
+                return removed;
             }
             File file = rawFile.getCanonicalFile();
-            List<MappingKey> keys = new ArrayList<MappingKey>(buffers.keySet());
-            for (MappingKey key : keys) {
-                if (key.file.equals(file)) {
-                    MappedByteBuffer buffer = buffers.remove(key);
-                    NIOUtilities.clean(buffer, true);
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.log(Level.FINE, "Removed mapping for " + file.getAbsolutePath());
+            synchronized (this) {
+                Iterator<Map.Entry<MappingKey, MappedByteBuffer>> it =
+                        buffers.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<MappingKey, MappedByteBuffer> entry = it.next();
+                    MappingKey key = entry.getKey();
+                    if (key.file.equals(file)) {
+                        it.remove();
+                        mappedBytes -= key.size;
+                        removed.add(entry.getValue());
+                        if (LOGGER.isLoggable(Level.FINE)) {
+                            LOGGER.log(Level.FINE, "Removed mapping for " + file.getAbsolutePath());
+                        }
                     }
                 }
+                // mappings in progress will not be cached
+                pending.keySet().removeIf(key -> key.file.equals(file));
             }
         } catch (Throwable t) {
             LOGGER.log(
@@ -105,17 +276,77 @@ class MemoryMapCache {
                     "An error occurred while trying to clean the memory map cache",
                     t);
         }
+        return removed;
     }
 
-    void clean() {
-        List<MappingKey> keys = new ArrayList<MappingKey>(buffers.keySet());
-        for (MappingKey key : keys) {
-            MappedByteBuffer buffer = buffers.remove(key);
-            NIOUtilities.clean(buffer, true);
-            if (LOGGER.isLoggable(Level.FINE)) {
-                LOGGER.log(Level.FINE, "Removed mapping for " + key.file.getAbsolutePath());
-            }
-        }
+    /** The number of lookups that found a cached mapping */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** The number of lookups that had to map the file */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of mappings dropped to stay within the cache limits. Evicted mappings are not
+     * unmapped, they stay in memory until the copies handed out are garbage collected
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** The total size of the mappings currently held by the cache */
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    /** The number of mappings currently held by the cache */
+    public synchronized int getMappingCount() {
+        return buffers.size();
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the maximum total size of the cached mappings, evicting as needed. The limit is
+     * advisory, evicted mappings are released only once garbage collected
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    public synchronized int getMaxMappings() {
+        return maxMappings;
+    }
+
+    /** Sets the maximum number of cached mappings, evicting as needed */
+    public synchronized void setMaxMappings(int maxMappings) {
+        this.maxMappings = maxMappings;
+        evict();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MemoryMapCache [mappings="
+                + buffers.size()
+                + ", mappedBytes="
+                + mappedBytes
+                + ", maxMappings="
+                + maxMappings
+                + ", maxBytes="
+                + maxBytes
+                + ", hits="
+                + hits
+                + ", misses="
+                + misses
+                + ", evictions="
+                + evictions
+                + "]";
     }
 
     /** Tracks a memory mapped region of a certain file */
@@ -155,17 +386,4 @@ class MemoryMapCache {
             return true;
         }
     }
-
-    /**
-     * Cleans up the buffers before the soft reference gets deallocated
-     *
-     * @author Andrea Aime
-     */
-    public class BufferCleaner implements ValueCleaner {
-
-        public void clean(Object key, Object object) {
-            MappedByteBuffer buffer = (MappedByteBuffer) object;
-            NIOUtilities.clean(buffer, true);
-        }
-    }
 }
@@ -39,6 +39,11 @@ public enum ShpFileType {
      * mapservers shptree tool generates
      */
     QIX("qix"),
+    /**
+     * the .hrx file, a Hilbert packed R-tree spatial index of the shapefile, that is memory mapped
+     * and searched in place instead of being loaded on the heap
+     */
+    HRX("hrx"),
     /**
      * the .fix file, it contains all the Feature IDs for constant time lookup by fid also so that
      * the fids stay consistent across deletes and adds
@@ -83,8 +83,8 @@ public class ShpFiles {
     private final Map<Thread, Collection<ShpFilesLocker>> lockers =
             new ConcurrentHashMap<Thread, Collection<ShpFilesLocker>>();
 
-    /** A cache for read only memory mapped buffers */
-    private final MemoryMapCache mapCache = new MemoryMapCache();
+    /** A cache for read only memory mapped buffers, shared with all the other shapefiles */
+    private final MemoryMapCache mapCache = MemoryMapCache.getInstance();
 
     private boolean memoryMapCacheEnabled;
 
@@ -213,7 +213,14 @@ public class ShpFiles {
             logCurrentLockers(Level.SEVERE);
             lockers.clear(); // so as not to get this log again.
         }
-        mapCache.clean();
+        releaseMapCache();
+    }
+
+    /** Drops the cached mappings of this shapefile from the shared memory map cache */
+    private void releaseMapCache() {
+        for (URL url : urls.values()) {
+            mapCache.releaseFileCache(url);
+        }
     }
 
     /**
@@ -455,7 +462,8 @@ public class ShpFiles {
         relinquishReadLocks(threadLockers);
         readWriteLock.writeLock().lock();
         threadLockers.add(new ShpFilesLocker(url, requestor));
-        mapCache.cleanFileCache(url);
+        // other stores might still be reading the shared buffers, they cannot be unmapped
+        mapCache.releaseFileCache(url);
         return url;
     }
 
@@ -895,14 +903,15 @@ public class ShpFiles {
 
     /**
      * Enables the memory map cache. When enabled the memory mapped portions of the files are cached
-     * and shared (giving each thread a clone of it)
+     * and shared (giving each thread a clone of it). The cache is shared with all the other
+     * shapefiles in the JVM, see {@link MemoryMapCache#getInstance()} to monitor and configure it
      *
      * @param memoryMapCacheEnabled
      */
     public void setMemoryMapCacheEnabled(boolean memoryMapCacheEnabled) {
         this.memoryMapCacheEnabled = memoryMapCacheEnabled;
         if (!memoryMapCacheEnabled) {
-            mapCache.clean();
+            releaseMapCache();
         }
     }
 
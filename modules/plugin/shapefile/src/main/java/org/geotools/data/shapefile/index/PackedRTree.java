@@ -0,0 +1,487 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import org.geotools.data.CloseableIterator;
+import org.geotools.util.NIOUtilities;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * A static, packed R-tree spatial index, sorted along a Hilbert curve and stored as a flat file
+ * that is memory mapped and searched in place, without loading any node on the heap.
+ *
+ * <p>The file layout, all little endian, is:
+ *
+ * <ul>
+ *   <li>a 16 bytes header: the <code>HRX</code> magic, a version byte, the node size, the number of
+ *       indexed items and the total number of entries
+ *   <li>the entry bounds, as four doubles (minx, miny, maxx, maxy) per entry
+ *   <li>the entry values, one int per entry
+ * </ul>
+ *
+ * Entries are laid out level by level, starting with the leaves and ending with the root. The value
+ * of a leaf entry is the offset of the record in the .shp file, the value of an inner entry is the
+ * position of its first child, with the children stored contiguously.
+ */
+public class PackedRTree {
+
+    static final byte[] MAGIC = {'H', 'R', 'X'};
+
+    static final byte VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+
+    static final int BOX_SIZE = 32;
+
+    static final int DEFAULT_NODE_SIZE = 16;
+
+    /** Highest value of the Hilbert grid coordinates */
+    static final int HILBERT_MAX = (1 << 16) - 1;
+
+    final ByteBuffer buffer;
+
+    final int nodeSize;
+
+    final int numItems;
+
+    final int numNodes;
+
+    /** The end position of each level, the first one contains the leaves */
+    final int[] levelBounds;
+
+    final int indicesStart;
+
+    /** Whether the buffer has been mapped by this tree, and should be unmapped on close */
+    boolean owned;
+
+    /**
+     * Maps the specified index file in memory, in read only mode
+     *
+     * @param file The index file
+     * @throws IOException If the file cannot be mapped, or is not a valid packed R-tree
+     */
+    public static PackedRTree open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return open(channel);
+        }
+    }
+
+    /**
+     * Maps the contents of the specified channel in memory, in read only mode. The mapping stays
+     * valid after the channel is closed, until {@link #close()} is called.
+     *
+     * @param channel The index file channel
+     * @throws IOException If the file cannot be mapped, or is not a valid packed R-tree
+     */
+    public static PackedRTree open(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Index file is too large to be memory mapped");
+        }
+        PackedRTree tree = new PackedRTree(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        tree.owned = true;
+        return tree;
+    }
+
+    /**
+     * Builds a tree around the specified buffer. The caller keeps the ownership of the buffer, it
+     * won't be released by {@link #close()}
+     *
+     * @param buffer A buffer containing a packed R-tree, as written by {@link Builder}
+     * @throws IOException If the buffer contents are not a valid packed R-tree
+     */
+    public PackedRTree(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE
+                || buffer.get(0) != MAGIC[0]
+                || buffer.get(1) != MAGIC[1]
+                || buffer.get(2) != MAGIC[2]) {
+            throw new IOException("Not a packed R-tree index file");
+        }
+        if (buffer.get(3) != VERSION) {
+            throw new IOException("Unsupported packed R-tree version " + buffer.get(3));
+        }
+        this.nodeSize = buffer.getInt(4);
+        this.numItems = buffer.getInt(8);
+        this.numNodes = buffer.getInt(12);
+        if (nodeSize < 2 || numItems < 0) {
+            throw new IOException("Invalid packed R-tree header");
+        }
+        this.levelBounds = computeLevelBounds(numItems, nodeSize);
+        int expectedNodes = levelBounds.length > 0 ? levelBounds[levelBounds.length - 1] : 0;
+        this.indicesStart = HEADER_SIZE + numNodes * BOX_SIZE;
+        if (numNodes != expectedNodes || buffer.capacity() != indicesStart + numNodes * 4) {
+            throw new IOException("Packed R-tree index file is truncated or corrupted");
+        }
+    }
+
+    /** Returns the end position of each level of the tree, from the leaves up to the root */
+    static int[] computeLevelBounds(int numItems, int nodeSize) {
+        if (numItems == 0) {
+            return new int[0];
+        }
+        int[] bounds = new int[32];
+        int levels = 0;
+        int n = numItems;
+        int numNodes = n;
+        bounds[levels++] = numNodes;
+        do {
+            n = (n + nodeSize - 1) / nodeSize;
+            numNodes += n;
+            bounds[levels++] = numNodes;
+        } while (n != 1);
+        return Arrays.copyOf(bounds, levels);
+    }
+
+    /**
+     * Releases the memory mapped buffer backing the tree, if mapped by {@link #open(FileChannel)}.
+     * The tree cannot be searched anymore after this call.
+     */
+    public void close() {
+        if (owned && buffer instanceof MappedByteBuffer) {
+            NIOUtilities.clean(buffer, true);
+        }
+    }
+
+    /** Returns the number of indexed items */
+    public int getNumItems() {
+        return numItems;
+    }
+
+    /** Returns the bounds of the whole tree, or an empty envelope if the tree is empty */
+    public Envelope getBounds() {
+        if (numNodes == 0) {
+            return new Envelope();
+        }
+        int root = HEADER_SIZE + (numNodes - 1) * BOX_SIZE;
+        return new Envelope(
+                buffer.getDouble(root),
+                buffer.getDouble(root + 16),
+                buffer.getDouble(root + 8),
+                buffer.getDouble(root + 24));
+    }
+
+    /**
+     * Returns the .shp offsets of the records whose bounds intersect the specified envelope, sorted
+     * in ascending order so that the .shp file can be read forward
+     */
+    public int[] searchOffsets(Envelope bounds) {
+        if (numNodes == 0 || bounds.isNull()) {
+            return new int[0];
+        }
+        int[] results = new int[64];
+        int count = 0;
+        final double qminx = bounds.getMinX();
+        final double qminy = bounds.getMinY();
+        final double qmaxx = bounds.getMaxX();
+        final double qmaxy = bounds.getMaxY();
+
+        // each level pushes at most a node worth of children
+        int[] stack = new int[levelBounds.length * nodeSize];
+        int top = 0;
+        int nodeIndex = numNodes - 1;
+        while (true) {
+            int end = Math.min(nodeIndex + nodeSize, upperBound(nodeIndex));
+            boolean leaf = nodeIndex < numItems;
+            for (int pos = nodeIndex; pos < end; pos++) {
+                int box = HEADER_SIZE + pos * BOX_SIZE;
+                if (buffer.getDouble(box + 16) < qminx
+                        || buffer.getDouble(box + 24) < qminy
+                        || buffer.getDouble(box) > qmaxx
+                        || buffer.getDouble(box + 8) > qmaxy) {
+                    continue;
+                }
+                int value = buffer.getInt(indicesStart + pos * 4);
+                if (leaf) {
+                    if (count == results.length) {
+                        results = Arrays.copyOf(results, count * 2);
+                    }
+                    results[count++] = value;
+                } else {
+                    stack[top++] = value;
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            nodeIndex = stack[--top];
+        }
+
+        Arrays.sort(results, 0, count);
+        return count == results.length ? results : Arrays.copyOf(results, count);
+    }
+
+    /** Returns the end of the level containing the specified position */
+    private int upperBound(int position) {
+        for (int i = 0; i < levelBounds.length; i++) {
+            if (levelBounds[i] > position) {
+                return levelBounds[i];
+            }
+        }
+        return numNodes;
+    }
+
+    /**
+     * Searches the tree, returning an iterator of {@link Data} with the same structure as the one
+     * returned by {@link CachedQuadTree#search(Envelope)}
+     */
+    public CloseableIterator<Data> search(Envelope bounds) {
+        final int[] offsets = searchOffsets(bounds);
+        final Data data = new Data(CachedQuadTree.DATA_DEFINITION);
+        return new CloseableIterator<Data>() {
+            int idx = 0;
+
+            public boolean hasNext() {
+                return idx < offsets.length;
+            }
+
+            public Data next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    data.clear();
+                    data.addValue(0);
+                    data.addValue((long) offsets[idx++]);
+                } catch (TreeException e) {
+                    throw new RuntimeException(e);
+                }
+                return data;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            public void close() throws IOException {
+                idx = offsets.length;
+            }
+        };
+    }
+
+    /**
+     * Accumulates the record bounds and offsets, and then writes them out as a packed R-tree. The
+     * builder works on the heap, but with primitive arrays only.
+     */
+    public static class Builder {
+
+        final int nodeSize;
+
+        double[] boxes;
+
+        int[] offsets;
+
+        int count;
+
+        Envelope bounds = new Envelope();
+
+        public Builder(int expectedItems) {
+            this(expectedItems, DEFAULT_NODE_SIZE);
+        }
+
+        public Builder(int expectedItems, int nodeSize) {
+            if (nodeSize < 2) {
+                throw new IllegalArgumentException("Node size must be at least 2");
+            }
+            this.nodeSize = nodeSize;
+            int capacity = Math.max(expectedItems, 16);
+            this.boxes = new double[capacity * 4];
+            this.offsets = new int[capacity];
+        }
+
+        /** Adds a record, with its bounds and the offset in the .shp file */
+        public void add(double minX, double minY, double maxX, double maxY, int offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                boxes = Arrays.copyOf(boxes, count * 8);
+            }
+            int b = count * 4;
+            boxes[b] = minX;
+            boxes[b + 1] = minY;
+            boxes[b + 2] = maxX;
+            boxes[b + 3] = maxY;
+            offsets[count++] = offset;
+            bounds.expandToInclude(minX, minY);
+            bounds.expandToInclude(maxX, maxY);
+        }
+
+        /** Sorts the records along the Hilbert curve, packs them and writes out the tree */
+        public void write(File file) throws IOException {
+            int[] levelBounds = computeLevelBounds(count, nodeSize);
+            int numNodes = levelBounds.length > 0 ? levelBounds[levelBounds.length - 1] : 0;
+            double[] nodeBoxes = new double[numNodes * 4];
+            int[] values = new int[numNodes];
+
+            // sort the leaves along the Hilbert curve, item positions ride in the low bits
+            long[] keys = new long[count];
+            double width = bounds.getWidth();
+            double height = bounds.getHeight();
+            for (int i = 0; i < count; i++) {
+                int b = i * 4;
+                int x = scale((boxes[b] + boxes[b + 2]) / 2, bounds.getMinX(), width);
+                int y = scale((boxes[b + 1] + boxes[b + 3]) / 2, bounds.getMinY(), height);
+                keys[i] = ((hilbert(x, y) & 0xFFFFFFFFL) << 31) | i;
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < count; i++) {
+                int item = (int) (keys[i] & Integer.MAX_VALUE);
+                System.arraycopy(boxes, item * 4, nodeBoxes, i * 4, 4);
+                values[i] = offsets[item];
+            }
+
+            // build the upper levels, each entry covering up to nodeSize contiguous children
+            int pos = 0;
+            int parent = count;
+            for (int level = 0; level < levelBounds.length - 1; level++) {
+                int end = levelBounds[level];
+                while (pos < end) {
+                    double minX = Double.POSITIVE_INFINITY;
+                    double minY = Double.POSITIVE_INFINITY;
+                    double maxX = Double.NEGATIVE_INFINITY;
+                    double maxY = Double.NEGATIVE_INFINITY;
+                    int first = pos;
+                    for (int i = 0; i < nodeSize && pos < end; i++, pos++) {
+                        int b = pos * 4;
+                        minX = Math.min(minX, nodeBoxes[b]);
+                        minY = Math.min(minY, nodeBoxes[b + 1]);
+                        maxX = Math.max(maxX, nodeBoxes[b + 2]);
+                        maxY = Math.max(maxY, nodeBoxes[b + 3]);
+                    }
+                    int b = parent * 4;
+                    nodeBoxes[b] = minX;
+                    nodeBoxes[b + 1] = minY;
+                    nodeBoxes[b + 2] = maxX;
+                    nodeBoxes[b + 3] = maxY;
+                    values[parent++] = first;
+                }
+            }
+
+            writeFile(file, numNodes, nodeBoxes, values);
+        }
+
+        private void writeFile(File file, int numNodes, double[] nodeBoxes, int[] values)
+                throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                    FileChannel channel = raf.getChannel()) {
+                raf.setLength(0);
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(MAGIC);
+                buffer.put(VERSION);
+                buffer.putInt(nodeSize);
+                buffer.putInt(count);
+                buffer.putInt(numNodes);
+                for (int i = 0; i < nodeBoxes.length; i++) {
+                    if (buffer.remaining() < 8) {
+                        flush(buffer, channel);
+                    }
+                    buffer.putDouble(nodeBoxes[i]);
+                }
+                for (int i = 0; i < values.length; i++) {
+                    if (buffer.remaining() < 4) {
+                        flush(buffer, channel);
+                    }
+                    buffer.putInt(values[i]);
+                }
+                flush(buffer, channel);
+            }
+        }
+
+        private void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static int scale(double value, double min, double span) {
+            if (span <= 0 || Double.isNaN(value)) {
+                return 0;
+            }
+            return (int) Math.max(0, Math.min(HILBERT_MAX, HILBERT_MAX * (value - min) / span));
+        }
+    }
+
+    /**
+     * Computes the position of a point along the Hilbert curve filling a 2^16 x 2^16 grid, as an
+     * unsigned int. Port of the public domain, non recursive algorithm by rawrunprotocol.
+     */
+    static int hilbert(int x, int y) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int A = a | (b >>> 1);
+        int B = (a >>> 1) ^ a;
+        int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+        int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = (a & (a >>> 2)) ^ (b & (b >>> 2));
+        B = (a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2));
+        C ^= (a & (c >>> 2)) ^ (b & (d >>> 2));
+        D ^= (b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2));
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = (a & (a >>> 4)) ^ (b & (b >>> 4));
+        B = (a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4));
+        C ^= (a & (c >>> 4)) ^ (b & (d >>> 4));
+        D ^= (b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4));
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        C ^= (a & (c >>> 8)) ^ (b & (d >>> 8));
+        D ^= (b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8));
+
+        a = C ^ (C >>> 1);
+        b = D ^ (D >>> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+
+        i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+        i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+        i0 = (i0 | (i0 << 2)) & 0x33333333;
+        i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+        i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+        i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+        i1 = (i1 | (i1 << 2)) & 0x33333333;
+        i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+        return (i1 << 1) | i0;
+    }
+}
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -100,6 +101,32 @@ public class DbaseFileTest extends TestCaseSupport {
         dbf2.close();
     }
 
+    @Test
+    public void testFieldsToRead() throws Exception {
+        Object[] attrs = new Object[dbf.getHeader().getNumFields()];
+        DbaseFileReader dbf2 =
+                new DbaseFileReader(shpFiles, false, ShapefileDataStore.DEFAULT_STRING_CHARSET);
+        int[] fields = {0, 4, 5, 200};
+        dbf2.setFieldsToRead(fields);
+        try {
+            while (dbf.hasNext()) {
+                dbf.readEntry(attrs);
+                DbaseFileReader.Row r = dbf2.readRow();
+                for (int i : fields) {
+                    assertEquals(attrs[i], r.read(i));
+                }
+                try {
+                    r.read(1);
+                    fail("Field 1 should not be readable");
+                } catch (IllegalArgumentException e) {
+                    // fine
+                }
+            }
+        } finally {
+            dbf2.close();
+        }
+    }
+
     @Test
     public void testHeader() throws Exception {
         DbaseFileHeader header = new DbaseFileHeader();
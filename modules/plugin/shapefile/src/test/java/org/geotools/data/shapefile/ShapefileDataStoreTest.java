@@ -61,6 +61,7 @@ import org.geotools.data.FeatureWriter;
 import org.geotools.data.Query;
 import org.geotools.data.Transaction;
 import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.shapefile.files.MemoryMapCache;
 import org.geotools.data.shapefile.files.ShpFileType;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
@@ -185,6 +186,37 @@ public class ShapefileDataStoreTest extends TestCaseSupport {
         loadFeatures(STATE_POP, Query.ALL);
     }
 
+    @Test
+    public void testFilterDecodesAllAttributes() throws Exception {
+        // the filter attributes are decoded first, the others only for matching features
+        Filter filter = ff.greater(ff.property("PERSONS"), ff.literal(3000000));
+        SimpleFeatureCollection all = loadFeatures(STATE_POP, Query.ALL);
+        List<SimpleFeature> expected = new ArrayList<>();
+        try (SimpleFeatureIterator it = all.features()) {
+            while (it.hasNext()) {
+                SimpleFeature f = it.next();
+                if (filter.evaluate(f)) {
+                    expected.add(f);
+                }
+            }
+        }
+        store.dispose();
+        SimpleFeatureCollection filtered =
+                loadFeatures(STATE_POP, new Query(Query.ALL.getTypeName(), filter));
+        List<SimpleFeature> actual = new ArrayList<>();
+        try (SimpleFeatureIterator it = filtered.features()) {
+            while (it.hasNext()) {
+                actual.add(it.next());
+            }
+        }
+        assertTrue(expected.size() > 0);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getID(), actual.get(i).getID());
+            assertEquals(expected.get(i).getAttributes(), actual.get(i).getAttributes());
+        }
+    }
+
     @Test
     public void testNullReproject() throws Exception {
         // try to reproject to the target CRS, used to fail due to a missing check in
@@ -449,6 +481,92 @@ public class ShapefileDataStoreTest extends TestCaseSupport {
         ds2.dispose();
     }
 
+    @Test
+    public void testCreateAndReadHRX() throws Exception {
+        File shpFile = copyShapefiles(STATE_POP);
+        URL url = shpFile.toURI().toURL();
+        File hrx = sibling(shpFile, "hrx");
+        File qix = sibling(shpFile, "qix");
+        qix.delete();
+
+        ShapefileDataStore ds = new ShapefileDataStore(url);
+        ds.setSpatialIndexType(ShpFileType.HRX);
+        ShapefileDataStore ds2 = new ShapefileDataStore(url);
+        ds2.setIndexed(false);
+        try {
+            ReferencedEnvelope bounds = ds.getFeatureSource().getBounds();
+            ReferencedEnvelope quarter =
+                    new ReferencedEnvelope(
+                            bounds.getMinX(),
+                            bounds.getMedian(0),
+                            bounds.getMinY(),
+                            bounds.getMedian(1),
+                            bounds.getCoordinateReferenceSystem());
+            assertFalse(performQueryComparison(ds, ds2, quarter).isEmpty());
+            assertTrue(hrx.exists());
+            assertFalse(qix.exists());
+            assertNotNull(ds.indexManager.packedTree);
+
+            // a bbox outside of the data returns nothing
+            ReferencedEnvelope outside =
+                    new ReferencedEnvelope(
+                            bounds.getMaxX() + 1,
+                            bounds.getMaxX() + 2,
+                            bounds.getMaxY() + 1,
+                            bounds.getMaxY() + 2,
+                            bounds.getCoordinateReferenceSystem());
+            assertTrue(performQueryComparison(ds, ds2, outside).isEmpty());
+        } finally {
+            ds.dispose();
+            ds2.dispose();
+        }
+
+        // a store configured for quadtrees still picks up the packed R-tree
+        ds = new ShapefileDataStore(url);
+        try {
+            assertEquals(ShpFileType.QIX, ds.getSpatialIndexType());
+            performSpatialQuery(ds);
+            assertNotNull(ds.indexManager.packedTree);
+            assertFalse(qix.exists());
+        } finally {
+            ds.dispose();
+        }
+    }
+
+    @Test
+    public void testHRXMemoryMapCache() throws Exception {
+        File shpFile = copyShapefiles(STATE_POP);
+        URL url = shpFile.toURI().toURL();
+        MemoryMapCache cache = MemoryMapCache.getInstance();
+
+        // the tree is mapped through the memory map cache, shared by the two stores
+        long hits = cache.getHits();
+        ShapefileDataStore ds1 = createHRXStore(url);
+        ShapefileDataStore ds2 = createHRXStore(url);
+        try {
+            try {
+                performSpatialQuery(ds1);
+                performSpatialQuery(ds2);
+                assertNotNull(ds1.indexManager.packedTree);
+                assertTrue(cache.getHits() > hits);
+            } finally {
+                ds1.dispose();
+            }
+            // disposing the first store does not unmap the tree the second one is using
+            performSpatialQuery(ds2);
+        } finally {
+            ds2.dispose();
+        }
+    }
+
+    private ShapefileDataStore createHRXStore(URL url) {
+        ShapefileDataStore ds = new ShapefileDataStore(url);
+        ds.setSpatialIndexType(ShpFileType.HRX);
+        ds.setMemoryMapped(false);
+        ds.setBufferCachingEnabled(true);
+        return ds;
+    }
+
     @Test
     public void testRemove() throws Exception {
         File shpFile = copyShapefiles(STATE_POP);
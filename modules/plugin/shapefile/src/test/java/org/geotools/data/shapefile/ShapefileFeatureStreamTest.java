@@ -0,0 +1,195 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.visitor.BoundsVisitor;
+import org.geotools.feature.visitor.FeatureCalc;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MergeableVisitor;
+import org.geotools.feature.visitor.ParallelVisitorExecutor;
+import org.geotools.feature.visitor.SumVisitor;
+import org.geotools.feature.visitor.UniqueVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.After;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortOrder;
+
+public class ShapefileFeatureStreamTest extends TestCaseSupport {
+
+    ShapefileDataStore store;
+
+    @After
+    public void disposeStore() {
+        if (store != null) {
+            store.dispose();
+        }
+    }
+
+    private ShapefileDataStore openStore(String name, boolean memoryMapped) throws Exception {
+        File shp = copyShapefiles(name);
+        store = new ShapefileDataStore(shp.toURI().toURL());
+        store.setMemoryMapped(memoryMapped);
+        return store;
+    }
+
+    private List<SimpleFeature> readSequential(Query query) throws Exception {
+        List<SimpleFeature> result = new ArrayList<>();
+        try (SimpleFeatureIterator it = store.getFeatureSource().getFeatures(query).features()) {
+            while (it.hasNext()) {
+                result.add(it.next());
+            }
+        }
+        return result;
+    }
+
+    private List<SimpleFeature> readParallel(Query query, int partitions) throws Exception {
+        try (Stream<SimpleFeature> stream = store.getFeatureStream(query, partitions)) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    private void assertSameFeatures(List<SimpleFeature> expected, List<SimpleFeature> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SimpleFeature e = expected.get(i);
+            SimpleFeature a = actual.get(i);
+            assertEquals(e.getID(), a.getID());
+            assertEquals(e.getAttributes(), a.getAttributes());
+        }
+    }
+
+    @Test
+    public void testFullScan() throws Exception {
+        openStore(STATE_POP, false);
+        List<SimpleFeature> expected = readSequential(Query.ALL);
+        for (int partitions : new int[] {1, 2, 3, 7, 100}) {
+            assertSameFeatures(expected, readParallel(Query.ALL, partitions));
+        }
+    }
+
+    @Test
+    public void testFullScanMemoryMapped() throws Exception {
+        openStore("shapes/roads.shp", true);
+        List<SimpleFeature> expected = readSequential(Query.ALL);
+        assertSameFeatures(expected, readParallel(Query.ALL, 4));
+    }
+
+    @Test
+    public void testFilterAndProperties() throws Exception {
+        openStore(STATE_POP, false);
+        Query query =
+                new Query(
+                        store.getTypeName().getLocalPart(),
+                        ff.greater(ff.property("PERSONS"), ff.literal(3000000)),
+                        new String[] {"STATE_NAME"});
+        List<SimpleFeature> expected = readSequential(query);
+        assertTrue(expected.size() > 0);
+        List<SimpleFeature> actual = readParallel(query, 4);
+        assertSameFeatures(expected, actual);
+        assertEquals(1, actual.get(0).getAttributeCount());
+    }
+
+    @Test
+    public void testBBOX() throws Exception {
+        openStore(STATE_POP, false);
+        ReferencedEnvelope bounds = store.getFeatureSource().getBounds();
+        Filter filter =
+                ff.bbox(
+                        ff.property(""),
+                        bounds.getMinX(),
+                        bounds.getMinY(),
+                        bounds.getMedian(0),
+                        bounds.getMedian(1),
+                        null);
+        Query query = new Query(store.getTypeName().getLocalPart(), filter);
+        List<SimpleFeature> expected = readSequential(query);
+        assertTrue(expected.size() > 0);
+        assertSameFeatures(expected, readParallel(query, 3));
+    }
+
+    @Test
+    public void testSortedFallsBackToSequential() throws Exception {
+        openStore(STATE_POP, false);
+        Query query = new Query(store.getTypeName().getLocalPart());
+        query.setSortBy(
+                new org.opengis.filter.sort.SortBy[] {ff.sort("STATE_NAME", SortOrder.DESCENDING)});
+        query.setMaxFeatures(10);
+        List<SimpleFeature> expected = readSequential(query);
+        assertEquals(10, expected.size());
+        assertSameFeatures(expected, readParallel(query, 4));
+    }
+
+    @Test
+    public void testReadersReleased() throws Exception {
+        openStore(STATE_POP, false);
+        try (Stream<SimpleFeature> stream = store.getFeatureStream(Query.ALL, 4)) {
+            // short circuit, the partitions not fully consumed still have buffered records,
+            // but their readers have already been closed after reading each batch
+            assertTrue(stream.anyMatch(f -> f.getDefaultGeometry() != null));
+        }
+        assertEquals(0, store.shpFiles.numberOfLocks());
+        // the store is still usable
+        assertEquals(
+                DataUtilities.collection(store.getFeatureSource().getFeatures()).size(),
+                readParallel(Query.ALL, 2).size());
+    }
+
+    @Test
+    public void testParallelVisitors() throws Exception {
+        openStore(STATE_POP, false);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ParallelVisitorExecutor executor = new ParallelVisitorExecutor(pool, 7);
+            Query query =
+                    new Query(
+                            store.getTypeName().getLocalPart(),
+                            ff.greater(ff.property("PERSONS"), ff.literal(1000000)));
+            SimpleFeatureCollection features = store.getFeatureSource().getFeatures(query);
+            for (FeatureCalc sequential :
+                    new FeatureCalc[] {
+                        new SumVisitor(ff.property("PERSONS")),
+                        new MaxVisitor("MALE"),
+                        new UniqueVisitor("SUB_REGION"),
+                        new BoundsVisitor()
+                    }) {
+                FeatureCalc parallel =
+                        (FeatureCalc) ((MergeableVisitor) sequential).createPartial();
+                features.accepts(sequential, null);
+                executor.accepts(features, parallel, null);
+                assertEquals(sequential.getResult().getValue(), parallel.getResult().getValue());
+            }
+            assertEquals(0, store.shpFiles.numberOfLocks());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -99,6 +99,8 @@ public class TestCaseSupport {
             dieDieDIE(sibling(targetFile, "shx"));
             // Quad tree index
             dieDieDIE(sibling(targetFile, "qix"));
+            // Packed R-tree index
+            dieDieDIE(sibling(targetFile, "hrx"));
             // Feature ID index
             dieDieDIE(sibling(targetFile, "fix"));
             // R-Tree index
@@ -0,0 +1,227 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MemoryMapCacheTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile(String name, int size) throws IOException {
+        File file = folder.newFile(name);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+        }
+        return file;
+    }
+
+    private MappedByteBuffer map(MemoryMapCache cache, File file) throws IOException {
+        URL url = file.toURI().toURL();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return cache.map(channel, url, MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        MemoryMapCache cache = new MemoryMapCache(1024 * 1024, 10);
+        File file = createFile("a.shp", 1000);
+
+        MappedByteBuffer b1 = map(cache, file);
+        MappedByteBuffer b2 = map(cache, file);
+        // each caller gets its own copy, with its own position
+        assertNotSame(b1, b2);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMappingCount());
+        assertEquals(1000, cache.getMappedBytes());
+    }
+
+    @Test
+    public void testConcurrentMapping() throws Exception {
+        MemoryMapCache cache = new MemoryMapCache(1024 * 1024, 10);
+        File file = createFile("a.shp", 1000);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<MappedByteBuffer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    return map(cache, file);
+                                }));
+            }
+            start.countDown();
+            for (Future<MappedByteBuffer> future : futures) {
+                assertEquals(1000, future.get().capacity());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // a single mapping got created and cached, everybody else shared it
+        assertEquals(1, cache.getMisses());
+        assertEquals(threads - 1, cache.getHits());
+        assertEquals(1, cache.getMappingCount());
+        assertEquals(1000, cache.getMappedBytes());
+    }
+
+    @Test
+    public void testEvictionBySize() throws Exception {
+        MemoryMapCache cache = new MemoryMapCache(2500, 10);
+        File a = createFile("a.shp", 1000);
+        File b = createFile("b.shp", 1000);
+        File c = createFile("c.shp", 1000);
+
+        map(cache, a);
+        map(cache, b);
+        // touch a, so that b becomes the least recently used
+        map(cache, a);
+        map(cache, c);
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getMappingCount());
+        assertEquals(2000, cache.getMappedBytes());
+
+        // a is still there, b has been evicted
+        long misses = cache.getMisses();
+        map(cache, a);
+        assertEquals(misses, cache.getMisses());
+        map(cache, b);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictionByCount() throws Exception {
+        MemoryMapCache cache = new MemoryMapCache(1024 * 1024, 2);
+        for (int i = 0; i < 5; i++) {
+            map(cache, createFile("f" + i + ".shp", 100));
+        }
+        assertEquals(2, cache.getMappingCount());
+        assertEquals(3, cache.getEvictions());
+        assertEquals(200, cache.getMappedBytes());
+
+        // shrinking the limits evicts right away
+        cache.setMaxMappings(1);
+        assertEquals(1, cache.getMappingCount());
+        assertEquals(100, cache.getMappedBytes());
+    }
+
+    @Test
+    public void testTooLargeNotCached() throws Exception {
+        MemoryMapCache cache = new MemoryMapCache(500, 10);
+        File file = createFile("a.shp", 1000);
+        map(cache, file);
+        map(cache, file);
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getMappingCount());
+        assertEquals(0, cache.getMappedBytes());
+    }
+
+    @Test
+    public void testReleaseFile() throws Exception {
+        MemoryMapCache cache = new MemoryMapCache(1024 * 1024, 10);
+        File a = createFile("a.shp", 1000);
+        File b = createFile("b.shp", 500);
+        MappedByteBuffer buffer = map(cache, a);
+        map(cache, b);
+
+        cache.releaseFileCache(a.toURI().toURL());
+        assertEquals(1, cache.getMappingCount());
+        assertEquals(500, cache.getMappedBytes());
+        // the released buffer is still usable by whoever holds it
+        assertEquals(0, buffer.get(999));
+
+        cache.releaseFileCache(b.toURI().toURL());
+        assertEquals(0, cache.getMappingCount());
+        assertEquals(0, cache.getMappedBytes());
+    }
+
+    @Test
+    public void testSharedAcrossShpFiles() throws Exception {
+        File shp = createFile("shared.shp", 1000);
+        ShpFiles files1 = new ShpFiles(shp);
+        ShpFiles files2 = new ShpFiles(shp);
+        files1.setMemoryMapCacheEnabled(true);
+        files2.setMemoryMapCacheEnabled(true);
+        MemoryMapCache cache = MemoryMapCache.getInstance();
+        URL url = shp.toURI().toURL();
+
+        long hits = cache.getHits();
+        try (FileChannel channel = FileChannel.open(shp.toPath(), StandardOpenOption.READ)) {
+            files1.map(channel, url, MapMode.READ_ONLY, 0, 1000);
+            files2.map(channel, url, MapMode.READ_ONLY, 0, 1000);
+        }
+        assertEquals(hits + 1, cache.getHits());
+
+        // disposing one of them drops the mappings of its files
+        long misses = cache.getMisses();
+        files1.dispose();
+        try (FileChannel channel = FileChannel.open(shp.toPath(), StandardOpenOption.READ)) {
+            files2.map(channel, url, MapMode.READ_ONLY, 0, 1000);
+        }
+        assertEquals(misses + 1, cache.getMisses());
+        files2.dispose();
+    }
+
+    @Test
+    public void testWriteDoesNotUnmapOtherReaders() throws Exception {
+        File shp = createFile("written.shp", 1000);
+        ShpFiles reading = new ShpFiles(shp);
+        ShpFiles writing = new ShpFiles(shp);
+        reading.setMemoryMapCacheEnabled(true);
+        writing.setMemoryMapCacheEnabled(true);
+        URL url = shp.toURI().toURL();
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(shp.toPath(), StandardOpenOption.READ)) {
+            buffer = reading.map(channel, url, MapMode.READ_ONLY, 0, 1000);
+        }
+        // the two stores have separate locks, the writer must not unmap the reader buffer
+        FileWriter writer = () -> "writer";
+        writing.acquireWrite(ShpFileType.SHP, writer);
+        try {
+            assertEquals(0, buffer.get(999));
+        } finally {
+            writing.unlockWrite(url, writer);
+        }
+        reading.dispose();
+        writing.dispose();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2019, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import org.geotools.data.CloseableIterator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.locationtech.jts.geom.Envelope;
+
+public class PackedRTreeTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSearchAgainstBruteForce() throws Exception {
+        Random random = new Random(42);
+        int count = 5000;
+        Envelope[] boxes = new Envelope[count];
+        PackedRTree.Builder builder = new PackedRTree.Builder(count / 2, 8);
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 180 - 90;
+            boxes[i] = new Envelope(x, x + random.nextDouble(), y, y + random.nextDouble());
+            builder.add(
+                    boxes[i].getMinX(),
+                    boxes[i].getMinY(),
+                    boxes[i].getMaxX(),
+                    boxes[i].getMaxY(),
+                    i * 10);
+        }
+        File file = folder.newFile("test.hrx");
+        builder.write(file);
+
+        PackedRTree tree = PackedRTree.open(file);
+        assertEquals(count, tree.getNumItems());
+        Envelope total = new Envelope();
+        for (Envelope box : boxes) {
+            total.expandToInclude(box);
+        }
+        assertEquals(total, tree.getBounds());
+
+        for (int q = 0; q < 100; q++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 180 - 90;
+            Envelope query =
+                    new Envelope(x, x + random.nextDouble() * 40, y, y + random.nextDouble() * 20);
+            int[] expected =
+                    Arrays.stream(boxes)
+                            .filter(b -> b.intersects(query))
+                            .mapToInt(b -> Arrays.asList(boxes).indexOf(b) * 10)
+                            .sorted()
+                            .toArray();
+            assertArrayEquals(expected, tree.searchOffsets(query));
+        }
+    }
+
+    @Test
+    public void testSearchIterator() throws Exception {
+        PackedRTree.Builder builder = new PackedRTree.Builder(3);
+        builder.add(0, 0, 1, 1, 300);
+        builder.add(10, 10, 11, 11, 100);
+        builder.add(0.5, 0.5, 2, 2, 200);
+        File file = folder.newFile("small.hrx");
+        builder.write(file);
+
+        PackedRTree tree = PackedRTree.open(file);
+        try (CloseableIterator<Data> it = tree.search(new Envelope(0, 1, 0, 1))) {
+            assertTrue(it.hasNext());
+            assertEquals(200L, it.next().getValue(1));
+            assertTrue(it.hasNext());
+            assertEquals(300L, it.next().getValue(1));
+            assertFalse(it.hasNext());
+        }
+        assertEquals(0, tree.searchOffsets(new Envelope(5, 6, 5, 6)).length);
+    }
+
+    @Test
+    public void testEmptyAndSingle() throws Exception {
+        File empty = folder.newFile("empty.hrx");
+        new PackedRTree.Builder(0).write(empty);
+        PackedRTree tree = PackedRTree.open(empty);
+        assertEquals(0, tree.getNumItems());
+        assertTrue(tree.getBounds().isNull());
+        assertEquals(0, tree.searchOffsets(new Envelope(0, 1, 0, 1)).length);
+
+        File single = folder.newFile("single.hrx");
+        PackedRTree.Builder builder = new PackedRTree.Builder(1);
+        builder.add(5, 5, 5, 5, 100);
+        builder.write(single);
+        tree = PackedRTree.open(single);
+        assertArrayEquals(new int[] {100}, tree.searchOffsets(new Envelope(0, 10, 0, 10)));
+    }
+
+    @Test
+    public void testCorrupted() throws Exception {
+        File file = folder.newFile("corrupted.hrx");
+        PackedRTree.Builder builder = new PackedRTree.Builder(100);
+        for (int i = 0; i < 100; i++) {
+            builder.add(i, i, i + 1, i + 1, i);
+        }
+        builder.write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        try {
+            PackedRTree.open(file);
+            fail("Should have failed on a truncated file");
+        } catch (IOException e) {
+            // fine
+        }
+    }
+}
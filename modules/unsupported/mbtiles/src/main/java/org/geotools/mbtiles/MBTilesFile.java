@@ -21,6 +21,8 @@ package org.geotools.mbtiles;
 import static java.lang.String.format;
 import static org.geotools.jdbc.util.SqlUtil.prepare;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -34,6 +36,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.geotools.data.jdbc.datasource.ManageableDataSource;
@@ -136,6 +140,8 @@ public class MBTilesFile implements AutoCloseable {
 
     protected final String MD_MAXZOOM = "maxzoom";
 
+    protected final String MD_JSON = "json";
+
     /** Logger */
     protected static final Logger LOGGER = Logging.getLogger(MBTilesFile.class);
 
@@ -238,6 +244,7 @@ public class MBTilesFile implements AutoCloseable {
                 saveMetaDataEntry(MD_BOUNDS, metaData.getBoundsStr(), cx);
                 saveMetaDataEntry(MD_MINZOOM, String.valueOf(metaData.getMinZoom()), cx);
                 saveMetaDataEntry(MD_MAXZOOM, String.valueOf(metaData.getMaxZoom()), cx);
+                saveMetaDataEntry(MD_JSON, metaData.getJson(), cx);
             } finally {
                 cx.close();
             }
@@ -324,6 +331,54 @@ public class MBTilesFile implements AutoCloseable {
         }
     }
 
+    /**
+     * Stores a vector tile, compressing it with gzip as mandated by the specification. The metadata
+     * format should be set to {@link MBTilesMetadata.t_format#PBF}.
+     *
+     * @param zoomLevel The zoom level
+     * @param column The tile column
+     * @param row The tile row, in TMS order, with the first row at the bottom
+     * @param tile The encoded, uncompressed, vector tile
+     * @throws IOException
+     */
+    public void saveVectorTile(long zoomLevel, long column, long row, byte[] tile)
+            throws IOException {
+        MBTilesTile entry = new MBTilesTile(zoomLevel, column, row);
+        if (tile != null) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+                gzip.write(tile);
+            }
+            entry.setData(bos.toByteArray());
+        }
+        saveTile(entry);
+    }
+
+    /**
+     * Loads a vector tile, uncompressing it if necessary
+     *
+     * @return The encoded vector tile, or null if not found
+     * @throws IOException
+     */
+    public byte[] loadVectorTile(long zoomLevel, long column, long row) throws IOException {
+        byte[] data = loadTile(zoomLevel, column, row).getData();
+        if (data == null
+                || data.length < 2
+                || (data[0] & 0xFF) != 0x1f
+                || (data[1] & 0xFF) != 0x8b) {
+            return data;
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = gzip.read(buffer)) > 0) {
+                bos.write(buffer, 0, read);
+            }
+            return bos.toByteArray();
+        }
+    }
+
     /**
      * Store a grid
      *
@@ -421,6 +476,7 @@ public class MBTilesFile implements AutoCloseable {
                 metaData.setBoundsStr(loadMetaDataEntry(MD_BOUNDS, cx));
                 metaData.setMinZoomStr(loadMetaDataEntry(MD_MINZOOM, cx));
                 metaData.setMaxZoomStr(loadMetaDataEntry(MD_MAXZOOM, cx));
+                metaData.setJson(loadMetaDataEntry(MD_JSON, cx));
             } finally {
                 cx.close();
             }
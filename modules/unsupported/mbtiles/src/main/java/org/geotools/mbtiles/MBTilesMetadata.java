@@ -85,6 +85,9 @@ public class MBTilesMetadata {
 
     protected int maxZoom;
 
+    /** The vector layers description, required for vector tiles */
+    protected String json;
+
     public String getName() {
         return name;
     }
@@ -157,6 +160,18 @@ public class MBTilesMetadata {
         this.maxZoom = maxZoom;
     }
 
+    /**
+     * The JSON object describing the layers of vector tiles, see the <code>json</code> metadata
+     * entry in the MBTiles specification
+     */
+    public String getJson() {
+        return json;
+    }
+
+    public void setJson(String json) {
+        this.json = json;
+    }
+
     public String getTypeStr() {
         if (type == null) {
             return null;
@@ -2,8 +2,10 @@ package org.geotools.mbtiles;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.InputStream;
@@ -62,4 +64,40 @@ public class MBTilesFileVectorTileTest {
             assertThat(tile.getData(), equalTo(expected));
         }
     }
+
+    @Test
+    public void testSaveVectorTile() throws Exception {
+        byte[] expected;
+        try (InputStream is =
+                MBTilesFileVectorTileTest.class.getResourceAsStream("tile_data.pbf")) {
+            expected = IOUtils.toByteArray(is);
+        }
+        try (MBTilesFile file = new MBTilesFile()) {
+            file.init();
+            MBTilesMetadata metadata = new MBTilesMetadata();
+            metadata.setFormat(t_format.PBF);
+            metadata.setJson("{\"vector_layers\":[{\"id\":\"water\",\"fields\":{}}]}");
+            file.saveMetaData(metadata);
+            file.saveVectorTile(0, 0, 0, expected);
+
+            assertEquals(metadata.getJson(), file.loadMetaData().getJson());
+            // stored compressed, as mandated by the specification
+            byte[] stored = file.loadTile(0, 0, 0).getData();
+            assertTrue(stored.length < expected.length);
+            assertThat(file.loadVectorTile(0, 0, 0), equalTo(expected));
+            assertThat(file.loadVectorTile(0, 1, 1), nullValue());
+        }
+    }
+
+    @Test
+    public void testLoadVectorTileCompressed() throws Exception {
+        byte[] expected;
+        try (InputStream is =
+                MBTilesFileVectorTileTest.class.getResourceAsStream("tile_data.pbf")) {
+            expected = IOUtils.toByteArray(is);
+        }
+        try (MBTilesFile file = new MBTilesFile(dbfile)) {
+            assertThat(file.loadVectorTile(0, 0, 0), equalTo(expected));
+        }
+    }
 }